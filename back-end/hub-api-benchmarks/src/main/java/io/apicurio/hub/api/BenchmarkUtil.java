@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Utilities used to wire up hub-api components outside of a CDI container so that
+ * they can be benchmarked.
+ * @author eric.wittmann@gmail.com
+ */
+public class BenchmarkUtil {
+
+    /**
+     * Sets the value of a private (typically @Inject) field on a target object.
+     * @param target
+     * @param fieldName
+     * @param fieldValue
+     */
+    public static void setPrivateField(Object target, String fieldName, Object fieldValue) {
+        try {
+            Class<?> targetClass = target.getClass();
+            while (targetClass != Object.class) {
+                try {
+                    Field field = targetClass.getDeclaredField(fieldName);
+                    field.setAccessible(true);
+                    field.set(target, fieldValue);
+                    return;
+                } catch (NoSuchFieldException e) {
+                    targetClass = targetClass.getSuperclass();
+                }
+            }
+            throw new NoSuchFieldException(fieldName);
+        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns a private method of the given class, made accessible so that it can be
+     * invoked directly by a benchmark.
+     * @param targetClass
+     * @param methodName
+     * @param parameterTypes
+     */
+    public static Method getPrivateMethod(Class<?> targetClass, String methodName, Class<?>... parameterTypes) {
+        try {
+            Method method = targetClass.getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Generates an OpenAPI 3.0.0 document with the given number of schema definitions.
+     * Each definition has a handful of properties, so the document grows to roughly
+     * 250 bytes per definition.
+     * @param numDefinitions
+     */
+    public static String generateOaiDocument(int numDefinitions) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"openapi\":\"3.0.0\",\"info\":{\"title\":\"Benchmark API\",\"description\":\"An API used for benchmarking.\",\"version\":\"1.0.0\"},");
+        builder.append("\"tags\":[{\"name\":\"benchmark\"},{\"name\":\"generated\"}],");
+        builder.append("\"paths\":{},\"components\":{\"schemas\":{");
+        for (int i = 0; i < numDefinitions; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("\"Schema").append(i).append("\":{\"type\":\"object\",\"required\":[\"name\"],\"properties\":{");
+            builder.append("\"name\":{\"type\":\"string\"},\"description\":{\"type\":\"string\"},");
+            builder.append("\"age\":{\"type\":\"integer\",\"format\":\"int32\",\"minimum\":0},");
+            builder.append("\"parent\":{\"$ref\":\"#/components/schemas/Schema0\"}}}");
+        }
+        builder.append("}}}");
+        return builder.toString();
+    }
+
+}
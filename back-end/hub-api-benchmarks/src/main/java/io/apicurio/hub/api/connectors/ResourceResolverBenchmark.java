@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.apicurio.hub.api.bitbucket.BitbucketResource;
+import io.apicurio.hub.api.bitbucket.BitbucketResourceResolver;
+import io.apicurio.hub.api.github.GitHubResource;
+import io.apicurio.hub.api.github.GitHubResourceResolver;
+import io.apicurio.hub.api.gitlab.GitLabResource;
+import io.apicurio.hub.api.gitlab.GitLabResourceResolver;
+
+/**
+ * Benchmarks the regular expressions used by each source connector to resolve a
+ * repository URL into its component parts.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceResolverBenchmark {
+
+    public String gitHubUrl = "https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json";
+    public String gitHubRawUrl = "https://raw.githubusercontent.com/Apicurio/api-samples/master/pet-store/pet-store.json";
+    public String gitLabUrl = "https://gitlab.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json";
+    public String bitbucketUrl = "https://bitbucket.org/Apicurio/api-samples/src/master/pet-store/pet-store.json";
+    public String bitbucketAtUrl = "https://bitbucket.org/Apicurio/api-samples/src/1b2c3d4e5f6a/pet-store/pet-store.json?at=master&fileviewer=file-view-default";
+    public String bitbucketRawUrl = "https://bitbucket.org/Apicurio/api-samples/raw/master/pet-store/pet-store.json";
+
+    @Benchmark
+    public GitHubResource gitHub() {
+        return GitHubResourceResolver.resolve(gitHubUrl);
+    }
+
+    @Benchmark
+    public GitHubResource gitHubRaw() {
+        return GitHubResourceResolver.resolve(gitHubRawUrl);
+    }
+
+    @Benchmark
+    public GitLabResource gitLab() {
+        return GitLabResourceResolver.resolve(gitLabUrl);
+    }
+
+    @Benchmark
+    public BitbucketResource bitbucket() {
+        return BitbucketResourceResolver.resolve(bitbucketUrl);
+    }
+
+    @Benchmark
+    public BitbucketResource bitbucketAt() {
+        return BitbucketResourceResolver.resolve(bitbucketAtUrl);
+    }
+
+    @Benchmark
+    public BitbucketResource bitbucketRaw() {
+        return BitbucketResourceResolver.resolve(bitbucketRawUrl);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.js;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.apicurio.hub.api.BenchmarkUtil;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+
+/**
+ * Benchmarks {@link OaiCommandExecutor#executeCommands(String, List)} for a range of
+ * document sizes and command counts.  The "warm" benchmark reuses a pool of already
+ * initialized script engines, while the "cold" benchmark measures a single call
+ * against a brand new pool (including compiling and loading the OAI libraries).
+ * Both are run for each of the script engines given by the "engine" parameter
+ * (see the graaljs profile).
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OaiCommandExecutorBenchmark {
+
+    @Param({ "nashorn" })
+    public String engine;
+
+    @Param({ "10", "500", "5000" })
+    public int numDefinitions;
+
+    @Param({ "1", "10", "100" })
+    public int numCommands;
+
+    private String document;
+    private List<String> commands;
+    private OaiCommandExecutor warmExecutor;
+
+    @Setup
+    public void setup() {
+        System.setProperty("apicurio.hub.script.engine", engine);
+        document = BenchmarkUtil.generateOaiDocument(numDefinitions);
+        commands = new ArrayList<>(numCommands);
+        for (int i = 0; i < numCommands; i++) {
+            if (i % 2 == 0) {
+                commands.add("{\"__type\":\"ChangeTitleCommand_30\",\"_newTitle\":\"Benchmark API " + i + "\"}");
+            } else {
+                commands.add("{\"__type\":\"ChangeVersionCommand_30\",\"_newVersion\":\"1.0." + i + "\"}");
+            }
+        }
+        warmExecutor = createExecutor();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 5)
+    public String warmEngine() throws OaiCommandException {
+        return warmExecutor.executeCommands(document, commands);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 5)
+    public String coldEngine() throws OaiCommandException {
+        return createExecutor().executeCommands(document, commands);
+    }
+
+    /**
+     * Creates an executor backed by a new script engine pool.
+     */
+    private static OaiCommandExecutor createExecutor() {
+        ScriptEnginePool pool = new ScriptEnginePool();
+        BenchmarkUtil.setPrivateField(pool, "config", new HubApiConfiguration());
+        pool.postConstruct();
+        OaiCommandExecutor executor = new OaiCommandExecutor();
+        BenchmarkUtil.setPrivateField(executor, "enginePool", pool);
+        return executor;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.rest.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.apicurio.hub.api.BenchmarkUtil;
+import io.apicurio.hub.api.beans.ApiDesign;
+
+/**
+ * Benchmarks the Jackson parsing performed by {@link DesignsResource} to extract the
+ * name, description and tags of an API Design whenever its content is updated.  The
+ * (private) method is invoked reflectively; the reflection overhead is negligible
+ * compared to the parsing.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DesignsResourceBenchmark {
+
+    @Param({ "10", "500", "5000" })
+    public int numDefinitions;
+
+    private DesignsResource resource;
+    private Method updateDesignMetaData;
+    private String content;
+
+    @Setup
+    public void setup() {
+        resource = new DesignsResource();
+        updateDesignMetaData = BenchmarkUtil.getPrivateMethod(DesignsResource.class, "updateDesignMetaData",
+                ApiDesign.class, String.class);
+        content = BenchmarkUtil.generateOaiDocument(numDefinitions);
+    }
+
+    @Benchmark
+    public ApiDesign updateDesignMetaData() throws Exception {
+        ApiDesign design = new ApiDesign();
+        try {
+            updateDesignMetaData.invoke(resource, design, content);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        return design;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage.jdbc;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.apicurio.hub.api.BenchmarkUtil;
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.PrometheusMetrics;
+import io.apicurio.hub.api.exceptions.AlreadyExistsException;
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+import io.apicurio.hub.api.storage.StorageException;
+
+/**
+ * Benchmarks {@link JdbcStorage#listApiDesigns(String)} (and the tag filtered variant
+ * of {@link JdbcStorage#listApiDesigns(String, ApiDesignQuery)}) against an in-memory
+ * H2 database populated with a large number of API Designs for a single user.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JdbcStorageBenchmark {
+
+    private static final String USER = "benchmark-user";
+
+    @Param({ "10000", "100000" })
+    public int numDesigns;
+
+    private BasicDataSource dataSource;
+    private JdbcStorage storage;
+
+    @Setup
+    public void setup() throws AlreadyExistsException, StorageException {
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(org.h2.Driver.class.getName());
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setUrl("jdbc:h2:mem:benchmark" + numDesigns + ";DB_CLOSE_DELAY=-1");
+
+        storage = new JdbcStorage();
+        BenchmarkUtil.setPrivateField(storage, "config", new HubApiConfiguration());
+        BenchmarkUtil.setPrivateField(storage, "dataSource", dataSource);
+        BenchmarkUtil.setPrivateField(storage, "metrics", new PrometheusMetrics());
+        storage.postConstruct();
+
+        Date now = new Date();
+        for (int i = 0; i < numDesigns; i++) {
+            ApiDesign design = new ApiDesign();
+            design.setName("API " + i);
+            design.setDescription("Benchmark API number " + i);
+            design.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/benchmark/api-" + i + ".json");
+            design.setCreatedBy(USER);
+            design.setCreatedOn(now);
+            design.setModifiedBy(USER);
+            design.setModifiedOn(now);
+            design.getTags().add("benchmark");
+            design.getTags().add("tag-" + (i % 10));
+            storage.createApiDesign(USER, design);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Collection<ApiDesign> listApiDesigns() throws StorageException {
+        return storage.listApiDesigns(USER);
+    }
+
+    @Benchmark
+    public Collection<ApiDesign> listApiDesignsByTag() throws StorageException {
+        ApiDesignQuery query = new ApiDesignQuery();
+        query.setTag("tag-7");
+        return storage.listApiDesigns(USER, query);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage.jdbc;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.apicurio.hub.api.BenchmarkUtil;
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.PrometheusMetrics;
+import io.apicurio.hub.api.exceptions.AlreadyExistsException;
+import io.apicurio.hub.api.exceptions.NotFoundException;
+import io.apicurio.hub.api.storage.StorageException;
+
+/**
+ * Benchmarks the permission-checked writes of {@link JdbcStorage} (updating and
+ * deleting an API Design) against an in-memory H2 database.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JdbcStorageWriteBenchmark {
+
+    private static final String USER = "benchmark-user";
+    private static final int NUM_DESIGNS = 1000;
+
+    private BasicDataSource dataSource;
+    private JdbcStorage storage;
+    private ApiDesign[] designs = new ApiDesign[NUM_DESIGNS];
+    private int next;
+    private long counter;
+
+    @Setup
+    public void setup() throws AlreadyExistsException, StorageException {
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(org.h2.Driver.class.getName());
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setUrl("jdbc:h2:mem:write-benchmark;DB_CLOSE_DELAY=-1");
+
+        storage = new JdbcStorage();
+        BenchmarkUtil.setPrivateField(storage, "config", new HubApiConfiguration());
+        BenchmarkUtil.setPrivateField(storage, "dataSource", dataSource);
+        BenchmarkUtil.setPrivateField(storage, "metrics", new PrometheusMetrics());
+        storage.postConstruct();
+
+        for (int i = 0; i < NUM_DESIGNS; i++) {
+            ApiDesign design = createDesign("api-" + i);
+            design.setId(storage.createApiDesign(USER, design));
+            designs[i] = design;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void updateApiDesign() throws NotFoundException, StorageException {
+        ApiDesign design = designs[next++ % NUM_DESIGNS];
+        design.setModifiedOn(new Date());
+        storage.updateApiDesign(USER, design);
+    }
+
+    @Benchmark
+    public void createAndDeleteApiDesign() throws AlreadyExistsException, NotFoundException, StorageException {
+        String designId = storage.createApiDesign(USER, createDesign("tmp-" + counter++));
+        storage.deleteApiDesign(USER, designId);
+    }
+
+    /**
+     * Creates a (transient) design with the given unique name.
+     * @param name
+     */
+    private static ApiDesign createDesign(String name) {
+        Date now = new Date();
+        ApiDesign design = new ApiDesign();
+        design.setName(name);
+        design.setDescription("Benchmark API " + name);
+        design.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/benchmark/" + name + ".json");
+        design.setCreatedBy(USER);
+        design.setCreatedOn(now);
+        design.setModifiedBy(USER);
+        design.setModifiedOn(now);
+        design.getTags().add("benchmark");
+        return design;
+    }
+
+}
@@ -25,6 +25,11 @@ import java.util.Set;
  */
 public class ApiDesign {
 
+    /**
+     * The maximum length of a single tag (the size of the design_tags.tag_name column).
+     */
+    public static final int MAX_TAG_LENGTH = 255;
+
     private String id;
     private String name;
     private String description;
@@ -16,10 +16,8 @@
 
 package io.apicurio.hub.api.bitbucket;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashMap;
@@ -29,25 +27,25 @@ import java.util.Map;
 import javax.enterprise.context.ApplicationScoped;
 
 import org.apache.commons.io.IOUtils;
-import org.json.JSONObject;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.HttpRequest;
-import com.mashape.unirest.request.HttpRequestWithBody;
 
 import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
 import io.apicurio.hub.api.beans.BitbucketRepository;
 import io.apicurio.hub.api.beans.BitbucketTeam;
 import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.LinkedAccountType;
-import io.apicurio.hub.api.beans.OpenApi3Document;
 import io.apicurio.hub.api.beans.ResourceContent;
 import io.apicurio.hub.api.connectors.AbstractSourceConnector;
+import io.apicurio.hub.api.connectors.ResourceInfoParser;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
 
@@ -118,49 +116,34 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
             if (resource == null) {
                 throw new NotFoundException();
             }
-            String content = getResourceContent(resource);
-
-            String name = resource.getResourcePath();
-            String description = "";
-            OpenApi3Document document = mapper.reader(OpenApi3Document.class).readValue(content);
-            if (document.getInfo() != null) {
-                if (document.getInfo().getTitle() != null) {
-                    name = document.getInfo().getTitle();
-                }
-                if (document.getInfo().getDescription() != null) {
-                    description = document.getInfo().getDescription();
-                }
-            }
 
             ApiDesignResourceInfo info = new ApiDesignResourceInfo();
-            info.setName(name);
-            info.setDescription(description);
+            info.setName(resource.getResourcePath());
+            info.setDescription("");
             info.setUrl("https://bitbucket.org/:team/:repo/src/:slug/:path"
                     .replace(":team", resource.getTeam())
                     .replace(":repo", resource.getRepository())
                     .replace(":slug", resource.getSlug())
                     .replace(":path", resource.getResourcePath()));
+
+            // Bitbucket returns the raw file, so it can be streamed directly into the info parser.
+            try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(resource))) {
+                if (response.getStatusLine().getStatusCode() == 404) {
+                    throw new NotFoundException();
+                }
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
+                try (InputStream contentStream = response.getEntity().getContent()) {
+                    ResourceInfoParser.parse(contentStream, info);
+                }
+            }
             return info;
         } catch (IOException e) {
             throw new SourceConnectorException("Error checking that a Bitbucket resource exists.", e);
         }
     }
 
-    /**
-     * Gets the content of the given Bitbucket resource.  This is done by querying for the
-     * content using the GH API.
-     *
-     * @param resource
-     */
-    private String getResourceContent(BitbucketResource resource) throws NotFoundException, SourceConnectorException {
-        logger.debug("Getting resource content for: {}/{} - {}",
-                resource.getTeam(), resource.getRepository(), resource.getResourcePath());
-
-        ResourceContent content = getResourceContentFromBitbucket(resource);
-
-        return content.getContent();
-    }
-
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#getCollaborators(String)
      */
@@ -173,28 +156,25 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
         try {
             String teamsUrl = endpoint("/teams/:group/members").bind("group", resource.getTeam()).url();
 
-            HttpRequest request = Unirest.get(teamsUrl);
-            addSecurityTo(request);
-            HttpResponse<com.mashape.unirest.http.JsonNode> response = request.asJson();
-
-            JSONObject responseObj = response.getBody().getObject();
-
-            if (response.getStatus() != 200) {
-                throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatus() + "::" + response.getStatusText());
+            HttpGet get = new HttpGet(teamsUrl);
+            addSecurityTo(get);
+            try (CloseableHttpResponse response = execute(OP_COLLABORATORS, get)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
+    
+                Collection<Collaborator> rVal = new HashSet<>();
+    
+                readJson(response).get("values").forEach(collaborator -> {
+                    Collaborator bbc = new Collaborator();
+                    bbc.setName(collaborator.get("username").asText());
+                    bbc.setCommits(1);
+                    rVal.add(bbc);
+                });
+    
+                return  rVal;
             }
-
-            Collection<Collaborator> rVal = new HashSet<>();
-
-            responseObj.getJSONArray("values").forEach(obj -> {
-                Collaborator bbc = new Collaborator();
-                JSONObject collaborator = (JSONObject) obj;
-                bbc.setName(collaborator.getString("username"));
-                bbc.setCommits(1);
-                rVal.add(bbc);
-            });
-
-            return  rVal;
-        } catch (UnirestException ex) {
+        } catch (IOException ex) {
             throw new SourceConnectorException("Error getting collaborators from Bitbucket", ex);
         }
     }
@@ -208,6 +188,15 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
         return getResourceContentFromBitbucket(resource);
     }
 
+    /**
+     * @see io.apicurio.hub.api.connectors.ISourceConnector#getResourceSha(java.lang.String)
+     */
+    @Override
+    public String getResourceSha(String repositoryUrl) throws NotFoundException, SourceConnectorException {
+        BitbucketResource resource = BitbucketResourceResolver.resolve(repositoryUrl);
+        return getShaByResource(resource);
+    }
+
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#updateResourceContent(String, String, String, ResourceContent)
      */
@@ -242,31 +231,27 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
         try {
             String teamsUrl = endpoint("/teams?role=member").url();
 
-            HttpRequest request = Unirest.get(teamsUrl);
-            addSecurityTo(request);
-            HttpResponse<com.mashape.unirest.http.JsonNode> response = request.asJson();
-
-            JSONObject responseObj = response.getBody().getObject();
-
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from Bitbucket: " + response.getStatus() + "::" + response.getStatusText());
+            HttpGet get = new HttpGet(teamsUrl);
+            addSecurityTo(get);
+            try (CloseableHttpResponse response = execute(OP_LIST_ORGS, get)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new BitbucketException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
+    
+                Collection<BitbucketTeam> rVal =  new HashSet<>();
+    
+                // TODO response is paged - make sure we consume and return all data!
+                readJson(response).get("values").forEach(team -> {
+                    BitbucketTeam bbt = new BitbucketTeam();
+                    bbt.setDisplayName(team.get("display_name").asText());
+                    bbt.setUsername(team.get("username").asText());
+                    bbt.setUuid(team.get("uuid").asText());
+                    rVal.add(bbt);
+                });
+    
+                return rVal;
             }
-
-            Collection<BitbucketTeam> rVal =  new HashSet<>();
-
-            // TODO response is paged - make sure we consume and return all data!
-            responseObj.getJSONArray("values").forEach(obj -> {
-                BitbucketTeam bbt = new BitbucketTeam();
-                JSONObject team = (JSONObject) obj;
-                bbt.setDisplayName(team.getString("display_name"));
-                bbt.setUsername(team.getString("username"));
-                bbt.setUuid(team.getString("uuid"));
-                rVal.add(bbt);
-            });
-
-            return rVal;
-
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new BitbucketException("Error getting Bitbucket teams.", e);
         }
     }
@@ -280,31 +265,27 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
                     .url();
             //@formatter:on;
 
-            HttpRequest request = Unirest.get(teamsUrl);
-            addSecurityTo(request);
-            HttpResponse<com.mashape.unirest.http.JsonNode> response = request.asJson();
-
-            JSONObject responseObj = response.getBody().getObject();
-
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from Bitbucket: " + response.getStatus() + "::" + response.getStatusText());
+            HttpGet get = new HttpGet(teamsUrl);
+            addSecurityTo(get);
+            try (CloseableHttpResponse response = execute(OP_LIST_REPOS, get)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new BitbucketException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
+    
+                Collection<BitbucketRepository> rVal =  new HashSet<>();
+    
+                // TODO response is paged - make sure we consume and return all data!
+                readJson(response).get("values").forEach(rep -> {
+                    BitbucketRepository bbr = new BitbucketRepository();
+                    bbr.setName(rep.get("name").asText());
+                    bbr.setUuid(rep.get("uuid").asText());
+                    bbr.setSlug(rep.get("slug").asText());
+                    rVal.add(bbr);
+                });
+    
+                return rVal;
             }
-
-            Collection<BitbucketRepository> rVal =  new HashSet<>();
-
-            // TODO response is paged - make sure we consume and return all data!
-            responseObj.getJSONArray("values").forEach(obj -> {
-                BitbucketRepository bbr = new BitbucketRepository();
-                JSONObject rep = (JSONObject) obj;
-                bbr.setName(rep.getString("name"));
-                bbr.setUuid(rep.getString("uuid"));
-                bbr.setSlug(rep.getString("slug"));
-                rVal.add(bbr);
-            });
-
-            return rVal;
-
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new BitbucketException("Error getting Bitbucket teams.", e);
         }
     }
@@ -314,12 +295,23 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
      * @param request
      */
     @Override
-    protected void addSecurityTo(HttpRequest request) throws SourceConnectorException {
+    protected void addSecurityTo(HttpRequestBase request) throws SourceConnectorException {
         if (this.getExternalTokenType() == TOKEN_TYPE_BASIC) {
-            request.header("Authorization", "Basic " + getExternalToken());
+            request.addHeader("Authorization", "Basic " + getExternalToken());
         }
         if (this.getExternalTokenType() == TOKEN_TYPE_OAUTH) {
-            request.header("Authorization", "Bearer " + getExternalToken());
+            request.addHeader("Authorization", "Bearer " + getExternalToken());
+        }
+    }
+
+    /**
+     * Reads the body of the given response as a JSON tree.
+     * @param response
+     * @throws IOException
+     */
+    private static JsonNode readJson(CloseableHttpResponse response) throws IOException {
+        try (InputStream contentStream = response.getEntity().getContent()) {
+            return mapper.readTree(contentStream);
         }
     }
 
@@ -343,29 +335,24 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
                     .url();
             //@formatter:on
 
-            InputStream filesStream = null;
-            try {
-                filesStream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8.name()));
-            } catch (UnsupportedEncodingException e) {
-                throw new SourceConnectorException("Error writing content to file stream.");
-            }
-
-            HttpRequestWithBody request = Unirest.post(contentUrl);
-            addSecurityTo(request);
+            HttpPost post = new HttpPost(contentUrl);
+            addSecurityTo(post);
 
             //@formatter:off
-            HttpResponse<com.mashape.unirest.http.JsonNode> response = request
-                    .field(resource.getResourcePath(), filesStream, resource.getResourcePath())
-                    .field("message", commitMessage)
-                    /*.field("branch", resource.getSlug())*/ // for now, just put the content on master
-                    .asJson();
+            post.setEntity(MultipartEntityBuilder.create()
+                    .addBinaryBody(resource.getResourcePath(), content.getBytes(StandardCharsets.UTF_8), 
+                            ContentType.APPLICATION_OCTET_STREAM, resource.getResourcePath())
+                    .addTextBody("message", commitMessage, ContentType.create("text/plain", StandardCharsets.UTF_8))
+                    /*.addTextBody("branch", resource.getSlug())*/ // for now, just put the content on master
+                    .build());
             //@formatter:on
 
-            int responseStatus = response.getStatus();
-            if (responseStatus != 201) {
-                throw new UnirestException("Unexpected response from Bitbucket: " + responseStatus + "::" + response.getStatusText());
+            try (CloseableHttpResponse response = execute(OP_COMMIT, post)) {
+                if (response.getStatusLine().getStatusCode() != 201) {
+                    throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
             }
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException(e);
         }
 
@@ -389,57 +376,47 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
                     .url();
             //@formatter:on
 
-            HttpRequest request = Unirest.get(contentUrl);
-            addSecurityTo(request);
-            HttpResponse<String> response = request.asString();
-
-            // Note: as of 10/31/2017 the Bitbucket API responded with a 500 error (and an error HTML page)
-            // when asking for meta-data for a resource that doesn't exist.
-            if (response.getStatus() == 404 || response.getStatus() == 500) {
-                throw new NotFoundException();
-            }
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from Bitbucket: " + response.getStatus() + "::" + response.getStatusText());
+            HttpGet get = new HttpGet(contentUrl);
+            addSecurityTo(get);
+            try (CloseableHttpResponse response = execute(OP_GET_SHA, get)) {
+                int status = response.getStatusLine().getStatusCode();
+                // Note: as of 10/31/2017 the Bitbucket API responded with a 500 error (and an error HTML page)
+                // when asking for meta-data for a resource that doesn't exist.
+                if (status == 404 || status == 500) {
+                    throw new NotFoundException();
+                }
+                if (status != 200) {
+                    throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
+                }
+                
+                JsonNode node = readJson(response);
+                return node.get("commit").get("hash").asText();
             }
-            
-            String responseData = response.getBody();
-            JsonNode node = mapper.reader().readTree(responseData);
-            return node.get("commit").get("hash").asText();
-        } catch (SourceConnectorException | IOException | UnirestException e) {
+        } catch (SourceConnectorException | IOException e) {
             throw new SourceConnectorException("Error creating Bitbucket resource content.", e);
         }
     }
 
     private ResourceContent getResourceContentFromBitbucket(BitbucketResource resource) throws NotFoundException, SourceConnectorException {
 
-        String sha = getShaByResource(resource);
-
-        try {
-            //@formatter:off
-            String contentUrl = endpoint("/repositories/:team/:repo/src/:branch/:path")
-                    .bind("team", resource.getTeam())
-                    .bind("repo", resource.getRepository())
-                    .bind("branch", resource.getSlug())
-                    .bind("path", resource.getResourcePath())
-                    .url();
-            //@formatter:on
+        logger.debug("Getting resource content for: {}/{} - {}",
+                resource.getTeam(), resource.getRepository(), resource.getResourcePath());
 
-            HttpRequest request = Unirest.get(contentUrl);
-            addSecurityTo(request);
-            HttpResponse<InputStream> response = request.asBinary();
+        String sha = getShaByResource(resource);
 
+        try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(resource))) {
             ResourceContent rVal = new ResourceContent();
             
-            if (response.getStatus() == 404) {
+            if (response.getStatusLine().getStatusCode() == 404) {
                 throw new NotFoundException();
             }
 
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from Bitbucket: " + response.getStatus() + "::" + response.getStatusText());
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new SourceConnectorException("Unexpected response from Bitbucket: " + response.getStatusLine().toString());
             }
 
             String content = null;
-            try (InputStream cstream = response.getBody()) {
+            try (InputStream cstream = response.getEntity().getContent()) {
                 content = IOUtils.toString(cstream, StandardCharsets.UTF_8);
             } catch (IOException e) {
                 throw new SourceConnectorException("Error parsing file stream from Bitbucket");
@@ -449,9 +426,28 @@ public class BitbucketSourceConnector extends AbstractSourceConnector implements
             rVal.setContent(content);
 
             return rVal;
-
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException(e);
         }
     }
+
+    /**
+     * Creates a request for the (raw) content of the given resource.
+     * @param resource
+     * @throws SourceConnectorException
+     */
+    private HttpGet createContentRequest(BitbucketResource resource) throws SourceConnectorException {
+        //@formatter:off
+        String contentUrl = endpoint("/repositories/:team/:repo/src/:branch/:path")
+                .bind("team", resource.getTeam())
+                .bind("repo", resource.getRepository())
+                .bind("branch", resource.getSlug())
+                .bind("path", resource.getResourcePath())
+                .url();
+        //@formatter:on
+
+        HttpGet get = new HttpGet(contentUrl);
+        addSecurityTo(get);
+        return get;
+    }
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * An in-memory cache of API Design meta-data, used to avoid querying the storage
+ * layer for the same design (and ACL) over and over again during an editing session.
+ * Two things are cached:
+ * 
+ * 1) individual designs, keyed by user and design ID
+ * 2) the full list of designs visible to a user, keyed by user
+ * 
+ * Entries expire after a (short) configurable amount of time, which bounds how stale
+ * a value can be when the data is changed by some other node in a cluster.  Changes
+ * made through this node are handled precisely: the storage layer invalidates all
+ * entries for a design when it is updated or deleted, and a user's list when that
+ * user creates a design.
+ * 
+ * When storage reads are routed to a read replica, a value loaded right after one of
+ * those invalidations may come from a replica that has not caught up with the write
+ * yet.  So for the read pin window following a write (the time the writer's own reads
+ * stay on the primary), values loaded for the affected design or list are returned to
+ * the caller but not cached.
+ * 
+ * Values are copied on the way in and out, since callers are free to modify the
+ * designs they are given.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class ApiDesignCache {
+
+    static final String DESIGNS_CACHE_NAME = "api-designs";
+    static final String LISTS_CACHE_NAME = "api-design-lists";
+    private static final int MAX_WRITES_BEFORE_SWEEP = 1000;
+
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
+
+    private boolean enabled;
+    private BoundedCache<DesignKey, ApiDesign> designs;
+    private BoundedCache<String, List<ApiDesign>> lists;
+
+    /*
+     * Incremented (under the lock) every time something is invalidated.  A value loaded
+     * from storage is only cached if nothing was invalidated while it was being loaded,
+     * otherwise a slow read could put a stale value back into the cache right after a
+     * write removed it.
+     */
+    private final Object lock = new Object();
+    private long generation = 0;
+
+    /*
+     * When reading from a replica:  how long after a write values may be stale, and
+     * (under the lock) until when that is the case for recently written designs and
+     * recently invalidated lists.
+     */
+    private long replicaLagWindow;
+    private final Map<String, Long> designWrites = new HashMap<>();
+    private final Map<String, Long> listWrites = new HashMap<>();
+
+    @PostConstruct
+    public void postConstruct() {
+        long ttl = config.getStorageCacheTtl();
+        long maxBytes = config.getStorageCacheMaxBytes() / 2;
+        enabled = ttl > 0;
+        replicaLagWindow = config.getJdbcReadDataSource() != null ? config.getJdbcReadPinWindow() : 0;
+        designs = new BoundedCache<>(DESIGNS_CACHE_NAME, maxBytes, ttl, (key, value) -> {
+            return 2L * (key.userId.length() + key.designId.length()) + weigh(value);
+        }, metrics);
+        lists = new BoundedCache<>(LISTS_CACHE_NAME, maxBytes, ttl, (key, value) -> {
+            long bytes = 2L * key.length() + 64;
+            for (ApiDesign design : value) {
+                bytes += weigh(design);
+            }
+            return bytes;
+        }, metrics);
+    }
+
+    /**
+     * @return true if caching is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a token that must be passed back when caching a value loaded from storage.
+     * Call this *before* loading the value.
+     */
+    public long generation() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Gets the cached design, or null if not cached.
+     * @param userId
+     * @param designId
+     */
+    public ApiDesign getDesign(String userId, String designId) {
+        ApiDesign cached = designs.get(new DesignKey(userId, designId));
+        return cached == null ? null : copy(cached);
+    }
+
+    /**
+     * Caches a design that was loaded from storage.
+     * @param userId
+     * @param design
+     * @param generation the value of {@link #generation()} before the design was loaded
+     */
+    public void putDesign(String userId, ApiDesign design, long generation) {
+        ApiDesign cached = copy(design);
+        synchronized (lock) {
+            if (generation == this.generation && !isRecentlyWritten(designWrites, design.getId())) {
+                designs.put(new DesignKey(userId, design.getId()), cached);
+            }
+        }
+    }
+
+    /**
+     * Gets the cached list of designs visible to the user, or null if not cached.
+     * @param userId
+     */
+    public Collection<ApiDesign> getDesigns(String userId) {
+        List<ApiDesign> cached = lists.get(userId);
+        return cached == null ? null : copy(cached);
+    }
+
+    /**
+     * Caches the list of designs visible to the user, as loaded from storage.
+     * @param userId
+     * @param designs
+     * @param generation the value of {@link #generation()} before the list was loaded
+     */
+    public void putDesigns(String userId, Collection<ApiDesign> designs, long generation) {
+        List<ApiDesign> cached = copy(designs);
+        synchronized (lock) {
+            if (generation != this.generation || isRecentlyWritten(listWrites, userId)) {
+                return;
+            }
+            for (ApiDesign design : cached) {
+                if (isRecentlyWritten(designWrites, design.getId())) {
+                    return;
+                }
+            }
+            lists.put(userId, cached);
+        }
+    }
+
+    /**
+     * Removes everything cached about the given design (for all users), including any
+     * lists that contain it.
+     * @param designId
+     */
+    public void invalidateDesign(String designId) {
+        synchronized (lock) {
+            generation++;
+            recordWrite(designWrites, designId);
+            designs.invalidateAll(key -> key.designId.equals(designId));
+            lists.invalidateAllEntries((userId, list) -> {
+                return list.stream().anyMatch(design -> designId.equals(design.getId()));
+            });
+        }
+    }
+
+    /**
+     * Removes the cached list of designs visible to the given user.
+     * @param userId
+     */
+    public void invalidateDesigns(String userId) {
+        synchronized (lock) {
+            generation++;
+            recordWrite(listWrites, userId);
+            lists.invalidate(userId);
+        }
+    }
+
+    /**
+     * Records a write to the given design (or list), so that values loaded for it from a
+     * (possibly lagging) replica are not cached for a while.  Must be called under the lock.
+     * @param writes
+     * @param key
+     */
+    private void recordWrite(Map<String, Long> writes, String key) {
+        if (replicaLagWindow <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (writes.size() >= MAX_WRITES_BEFORE_SWEEP) {
+            writes.values().removeIf( until -> until <= now );
+        }
+        writes.put(key, now + replicaLagWindow);
+    }
+
+    /**
+     * Returns true if the given design (or list) was written too recently for a value
+     * loaded from a replica to be trusted.  Must be called under the lock.
+     * @param writes
+     * @param key
+     */
+    private static boolean isRecentlyWritten(Map<String, Long> writes, String key) {
+        Long until = writes.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until <= System.currentTimeMillis()) {
+            writes.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the size of a design, in bytes.
+     * @param design
+     */
+    private static long weigh(ApiDesign design) {
+        long chars = length(design.getId()) + length(design.getName()) + length(design.getDescription())
+                + length(design.getRepositoryUrl()) + length(design.getCreatedBy()) + length(design.getModifiedBy());
+        for (String tag : design.getTags()) {
+            chars += length(tag) + 16;
+        }
+        // Java strings are (roughly) two bytes per character, plus the objects themselves
+        return 2L * chars + 256;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Makes a copy of each design in the collection.
+     * @param designs
+     */
+    private static List<ApiDesign> copy(Collection<ApiDesign> designs) {
+        List<ApiDesign> rval = new ArrayList<>(designs.size());
+        for (ApiDesign design : designs) {
+            rval.add(copy(design));
+        }
+        return rval;
+    }
+
+    /**
+     * Makes a copy of the given design.
+     * @param design
+     */
+    private static ApiDesign copy(ApiDesign design) {
+        ApiDesign rval = new ApiDesign();
+        rval.setId(design.getId());
+        rval.setName(design.getName());
+        rval.setDescription(design.getDescription());
+        rval.setRepositoryUrl(design.getRepositoryUrl());
+        rval.setCreatedBy(design.getCreatedBy());
+        rval.setCreatedOn(copy(design.getCreatedOn()));
+        rval.setModifiedBy(design.getModifiedBy());
+        rval.setModifiedOn(copy(design.getModifiedOn()));
+        rval.setTags(new HashSet<>(design.getTags()));
+        return rval;
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    /**
+     * Cache key:  user ID + design ID.
+     */
+    private static class DesignKey {
+
+        private final String userId;
+        private final String designId;
+
+        /**
+         * Constructor.
+         */
+        DesignKey(String userId, String designId) {
+            this.userId = userId;
+            this.designId = designId;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return 31 * userId.hashCode() + designId.hashCode();
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DesignKey)) {
+                return false;
+            }
+            DesignKey other = (DesignKey) obj;
+            return userId.equals(other.userId) && designId.equals(other.designId);
+        }
+
+    }
+
+}
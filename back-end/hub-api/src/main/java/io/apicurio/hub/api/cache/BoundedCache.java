@@ -0,0 +1,266 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * A simple, thread safe, in-memory LRU cache that is bounded by the (estimated) number
+ * of bytes held rather than by the number of entries.  The size of each entry is
+ * computed by a {@link Weigher} when it is added.  Whenever the total size exceeds
+ * the configured maximum, the least recently used entries are evicted.  Optionally,
+ * entries also expire a fixed amount of time after they were added.
+ * 
+ * Hits, misses and evictions are reported to the metrics service under the cache's
+ * name.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final long maxBytes;
+    private final Weigher<K, V> weigher;
+    private final IMetrics metrics;
+    private final long ttl;
+
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    /**
+     * Constructor.
+     * @param name
+     * @param maxBytes
+     * @param weigher
+     * @param metrics
+     */
+    public BoundedCache(String name, long maxBytes, Weigher<K, V> weigher, IMetrics metrics) {
+        this(name, maxBytes, 0, weigher, metrics);
+    }
+
+    /**
+     * Constructor.
+     * @param name
+     * @param maxBytes
+     * @param ttl number of millis after which an entry expires (0 for never)
+     * @param weigher
+     * @param metrics
+     */
+    public BoundedCache(String name, long maxBytes, long ttl, Weigher<K, V> weigher, IMetrics metrics) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.weigher = weigher;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets a value from the cache, or null if not present.
+     * @param key
+     */
+    public V get(K key) {
+        Weighted<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(key);
+                currentBytes -= entry.bytes;
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            metrics.cacheMiss(name);
+            return null;
+        }
+        metrics.cacheHit(name);
+        return entry.value;
+    }
+
+    /**
+     * Adds a value to the cache, replacing any existing value for the same key.  Values
+     * that are larger than the entire cache are not stored at all.
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+        long bytes = weigher.weigh(key, value);
+        int evicted = 0;
+        synchronized (entries) {
+            Weighted<V> previous = entries.remove(key);
+            if (previous != null) {
+                currentBytes -= previous.bytes;
+            }
+            if (bytes > maxBytes) {
+                return;
+            }
+            entries.put(key, new Weighted<>(value, bytes, ttl > 0 ? System.currentTimeMillis() + ttl : 0));
+            currentBytes += bytes;
+
+            Iterator<Entry<K, Weighted<V>>> iter = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iter.hasNext()) {
+                currentBytes -= iter.next().getValue().bytes;
+                iter.remove();
+                evicted++;
+            }
+        }
+        for (int i = 0; i < evicted; i++) {
+            metrics.cacheEviction(name);
+        }
+    }
+
+    /**
+     * Removes a single entry from the cache.
+     * @param key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            Weighted<V> previous = entries.remove(key);
+            if (previous != null) {
+                currentBytes -= previous.bytes;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries matching the given filter from the cache.
+     * @param filter
+     */
+    public void invalidateAll(KeyFilter<K> filter) {
+        synchronized (entries) {
+            Iterator<Entry<K, Weighted<V>>> iter = entries.entrySet().iterator();
+            while (iter.hasNext()) {
+                Entry<K, Weighted<V>> entry = iter.next();
+                if (filter.accept(entry.getKey())) {
+                    currentBytes -= entry.getValue().bytes;
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries matching the given filter from the cache.  Unlike
+     * {@link #invalidateAll(KeyFilter)}, the filter is also given each entry's value.
+     * @param filter
+     */
+    public void invalidateAllEntries(EntryFilter<K, V> filter) {
+        synchronized (entries) {
+            Iterator<Entry<K, Weighted<V>>> iter = entries.entrySet().iterator();
+            while (iter.hasNext()) {
+                Entry<K, Weighted<V>> entry = iter.next();
+                if (filter.accept(entry.getKey(), entry.getValue().value)) {
+                    currentBytes -= entry.getValue().bytes;
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the estimated number of bytes currently held by the cache
+     */
+    public long getCurrentBytes() {
+        synchronized (entries) {
+            return currentBytes;
+        }
+    }
+
+    /**
+     * Computes the (estimated) size, in bytes, of a cache entry.
+     * @author eric.wittmann@gmail.com
+     */
+    public static interface Weigher<K, V> {
+
+        /**
+         * Returns the estimated size of the given entry.
+         * @param key
+         * @param value
+         */
+        public long weigh(K key, V value);
+
+    }
+
+    /**
+     * Used to select a subset of cache keys.
+     * @author eric.wittmann@gmail.com
+     */
+    public static interface KeyFilter<K> {
+
+        /**
+         * Returns true if the given key matches the filter.
+         * @param key
+         */
+        public boolean accept(K key);
+
+    }
+
+    /**
+     * Used to select a subset of cache entries.
+     * @author eric.wittmann@gmail.com
+     */
+    public static interface EntryFilter<K, V> {
+
+        /**
+         * Returns true if the given entry matches the filter.
+         * @param key
+         * @param value
+         */
+        public boolean accept(K key, V value);
+
+    }
+
+    /**
+     * A cached value along with its size and expiry time.
+     */
+    private static class Weighted<V> {
+
+        private final V value;
+        private final long bytes;
+        private final long expiresOn;
+
+        /**
+         * Constructor.
+         */
+        Weighted(V value, long bytes, long expiresOn) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresOn = expiresOn;
+        }
+
+        /**
+         * @return true if the entry has expired
+         */
+        boolean isExpired() {
+            return expiresOn > 0 && System.currentTimeMillis() >= expiresOn;
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.apicurio.hub.api.beans.ResourceContent;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * A cache of (decoded) resource content fetched from a source control provider, along
+ * with the ETag the provider returned for it.  When the same resource is requested
+ * again, the connector sends the ETag in an "If-None-Match" header - if the provider
+ * responds with "304 Not Modified" the cached content is used as-is, which avoids
+ * both the transfer and the decoding of the content (and, in the case of GitHub,
+ * does not count against the user's rate limit).
+ * 
+ * Provider responses can vary by the credentials used to make the request, so cache
+ * entries are always scoped to a single user.  The cache as a whole is bounded by the
+ * (estimated) number of bytes of content it holds.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class ETagCache {
+
+    static final String CACHE_NAME = "etag-responses";
+
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
+
+    private BoundedCache<ResponseKey, CachedResponse> cache;
+
+    @PostConstruct
+    public void postConstruct() {
+        cache = new BoundedCache<>(CACHE_NAME, config.getETagCacheMaxBytes(), (key, value) -> {
+            // Java strings are (roughly) two bytes per character
+            return 2L * (key.user.length() + key.url.length() + value.etag.length()
+                    + value.content.getContent().length()) + 128;
+        }, metrics);
+    }
+
+    /**
+     * Gets the cached response for the given user and URL, or null if not cached.
+     * @param user
+     * @param url
+     */
+    public CachedResponse get(String user, String url) {
+        return cache.get(new ResponseKey(user, url));
+    }
+
+    /**
+     * Caches the given content along with the ETag returned by the provider.  Nothing
+     * is cached if the provider did not return an ETag.
+     * @param user
+     * @param url
+     * @param etag
+     * @param content
+     */
+    public void put(String user, String url, String etag, ResourceContent content) {
+        if (etag == null || content.getContent() == null) {
+            return;
+        }
+        cache.put(new ResponseKey(user, url), new CachedResponse(etag, content));
+    }
+
+    /**
+     * Removes the cached response for the given user and URL.
+     * @param user
+     * @param url
+     */
+    public void invalidate(String user, String url) {
+        cache.invalidate(new ResponseKey(user, url));
+    }
+
+    /**
+     * Records the result of a conditional (If-None-Match) request.
+     * @param notModified true if the provider responded with a 304
+     */
+    public void revalidated(boolean notModified) {
+        metrics.cacheRevalidation(CACHE_NAME, notModified);
+    }
+
+    /**
+     * A cached response:  the ETag and the (decoded) content.
+     * @author eric.wittmann@gmail.com
+     */
+    public static class CachedResponse {
+
+        private final String etag;
+        private final ResourceContent content;
+
+        /**
+         * Constructor.
+         * @param etag
+         * @param content
+         */
+        CachedResponse(String etag, ResourceContent content) {
+            this.etag = etag;
+            this.content = new ResourceContent();
+            this.content.setContent(content.getContent());
+            this.content.setSha(content.getSha());
+        }
+
+        /**
+         * @return the etag
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return a copy of the cached content
+         */
+        public ResourceContent getContent() {
+            ResourceContent rval = new ResourceContent();
+            rval.setContent(content.getContent());
+            rval.setSha(content.getSha());
+            return rval;
+        }
+
+    }
+
+    /**
+     * Cache key:  user + url.
+     */
+    private static class ResponseKey {
+
+        private final String user;
+        private final String url;
+
+        /**
+         * Constructor.
+         */
+        ResponseKey(String user, String url) {
+            this.user = user;
+            this.url = url;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return 31 * user.hashCode() + url.hashCode();
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ResponseKey)) {
+                return false;
+            }
+            ResponseKey other = (ResponseKey) obj;
+            return user.equals(other.user) && url.equals(other.url);
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * A thread safe, in-memory cache of values that are expensive to load (typically
+ * because loading them requires a call to a remote service) and that are only valid
+ * for a limited amount of time.  The amount of time is decided per value, when it is
+ * loaded, by an {@link Expiry}.
+ * 
+ * Values are loaded on demand by {@link #get(Object, Loader)}.  When several threads
+ * ask for the same missing key at once, only one of them loads the value; the others
+ * wait for it and share the result.  A null value is cached like any other (which
+ * allows caching negative results), but a load that fails with an exception is not.
+ * 
+ * The cache is bounded by its number of entries.  When it is full, expired entries are
+ * removed first, then the entries that are closest to expiring.
+ * 
+ * Hits, misses and evictions are reported to the metrics service under the cache's
+ * name.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class ExpiringCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final Expiry<V> expiry;
+    private final IMetrics metrics;
+
+    private final ConcurrentHashMap<K, Loading<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param name
+     * @param maxEntries
+     * @param expiry
+     * @param metrics
+     */
+    public ExpiringCache(String name, int maxEntries, Expiry<V> expiry, IMetrics metrics) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.expiry = expiry;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the value for the given key, using the loader to load it if it is not
+     * already cached (or has expired).  If the value is currently being loaded by some
+     * other thread, waits for that thread to finish instead.
+     * @param key
+     * @param loader
+     * @throws Exception if the value could not be loaded
+     */
+    public V get(K key, Loader<V> loader) throws Exception {
+        while (true) {
+            Loading<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                metrics.cacheHit(name);
+                return entry.await();
+            }
+
+            Loading<V> loading = new Loading<>();
+            boolean installed = entry == null ? entries.putIfAbsent(key, loading) == null : entries.replace(key, entry, loading);
+            if (!installed) {
+                // Some other thread got there first - use its value instead
+                continue;
+            }
+            metrics.cacheMiss(name);
+            V value;
+            try {
+                value = loader.load();
+            } catch (Exception | Error e) {
+                entries.remove(key, loading);
+                loading.fail(e);
+                throw e;
+            }
+            loading.complete(value, System.currentTimeMillis() + expiry.ttl(value));
+            if (entries.size() > maxEntries) {
+                evict();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Removes the value for the given key (if any) from the cache.  A load of the value
+     * that is currently in progress is not affected.
+     * @param key
+     */
+    public void invalidate(K key) {
+        Loading<V> entry = entries.get(key);
+        if (entry != null && entry.isDone()) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Calls the given action with each value currently in the cache.  Values that are
+     * still being loaded, could not be loaded or have expired are skipped.
+     * @param action
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        for (Entry<K, Loading<V>> entry : entries.entrySet()) {
+            Loading<V> loading = entry.getValue();
+            if (loading.isDone() && loading.error == null && !loading.isExpired()) {
+                action.accept(entry.getKey(), loading.value);
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Makes room in the cache by removing all expired entries and, if that was not
+     * enough, the (loaded) entries that are closest to expiring.  Removes a few more
+     * entries than strictly needed so that this does not happen on every load once the
+     * cache is full.
+     */
+    private synchronized void evict() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(Loading::isExpired);
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        if (entries.size() > target) {
+            List<Entry<K, Loading<V>>> loaded = new ArrayList<>();
+            for (Entry<K, Loading<V>> entry : entries.entrySet()) {
+                if (entry.getValue().isDone()) {
+                    loaded.add(entry);
+                }
+            }
+            loaded.sort(Comparator.comparingLong(entry -> entry.getValue().expiresOn));
+            int toRemove = entries.size() - target;
+            for (int i = 0; i < loaded.size() && i < toRemove; i++) {
+                Entry<K, Loading<V>> entry = loaded.get(i);
+                if (entries.remove(entry.getKey(), entry.getValue())) {
+                    metrics.cacheEviction(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads a value that is missing from the cache.
+     * @author eric.wittmann@gmail.com
+     */
+    public static interface Loader<V> {
+
+        /**
+         * Loads the value.
+         * @throws Exception
+         */
+        public V load() throws Exception;
+
+    }
+
+    /**
+     * Decides how long a freshly loaded value may be cached for.
+     * @author eric.wittmann@gmail.com
+     */
+    public static interface Expiry<V> {
+
+        /**
+         * Returns the number of millis the given value may be cached for.
+         * @param value the loaded value (may be null)
+         */
+        public long ttl(V value);
+
+    }
+
+    /**
+     * A cache entry:  a value that is either being loaded or has been loaded.
+     */
+    private static class Loading<V> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile V value;
+        private volatile Throwable error;
+        private volatile long expiresOn = Long.MAX_VALUE;
+
+        /**
+         * Called by the loading thread once the value is available.
+         */
+        void complete(V value, long expiresOn) {
+            this.value = value;
+            this.expiresOn = expiresOn;
+            latch.countDown();
+        }
+
+        /**
+         * Called by the loading thread if the value could not be loaded.
+         */
+        void fail(Throwable error) {
+            this.error = error;
+            this.expiresOn = 0;
+            latch.countDown();
+        }
+
+        /**
+         * @return true once the value has been loaded (or failed to load)
+         */
+        boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        /**
+         * @return true if the value has expired (never true while it is being loaded)
+         */
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresOn;
+        }
+
+        /**
+         * Waits for the value to be loaded, then returns it.
+         * @throws Exception if the value could not be loaded
+         */
+        V await() throws Exception {
+            latch.await();
+            if (error instanceof Exception) {
+                throw (Exception) error;
+            } else if (error != null) {
+                throw (Error) error;
+            }
+            return value;
+        }
+
+    }
+
+}
@@ -35,6 +35,102 @@ public class HubApiConfiguration extends Configuration {
     private static final String KEYCLOAK_DISABLE_TRUST_MANAGER_ENV = "APICURIO_KC_DISABLE_TRUST_MANAGER";
     private static final String KEYCLOAK_DISABLE_TRUST_MANAGER_SYSPROP = "apicurio.security.keycloak.disable-trust-manager";
 
+    private static final String SCRIPT_ENGINE_ENV = "APICURIO_HUB_SCRIPT_ENGINE";
+    private static final String SCRIPT_ENGINE_SYSPROP = "apicurio.hub.script.engine";
+    private static final String SCRIPT_ENGINE_POOL_SIZE_ENV = "APICURIO_HUB_SCRIPT_ENGINE_POOL_SIZE";
+    private static final String SCRIPT_ENGINE_POOL_SIZE_SYSPROP = "apicurio.hub.script-engine.pool.size";
+
+    private static final String SCRIPT_ENGINE_POOL_WARMUP_ENV = "APICURIO_HUB_SCRIPT_ENGINE_POOL_WARMUP";
+    private static final String SCRIPT_ENGINE_POOL_WARMUP_SYSPROP = "apicurio.hub.script-engine.pool.warmup";
+
+    private static final String SCRIPT_ENGINE_POOL_IDLE_TIMEOUT_ENV = "APICURIO_HUB_SCRIPT_ENGINE_POOL_IDLE_TIMEOUT";
+    private static final String SCRIPT_ENGINE_POOL_IDLE_TIMEOUT_SYSPROP = "apicurio.hub.script-engine.pool.idle-timeout";
+
+    private static final String SCRIPT_ENGINE_POOL_CHECKOUT_TIMEOUT_ENV = "APICURIO_HUB_SCRIPT_ENGINE_POOL_CHECKOUT_TIMEOUT";
+    private static final String SCRIPT_ENGINE_POOL_CHECKOUT_TIMEOUT_SYSPROP = "apicurio.hub.script-engine.pool.checkout-timeout";
+
+
+    private static final String ETAG_CACHE_MAX_BYTES_ENV = "APICURIO_HUB_ETAG_CACHE_MAX_BYTES";
+    private static final String ETAG_CACHE_MAX_BYTES_SYSPROP = "apicurio.hub.etag-cache.max-bytes";
+
+    private static final String HTTP_POOL_MAX_TOTAL_ENV = "APICURIO_HUB_HTTP_POOL_MAX_TOTAL";
+    private static final String HTTP_POOL_MAX_TOTAL_SYSPROP = "apicurio.hub.http.pool.max-total";
+
+    private static final String HTTP_POOL_MAX_PER_ROUTE_ENV = "APICURIO_HUB_HTTP_POOL_MAX_PER_ROUTE";
+    private static final String HTTP_POOL_MAX_PER_ROUTE_SYSPROP = "apicurio.hub.http.pool.max-per-route";
+
+    private static final String HTTP_CONNECT_TIMEOUT_ENV = "APICURIO_HUB_HTTP_CONNECT_TIMEOUT";
+    private static final String HTTP_CONNECT_TIMEOUT_SYSPROP = "apicurio.hub.http.connect-timeout";
+
+    private static final String HTTP_SOCKET_TIMEOUT_ENV = "APICURIO_HUB_HTTP_SOCKET_TIMEOUT";
+    private static final String HTTP_SOCKET_TIMEOUT_SYSPROP = "apicurio.hub.http.socket-timeout";
+
+    private static final String HTTP_CONNECTION_REQUEST_TIMEOUT_ENV = "APICURIO_HUB_HTTP_CONNECTION_REQUEST_TIMEOUT";
+    private static final String HTTP_CONNECTION_REQUEST_TIMEOUT_SYSPROP = "apicurio.hub.http.connection-request-timeout";
+
+    private static final String HTTP_KEEP_ALIVE_ENV = "APICURIO_HUB_HTTP_KEEP_ALIVE";
+    private static final String HTTP_KEEP_ALIVE_SYSPROP = "apicurio.hub.http.keep-alive";
+
+    private static final String GITHUB_PAGINATION_THREADS_ENV = "APICURIO_HUB_GITHUB_PAGINATION_THREADS";
+    private static final String GITHUB_PAGINATION_THREADS_SYSPROP = "apicurio.hub.github.pagination-threads";
+
+    private static final String JDBC_FETCH_SIZE_ENV = "APICURIO_HUB_STORAGE_JDBC_FETCH_SIZE";
+    private static final String JDBC_FETCH_SIZE_SYSPROP = "apicurio.hub.storage.jdbc.fetch-size";
+
+    private static final String JDBC_READ_DATASOURCE_ENV = "APICURIO_HUB_STORAGE_JDBC_READ_DATASOURCE";
+    private static final String JDBC_READ_DATASOURCE_SYSPROP = "apicurio.hub.storage.jdbc.read-datasource";
+
+    private static final String JDBC_READ_PIN_WINDOW_ENV = "APICURIO_HUB_STORAGE_JDBC_READ_PIN_WINDOW";
+    private static final String JDBC_READ_PIN_WINDOW_SYSPROP = "apicurio.hub.storage.jdbc.read-pin-window";
+
+    private static final String STORAGE_CACHE_TTL_ENV = "APICURIO_HUB_STORAGE_CACHE_TTL";
+    private static final String STORAGE_CACHE_TTL_SYSPROP = "apicurio.hub.storage.cache.ttl";
+
+    private static final String STORAGE_CACHE_MAX_BYTES_ENV = "APICURIO_HUB_STORAGE_CACHE_MAX_BYTES";
+    private static final String STORAGE_CACHE_MAX_BYTES_SYSPROP = "apicurio.hub.storage.cache.max-bytes";
+
+    private static final String AUTH_CACHE_TTL_ENV = "APICURIO_HUB_AUTH_CACHE_TTL";
+    private static final String AUTH_CACHE_TTL_SYSPROP = "apicurio.hub.auth-cache.ttl";
+
+    private static final String AUTH_CACHE_NEGATIVE_TTL_ENV = "APICURIO_HUB_AUTH_CACHE_NEGATIVE_TTL";
+    private static final String AUTH_CACHE_NEGATIVE_TTL_SYSPROP = "apicurio.hub.auth-cache.negative-ttl";
+
+    private static final String AUTH_CACHE_MAX_SIZE_ENV = "APICURIO_HUB_AUTH_CACHE_MAX_SIZE";
+    private static final String AUTH_CACHE_MAX_SIZE_SYSPROP = "apicurio.hub.auth-cache.max-size";
+
+    private static final String LINKED_ACCOUNT_TOKEN_TTL_ENV = "APICURIO_HUB_LINKED_ACCOUNT_TOKEN_TTL";
+    private static final String LINKED_ACCOUNT_TOKEN_TTL_SYSPROP = "apicurio.hub.linked-account.token-ttl";
+
+    private static final String LINKED_ACCOUNT_TOKEN_CACHE_MAX_SIZE_ENV = "APICURIO_HUB_LINKED_ACCOUNT_TOKEN_CACHE_MAX_SIZE";
+    private static final String LINKED_ACCOUNT_TOKEN_CACHE_MAX_SIZE_SYSPROP = "apicurio.hub.linked-account.token-cache-max-size";
+
+    private static final String CONNECTOR_THREADS_ENV = "APICURIO_HUB_CONNECTOR_THREADS";
+    private static final String CONNECTOR_THREADS_SYSPROP = "apicurio.hub.connector.threads";
+
+    private static final String CONNECTOR_QUEUE_SIZE_ENV = "APICURIO_HUB_CONNECTOR_QUEUE_SIZE";
+    private static final String CONNECTOR_QUEUE_SIZE_SYSPROP = "apicurio.hub.connector.queue-size";
+
+    private static final String CONNECTOR_TIMEOUT_ENV = "APICURIO_HUB_CONNECTOR_TIMEOUT";
+    private static final String CONNECTOR_TIMEOUT_SYSPROP = "apicurio.hub.connector.timeout";
+
+    private static final String CONNECTOR_RATE_LIMIT_THRESHOLD_ENV = "APICURIO_HUB_CONNECTOR_RATE_LIMIT_THRESHOLD";
+    private static final String CONNECTOR_RATE_LIMIT_THRESHOLD_SYSPROP = "apicurio.hub.connector.rate-limit.threshold";
+
+    private static final String CONNECTOR_RATE_LIMIT_CACHE_MAX_SIZE_ENV = "APICURIO_HUB_CONNECTOR_RATE_LIMIT_CACHE_MAX_SIZE";
+    private static final String CONNECTOR_RATE_LIMIT_CACHE_MAX_SIZE_SYSPROP = "apicurio.hub.connector.rate-limit.cache-max-size";
+
+    private static final String CONNECTOR_MAX_WAIT_ENV = "APICURIO_HUB_CONNECTOR_MAX_WAIT";
+    private static final String CONNECTOR_MAX_WAIT_SYSPROP = "apicurio.hub.connector.max-wait";
+
+    private static final String CONNECTOR_MAX_RETRIES_ENV = "APICURIO_HUB_CONNECTOR_MAX_RETRIES";
+    private static final String CONNECTOR_MAX_RETRIES_SYSPROP = "apicurio.hub.connector.max-retries";
+
+    private static final String STORAGE_HEALTH_CACHE_TTL_ENV = "APICURIO_HUB_STORAGE_HEALTH_CACHE_TTL";
+    private static final String STORAGE_HEALTH_CACHE_TTL_SYSPROP = "apicurio.hub.storage.health.cache-ttl";
+
+    private static final String JFR_EVENTS_ENABLED_ENV = "APICURIO_HUB_JFR_EVENTS_ENABLED";
+    private static final String JFR_EVENTS_ENABLED_SYSPROP = "apicurio.hub.jfr.events.enabled";
+
     /**
      * @return the configured JDBC type (default: h2)
      */
@@ -56,4 +152,228 @@ public class HubApiConfiguration extends Configuration {
         return "true".equals(getConfigurationProperty(KEYCLOAK_DISABLE_TRUST_MANAGER_ENV, KEYCLOAK_DISABLE_TRUST_MANAGER_SYSPROP, "false"));
     }
 
+    /**
+     * @return the name of the (JSR-223) script engine used to run the OAI libraries, e.g. "graal.js" (default: nashorn)
+     */
+    public String getScriptEngine() {
+        return getConfigurationProperty(SCRIPT_ENGINE_ENV, SCRIPT_ENGINE_SYSPROP, "nashorn");
+    }
+
+    /**
+     * @return the maximum number of script engines that can be checked out at once (default: 4)
+     */
+    public int getScriptEnginePoolSize() {
+        return Integer.parseInt(getConfigurationProperty(SCRIPT_ENGINE_POOL_SIZE_ENV, SCRIPT_ENGINE_POOL_SIZE_SYSPROP, "4"));
+    }
+
+    /**
+     * @return the number of script engines to initialize at startup (default: 1)
+     */
+    public int getScriptEnginePoolWarmup() {
+        return Integer.parseInt(getConfigurationProperty(SCRIPT_ENGINE_POOL_WARMUP_ENV, SCRIPT_ENGINE_POOL_WARMUP_SYSPROP, "1"));
+    }
+
+    /**
+     * @return the number of millis an idle script engine is kept before being evicted (default: 5 minutes)
+     */
+    public long getScriptEnginePoolIdleTimeout() {
+        return Long.parseLong(getConfigurationProperty(SCRIPT_ENGINE_POOL_IDLE_TIMEOUT_ENV, SCRIPT_ENGINE_POOL_IDLE_TIMEOUT_SYSPROP, "300000"));
+    }
+
+    /**
+     * @return the number of millis to wait for a script engine to become available (default: 30 seconds)
+     */
+    public long getScriptEnginePoolCheckoutTimeout() {
+        return Long.parseLong(getConfigurationProperty(SCRIPT_ENGINE_POOL_CHECKOUT_TIMEOUT_ENV, SCRIPT_ENGINE_POOL_CHECKOUT_TIMEOUT_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the maximum (estimated) size of the source connector ETag cache, in bytes (default: 32 MB)
+     */
+    public long getETagCacheMaxBytes() {
+        return Long.parseLong(getConfigurationProperty(ETAG_CACHE_MAX_BYTES_ENV, ETAG_CACHE_MAX_BYTES_SYSPROP, "33554432"));
+    }
+
+    /**
+     * @return the maximum number of pooled connections used by the source connectors (default: 50)
+     */
+    public int getHttpPoolMaxTotal() {
+        return Integer.parseInt(getConfigurationProperty(HTTP_POOL_MAX_TOTAL_ENV, HTTP_POOL_MAX_TOTAL_SYSPROP, "50"));
+    }
+
+    /**
+     * @return the maximum number of pooled connections to any single host (default: 20)
+     */
+    public int getHttpPoolMaxPerRoute() {
+        return Integer.parseInt(getConfigurationProperty(HTTP_POOL_MAX_PER_ROUTE_ENV, HTTP_POOL_MAX_PER_ROUTE_SYSPROP, "20"));
+    }
+
+    /**
+     * @return the number of millis to wait when establishing an outbound connection (default: 10 seconds)
+     */
+    public int getHttpConnectTimeout() {
+        return Integer.parseInt(getConfigurationProperty(HTTP_CONNECT_TIMEOUT_ENV, HTTP_CONNECT_TIMEOUT_SYSPROP, "10000"));
+    }
+
+    /**
+     * @return the number of millis to wait for data on an outbound connection (default: 30 seconds)
+     */
+    public int getHttpSocketTimeout() {
+        return Integer.parseInt(getConfigurationProperty(HTTP_SOCKET_TIMEOUT_ENV, HTTP_SOCKET_TIMEOUT_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the number of millis to wait for a connection from the pool (default: 10 seconds)
+     */
+    public int getHttpConnectionRequestTimeout() {
+        return Integer.parseInt(getConfigurationProperty(HTTP_CONNECTION_REQUEST_TIMEOUT_ENV, HTTP_CONNECTION_REQUEST_TIMEOUT_SYSPROP, "10000"));
+    }
+
+    /**
+     * @return the number of millis an idle connection is kept alive when the server does not say otherwise (default: 30 seconds)
+     */
+    public long getHttpKeepAlive() {
+        return Long.parseLong(getConfigurationProperty(HTTP_KEEP_ALIVE_ENV, HTTP_KEEP_ALIVE_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the maximum number of pages of a GitHub listing to fetch concurrently (default: 4)
+     */
+    public int getGitHubPaginationThreads() {
+        return Integer.parseInt(getConfigurationProperty(GITHUB_PAGINATION_THREADS_ENV, GITHUB_PAGINATION_THREADS_SYSPROP, "4"));
+    }
+
+    /**
+     * @return the number of rows to fetch per round trip when listing from the database (default: 100)
+     */
+    public int getJdbcFetchSize() {
+        return Integer.parseInt(getConfigurationProperty(JDBC_FETCH_SIZE_ENV, JDBC_FETCH_SIZE_SYSPROP, "100"));
+    }
+
+    /**
+     * @return the JNDI name of an (optional) read-only replica datasource (default: none)
+     */
+    public String getJdbcReadDataSource() {
+        return getConfigurationProperty(JDBC_READ_DATASOURCE_ENV, JDBC_READ_DATASOURCE_SYSPROP, null);
+    }
+
+    /**
+     * @return the number of millis a user's reads stay on the primary datasource after a write (default: 5 seconds)
+     */
+    public long getJdbcReadPinWindow() {
+        return Long.parseLong(getConfigurationProperty(JDBC_READ_PIN_WINDOW_ENV, JDBC_READ_PIN_WINDOW_SYSPROP, "5000"));
+    }
+
+    /**
+     * @return the number of millis API design meta-data is cached for, or 0 to disable caching (default: 30 seconds)
+     */
+    public long getStorageCacheTtl() {
+        return Long.parseLong(getConfigurationProperty(STORAGE_CACHE_TTL_ENV, STORAGE_CACHE_TTL_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the maximum (estimated) size of the API design meta-data cache, in bytes (default: 16 MB)
+     */
+    public long getStorageCacheMaxBytes() {
+        return Long.parseLong(getConfigurationProperty(STORAGE_CACHE_MAX_BYTES_ENV, STORAGE_CACHE_MAX_BYTES_SYSPROP, "16777216"));
+    }
+
+    /**
+     * @return the number of millis the user authenticated by an access token is cached for (default: 5 minutes)
+     */
+    public long getAuthCacheTtl() {
+        return Long.parseLong(getConfigurationProperty(AUTH_CACHE_TTL_ENV, AUTH_CACHE_TTL_SYSPROP, "300000"));
+    }
+
+    /**
+     * @return the number of millis a rejected access token is remembered for (default: 30 seconds)
+     */
+    public long getAuthCacheNegativeTtl() {
+        return Long.parseLong(getConfigurationProperty(AUTH_CACHE_NEGATIVE_TTL_ENV, AUTH_CACHE_NEGATIVE_TTL_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the maximum number of access tokens in the GitHub authentication cache (default: 10000)
+     */
+    public int getAuthCacheMaxSize() {
+        return Integer.parseInt(getConfigurationProperty(AUTH_CACHE_MAX_SIZE_ENV, AUTH_CACHE_MAX_SIZE_SYSPROP, "10000"));
+    }
+
+    /**
+     * @return the number of millis an external (linked account) token is cached for when its expiry is unknown (default: 10 minutes)
+     */
+    public long getLinkedAccountTokenTtl() {
+        return Long.parseLong(getConfigurationProperty(LINKED_ACCOUNT_TOKEN_TTL_ENV, LINKED_ACCOUNT_TOKEN_TTL_SYSPROP, "600000"));
+    }
+
+    /**
+     * @return the maximum number of external (linked account) tokens cached (default: 10000)
+     */
+    public int getLinkedAccountTokenCacheMaxSize() {
+        return Integer.parseInt(getConfigurationProperty(LINKED_ACCOUNT_TOKEN_CACHE_MAX_SIZE_ENV, LINKED_ACCOUNT_TOKEN_CACHE_MAX_SIZE_SYSPROP, "10000"));
+    }
+
+    /**
+     * @return the maximum number of concurrent calls made to each source control provider (default: 10)
+     */
+    public int getConnectorThreads() {
+        return Integer.parseInt(getConfigurationProperty(CONNECTOR_THREADS_ENV, CONNECTOR_THREADS_SYSPROP, "10"));
+    }
+
+    /**
+     * @return the maximum number of calls waiting for each source control provider (default: 100)
+     */
+    public int getConnectorQueueSize() {
+        return Integer.parseInt(getConfigurationProperty(CONNECTOR_QUEUE_SIZE_ENV, CONNECTOR_QUEUE_SIZE_SYSPROP, "100"));
+    }
+
+    /**
+     * @return the number of millis a request waits for a source control provider before failing (default: 30 seconds)
+     */
+    public long getConnectorTimeout() {
+        return Long.parseLong(getConfigurationProperty(CONNECTOR_TIMEOUT_ENV, CONNECTOR_TIMEOUT_SYSPROP, "30000"));
+    }
+
+    /**
+     * @return the remaining rate limit quota below which calls to a provider are spread out until the quota resets (default: 50)
+     */
+    public int getConnectorRateLimitThreshold() {
+        return Integer.parseInt(getConfigurationProperty(CONNECTOR_RATE_LIMIT_THRESHOLD_ENV, CONNECTOR_RATE_LIMIT_THRESHOLD_SYSPROP, "50"));
+    }
+
+    /**
+     * @return the maximum number of sets of credentials whose rate limit state is tracked (default: 10000)
+     */
+    public int getConnectorRateLimitCacheMaxSize() {
+        return Integer.parseInt(getConfigurationProperty(CONNECTOR_RATE_LIMIT_CACHE_MAX_SIZE_ENV, CONNECTOR_RATE_LIMIT_CACHE_MAX_SIZE_SYSPROP, "10000"));
+    }
+
+    /**
+     * @return the maximum number of millis a call to a provider is delayed by rate limiting, per attempt (default: 5 seconds)
+     */
+    public long getConnectorMaxWait() {
+        return Long.parseLong(getConfigurationProperty(CONNECTOR_MAX_WAIT_ENV, CONNECTOR_MAX_WAIT_SYSPROP, "5000"));
+    }
+
+    /**
+     * @return the maximum number of times a rate limited call to a provider is retried (default: 2)
+     */
+    public int getConnectorMaxRetries() {
+        return Integer.parseInt(getConfigurationProperty(CONNECTOR_MAX_RETRIES_ENV, CONNECTOR_MAX_RETRIES_SYSPROP, "2"));
+    }
+
+    /**
+     * @return how long (in millis) the result of a storage health check is reused for (default: 5 seconds)
+     */
+    public long getStorageHealthCacheTtl() {
+        return Long.parseLong(getConfigurationProperty(STORAGE_HEALTH_CACHE_TTL_ENV, STORAGE_HEALTH_CACHE_TTL_SYSPROP, "5000"));
+    }
+
+    /**
+     * @return true if custom Java Flight Recorder events should be emitted (default: false)
+     */
+    public boolean isJfrEventsEnabled() {
+        return "true".equals(getConfigurationProperty(JFR_EVENTS_ENABLED_ENV, JFR_EVENTS_ENABLED_SYSPROP, "false"));
+    }
+
 }
@@ -16,23 +16,34 @@
 
 package io.apicurio.hub.api.connectors;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.inject.Inject;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.keycloak.common.util.Encode;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.request.HttpRequest;
 
 import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
+import io.apicurio.hub.api.metrics.jfr.ConnectorCallEvent;
+import io.apicurio.hub.api.metrics.jfr.JfrEvents;
 import io.apicurio.hub.api.security.ILinkedAccountsProvider;
 import io.apicurio.hub.api.security.ISecurityContext;
 
@@ -42,26 +53,22 @@ import io.apicurio.hub.api.security.ISecurityContext;
  */
 public abstract class AbstractSourceConnector implements ISourceConnector {
 
+    protected static final String OP_GET_CONTENT = "getContent";
+    protected static final String OP_GET_SHA = "getSha";
+    protected static final String OP_COMMIT = "commit";
+    protected static final String OP_COMMIT_COMMENT = "commitComment";
+    protected static final String OP_COLLABORATORS = "collaborators";
+    protected static final String OP_LIST_ORGS = "listOrgs";
+    protected static final String OP_LIST_REPOS = "listRepos";
+    protected static final String OP_GET_USER = "getUser";
+
+    static final String RESULT_TIMEOUT = "timeout";
+    static final String RESULT_ERROR = "error";
+
     protected static final ObjectMapper mapper = new ObjectMapper();
     static {
         mapper.setSerializationInclusion(Include.NON_NULL);
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        Unirest.setObjectMapper(new com.mashape.unirest.http.ObjectMapper() {
-            public <T> T readValue(String value, Class<T> valueType) {
-                try {
-                    return mapper.readValue(value, valueType);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            public String writeValue(Object value) {
-                try {
-                    return mapper.writeValueAsString(value);
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
     }
 
     @Inject
@@ -70,6 +77,12 @@ public abstract class AbstractSourceConnector implements ISourceConnector {
     protected ISecurityContext security;
     @Inject
     protected ILinkedAccountsProvider linkedAccountsProvider;
+    @Inject
+    protected HttpClientProvider httpClientProvider;
+    @Inject
+    protected RateLimiter rateLimiter;
+    @Inject
+    protected IMetrics metrics;
 
     /**
      * Returns the base URL for the source connector's API.
@@ -80,7 +93,97 @@ public abstract class AbstractSourceConnector implements ISourceConnector {
      * Adds the appropriate security credentials into the request.
      * @param request
      */
-    protected abstract void addSecurityTo(HttpRequest request) throws SourceConnectorException;
+    protected abstract void addSecurityTo(HttpRequestBase request) throws SourceConnectorException;
+
+    /**
+     * Executes the given request using the shared (pooled) http client.  The caller
+     * must close the returned response so that its connection is returned to the pool.
+     * 
+     * If the external system rejects the request as unauthorized, the (cached) external
+     * token is discarded so that a fresh one is fetched for the next request.
+     * 
+     * The provider's rate limit is honored - the request may be delayed while the remaining
+     * quota is low, and is retried (when possible) if the provider rejects it because of
+     * its rate limit.  See {@link RateLimiter}.
+     * 
+     * Every attempt is recorded in the metrics, labelled with the provider and the given
+     * (logical) operation:  its latency and result (status code, timeout or error), the
+     * number of response bytes read, and any retries.
+     * @param operation the logical operation being performed (one of the OP_* constants)
+     * @param request
+     * @throws IOException
+     */
+    protected CloseableHttpResponse execute(String operation, HttpRequestBase request) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(getType(), request);
+            CloseableHttpResponse response;
+            ConnectorCallEvent event = JfrEvents.ENABLED ? new ConnectorCallEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            long start = System.nanoTime();
+            try {
+                response = httpClientProvider.getClient().execute(request);
+            } catch (ConnectTimeoutException | SocketTimeoutException e) {
+                metrics.connectorCall(getType(), operation, RESULT_TIMEOUT, System.nanoTime() - start);
+                commitEvent(event, operation, request, attempt, RESULT_TIMEOUT);
+                throw e;
+            } catch (IOException e) {
+                metrics.connectorCall(getType(), operation, RESULT_ERROR, System.nanoTime() - start);
+                commitEvent(event, operation, request, attempt, RESULT_ERROR);
+                throw e;
+            }
+            int statusCode = response.getStatusLine().getStatusCode();
+            metrics.connectorCall(getType(), operation, String.valueOf(statusCode), System.nanoTime() - start);
+            commitEvent(event, operation, request, attempt, String.valueOf(statusCode));
+            if (response.getEntity() != null) {
+                response.setEntity(new MeteredEntity(response.getEntity(), operation));
+            }
+
+            long retryDelay = rateLimiter.record(getType(), request, response, attempt);
+            if (retryDelay < 0 || !isRepeatable(request)) {
+                if (statusCode == 401) {
+                    linkedAccountsProvider.invalidateLinkedAccountToken(getType());
+                }
+                return response;
+            }
+            response.close();
+            metrics.connectorRetry(getType(), operation);
+            rateLimiter.sleep(retryDelay);
+        }
+    }
+
+    /**
+     * Commits the JFR event (if any) for a single attempt at a call to the provider.
+     * @param event
+     * @param operation
+     * @param request
+     * @param attempt
+     * @param result
+     */
+    private void commitEvent(ConnectorCallEvent event, String operation, HttpRequestBase request, int attempt, String result) {
+        if (event != null && event.shouldCommit()) {
+            event.provider = getType().name();
+            event.operation = operation;
+            event.method = request.getMethod();
+            event.attempt = attempt;
+            event.result = result;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns true if the given request can be sent again (i.e. it has no body, or its body
+     * can be re-read).
+     * @param request
+     */
+    private static boolean isRepeatable(HttpRequestBase request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+        return true;
+    }
 
     /**
      * Fetches the external IDP token from Keycloak.  For this to work, the user must
@@ -120,6 +223,114 @@ public abstract class AbstractSourceConnector implements ISourceConnector {
         return new Endpoint(getBaseApiEndpointUrl() + path);
     }
 
+    /**
+     * Wraps a response entity so that the number of bytes read from it is recorded in the
+     * metrics (once the content has been fully read or closed).  The count is of the bytes
+     * handed to the connector, i.e. after any content decoding (gzip) has been applied.
+     */
+    private class MeteredEntity extends HttpEntityWrapper {
+
+        private final String operation;
+        private InputStream content;
+
+        /**
+         * Constructor.
+         * @param entity
+         * @param operation
+         */
+        MeteredEntity(HttpEntity entity, String operation) {
+            super(entity);
+            this.operation = operation;
+        }
+
+        /**
+         * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+         */
+        @Override
+        public InputStream getContent() throws IOException {
+            if (this.content == null || this.wrappedEntity.isRepeatable()) {
+                this.content = new CountingInputStream(this.wrappedEntity.getContent());
+            }
+            return this.content;
+        }
+
+        /**
+         * @see org.apache.http.entity.HttpEntityWrapper#writeTo(java.io.OutputStream)
+         */
+        @Override
+        public void writeTo(OutputStream outstream) throws IOException {
+            try (InputStream in = getContent()) {
+                IOUtils.copy(in, outstream);
+            }
+        }
+
+        /**
+         * Counts the bytes read and reports them at EOF or when closed, whichever comes first.
+         */
+        private class CountingInputStream extends FilterInputStream {
+
+            private long count;
+            private boolean reported;
+
+            /**
+             * Constructor.
+             * @param in
+             */
+            CountingInputStream(InputStream in) {
+                super(in);
+            }
+
+            /**
+             * @see java.io.FilterInputStream#read()
+             */
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b == -1) {
+                    report();
+                } else {
+                    count++;
+                }
+                return b;
+            }
+
+            /**
+             * @see java.io.FilterInputStream#read(byte[], int, int)
+             */
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read == -1) {
+                    report();
+                } else {
+                    count += read;
+                }
+                return read;
+            }
+
+            /**
+             * @see java.io.FilterInputStream#close()
+             */
+            @Override
+            public void close() throws IOException {
+                report();
+                super.close();
+            }
+
+            /**
+             * Records the number of bytes read (only once).
+             */
+            private void report() {
+                if (!reported) {
+                    reported = true;
+                    metrics.connectorResponseSize(getType(), operation, count);
+                }
+            }
+
+        }
+
+    }
+
     /**
      * An endpoint that will be used to make a call to the GitHub API.  The form of an endpoint path
      * should be (for example):
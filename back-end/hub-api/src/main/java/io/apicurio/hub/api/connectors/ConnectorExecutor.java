@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.security.ISecurityContext;
+import io.apicurio.hub.api.security.SecurityContext;
+
+/**
+ * Runs the (potentially slow) calls made to the source control providers on behalf of
+ * suspended (asynchronous) REST requests, so that they do not tie up the servlet
+ * container's request threads.
+ * 
+ * Each provider gets its own bounded pool of threads and bounded queue of waiting calls.
+ * A slow or unavailable provider therefore only delays requests made to that provider.
+ * When a provider's queue is full, or a call does not complete within the configured
+ * timeout, the request fails with a 503 (Service Unavailable).
+ * 
+ * Calls that change something (see {@link #executeWrite(LinkedAccountType, AsyncResponse, ConnectorTask)})
+ * are only abandoned by the timeout if they have not started yet - a call that is part
+ * way through is always allowed to finish.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class ConnectorExecutor {
+
+    private static Logger logger = LoggerFactory.getLogger(ConnectorExecutor.class);
+
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private ISecurityContext security;
+
+    private final Map<LinkedAccountType, ThreadPoolExecutor> executors = new EnumMap<>(LinkedAccountType.class);
+    private long timeout;
+
+    @PostConstruct
+    public void postConstruct() {
+        int threads = config.getConnectorThreads();
+        int queueSize = config.getConnectorQueueSize();
+        for (LinkedAccountType type : LinkedAccountType.values()) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), new ConnectorThreadFactory(type));
+            executor.allowCoreThreadTimeOut(true);
+            executors.put(type, executor);
+        }
+        timeout = config.getConnectorTimeout();
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Calls the given task on one of the given provider's threads (as the current user)
+     * and resumes the given response with its result.  Any exception thrown by the task
+     * is used to resume the response instead, so it is mapped exactly as it would have
+     * been had the resource method thrown it.
+     * 
+     * If the task does not complete within the timeout it is interrupted, so the task
+     * must not change anything (see {@link #executeWrite(LinkedAccountType, AsyncResponse, ConnectorTask)}).
+     * @param type
+     * @param response
+     * @param task
+     */
+    public void execute(LinkedAccountType type, AsyncResponse response, ConnectorTask task) {
+        execute(type, response, task, true);
+    }
+
+    /**
+     * Like {@link #execute(LinkedAccountType, AsyncResponse, ConnectorTask)}, for tasks that
+     * change something in the provider and/or in storage.  If such a task is still waiting
+     * for a thread when the timeout expires then it is dropped (and the request fails with
+     * a 503), but once it has started it is never interrupted:  the request keeps waiting
+     * for its result instead.  Failing it part way through could leave the provider and
+     * storage out of sync, with the client retrying against content it knows nothing about.
+     * @param type
+     * @param response
+     * @param task
+     */
+    public void executeWrite(LinkedAccountType type, AsyncResponse response, ConnectorTask task) {
+        execute(type, response, task, false);
+    }
+
+    /**
+     * Calls the given task on one of the given provider's threads.
+     * @param type
+     * @param response
+     * @param task
+     * @param interruptible true if the task may be interrupted when it times out
+     */
+    private void execute(LinkedAccountType type, AsyncResponse response, ConnectorTask task, boolean interruptible) {
+        // Claimed by whichever comes first:  the task starting, or the timeout
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable runnable = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                response.resume(task.call());
+            } catch (Throwable t) {
+                response.resume(t);
+            }
+        };
+        if (security instanceof SecurityContext) {
+            runnable = ((SecurityContext) security).wrap(runnable);
+        }
+
+        AtomicReference<Future<?>> future = new AtomicReference<>();
+        response.setTimeoutHandler(ar -> {
+            boolean started = !claimed.compareAndSet(false, true);
+            if (started && !interruptible) {
+                logger.warn("Still waiting for {} after {}ms, not abandoning a call that is already under way.",
+                        type.name(), timeout);
+                ar.setTimeout(timeout, TimeUnit.MILLISECONDS);
+                return;
+            }
+            logger.warn("Timed out waiting for {} after {}ms.", type.name(), timeout);
+            ar.resume(new ServiceUnavailableException("Timed out waiting for " + type.name() + "."));
+            Future<?> f = future.get();
+            if (f != null) {
+                f.cancel(started);
+            }
+        });
+        response.setTimeout(timeout, TimeUnit.MILLISECONDS);
+
+        try {
+            future.set(executors.get(type).submit(runnable));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Too many concurrent requests to {}.", type.name());
+            response.resume(new ServiceUnavailableException("Too many concurrent requests to " + type.name() + "."));
+        }
+    }
+
+    /**
+     * A call to a source control provider, made by {@link ConnectorExecutor}.  The
+     * returned value is the entity (or {@link javax.ws.rs.core.Response}) of the REST
+     * response.
+     */
+    @FunctionalInterface
+    public static interface ConnectorTask {
+
+        public Object call() throws Exception;
+
+    }
+
+    /**
+     * Creates named daemon threads for one of the providers.
+     */
+    private static class ConnectorThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * Constructor.
+         * @param type
+         */
+        ConnectorThreadFactory(LinkedAccountType type) {
+            this.prefix = "apicurio-" + type.alias() + "-";
+        }
+
+        /**
+         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+         */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.ConnectionPoolStats;
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * Provides the single, shared HTTP client used by all of the source connectors.  The
+ * client is backed by a pooling connection manager, so connections (and their TLS
+ * sessions) to GitHub, GitLab and Bitbucket are kept alive and reused across requests
+ * rather than being negotiated from scratch for every call.
+ * 
+ * Idle and expired connections are evicted by a background thread owned by the client.
+ * Responses are transparently decompressed (gzip/deflate) and the standard JVM proxy
+ * system properties are honored.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class HttpClientProvider {
+
+    private static Logger logger = LoggerFactory.getLogger(HttpClientProvider.class);
+
+    static final String POOL_NAME = "source-connectors";
+
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void postConstruct() {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getHttpPoolMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getHttpPoolMaxPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getHttpConnectTimeout())
+                .setSocketTimeout(config.getHttpSocketTimeout())
+                .setConnectionRequestTimeout(config.getHttpConnectionRequestTimeout())
+                .build();
+
+        long keepAlive = config.getHttpKeepAlive();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                .useSystemProperties()
+                .build();
+
+        metrics.registerConnectionPool(POOL_NAME, this::getPoolStats);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        closed = true;
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.error("Error closing the shared HTTP client.", e);
+        }
+    }
+
+    /**
+     * @return the shared http client
+     */
+    public CloseableHttpClient getClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return true if the shared http client has been created and not yet closed
+     */
+    public boolean isReady() {
+        return httpClient != null && !closed;
+    }
+
+    /**
+     * @return the current state of the connection pool
+     */
+    public ConnectionPoolStats getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new ConnectionPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+}
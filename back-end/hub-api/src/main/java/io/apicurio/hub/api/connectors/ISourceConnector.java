@@ -64,6 +64,15 @@ public interface ISourceConnector {
      */
     public ResourceContent getResourceContent(String repositoryUrl) throws NotFoundException, SourceConnectorException;
 
+    /**
+     * Gets the SHA of the current content of a resource - the same value that is returned
+     * (along with the content) by {@link #getResourceContent(String)}.  Implementations 
+     * should use the cheapest call the source control API offers, avoiding a download of 
+     * the content itself where possible.
+     * @param repositoryUrl
+     */
+    public String getResourceSha(String repositoryUrl) throws NotFoundException, SourceConnectorException;
+
     /**
      * Updates the raw content for a resource in the source control system using its API.
      * @param repositoryUrl
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.cache.ExpiringCache;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
+
+/**
+ * Tracks the rate limits imposed by the source control providers, separately for each
+ * set of credentials (access token) used to call them.  The state is recorded from the
+ * rate limit headers of every response:
+ * 
+ *   GitHub:  X-RateLimit-Remaining, X-RateLimit-Reset
+ *   GitLab:  RateLimit-Remaining, RateLimit-Reset
+ * 
+ * Bitbucket does not send these headers, so it is only tracked when it rejects a call
+ * (with a 429 and, optionally, a Retry-After header).
+ * 
+ * Once the remaining quota drops below the configured threshold, calls are spread out
+ * evenly over the time left until the quota resets (queueing behind each other) rather
+ * than being allowed to use it all up at once.  Calls rejected because of a rate limit
+ * (a 429, or a 403 from GitHub's abuse detection) are retried after a delay.
+ * 
+ * Note that all of the waiting is done by sleeping on the calling (connector worker)
+ * thread.  To make sure a delayed call still completes before the request it is made
+ * for times out (see {@link ConnectorExecutor}), the maximum wait is capped at a
+ * quarter of the connector timeout.
+ * 
+ * The credentials are only ever held as a (SHA-256) hash.  The lowest remaining quota
+ * of each provider is reported to the metrics service when the metrics are collected.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class RateLimiter {
+
+    private static Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    static final String CACHE_NAME = "rate-limits";
+    private static final long RATE_LIMIT_TTL = 60 * 60 * 1000;
+    private static final long BASE_BACKOFF = 1000;
+
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
+
+    private ExpiringCache<String, RateLimit> rateLimits;
+    private int threshold;
+    private long maxWait;
+    private int maxRetries;
+
+    @PostConstruct
+    public void postConstruct() {
+        rateLimits = new ExpiringCache<>(CACHE_NAME, config.getConnectorRateLimitCacheMaxSize(), value -> RATE_LIMIT_TTL, metrics);
+        threshold = config.getConnectorRateLimitThreshold();
+        maxWait = config.getConnectorMaxWait();
+        long maxWaitCap = config.getConnectorTimeout() / 4;
+        if (maxWait > maxWaitCap) {
+            logger.warn("Connector max wait ({}ms) capped at a quarter of the connector timeout ({}ms).", maxWait, maxWaitCap);
+            maxWait = maxWaitCap;
+        }
+        maxRetries = config.getConnectorMaxRetries();
+        metrics.registerRateLimits(this::getRemaining);
+    }
+
+    /**
+     * Returns the lowest remaining quota of each provider, across all of the credentials
+     * whose quota is currently known (has been reported and has not been reset since).
+     * Providers for which no quota is known are left out.
+     */
+    public Map<LinkedAccountType, Long> getRemaining() {
+        long now = System.currentTimeMillis();
+        Map<LinkedAccountType, Long> rval = new EnumMap<>(LinkedAccountType.class);
+        rateLimits.forEach((key, rateLimit) -> {
+            long remaining = rateLimit.getRemaining(now);
+            if (remaining >= 0) {
+                LinkedAccountType type = LinkedAccountType.valueOf(key.substring(0, key.indexOf("::")));
+                rval.merge(type, remaining, Math::min);
+            }
+        });
+        return rval;
+    }
+
+    /**
+     * Called before the given request is sent to the provider.  Waits until the call is
+     * allowed by the provider's rate limit.  Fails immediately (rather than waiting) if
+     * the quota is used up and will not reset within the configured maximum wait.
+     * @param type
+     * @param request
+     * @throws IOException
+     */
+    public void acquire(LinkedAccountType type, HttpRequest request) throws IOException {
+        long delay = getRateLimit(type, request).reserve(System.currentTimeMillis(), threshold);
+        if (delay > maxWait) {
+            throw new IOException(type.name() + " rate limit exceeded.  The limit resets in " + (delay / 1000) + " seconds.");
+        }
+        if (delay > 0) {
+            logger.debug("{} rate limit is low, delaying request by {}ms.", type.name(), delay);
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Called with the response to the given request.  Records the rate limit state it
+     * reports and returns the number of millis to wait before retrying the request, or
+     * -1 if the request should not be retried (because it was not rate limited, or it
+     * has been retried enough already).
+     * @param type
+     * @param request
+     * @param response
+     * @param attempt the number of times the request has already been retried
+     * @throws IOException
+     */
+    public long record(LinkedAccountType type, HttpRequest request, HttpResponse response, int attempt) throws IOException {
+        RateLimit rateLimit = getRateLimit(type, request);
+        long now = System.currentTimeMillis();
+
+        long remaining = getLongHeader(response, "X-RateLimit-Remaining", "RateLimit-Remaining");
+        long resetAt = -1;
+        if (remaining >= 0) {
+            long reset = getLongHeader(response, "X-RateLimit-Reset", "RateLimit-Reset");
+            resetAt = reset >= 0 ? reset * 1000 : now + RATE_LIMIT_TTL;
+            rateLimit.update(remaining, resetAt);
+        }
+
+        int status = response.getStatusLine().getStatusCode();
+        long retryAfter = getLongHeader(response, "Retry-After");
+        boolean limited = status == 429 || (status == 403 && (retryAfter >= 0 || remaining == 0));
+        if (!limited) {
+            return -1;
+        }
+        metrics.rateLimited(type);
+
+        long delay;
+        if (retryAfter >= 0) {
+            delay = retryAfter * 1000;
+        } else if (remaining == 0) {
+            delay = resetAt - now;
+        } else {
+            delay = BASE_BACKOFF << Math.min(attempt, 10);
+        }
+        if (remaining < 0) {
+            // No quota reported - hold back all calls made with these credentials for the delay
+            rateLimit.update(0, now + delay);
+        }
+
+        if (attempt >= maxRetries || delay > maxWait) {
+            logger.warn("Request to {} was rate limited ({}), not retrying.", type.name(), status);
+            return -1;
+        }
+        logger.debug("Request to {} was rate limited ({}), retrying in {}ms.", type.name(), status, delay);
+        return Math.max(delay, 0);
+    }
+
+    /**
+     * Waits for the given number of millis.
+     * @param millis
+     * @throws InterruptedIOException
+     */
+    public void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit.");
+        }
+    }
+
+    /**
+     * Returns the rate limit state for the provider and the credentials used by the
+     * given request.
+     * @param type
+     * @param request
+     * @throws IOException
+     */
+    private RateLimit getRateLimit(LinkedAccountType type, HttpRequest request) throws IOException {
+        Header credentials = request.getFirstHeader("Authorization");
+        if (credentials == null) {
+            credentials = request.getFirstHeader("PRIVATE-TOKEN");
+        }
+        String key = type.name() + "::" + (credentials != null ? DigestUtils.sha256Hex(credentials.getValue()) : "");
+        try {
+            return rateLimits.get(key, RateLimit::new);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the value of the first of the given headers found in the response as a
+     * long, or -1 if none of them are present (or valid).
+     * @param response
+     * @param names
+     */
+    private static long getLongHeader(HttpResponse response, String ... names) {
+        for (String name : names) {
+            Header header = response.getFirstHeader(name);
+            if (header != null) {
+                try {
+                    return Long.parseLong(header.getValue().trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The rate limit state of a single set of credentials.
+     */
+    static class RateLimit {
+
+        private long remaining = -1;
+        private long resetAt;
+        private long nextSlot;
+
+        /**
+         * Records the state reported by the provider.
+         * @param remaining
+         * @param resetAt
+         */
+        synchronized void update(long remaining, long resetAt) {
+            this.remaining = remaining;
+            this.resetAt = resetAt;
+        }
+
+        /**
+         * Reserves a call and returns the number of millis the caller must wait before
+         * making it.  Returns 0 while the remaining quota is above the threshold (or is
+         * unknown).  Otherwise the remaining quota is spread evenly over the time left
+         * until it resets.
+         * @param now
+         * @param threshold
+         */
+        synchronized long reserve(long now, int threshold) {
+            if (remaining < 0 || remaining > threshold) {
+                return 0;
+            }
+            if (resetAt <= now) {
+                // The quota has been reset, but we don't know its new value yet
+                remaining = -1;
+                nextSlot = 0;
+                return 0;
+            }
+            if (remaining == 0) {
+                return resetAt - now;
+            }
+            long interval = (resetAt - now) / remaining;
+            long slot = Math.max(now, nextSlot);
+            nextSlot = slot + interval;
+            remaining--;
+            return slot - now;
+        }
+
+        /**
+         * @return the remaining quota (or -1 if unknown)
+         */
+        synchronized long getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * @param now
+         * @return the remaining quota (or -1 if unknown, or if it has been reset by now)
+         */
+        synchronized long getRemaining(long now) {
+            return resetAt > now ? remaining : -1;
+        }
+
+    }
+
+}
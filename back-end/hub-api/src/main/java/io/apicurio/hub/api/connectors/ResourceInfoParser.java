@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
+
+/**
+ * Streaming helpers used by the source connectors to extract the handful of values
+ * they need from (potentially very large) OpenAPI documents and API responses
+ * without materializing them as Strings, Maps or data-bound beans.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public final class ResourceInfoParser {
+
+    private static final JsonFactory factory = new JsonFactory();
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private ResourceInfoParser() {
+    }
+
+    /**
+     * Reads the given OpenAPI document (JSON) and copies its info.title, info.description
+     * and tag names into the given resource info.  Values not present in the document
+     * are left untouched, so callers should set any defaults first.  All other parts of
+     * the document are skipped without being parsed into objects.
+     * @param document
+     * @param info
+     * @throws IOException
+     */
+    public static void parse(InputStream document, ApiDesignResourceInfo info) throws IOException {
+        try (JsonParser parser = factory.createParser(document)) {
+            parse(parser, info);
+        }
+    }
+
+    /**
+     * Reads the given OpenAPI document (JSON).
+     * @see #parse(InputStream, ApiDesignResourceInfo)
+     * @param document
+     * @param info
+     * @throws IOException
+     */
+    public static void parse(String document, ApiDesignResourceInfo info) throws IOException {
+        try (JsonParser parser = factory.createParser(document)) {
+            parse(parser, info);
+        }
+    }
+
+    /**
+     * Reads the info and tags from a document using the given parser.
+     * @param parser
+     * @param info
+     * @throws IOException
+     */
+    private static void parse(JsonParser parser, ApiDesignResourceInfo info) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Expected an OpenAPI document (JSON object).", parser.getCurrentLocation());
+        }
+        boolean infoFound = false;
+        boolean tagsFound = false;
+        while (!(infoFound && tagsFound) && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("info".equals(fieldName) && token == JsonToken.START_OBJECT) {
+                parseInfo(parser, info);
+                infoFound = true;
+            } else if ("tags".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                parseTags(parser, info);
+                tagsFound = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the title and description from the document's "info" object.
+     * @param parser
+     * @param info
+     * @throws IOException
+     */
+    private static void parseInfo(JsonParser parser, ApiDesignResourceInfo info) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("title".equals(fieldName) && token == JsonToken.VALUE_STRING) {
+                info.setName(parser.getText());
+            } else if ("description".equals(fieldName) && token == JsonToken.VALUE_STRING) {
+                info.setDescription(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the tag names from the document's "tags" array.
+     * @param parser
+     * @param info
+     * @throws IOException
+     */
+    private static void parseTags(JsonParser parser, ApiDesignResourceInfo info) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("name".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    info.getTags().add(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the named (top level) Base64 encoded string field in the given JSON object and 
+     * returns its decoded content.  The value is decoded directly from the underlying
+     * stream as it is parsed, so neither the response nor the encoded value are ever held
+     * in memory as a whole.  Returns null if the field is not present.
+     * @param json
+     * @param fieldName
+     * @param sizeHint the expected (encoded) size of the content, or -1 if unknown
+     * @throws IOException
+     */
+    public static InputStream decodeBase64Field(InputStream json, String fieldName, long sizeHint) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException("Expected a JSON object.", parser.getCurrentLocation());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String currentName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (fieldName.equals(currentName) && token == JsonToken.VALUE_STRING) {
+                    int initialSize = sizeHint > 0 && sizeHint < Integer.MAX_VALUE ? (int) (sizeHint * 3 / 4) : DEFAULT_BUFFER_SIZE;
+                    DecodedContent decoded = new DecodedContent(initialSize);
+                    parser.readBinaryValue(decoded);
+                    return decoded.toInputStream();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A byte array output stream that can be read back without copying its buffer.
+     */
+    private static class DecodedContent extends ByteArrayOutputStream {
+
+        /**
+         * Constructor.
+         * @param size
+         */
+        DecodedContent(int size) {
+            super(size);
+        }
+
+        /**
+         * @return an input stream over the bytes written so far
+         */
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+
+    }
+
+}
@@ -18,30 +18,42 @@ package io.apicurio.hub.api.github;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 import org.apache.commons.codec.binary.Base64;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.keycloak.common.util.Encode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.GetRequest;
-import com.mashape.unirest.request.HttpRequest;
-import com.mashape.unirest.request.HttpRequestWithBody;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
 import io.apicurio.hub.api.beans.Collaborator;
@@ -52,9 +64,12 @@ import io.apicurio.hub.api.beans.GitHubOrganization;
 import io.apicurio.hub.api.beans.GitHubRepository;
 import io.apicurio.hub.api.beans.GitHubUpdateFileRequest;
 import io.apicurio.hub.api.beans.LinkedAccountType;
-import io.apicurio.hub.api.beans.OpenApi3Document;
 import io.apicurio.hub.api.beans.ResourceContent;
+import io.apicurio.hub.api.cache.BoundedCache;
+import io.apicurio.hub.api.cache.ETagCache;
+import io.apicurio.hub.api.cache.ETagCache.CachedResponse;
 import io.apicurio.hub.api.connectors.AbstractSourceConnector;
+import io.apicurio.hub.api.connectors.ResourceInfoParser;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
 
@@ -68,6 +83,36 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
     private static Logger logger = LoggerFactory.getLogger(GitHubSourceConnector.class);
 
     private static final String GITHUB_API_ENDPOINT = "https://api.github.com";
+    private static final int PAGE_SIZE = 100;
+    private static final Pattern PAGE_PARAM_PATTERN = Pattern.compile("([?&])page=(\\d+)");
+
+    static final String USER_LOGIN_CACHE_NAME = "github-user-logins";
+    private static final long USER_LOGIN_CACHE_MAX_BYTES = 1024 * 1024;
+
+    @Inject
+    private ETagCache etagCache;
+
+    private ExecutorService pageExecutor;
+    private BoundedCache<String, String> userLogins;
+
+    @PostConstruct
+    public void postConstruct() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "github-pagination-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        pageExecutor = Executors.newFixedThreadPool(config.getGitHubPaginationThreads(), threadFactory);
+        userLogins = new BoundedCache<>(USER_LOGIN_CACHE_NAME, USER_LOGIN_CACHE_MAX_BYTES, (key, value) -> {
+            return 2L * (key.length() + value.length()) + 64;
+        }, metrics);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        pageExecutor.shutdownNow();
+    }
     
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#getType()
@@ -114,34 +159,42 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
             if (resource == null) {
                 throw new NotFoundException();
             }
-            String content = getResourceContent(resource);
-            Map<String, Object> jsonContent = mapper.reader(Map.class).readValue(content);
-            String b64Content = (String) jsonContent.get("content");
-            
-            String name = resource.getResourcePath();
-            String description = "";
-            
-            content = new String(Base64.decodeBase64(b64Content), "UTF-8");
-            OpenApi3Document document = mapper.reader(OpenApi3Document.class).readValue(content);
-            if (document.getInfo() != null) {
-                if (document.getInfo().getTitle() != null) {
-                    name = document.getInfo().getTitle();
-                }
-                if (document.getInfo().getDescription() != null) {
-                    description = document.getInfo().getDescription();
-                }
-            }
             
             ApiDesignResourceInfo info = new ApiDesignResourceInfo();
-            info.setName(name);
-            info.setDescription(description);
+            info.setName(resource.getResourcePath());
+            info.setDescription("");
             info.setUrl("https://github.com/:org/:repo/blob/master/:path"
                     .replace(":org", resource.getOrganization())
                     .replace(":repo", resource.getRepository())
                     .replace(":path", resource.getResourcePath()));
-            if (document.getTags() != null) {
-                for (int idx = 0; idx < document.getTags().length; idx++) {
-                    info.getTags().add(document.getTags()[idx].getName());
+
+            // Stream the (decoded) content straight into the info parser rather than
+            // buffering the response, the encoded content and the document as Strings.
+            String contentUrl = getContentUrl(resource);
+            String user = security.getCurrentUser().getLogin();
+            CachedResponse cached = etagCache.get(user, contentUrl);
+            try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(contentUrl, cached))) {
+                int status = response.getStatusLine().getStatusCode();
+                if (cached != null) {
+                    etagCache.revalidated(status == 304);
+                    if (status == 304) {
+                        ResourceInfoParser.parse(cached.getContent().getContent(), info);
+                        return info;
+                    }
+                }
+                if (status == 404) {
+                    throw new NotFoundException();
+                }
+                if (status != 200) {
+                    throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+                }
+                try (InputStream contentStream = response.getEntity().getContent()) {
+                    InputStream document = ResourceInfoParser.decodeBase64Field(contentStream, "content", 
+                            response.getEntity().getContentLength());
+                    if (document == null) {
+                        throw new SourceConnectorException("GitHub response did not include the resource content.");
+                    }
+                    ResourceInfoParser.parse(document, info);
                 }
             }
             return info;
@@ -152,32 +205,80 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
 
     /**
      * Gets the content of the given GitHub resource.  This is done by querying for the
-     * content using the GH API.
+     * content using the GH API.  The response is cached (per user) along with its ETag
+     * so that subsequent requests for the same resource can be made conditionally - a
+     * "304 Not Modified" response does not count against the user's rate limit and
+     * does not need to be decoded.
      * @param resource
      */
-    private String getResourceContent(GitHubResource resource) throws NotFoundException, SourceConnectorException {
+    private ResourceContent getResourceContent(GitHubResource resource) throws NotFoundException, SourceConnectorException {
         logger.debug("Getting resource content for: {}/{} - {}", 
                 resource.getOrganization(), resource.getRepository(), resource.getResourcePath());
         try {
-            String contentUrl = this.endpoint("/repos/:owner/:repo/contents/:path")
-                    .bind("owner", resource.getOrganization())
-                    .bind("repo", resource.getRepository())
-                    .bind("path", resource.getResourcePath())
-                    .url();
-            GetRequest request = Unirest.get(contentUrl).header("Accept", "application/json");
-            addSecurityTo(request);
-            HttpResponse<String> userResp = request.asString();
-            if (userResp.getStatus() != 200) {
-                throw new NotFoundException();
-            } else {
-                String json = userResp.getBody();
-                return json;
+            String contentUrl = getContentUrl(resource);
+            String user = security.getCurrentUser().getLogin();
+            CachedResponse cached = etagCache.get(user, contentUrl);
+
+            try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(contentUrl, cached))) {
+                int status = response.getStatusLine().getStatusCode();
+                if (cached != null) {
+                    etagCache.revalidated(status == 304);
+                    if (status == 304) {
+                        return cached.getContent();
+                    }
+                }
+                if (status == 404) {
+                    throw new NotFoundException();
+                }
+                if (status != 200) {
+                    throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+                }
+    
+                try (InputStream contentStream = response.getEntity().getContent()) {
+                    GitHubGetContentsResponse body = mapper.readValue(contentStream, GitHubGetContentsResponse.class);
+                    String b64Content = body.getContent();
+                    String content = new String(Base64.decodeBase64(b64Content), "utf-8");
+                    ResourceContent rval = new ResourceContent();
+                    rval.setContent(content);
+                    rval.setSha(body.getSha());
+                    etagCache.put(user, contentUrl, getHeader(response, "ETag"), rval);
+                    return rval;
+                }
             }
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException("Error getting GitHub resource content.", e);
         }
     }
     
+    /**
+     * Returns the GH API url used to get the content of the given resource.
+     * @param resource
+     */
+    private String getContentUrl(GitHubResource resource) {
+        return this.endpoint("/repos/:owner/:repo/contents/:path")
+                .bind("owner", resource.getOrganization())
+                .bind("repo", resource.getRepository())
+                .bind("path", resource.getResourcePath())
+                .url();
+    }
+
+    /**
+     * Creates a request for the content at the given url.  If a response for the url
+     * has already been cached then the request is made conditional on its ETag.
+     * @param contentUrl
+     * @param cached
+     * @throws SourceConnectorException
+     */
+    private HttpGet createContentRequest(String contentUrl, CachedResponse cached) throws SourceConnectorException {
+        HttpGet get = new HttpGet(contentUrl);
+        get.addHeader("Accept", "application/json");
+        addSecurityTo(get);
+        if (cached != null) {
+            get.addHeader("If-None-Match", cached.getEtag());
+        }
+        return get;
+    }
+
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#getCollaborators(java.lang.String)
      */
@@ -193,42 +294,41 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
             String commitsUrl = endpoint("/repos/:org/:repo/commits")
                     .bind("org", resource.getOrganization())
                     .bind("repo", resource.getRepository())
-                    .url();
-            HttpRequest request = Unirest.get(commitsUrl).header("Accept", "application/json")
-                    .queryString("path", resource.getResourcePath());
-            addSecurityTo(request);
-            HttpResponse<JsonNode> response = request.asJson();
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-            }
-            
-            Map<String, Collaborator> cidx = new HashMap<>();
-            JsonNode node = response.getBody();
-            if (node.isArray()) {
-                JSONArray array = node.getArray();
-                if (array.length() == 0) {
-                	throw new NotFoundException();
+                    .url() + "?path=" + URLEncoder.encode(resource.getResourcePath(), "UTF-8");
+            HttpGet get = new HttpGet(commitsUrl);
+            get.addHeader("Accept", "application/json");
+            addSecurityTo(get);
+            try (CloseableHttpResponse response = execute(OP_COLLABORATORS, get)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
                 }
-                array.forEach( obj -> {
-                    JSONObject jobj = (JSONObject) obj;
-                    JSONObject authorObj = (JSONObject) jobj.get("author");
-                    String user = authorObj.getString("login");
-                    Collaborator collaborator = cidx.get(user);
-                    if (collaborator == null) {
-                        collaborator = new Collaborator();
-                        collaborator.setName(user);
-                        collaborator.setUrl(authorObj.getString("html_url"));
-                        collaborator.setCommits(1);
-                        cidx.put(user, collaborator);
-                    } else {
-                        collaborator.setCommits(collaborator.getCommits() + 1);
+                
+                Map<String, Collaborator> cidx = new HashMap<>();
+                JsonNode node = readJson(response);
+                if (node.isArray()) {
+                    if (node.size() == 0) {
+                    	throw new NotFoundException();
                     }
-                });
-            } else {
-            	throw new NotFoundException();
+                    node.forEach( jobj -> {
+                        JsonNode authorObj = jobj.get("author");
+                        String user = authorObj.get("login").asText();
+                        Collaborator collaborator = cidx.get(user);
+                        if (collaborator == null) {
+                            collaborator = new Collaborator();
+                            collaborator.setName(user);
+                            collaborator.setUrl(authorObj.get("html_url").asText());
+                            collaborator.setCommits(1);
+                            cidx.put(user, collaborator);
+                        } else {
+                            collaborator.setCommits(collaborator.getCommits() + 1);
+                        }
+                    });
+                } else {
+                	throw new NotFoundException();
+                }
+                return cidx.values();
             }
-            return cidx.values();
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException("Error getting collaborator information for a GitHub resource.", e);
         }
     }
@@ -238,33 +338,21 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
      */
     @Override
     public ResourceContent getResourceContent(String repositoryUrl) throws NotFoundException, SourceConnectorException {
-        try {
-            GitHubResource resource = GitHubResourceResolver.resolve(repositoryUrl);
-            String getContentUrl = this.endpoint("/repos/:org/:repo/contents/:path")
-                    .bind("org", resource.getOrganization())
-                    .bind("repo", resource.getRepository())
-                    .bind("path", resource.getResourcePath())
-                    .url();
-            HttpRequest request = Unirest.get(getContentUrl).header("Accept", "application/json");
-            addSecurityTo(request);
-            HttpResponse<GitHubGetContentsResponse> response = request.asObject(GitHubGetContentsResponse.class);
-            if (response.getStatus() == 404) {
-            	throw new NotFoundException();
-            }
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-            }
-            
-            GitHubGetContentsResponse body = response.getBody();
-            String b64Content = body.getContent();
-            String content = new String(Base64.decodeBase64(b64Content), "utf-8");
-            ResourceContent rval = new ResourceContent();
-            rval.setContent(content);
-            rval.setSha(body.getSha());
-            return rval;
-        } catch (UnirestException | UnsupportedEncodingException e) {
-            throw new SourceConnectorException("Error getting Github resource content.", e);
+        GitHubResource resource = GitHubResourceResolver.resolve(repositoryUrl);
+        if (resource == null) {
+            throw new NotFoundException();
         }
+        return getResourceContent(resource);
+    }
+
+    /**
+     * Content requests are conditional (see {@link ETagCache}), so when the content has not
+     * changed this costs a single 304 response - which does not count against the rate limit.
+     * @see io.apicurio.hub.api.connectors.ISourceConnector#getResourceSha(java.lang.String)
+     */
+    @Override
+    public String getResourceSha(String repositoryUrl) throws NotFoundException, SourceConnectorException {
+        return getResourceContent(repositoryUrl).getSha();
     }
     
     /**
@@ -288,22 +376,26 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
                 .bind("path", resource.getResourcePath())
                 .url();
 
-            HttpRequestWithBody request = Unirest.put(createContentUrl).header("Content-Type", "application/json; charset=utf-8");
-            addSecurityTo(request);
-            HttpResponse<JsonNode> response = request.body(requestBody).asJson();
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
+            HttpPut put = new HttpPut(createContentUrl);
+            addSecurityTo(put);
+            put.setEntity(new StringEntity(mapper.writeValueAsString(requestBody), ContentType.APPLICATION_JSON));
+            JsonNode node;
+            try (CloseableHttpResponse response = execute(OP_COMMIT, put)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+                }
+                node = readJson(response);
             }
-            JsonNode node = response.getBody();
-            String newSha = node.getObject().getJSONObject("content").getString("sha");
+            String newSha = node.get("content").get("sha").asText();
+            etagCache.invalidate(security.getCurrentUser().getLogin(), createContentUrl);
             
             if (commitComment != null && !commitComment.trim().isEmpty()) {
-                String commitSha = node.getObject().getJSONObject("commit").getString("sha");
+                String commitSha = node.get("commit").get("sha").asText();
                 this.addCommitComment(repositoryUrl, commitSha, commitComment);
             }
             
             return newSha;
-        } catch (UnsupportedEncodingException | UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException("Error updating Github resource content.", e);
         }
     }
@@ -313,11 +405,11 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
      * @param repositoryUrl
      * @param commitSha
      * @param commitComment
-     * @throws UnirestException
+     * @throws IOException
      * @throws SourceConnectorException
      */
     private void addCommitComment(String repositoryUrl, String commitSha, String commitComment)
-            throws UnirestException, SourceConnectorException {
+            throws IOException, SourceConnectorException {
         GitHubCreateCommitCommentRequest body = new GitHubCreateCommitCommentRequest();
         body.setBody(commitComment);
 
@@ -329,11 +421,13 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
             .bind("sha", commitSha)
             .url();
 
-        HttpRequestWithBody request = Unirest.post(addCommentUrl).header("Content-Type", "application/json; charset=utf-8");
-        addSecurityTo(request);
-        HttpResponse<JsonNode> response = request.body(body).asJson();
-        if (response.getStatus() != 201) {
-            throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
+        HttpPost post = new HttpPost(addCommentUrl);
+        addSecurityTo(post);
+        post.setEntity(new StringEntity(mapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = execute(OP_COMMIT_COMMENT, post)) {
+            if (response.getStatusLine().getStatusCode() != 201) {
+                throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+            }
         }
     }
 
@@ -356,13 +450,15 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
                 .bind("path", resource.getResourcePath())
                 .url();
 
-            HttpRequestWithBody request = Unirest.put(createContentUrl).header("Content-Type", "application/json; charset=utf-8");
-            addSecurityTo(request);
-            HttpResponse<InputStream> response = request.body(requestBody).asBinary();
-            if (response.getStatus() != 201) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
+            HttpPut put = new HttpPut(createContentUrl);
+            addSecurityTo(put);
+            put.setEntity(new StringEntity(mapper.writeValueAsString(requestBody), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = execute(OP_COMMIT, put)) {
+                if (response.getStatusLine().getStatusCode() != 201) {
+                    throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+                }
             }
-        } catch (UnsupportedEncodingException | UnirestException e) {
+        } catch (IOException e) {
             throw new SourceConnectorException("Error creating Github resource content.", e);
         }
     }
@@ -376,47 +472,29 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
         try {
             Collection<GitHubOrganization> rval = new HashSet<>();
 
+            String idpToken = getExternalToken();
+
             // Add the user's personal org
-            String userUrl = endpoint("/user").url();
-            HttpRequest request = Unirest.get(userUrl).header("Accept", "application/json");
-            addSecurityTo(request);
-            HttpResponse<JsonNode> response = request.asJson();
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-            }
-            String userLogin = response.getBody().getObject().getString("login");
+            String userLogin = getUserLogin(idpToken);
             GitHubOrganization ghorg = new GitHubOrganization();
             ghorg.setId(userLogin);
             ghorg.setUserOrg(true);
             rval.add(ghorg);
 
             // Add all the orgs visible to the user
-            String orgsUrl = endpoint("/user/orgs").url();
-            while (orgsUrl != null) {
-                request = Unirest.get(orgsUrl).header("Accept", "application/json");
-                addSecurityTo(request);
-                response = request.asJson();
-                if (response.getStatus() != 200) {
-                    throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-                }
-                
-                JSONArray array = response.getBody().getArray();
-                array.forEach( obj -> {
-                    JSONObject org = (JSONObject) obj;
-                    String login = org.getString("login");
+            String orgsUrl = endpoint("/user/orgs").url() + "?per_page=" + PAGE_SIZE;
+            for (JsonNode page : getAllPages(OP_LIST_ORGS, orgsUrl, idpToken)) {
+                page.forEach( org -> {
+                    String login = org.get("login").asText();
                     GitHubOrganization gho = new GitHubOrganization();
                     gho.setId(login);
                     gho.setUserOrg(false);
                     rval.add(gho);
                 });
-                
-                String linkHeader = response.getHeaders().getFirst("Link");
-                Map<String, String> links = parseLinkHeader(linkHeader);
-                orgsUrl = links.get("next");
             }
             
             return rval;
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new GitHubException("Error getting GitHub organizations.", e);
         }
     }
@@ -428,15 +506,10 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
     public Collection<GitHubRepository> getRepositories(String org) throws GitHubException, SourceConnectorException {
         logger.debug("Getting the repositories from organization {}", org);
         try {
+            String idpToken = getExternalToken();
+
             // First get the user's login id
-            String userUrl = endpoint("/user").url();
-            HttpRequest request = Unirest.get(userUrl).header("Accept", "application/json");
-            addSecurityTo(request);
-            HttpResponse<JsonNode> response = request.asJson();
-            if (response.getStatus() != 200) {
-                throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-            }
-            String userLogin = response.getBody().getObject().getString("login");
+            String userLogin = getUserLogin(idpToken);
 
             // Figure out if we're listing the user's repos or an org's repos
             String reposUrl;
@@ -448,40 +521,175 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
 
             // Return all pages of repos
             Collection<GitHubRepository> rval = new HashSet<>();
-            while (reposUrl != null) {
-                request = Unirest.get(reposUrl).header("Accept", "application/json");
-                addSecurityTo(request);
-                response = request.asJson();
-                if (response.getStatus() != 200) {
-                    throw new UnirestException("Unexpected response from GitHub: " + response.getStatus() + "::" + response.getStatusText());
-                }
-                
-                JSONArray array = response.getBody().getArray();
-                array.forEach( obj -> {
-                    JSONObject repo = (JSONObject) obj;
+            for (JsonNode page : getAllPages(OP_LIST_REPOS, reposUrl + "?per_page=" + PAGE_SIZE, idpToken)) {
+                page.forEach( repo -> {
                     GitHubRepository ghrepo = new GitHubRepository();
-                    ghrepo.setName(repo.getString("name"));
-                    ghrepo.setPriv(repo.getBoolean("private"));
+                    ghrepo.setName(repo.get("name").asText());
+                    ghrepo.setPriv(repo.get("private").asBoolean());
                     rval.add(ghrepo);
                 });
-                
-                String linkHeader = response.getHeaders().getFirst("Link");
-                Map<String, String> links = parseLinkHeader(linkHeader);
-                reposUrl = links.get("next");
             }
             return rval;
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new GitHubException("Error getting GitHub repositories.", e);
         }
     }
 
     /**
-     * @see io.apicurio.hub.api.connectors.AbstractSourceConnector#addSecurityTo(com.mashape.unirest.request.HttpRequest)
+     * Gets the login id of the owner of the given GitHub token.  The login for a token
+     * never changes, so it is cached (keyed by a hash of the token) to avoid calling
+     * the /user endpoint every time the user's orgs or repos are listed.  Fails if
+     * there is no token (i.e. the user has not linked a GitHub account).
+     * @param idpToken
+     * @throws IOException
+     * @throws SourceConnectorException
+     */
+    private String getUserLogin(String idpToken) throws IOException, SourceConnectorException {
+        if (idpToken == null) {
+            throw new SourceConnectorException("No GitHub account has been linked.");
+        }
+        String tokenHash = DigestUtils.sha256Hex(idpToken);
+        String login = userLogins.get(tokenHash);
+        if (login != null) {
+            return login;
+        }
+
+        HttpGet get = new HttpGet(endpoint("/user").url());
+        get.addHeader("Accept", "application/json");
+        get.addHeader("Authorization", "Bearer " + idpToken);
+        try (CloseableHttpResponse response = execute(OP_GET_USER, get)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new SourceConnectorException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+            }
+            login = readJson(response).get("login").asText();
+        }
+        userLogins.put(tokenHash, login);
+        return login;
+    }
+
+    /**
+     * Fetches every page of a paginated GitHub listing, returning the (JSON array) body
+     * of each page in order.  The first page is fetched on the calling thread;  if its
+     * "Link" header includes a "last" link then all of the remaining pages are known up
+     * front and are fetched concurrently.  Otherwise the "next" links are followed one
+     * page at a time.
+     * 
+     * Note that the token is resolved by the caller (on the request thread) since the
+     * page fetches may run on other threads.
+     * 
+     * @param operation
+     * @param firstPageUrl
+     * @param idpToken
+     * @throws IOException
+     * @throws GitHubException
+     */
+    List<JsonNode> getAllPages(String operation, String firstPageUrl, String idpToken) throws IOException, GitHubException {
+        List<JsonNode> pages = new ArrayList<>();
+        Page page = getPage(operation, firstPageUrl, idpToken);
+        pages.add(page.body);
+
+        String lastPageUrl = page.links.get("last");
+        int lastPage = lastPageUrl == null ? -1 : getPageNumber(lastPageUrl);
+        if (lastPage > 1) {
+            List<Future<Page>> futures = new ArrayList<>(lastPage - 1);
+            try {
+                for (int pageNum = 2; pageNum <= lastPage; pageNum++) {
+                    String pageUrl = PAGE_PARAM_PATTERN.matcher(lastPageUrl).replaceFirst("$1page=" + pageNum);
+                    futures.add(pageExecutor.submit(() -> getPage(operation, pageUrl, idpToken)));
+                }
+                for (Future<Page> future : futures) {
+                    pages.add(future.get().body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GitHubException("Interrupted while fetching pages from GitHub.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof GitHubException) {
+                    throw (GitHubException) cause;
+                }
+                throw new GitHubException("Error fetching pages from GitHub.", cause);
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+            }
+        } else {
+            String nextPageUrl = page.links.get("next");
+            while (nextPageUrl != null) {
+                page = getPage(operation, nextPageUrl, idpToken);
+                pages.add(page.body);
+                nextPageUrl = page.links.get("next");
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Fetches a single page of a paginated GitHub listing.
+     * @param operation
+     * @param pageUrl
+     * @param idpToken
+     * @throws IOException
+     * @throws GitHubException
+     */
+    private Page getPage(String operation, String pageUrl, String idpToken) throws IOException, GitHubException {
+        HttpGet get = new HttpGet(pageUrl);
+        get.addHeader("Accept", "application/json");
+        get.addHeader("Authorization", "Bearer " + idpToken);
+        try (CloseableHttpResponse response = execute(operation, get)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new GitHubException("Unexpected response from GitHub: " + response.getStatusLine().toString());
+            }
+            Page page = new Page();
+            page.body = readJson(response);
+            page.links = parseLinkHeader(getHeader(response, "Link"));
+            return page;
+        }
+    }
+
+    /**
+     * Extracts the value of the "page" query param from the given (pagination) url, or
+     * returns -1 if there is none.
+     * @param pageUrl
+     */
+    static int getPageNumber(String pageUrl) {
+        Matcher matcher = PAGE_PARAM_PATTERN.matcher(pageUrl);
+        if (matcher.find()) {
+            return Integer.parseInt(matcher.group(2));
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the body of the given response as a JSON tree.
+     * @param response
+     * @throws IOException
+     */
+    private static JsonNode readJson(CloseableHttpResponse response) throws IOException {
+        try (InputStream contentStream = response.getEntity().getContent()) {
+            return mapper.readTree(contentStream);
+        }
+    }
+
+    /**
+     * Returns the value of the named response header, or null if it is not present.
+     * @param response
+     * @param name
+     */
+    private static String getHeader(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * @see io.apicurio.hub.api.connectors.AbstractSourceConnector#addSecurityTo(org.apache.http.client.methods.HttpRequestBase)
      */
     @Override
-    protected void addSecurityTo(HttpRequest request) throws SourceConnectorException {
+    protected void addSecurityTo(HttpRequestBase request) throws SourceConnectorException {
         String idpToken = getExternalToken();
-        request.header("Authorization", "Bearer " + idpToken);
+        request.addHeader("Authorization", "Bearer " + idpToken);
     }
 
     /**
@@ -514,4 +722,12 @@ public class GitHubSourceConnector extends AbstractSourceConnector implements IG
         return rval;
     }
 
+    /**
+     * A single page of a paginated GitHub listing.
+     */
+    private static class Page {
+        JsonNode body;
+        Map<String, String> links;
+    }
+
 }
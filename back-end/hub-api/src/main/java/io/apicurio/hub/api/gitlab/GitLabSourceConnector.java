@@ -29,23 +29,21 @@ import java.util.Map;
 import javax.enterprise.context.ApplicationScoped;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.http.Header;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.HttpRequest;
 
 import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
 import io.apicurio.hub.api.beans.Collaborator;
@@ -55,9 +53,9 @@ import io.apicurio.hub.api.beans.GitLabCreateFileRequest;
 import io.apicurio.hub.api.beans.GitLabGroup;
 import io.apicurio.hub.api.beans.GitLabProject;
 import io.apicurio.hub.api.beans.LinkedAccountType;
-import io.apicurio.hub.api.beans.OpenApi3Document;
 import io.apicurio.hub.api.beans.ResourceContent;
 import io.apicurio.hub.api.connectors.AbstractSourceConnector;
+import io.apicurio.hub.api.connectors.ResourceInfoParser;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
 
@@ -122,50 +120,41 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
             if (resource == null) {
                 throw new NotFoundException();
             }
-            String content = getResourceContent(resource);
-            
-            String name = resource.getResourcePath();
-            String description = "";
-            OpenApi3Document document = mapper.reader(OpenApi3Document.class).readValue(content);
-            if (document.getInfo() != null) {
-                if (document.getInfo().getTitle() != null) {
-                    name = document.getInfo().getTitle();
-                }
-                if (document.getInfo().getDescription() != null) {
-                    description = document.getInfo().getDescription();
-                }
-            }
             
             ApiDesignResourceInfo info = new ApiDesignResourceInfo();
-            info.setName(name);
-            info.setDescription(description);
+            info.setName(resource.getResourcePath());
+            info.setDescription("");
             info.setUrl(this.endpoint("/:group/:project/blob/:branch/:path")
                     .bind("group", resource.getGroup())
                     .bind("project", resource.getProject())
                     .bind("branch", resource.getBranch())
                     .bind("path", resource.getResourcePath())
                     .url());
+
+            // Stream the (decoded) content straight into the info parser rather than
+            // buffering the response, the encoded content and the document as Strings.
+            try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(resource))) {
+                if (response.getStatusLine().getStatusCode() == 404) {
+                    throw new NotFoundException();
+                }
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
+                }
+                try (InputStream contentStream = response.getEntity().getContent()) {
+                    InputStream document = ResourceInfoParser.decodeBase64Field(contentStream, "content", 
+                            response.getEntity().getContentLength());
+                    if (document == null) {
+                        throw new SourceConnectorException("GitLab response did not include the resource content.");
+                    }
+                    ResourceInfoParser.parse(document, info);
+                }
+            }
             return info;
         } catch (IOException e) {
             throw new SourceConnectorException("Error checking that a GitLab resource exists.", e);
         }
     }
 
-    /**
-     * Gets the content of the given GitLab resource.  This is done by querying for the
-     * content using the GH API.
-     *
-     * @param resource
-     */
-    private String getResourceContent(GitLabResource resource) throws NotFoundException, SourceConnectorException {
-        logger.debug("Getting resource content for: {}/{} - {}",
-                resource.getGroup(), resource.getProject(), resource.getResourcePath());
-
-        ResourceContent content = getResourceContentFromGitLab(resource);
-
-        return content.getContent();
-    }
-
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#getCollaborators(String)
      */
@@ -173,7 +162,7 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
     public Collection<Collaborator> getCollaborators(String repositoryUrl) throws NotFoundException, SourceConnectorException {
         logger.debug("Getting collaborator information for repository url: {}", repositoryUrl);
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             GitLabResource resource = GitLabResourceResolver.resolve(repositoryUrl);
             if (resource == null) {
                 throw new NotFoundException();
@@ -186,9 +175,9 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
             
             HttpGet get = new HttpGet(commitsUrl);
             get.addHeader("Accept", "application/json");
-            addSecurity(get);
+            addSecurityTo(get);
 
-            try (CloseableHttpResponse response = httpClient.execute(get)) {
+            try (CloseableHttpResponse response = execute(OP_COLLABORATORS, get)) {
                 if (response.getStatusLine().getStatusCode() == 404) {
                     throw new NotFoundException();
                 }
@@ -227,10 +216,10 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
     }
 
     /**
-     * Adds security information to the http request.
-     * @param request
+     * @see io.apicurio.hub.api.connectors.AbstractSourceConnector#addSecurityTo(org.apache.http.client.methods.HttpRequestBase)
      */
-    protected void addSecurity(HttpRequestBase request) throws SourceConnectorException {
+    @Override
+    protected void addSecurityTo(HttpRequestBase request) throws SourceConnectorException {
         if (this.getExternalTokenType() == TOKEN_TYPE_PAT) {
             request.addHeader("PRIVATE-TOKEN", getExternalToken());
         }
@@ -255,6 +244,33 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
         return getResourceContentFromGitLab(resource);
     }
 
+    /**
+     * Uses a HEAD request, which returns the file's meta-data (as headers) without its content.
+     * @see io.apicurio.hub.api.connectors.ISourceConnector#getResourceSha(java.lang.String)
+     */
+    @Override
+    public String getResourceSha(String repositoryUrl) throws NotFoundException, SourceConnectorException {
+        GitLabResource resource = GitLabResourceResolver.resolve(repositoryUrl);
+        HttpHead head = new HttpHead(getContentUrl(resource));
+        addSecurityTo(head);
+        try (CloseableHttpResponse response = execute(OP_GET_SHA, head)) {
+            if (response.getStatusLine().getStatusCode() == 404) {
+                throw new NotFoundException();
+            }
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
+            }
+            Header commitId = response.getFirstHeader("X-Gitlab-Commit-Id");
+            if (commitId == null) {
+                // Older versions of GitLab do not support HEAD requests for files
+                return getResourceContentFromGitLab(resource).getSha();
+            }
+            return commitId.getValue();
+        } catch (IOException e) {
+            throw new SourceConnectorException("Error getting GitLab resource meta-data.", e);
+        }
+    }
+
     /**
      * @see io.apicurio.hub.api.connectors.ISourceConnector#updateResourceContent(String, String, String, ResourceContent)
      */
@@ -274,7 +290,6 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
      * @param repositoryUrl
      * @param commitSha
      * @param commitComment
-     * @throws UnirestException
      * @throws SourceConnectorException
      */
     private void addCommitComment(String repositoryUrl, String commitSha, String commitComment)
@@ -288,15 +303,15 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
                 .bind("sha", commitSha)
                 .url();
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost post = new HttpPost(addCommentUrl);
-            addSecurity(post);
+            addSecurityTo(post);
             // Set note as a form body parameter
             List<NameValuePair> nvps = new ArrayList<NameValuePair>();
             nvps.add(new BasicNameValuePair("note", commitComment));
             post.setEntity(new UrlEncodedFormEntity(nvps));
             
-            try (CloseableHttpResponse response = httpClient.execute(post)) {
+            try (CloseableHttpResponse response = execute(OP_COMMIT_COMMENT, post)) {
                 if (response.getStatusLine().getStatusCode() != 201) {
                     throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
                 }
@@ -321,12 +336,12 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
     public Collection<GitLabGroup> getGroups() throws GitLabException, SourceConnectorException {
         logger.debug("Getting the GitLab groups for current user");
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet get = new HttpGet(this.endpoint("/api/v4/groups").url());
             get.addHeader("Accept", "application/json");
-            addSecurity(get);
+            addSecurityTo(get);
 
-            try (CloseableHttpResponse response = httpClient.execute(get)) {
+            try (CloseableHttpResponse response = execute(OP_LIST_ORGS, get)) {
                 if (response.getStatusLine().getStatusCode() != 200) {
                     throw new SourceConnectorException("Error getting GitLab groups: " + response.getStatusLine().getReasonPhrase());
                 }
@@ -362,14 +377,14 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
     public Collection<GitLabProject> getProjects(String group) throws GitLabException, SourceConnectorException {
         logger.debug("Getting the projects from group {}", group);
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             String requestUrl = this.endpoint("/api/v4/groups/:group/projects").bind("group", group).url();
 
             HttpGet get = new HttpGet(requestUrl);
             get.addHeader("Accept", "application/json");
-            addSecurity(get);
+            addSecurityTo(get);
 
-            try (CloseableHttpResponse response = httpClient.execute(get)) {
+            try (CloseableHttpResponse response = execute(OP_LIST_REPOS, get)) {
                 Collection<GitLabProject> rval = new HashSet<>();
                 try (InputStream contentStream = response.getEntity().getContent()) {
                     JsonNode node = mapper.readTree(contentStream);
@@ -395,14 +410,6 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
         }
     }
 
-    /**
-     * @see AbstractSourceConnector#addSecurityTo(HttpRequest)
-     */
-    @Override
-    protected void addSecurityTo(HttpRequest request) throws SourceConnectorException {
-        // TODO: not currently supported because we're not using Unirest as our HTTP client.  We'll convert *all* clients to use Apache HTTP Client soon and this method will change
-    }
-
     /**
      * Commits new repository file content to GitLab.
      * @param repositoryUrl
@@ -413,7 +420,7 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
      */
     private String commitToGitLab(String repositoryUrl, String content, String commitMessage, boolean create) throws SourceConnectorException {
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             GitLabResource resource = GitLabResourceResolver.resolve(repositoryUrl);
 
             String contentUrl = this.endpoint("/api/v4/projects/:id/repository/commits")
@@ -422,7 +429,7 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
             
             HttpPost post = new HttpPost(contentUrl);
             post.addHeader("Content-Type", "application/json");
-            addSecurity(post);
+            addSecurityTo(post);
 
             GitLabCreateFileRequest body = new GitLabCreateFileRequest();
             body.setBranch(resource.getBranch());
@@ -443,7 +450,7 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
             // Set the POST body
             post.setEntity(new StringEntity(mapper.writeValueAsString(body)));
             
-            try (CloseableHttpResponse response = httpClient.execute(post)) {
+            try (CloseableHttpResponse response = execute(OP_COMMIT, post)) {
                 if (response.getStatusLine().getStatusCode() != 201) {
                     throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
                 }
@@ -458,46 +465,60 @@ public class GitLabSourceConnector extends AbstractSourceConnector implements IG
     }
 
     private ResourceContent getResourceContentFromGitLab(GitLabResource resource) throws NotFoundException, SourceConnectorException {
-        try (CloseableHttpClient httpClient = HttpClients.createSystem()) {
-            String getContentUrl = this.endpoint("/api/v4/projects/:id/repository/files/:path?ref=:branch")
-                    .bind("id", toEncodedId(resource))
-                    .bind("path", toEncodedPath(resource))
-                    .bind("branch", toEncodedBranch(resource))
-                    .url();
-            
-            HttpGet get = new HttpGet(getContentUrl);
-            get.addHeader("Accept", "application/json");
-            get.addHeader("Cache-Control", "no-cache");
-            get.addHeader("Postman-Token", "4d2517bb-72d0-9175-1cbe-04d61e9258a0");
-            get.addHeader("DNT", "1");
-            get.addHeader("Accept-Language", "en-US,en;q=0.8");
-            
-            addSecurity(get);
-            try (CloseableHttpResponse response = httpClient.execute(get)) {
-                if (response.getStatusLine().getStatusCode() == 404) {
-                    throw new NotFoundException();
-                }
-                if (response.getStatusLine().getStatusCode() != 200) {
-                    throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
-                }
+        logger.debug("Getting resource content for: {}/{} - {}",
+                resource.getGroup(), resource.getProject(), resource.getResourcePath());
+        try (CloseableHttpResponse response = execute(OP_GET_CONTENT, createContentRequest(resource))) {
+            if (response.getStatusLine().getStatusCode() == 404) {
+                throw new NotFoundException();
+            }
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new SourceConnectorException("Unexpected response from GitLab: " + response.getStatusLine().toString());
+            }
+
+            try (InputStream contentStream = response.getEntity().getContent()) {
+                JsonNode jsonContent = mapper.readTree(contentStream);
+                String b64Content = jsonContent.get("content").asText();
+                String content = new String(Base64.decodeBase64(b64Content), "utf-8");
+                ResourceContent rval = new ResourceContent();
     
-                try (InputStream contentStream = response.getEntity().getContent()) {
-                    Map<String, Object> jsonContent = mapper.reader(Map.class).readValue(contentStream);
-                    String b64Content = jsonContent.get("content").toString();
-                    String content = new String(Base64.decodeBase64(b64Content), "utf-8");
-                    ResourceContent rval = new ResourceContent();
-        
-                    rval.setContent(content);
-                    rval.setSha(jsonContent.get("commit_id").toString());
-        
-                    return rval;
-                }
+                rval.setContent(content);
+                rval.setSha(jsonContent.get("commit_id").asText());
+    
+                return rval;
             }
         } catch (IOException e) {
             throw new SourceConnectorException("Error getting GitLab resource content.", e);
         }
     }
 
+    /**
+     * Creates a request for the (repository file) content of the given resource.
+     * @param resource
+     * @throws SourceConnectorException
+     */
+    private HttpGet createContentRequest(GitLabResource resource) throws SourceConnectorException {
+        HttpGet get = new HttpGet(getContentUrl(resource));
+        get.addHeader("Accept", "application/json");
+        get.addHeader("Cache-Control", "no-cache");
+        get.addHeader("Postman-Token", "4d2517bb-72d0-9175-1cbe-04d61e9258a0");
+        get.addHeader("DNT", "1");
+        get.addHeader("Accept-Language", "en-US,en;q=0.8");
+        
+        addSecurityTo(get);
+        return get;
+    }
+
+    /**
+     * Returns the GitLab API url of the (repository file) content of the given resource.
+     * @param resource
+     */
+    private String getContentUrl(GitLabResource resource) {
+        return this.endpoint("/api/v4/projects/:id/repository/files/:path?ref=:branch")
+                .bind("id", toEncodedId(resource))
+                .bind("path", toEncodedPath(resource))
+                .bind("branch", toEncodedBranch(resource))
+                .url();
+    }
 
     private String toEncodedId(GitLabResource resource) {
         String urlEncodedId;
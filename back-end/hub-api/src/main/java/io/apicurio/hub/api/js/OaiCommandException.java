@@ -30,4 +30,11 @@ public class OaiCommandException extends Exception {
         super(root);
     }
 
+    /**
+     * Constructor.
+     */
+    public OaiCommandException(String message) {
+        super(message);
+    }
+
 }
@@ -16,20 +16,12 @@
 
 package io.apicurio.hub.api.js;
 
-import java.io.IOException;
-import java.net.URL;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
+import javax.inject.Inject;
 import javax.script.ScriptException;
 
-import org.apache.commons.io.IOUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 /**
  * A service used to execute commands on an OAI document.  This executor uses 
  * Java's support for executing JavaScript code (via Nashorn) to leverage the
@@ -41,13 +33,20 @@ import org.slf4j.LoggerFactory;
  * as JSON).  The commands are executed in sequence against the document.  The
  * result is a (potentially) mutated OAI document as a string.
  * 
+ * Script engines are expensive to create, so they are borrowed from a shared
+ * {@link ScriptEnginePool} for the duration of each call.
+ * 
+ * Callers that apply many commands (or apply commands repeatedly) should use
+ * {@link #openDocument(String)} instead, which parses the document once and
+ * allows commands to be applied in batches before serializing the result.
+ * 
  * @author eric.wittmann@gmail.com
  */
 @ApplicationScoped
 public class OaiCommandExecutor {
     
-    private static final ThreadLocal<ScriptEngine> scriptEngine = new ThreadLocal<>();
-    private static Logger logger = LoggerFactory.getLogger(OaiCommandExecutor.class);
+    @Inject
+    private ScriptEnginePool enginePool;
 
     /**
      * Executes the given sequence of commands (as serialized JSON) against the
@@ -57,47 +56,28 @@ public class OaiCommandExecutor {
      * @param commands
      */
     public String executeCommands(String oaiDocument, List<String> commands) throws OaiCommandException {
-        try {
-            ScriptEngine engine = getScriptEngine();
-            final Invocable invocable = (Invocable) engine;
-            
-            String [] cmdList = commands.toArray(new String[commands.size()]);
-            String mutatedOaiDoc = invocable.invokeFunction("executeCommands", oaiDocument, cmdList).toString();
-            
-            return mutatedOaiDoc;
-        } catch (NoSuchMethodException | IOException | ScriptException e) {
-            throw new OaiCommandException(e);
+        try (OaiDocumentHandle handle = openDocument(oaiDocument)) {
+            handle.executeCommands(commands);
+            return handle.serialize(false);
         }
-
     }
 
     /**
-     * Creates and initializes the script engine used to execute commands against
-     * an OAI document.  The Nashorn script engine is not thread safe, so we will
-     * create one engine per thread (using a thread local variable).
-     * @throws IOException
+     * Parses the given OAI document and returns a handle to it.  The handle holds
+     * a script engine checked out of the pool, so it must be closed when the caller
+     * is done with it.
+     * @param oaiDocument
+     * @throws OaiCommandException
      */
-    private ScriptEngine getScriptEngine() throws IOException, ScriptException {
-        ScriptEngine engine = scriptEngine.get();
-        if (engine == null) {
-            logger.debug("Creating and initializing a Nashorn script engine.");
-            long start = System.currentTimeMillis();
-            engine = new ScriptEngineManager().getEngineByName("nashorn");
-            URL consoleJsUrl = OaiCommandExecutor.class.getClassLoader().getResource("js-lib/core-console.js");
-            URL oaiJsUrl = OaiCommandExecutor.class.getClassLoader().getResource("js-lib/OAI.umd.js");
-            URL oaiCommandsJsUrl = OaiCommandExecutor.class.getClassLoader().getResource("js-lib/OAI-commands.umd.js");
-            URL libraryJsUrl = OaiCommandExecutor.class.getClassLoader().getResource("js-lib/core-library.js");
-
-            // Load the JS libraries into the engine
-            engine.eval(IOUtils.toString(consoleJsUrl));
-            engine.eval(IOUtils.toString(oaiJsUrl));
-            engine.eval(IOUtils.toString(oaiCommandsJsUrl));
-            engine.eval(IOUtils.toString(libraryJsUrl));
-            long end = System.currentTimeMillis();
-            logger.debug("Initialized a Nashorn script engine in {} millis.", end - start);
-            scriptEngine.set(engine);
-       }
-        return engine;
+    public OaiDocumentHandle openDocument(String oaiDocument) throws OaiCommandException {
+        PooledScriptEngine engine = enginePool.checkout();
+        try {
+            Object document = engine.invokeFunction("createDocument", oaiDocument);
+            return new OaiDocumentHandle(enginePool, engine, document, oaiDocument.length());
+        } catch (NoSuchMethodException | ScriptException | RuntimeException e) {
+            enginePool.checkin(engine);
+            throw new OaiCommandException(e);
+        }
     }
 
 }
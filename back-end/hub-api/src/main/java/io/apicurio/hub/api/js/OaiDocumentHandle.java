@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.js;
+
+import java.util.Iterator;
+
+import javax.script.ScriptException;
+
+import io.apicurio.hub.api.metrics.jfr.ExecuteCommandsEvent;
+import io.apicurio.hub.api.metrics.jfr.JfrEvents;
+
+/**
+ * A handle to an OAI document that has been parsed into the oai-ts-core data model
+ * inside of a pooled script engine.  Commands can be applied to the document any
+ * number of times (in batches) without re-parsing it, and the document is only
+ * serialized back to a string when {@link #serialize(boolean)} is called.
+ * 
+ * The parsed document lives inside the script engine's global scope, so the handle
+ * keeps its engine checked out of the pool until it is closed.  Handles are not
+ * thread safe and must always be closed (typically via try-with-resources).
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class OaiDocumentHandle implements AutoCloseable {
+
+    private final ScriptEnginePool enginePool;
+    private PooledScriptEngine engine;
+    private final Object document;
+    private final long documentSize;
+
+    /**
+     * Constructor.
+     * @param enginePool
+     * @param engine
+     * @param document
+     * @param documentSize the size (in characters) of the document when it was parsed
+     */
+    OaiDocumentHandle(ScriptEnginePool enginePool, PooledScriptEngine engine, Object document, long documentSize) {
+        this.enginePool = enginePool;
+        this.engine = engine;
+        this.document = document;
+        this.documentSize = documentSize;
+    }
+
+    /**
+     * Executes a batch of commands against the document in a single call into the
+     * script engine.  The batch must be a JSON array of serialized commands.
+     * @param commandBatch
+     * @throws OaiCommandException
+     */
+    public void executeCommandBatch(String commandBatch) throws OaiCommandException {
+        invoke("executeCommandBatch", document, commandBatch);
+    }
+
+    /**
+     * Executes the given commands (each serialized as JSON) against the document.  The
+     * commands are gathered into a single batch so that the script engine is only
+     * entered once, regardless of how many commands there are.
+     * @param commands
+     * @throws OaiCommandException
+     */
+    public void executeCommands(Iterable<String> commands) throws OaiCommandException {
+        Iterator<String> iter = commands.iterator();
+        if (!iter.hasNext()) {
+            return;
+        }
+        ExecuteCommandsEvent event = JfrEvents.ENABLED ? new ExecuteCommandsEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        int commandCount = 0;
+        StringBuilder batch = new StringBuilder();
+        batch.append('[');
+        while (iter.hasNext()) {
+            batch.append(iter.next());
+            commandCount++;
+            if (iter.hasNext()) {
+                batch.append(',');
+            }
+        }
+        batch.append(']');
+        executeCommandBatch(batch.toString());
+        if (event != null && event.shouldCommit()) {
+            event.commandCount = commandCount;
+            event.documentSize = documentSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * Serializes the current state of the document to a string.
+     * @param compact if true, no whitespace/indentation is included in the output
+     * @throws OaiCommandException
+     */
+    public String serialize(boolean compact) throws OaiCommandException {
+        return invoke("serializeDocument", document, compact).toString();
+    }
+
+    /**
+     * Releases the handle's script engine back to the pool.  The handle cannot be
+     * used after it has been closed.
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        if (engine != null) {
+            enginePool.checkin(engine);
+            engine = null;
+        }
+    }
+
+    /**
+     * Invokes a function in the handle's script engine.
+     * @param name
+     * @param args
+     * @throws OaiCommandException
+     */
+    private Object invoke(String name, Object... args) throws OaiCommandException {
+        if (engine == null) {
+            throw new IllegalStateException("OAI document handle has already been closed.");
+        }
+        try {
+            return engine.invokeFunction(name, args);
+        } catch (NoSuchMethodException | ScriptException e) {
+            throw new OaiCommandException(e);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.js;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+/**
+ * A single entry in the {@link ScriptEnginePool}.  Each pooled engine is a separate
+ * global scope (a fresh set of {@link Bindings}) into which the pre-compiled OAI
+ * libraries have been evaluated.  All pooled engines share the same underlying
+ * script engine, so the libraries are only ever parsed and compiled once.
+ * 
+ * A pooled engine must only be used by one thread at a time - it should be checked
+ * out of the pool, used, and then returned.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class PooledScriptEngine {
+
+    static final String INVOKE_FUNCTION_VAR = "__pool_invoke_function";
+    static final String INVOKE_ARG_VAR_PREFIX = "__pool_invoke_arg";
+    static final int MAX_INVOKE_ARGS = 4;
+
+    private final Bindings bindings;
+    private final CompiledScript invoker;
+    private long lastUsed;
+
+    /**
+     * Constructor.
+     * @param bindings
+     * @param invoker
+     */
+    PooledScriptEngine(Bindings bindings, CompiledScript invoker) {
+        this.bindings = bindings;
+        this.invoker = invoker;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the global scope of this engine
+     */
+    Bindings getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Invokes a global function (defined by one of the loaded libraries) with the
+     * given arguments.
+     * @param name
+     * @param args
+     * @throws NoSuchMethodException
+     * @throws ScriptException
+     */
+    public Object invokeFunction(String name, Object... args) throws NoSuchMethodException, ScriptException {
+        if (bindings.get(name) == null) {
+            throw new NoSuchMethodException(name);
+        }
+        if (args.length > MAX_INVOKE_ARGS) {
+            throw new IllegalArgumentException("Too many arguments for function " + name + ": " + args.length);
+        }
+        bindings.put(INVOKE_FUNCTION_VAR, name);
+        for (int i = 0; i < args.length; i++) {
+            bindings.put(INVOKE_ARG_VAR_PREFIX + i, args[i]);
+        }
+        try {
+            return invoker.eval(bindings);
+        } finally {
+            bindings.remove(INVOKE_FUNCTION_VAR);
+            for (int i = 0; i < args.length; i++) {
+                bindings.remove(INVOKE_ARG_VAR_PREFIX + i);
+            }
+        }
+    }
+
+    /**
+     * Creates the script used to invoke a global function.  Each argument is passed in its
+     * own global variable (missing ones are simply undefined), rather than as a Java array,
+     * so that the script does not depend on any engine specific Java interop.
+     */
+    static String createInvokerScript() {
+        StringBuilder script = new StringBuilder();
+        script.append("this[this.").append(INVOKE_FUNCTION_VAR).append("](");
+        for (int i = 0; i < MAX_INVOKE_ARGS; i++) {
+            if (i > 0) {
+                script.append(", ");
+            }
+            script.append("this.").append(INVOKE_ARG_VAR_PREFIX).append(i);
+        }
+        script.append(");");
+        return script.toString();
+    }
+
+    /**
+     * @return the time (in millis) this engine was last returned to the pool
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Marks the engine as having just been used.
+     */
+    void touch() {
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.js;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.jfr.JfrEvents;
+import io.apicurio.hub.api.metrics.jfr.ScriptEngineCreatedEvent;
+
+/**
+ * A bounded pool of script engines used to execute the oai-ts-core and oai-ts-commands
+ * JavaScript libraries.  The libraries are compiled exactly once (into shared
+ * {@link CompiledScript}s) and then evaluated into a fresh global scope for each
+ * pooled engine.  Callers must {@link #checkout()} an engine, use it, and then
+ * {@link #checkin(PooledScriptEngine)} it when finished.
+ * 
+ * The underlying JSR-223 engine is chosen by {@link HubApiConfiguration#getScriptEngine()}
+ * and must be {@link Compilable}.  Nashorn is used by default.  GraalJS can be used instead
+ * (by name "graal.js") when its script engine is on the classpath - in that case the
+ * compiled libraries are cached polyglot sources and each pooled engine is a lightweight
+ * context, all sharing a single polyglot engine (and therefore its parsed code and, on a
+ * GraalVM JDK, its compiled code).  This is the shared Engine / pooled Context / cached
+ * Source arrangement recommended for the polyglot API, so no separate executor is needed.
+ * 
+ * At most {@link HubApiConfiguration#getScriptEnginePoolSize()} engines can be checked
+ * out at once - additional callers will block until an engine is returned (or until
+ * the configured checkout timeout elapses).  Engines that sit idle for longer than the
+ * configured idle timeout are evicted, although the pool never shrinks below its
+ * warm-up size.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@ApplicationScoped
+public class ScriptEnginePool {
+
+    private static Logger logger = LoggerFactory.getLogger(ScriptEnginePool.class);
+
+    private static final String [] LIBRARIES = {
+        "js-lib/core-console.js",
+        "js-lib/OAI.umd.js",
+        "js-lib/OAI-commands.umd.js",
+        "js-lib/core-library.js"
+    };
+
+    @Inject
+    private HubApiConfiguration config;
+
+    private ScriptEngine engine;
+    private List<CompiledScript> compiledLibraries;
+    private CompiledScript invoker;
+    private Semaphore permits;
+    private final Deque<PooledScriptEngine> idle = new ArrayDeque<>();
+    private int warmup;
+    private long idleTimeout;
+    private long checkoutTimeout;
+    private volatile boolean warmedUp;
+
+    @PostConstruct
+    public void postConstruct() {
+        int size = config.getScriptEnginePoolSize();
+        this.warmup = Math.min(config.getScriptEnginePoolWarmup(), size);
+        this.idleTimeout = config.getScriptEnginePoolIdleTimeout();
+        this.checkoutTimeout = config.getScriptEnginePoolCheckoutTimeout();
+        this.permits = new Semaphore(size, true);
+
+        try {
+            logger.debug("Compiling the OAI JavaScript libraries ({}).", config.getScriptEngine());
+            long start = System.currentTimeMillis();
+            String engineName = config.getScriptEngine();
+            this.engine = new ScriptEngineManager().getEngineByName(engineName);
+            if (this.engine == null) {
+                throw new RuntimeException("Script engine not found: " + engineName);
+            }
+            if (!(this.engine instanceof Compilable)) {
+                throw new RuntimeException("Script engine does not support compilation: " + engineName);
+            }
+            this.compiledLibraries = new ArrayList<>(LIBRARIES.length);
+            for (String library : LIBRARIES) {
+                URL libraryUrl = ScriptEnginePool.class.getClassLoader().getResource(library);
+                engine.put(ScriptEngine.FILENAME, library);
+                this.compiledLibraries.add(((Compilable) engine).compile(IOUtils.toString(libraryUrl)));
+            }
+            engine.put(ScriptEngine.FILENAME, "pool-invoker.js");
+            this.invoker = ((Compilable) engine).compile(PooledScriptEngine.createInvokerScript());
+            long end = System.currentTimeMillis();
+            logger.debug("Compiled the OAI JavaScript libraries in {} millis.", end - start);
+
+            for (int i = 0; i < this.warmup; i++) {
+                this.idle.push(createEngine());
+            }
+            logger.debug("Warmed up {} script engine(s).", this.warmup);
+            this.warmedUp = true;
+        } catch (IOException | ScriptException e) {
+            throw new RuntimeException("Error initializing the script engine pool.", e);
+        }
+    }
+
+    /**
+     * Checks out a script engine from the pool, creating a new one if no idle engine
+     * is available.  Blocks until an engine is available or the checkout timeout
+     * elapses.  The caller must return the engine via {@link #checkin(PooledScriptEngine)}.
+     * @throws OaiCommandException
+     */
+    public PooledScriptEngine checkout() throws OaiCommandException {
+        try {
+            if (!permits.tryAcquire(checkoutTimeout, TimeUnit.MILLISECONDS)) {
+                throw new OaiCommandException("Timed out waiting for an available script engine.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OaiCommandException(e);
+        }
+
+        PooledScriptEngine pooled;
+        synchronized (idle) {
+            pooled = idle.poll();
+        }
+        if (pooled != null) {
+            return pooled;
+        }
+
+        try {
+            return createEngine();
+        } catch (ScriptException | RuntimeException e) {
+            permits.release();
+            throw new OaiCommandException(e);
+        }
+    }
+
+    /**
+     * Returns a previously checked out script engine to the pool.
+     * @param pooled
+     */
+    public void checkin(PooledScriptEngine pooled) {
+        pooled.touch();
+        synchronized (idle) {
+            idle.push(pooled);
+            evictIdle();
+        }
+        permits.release();
+    }
+
+    /**
+     * @return true once the libraries have been compiled and the warm-up engines created
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    /**
+     * @return the underlying script engine (shared by all pooled engines)
+     */
+    ScriptEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the number of engines currently sitting idle in the pool
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * Evicts any engines that have been idle longer than the idle timeout.  Engines are
+     * always pushed onto the head of the deque, so the least recently used engines are
+     * found at the tail.  Must be called while holding the lock on the idle deque.
+     */
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeout;
+        Iterator<PooledScriptEngine> iter = idle.descendingIterator();
+        while (iter.hasNext() && idle.size() > warmup) {
+            if (iter.next().getLastUsed() >= cutoff) {
+                break;
+            }
+            iter.remove();
+            logger.debug("Evicted an idle script engine.");
+        }
+    }
+
+    /**
+     * Creates a new global scope and evaluates the pre-compiled libraries into it.
+     * @throws ScriptException
+     */
+    private PooledScriptEngine createEngine() throws ScriptException {
+        logger.debug("Creating and initializing a pooled script engine.");
+        ScriptEngineCreatedEvent event = JfrEvents.ENABLED ? new ScriptEngineCreatedEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.currentTimeMillis();
+        Bindings bindings = engine.createBindings();
+        for (CompiledScript library : compiledLibraries) {
+            library.eval(bindings);
+        }
+        long end = System.currentTimeMillis();
+        if (event != null) {
+            event.commit();
+        }
+        logger.debug("Initialized a pooled script engine in {} millis.", end - start);
+        return new PooledScriptEngine(bindings, invoker);
+    }
+
+}
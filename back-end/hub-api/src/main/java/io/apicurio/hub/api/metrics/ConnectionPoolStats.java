@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics;
+
+/**
+ * A point-in-time snapshot of the state of a connection pool.
+ * @author eric.wittmann@gmail.com
+ */
+public class ConnectionPoolStats {
+
+    private int leased;
+    private int available;
+    private int pending;
+    private int max;
+
+    /**
+     * Constructor.
+     */
+    public ConnectionPoolStats() {
+    }
+
+    /**
+     * Constructor.
+     * @param leased
+     * @param available
+     * @param pending
+     * @param max
+     */
+    public ConnectionPoolStats(int leased, int available, int pending, int max) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    /**
+     * @return the leased
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @param leased the leased to set
+     */
+    public void setLeased(int leased) {
+        this.leased = leased;
+    }
+
+    /**
+     * @return the available
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * @param available the available to set
+     */
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    /**
+     * @return the pending
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @param pending the pending to set
+     */
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * @return the max
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @param max the max to set
+     */
+    public void setMax(int max) {
+        this.max = max;
+    }
+
+}
@@ -17,6 +17,8 @@
 package io.apicurio.hub.api.metrics;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import io.apicurio.hub.api.beans.LinkedAccountType;
 
@@ -31,11 +33,30 @@ public interface IMetrics {
     public String getCurrentMetricsInfo() throws IOException;
 
     /**
-     * Indicates an API call was made.
-     * @param endpoint
+     * Indicates that a REST API request has started (after it was matched to an endpoint).
+     * @param endpoint the route template of the matched endpoint
      * @param method
+     * @param requestBytes the size of the request body, or -1 if unknown
      */
-    public void apiCall(String endpoint, String method);
+    public void restRequestStarted(String endpoint, String method, long requestBytes);
+
+    /**
+     * Indicates that a REST API request has completed (its response is about to be written,
+     * or it has failed without producing one).  Called exactly once per started request.
+     * @param endpoint the route template of the matched endpoint
+     * @param method
+     * @param status the HTTP status code of the response
+     * @param durationNanos how long the request took to handle
+     */
+    public void restRequestCompleted(String endpoint, String method, int status, long durationNanos);
+
+    /**
+     * Indicates the size of a REST API response body.
+     * @param endpoint the route template of the matched endpoint
+     * @param method
+     * @param responseBytes
+     */
+    public void restResponseSize(String endpoint, String method, long responseBytes);
 
     /**
      * Indicates that an API was created.
@@ -61,4 +82,90 @@ public interface IMetrics {
      */
     public void accountLinkCompleted(LinkedAccountType type);
 
+    /**
+     * Indicates that a value was found in the named cache.
+     * @param cache
+     */
+    public void cacheHit(String cache);
+
+    /**
+     * Indicates that a value was not found in the named cache.
+     * @param cache
+     */
+    public void cacheMiss(String cache);
+
+    /**
+     * Indicates that a value was evicted from the named cache to make room for another.
+     * @param cache
+     */
+    public void cacheEviction(String cache);
+
+    /**
+     * Indicates that a conditional request was made to revalidate a value in the named
+     * cache.
+     * @param cache
+     * @param notModified true if the cached value was still valid
+     */
+    public void cacheRevalidation(String cache, boolean notModified);
+
+    /**
+     * Registers a connection pool so that its state is reported along with the other
+     * metrics.  The supplier is called each time the metrics are collected.
+     * @param pool
+     * @param stats
+     */
+    public void registerConnectionPool(String pool, Supplier<ConnectionPoolStats> stats);
+
+    /**
+     * Indicates that a SQL statement was executed against the storage database.
+     * @param statement the logical name of the statement
+     * @param durationNanos how long the statement took to execute
+     */
+    public void sqlStatement(String statement, long durationNanos);
+
+    /**
+     * Indicates that a call to a source control provider was rejected because of its rate limit.
+     * @param type
+     */
+    public void rateLimited(LinkedAccountType type);
+
+    /**
+     * Registers the source of the remaining rate limit quota of each source control
+     * provider, so that it is reported along with the other metrics.  The supplier is
+     * called each time the metrics are collected.
+     * @param remaining
+     */
+    public void registerRateLimits(Supplier<Map<LinkedAccountType, Long>> remaining);
+
+    /**
+     * Indicates that a health (status or readiness) probe was answered.
+     * @param probe the name of the probe
+     * @param durationNanos how long the probe took
+     */
+    public void healthProbe(String probe, long durationNanos);
+
+    /**
+     * Indicates that a call was made to a source control provider.
+     * @param type the provider
+     * @param operation the logical operation (e.g. getContent, commit)
+     * @param result the HTTP status code of the response, or "timeout" / "error" if none was received
+     * @param durationNanos how long the call took
+     */
+    public void connectorCall(LinkedAccountType type, String operation, String result, long durationNanos);
+
+    /**
+     * Indicates the number of response bytes read from a call to a source control provider.
+     * @param type
+     * @param operation
+     * @param responseBytes
+     */
+    public void connectorResponseSize(LinkedAccountType type, String operation, long responseBytes);
+
+    /**
+     * Indicates that a call to a source control provider is being retried.
+     * @param type
+     * @param operation
+     */
+    public void connectorRetry(LinkedAccountType type, String operation);
+
 }
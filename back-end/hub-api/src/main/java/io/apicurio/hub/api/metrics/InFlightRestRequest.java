@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.apicurio.hub.api.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks a single REST API request from the moment it is matched to an endpoint until it
+ * completes.  The request is stored as a request property (and therefore as a servlet
+ * request attribute) so that it can be completed either by the JAX-RS response filter or,
+ * if that never runs (for example when an exception is not mapped to a response), by the
+ * {@link RestMetricsServletFilter}.  Whichever comes first records the request - it is
+ * only ever recorded once.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+class InFlightRestRequest {
+
+    static final String PROPERTY = InFlightRestRequest.class.getName();
+
+    private final IMetrics metrics;
+    private final String endpoint;
+    private final String method;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    /**
+     * Constructor.
+     * @param metrics
+     * @param endpoint
+     * @param method
+     */
+    InFlightRestRequest(IMetrics metrics, String endpoint, String method) {
+        this.metrics = metrics;
+        this.endpoint = endpoint;
+        this.method = method;
+    }
+
+    /**
+     * Records the completion of the request, unless that has already been done.  Returns
+     * true if this call recorded it.
+     * @param status the HTTP status code of the response
+     */
+    boolean complete(int status) {
+        if (!this.completed.compareAndSet(false, true)) {
+            return false;
+        }
+        this.metrics.restRequestCompleted(this.endpoint, this.method, status, System.nanoTime() - this.start);
+        return true;
+    }
+
+    /**
+     * @return the route template of the matched endpoint
+     */
+    String getEndpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * @return the HTTP method of the request
+     */
+    String getMethod() {
+        return this.method;
+    }
+
+}
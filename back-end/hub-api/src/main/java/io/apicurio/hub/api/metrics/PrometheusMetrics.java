@@ -18,13 +18,25 @@ package io.apicurio.hub.api.metrics;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 
 import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.Histogram;
 import io.prometheus.client.exporter.common.TextFormat;
 
 /**
@@ -37,8 +49,18 @@ import io.prometheus.client.exporter.common.TextFormat;
 @ApplicationScoped
 public class PrometheusMetrics implements IMetrics {
     
-    static final Counter apiRequests = Counter.build().labelNames("endpoint", "method")
-            .name("apicurio_api_calls_total").help("Total number of API calls made.").register();
+    static final Gauge restRequestsInFlight = Gauge.build().labelNames("endpoint", "method")
+            .name("apicurio_rest_requests_in_flight").help("Number of REST API requests currently being handled, by endpoint.").register();
+    static final Histogram restRequests = Histogram.build().labelNames("endpoint", "method", "status")
+            .buckets(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30)
+            .name("apicurio_rest_request_duration_seconds").help("Time taken to handle REST API requests, by endpoint and status class.").register();
+    static final Histogram restRequestSizes = Histogram.build().labelNames("endpoint", "method")
+            .exponentialBuckets(256, 4, 8)
+            .name("apicurio_rest_request_size_bytes").help("Size of REST API request bodies, by endpoint.").register();
+    static final Histogram restResponseSizes = Histogram.build().labelNames("endpoint", "method")
+            .exponentialBuckets(256, 4, 8)
+            .name("apicurio_rest_response_size_bytes").help("Size of REST API response bodies, by endpoint.").register();
+
     static final Counter apisCreated = Counter.build().labelNames("version")
             .name("apicurio_api_creates").help("Total number of APIs created.").register();
     static final Counter apisImported = Counter.build().labelNames("from")
@@ -49,6 +71,38 @@ public class PrometheusMetrics implements IMetrics {
     static final Counter accountLinksCompleted = Counter.build().labelNames("type")
             .name("apicurio_account_creates").help("Total number of Linked Accounts completed.").register();
 
+    static final Counter cacheHits = Counter.build().labelNames("cache")
+            .name("apicurio_cache_hits_total").help("Total number of cache hits.").register();
+    static final Counter cacheMisses = Counter.build().labelNames("cache")
+            .name("apicurio_cache_misses_total").help("Total number of cache misses.").register();
+    static final Counter cacheEvictions = Counter.build().labelNames("cache")
+            .name("apicurio_cache_evictions_total").help("Total number of cache evictions.").register();
+    static final Counter cacheRevalidations = Counter.build().labelNames("cache", "result")
+            .name("apicurio_cache_revalidations_total").help("Total number of conditional requests made to revalidate cached values.").register();
+
+    static final Histogram sqlStatements = Histogram.build().labelNames("statement")
+            .buckets(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5)
+            .name("apicurio_jdbc_statement_duration_seconds").help("Time taken to execute SQL statements, by statement.").register();
+
+    static final Counter rateLimited = Counter.build().labelNames("provider")
+            .name("apicurio_connector_rate_limited_total").help("Total number of calls rejected by a source control provider's rate limit.").register();
+
+    static final Histogram connectorCalls = Histogram.build().labelNames("provider", "operation", "result")
+            .buckets(0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30)
+            .name("apicurio_connector_request_duration_seconds").help("Time taken by calls to source control providers, by provider, operation and result (status code, timeout or error).").register();
+    static final Histogram connectorResponseSizes = Histogram.build().labelNames("provider", "operation")
+            .exponentialBuckets(256, 4, 8)
+            .name("apicurio_connector_response_size_bytes").help("Size of the responses read from source control providers, by provider and operation.").register();
+    static final Counter connectorRetries = Counter.build().labelNames("provider", "operation")
+            .name("apicurio_connector_retries_total").help("Total number of calls to source control providers that were retried.").register();
+
+    static final Histogram healthProbes = Histogram.build().labelNames("probe")
+            .buckets(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5)
+            .name("apicurio_health_probe_duration_seconds").help("Time taken to answer health probes, by probe.").register();
+
+    static final ConnectionPoolCollector connectionPools = new ConnectionPoolCollector().register();
+    static final RateLimitCollector rateLimits = new RateLimitCollector().register();
+
     @PostConstruct
     void postConstruct() {
         // The JVM metrics leak too much information!  Disable for now.
@@ -68,11 +122,31 @@ public class PrometheusMetrics implements IMetrics {
     }
     
     /**
-     * @see io.apicurio.hub.api.metrics.IMetrics#apiCall(java.lang.String, java.lang.String)
+     * @see io.apicurio.hub.api.metrics.IMetrics#restRequestStarted(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public void restRequestStarted(String endpoint, String method, long requestBytes) {
+        restRequestsInFlight.labels(endpoint, method).inc();
+        if (requestBytes >= 0) {
+            restRequestSizes.labels(endpoint, method).observe(requestBytes);
+        }
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#restRequestCompleted(java.lang.String, java.lang.String, int, long)
      */
     @Override
-    public void apiCall(String endpoint, String method) {
-        apiRequests.labels(endpoint, method).inc();;
+    public void restRequestCompleted(String endpoint, String method, int status, long durationNanos) {
+        restRequestsInFlight.labels(endpoint, method).dec();
+        restRequests.labels(endpoint, method, (status / 100) + "xx").observe(durationNanos / Collector.NANOSECONDS_PER_SECOND);
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#restResponseSize(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public void restResponseSize(String endpoint, String method, long responseBytes) {
+        restResponseSizes.labels(endpoint, method).observe(responseBytes);
     }
     
     /**
@@ -106,4 +180,162 @@ public class PrometheusMetrics implements IMetrics {
     public void accountLinkCompleted(LinkedAccountType type) {
         accountLinksCompleted.labels(type.name()).inc();
     }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheHit(java.lang.String)
+     */
+    @Override
+    public void cacheHit(String cache) {
+        cacheHits.labels(cache).inc();
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheMiss(java.lang.String)
+     */
+    @Override
+    public void cacheMiss(String cache) {
+        cacheMisses.labels(cache).inc();
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheEviction(java.lang.String)
+     */
+    @Override
+    public void cacheEviction(String cache) {
+        cacheEvictions.labels(cache).inc();
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheRevalidation(java.lang.String, boolean)
+     */
+    @Override
+    public void cacheRevalidation(String cache, boolean notModified) {
+        cacheRevalidations.labels(cache, notModified ? "not_modified" : "modified").inc();
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#registerConnectionPool(java.lang.String, java.util.function.Supplier)
+     */
+    @Override
+    public void registerConnectionPool(String pool, Supplier<ConnectionPoolStats> stats) {
+        connectionPools.pools.put(pool, stats);
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#sqlStatement(java.lang.String, long)
+     */
+    @Override
+    public void sqlStatement(String statement, long durationNanos) {
+        sqlStatements.labels(statement).observe(durationNanos / Collector.NANOSECONDS_PER_SECOND);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#rateLimited(io.apicurio.hub.api.beans.LinkedAccountType)
+     */
+    @Override
+    public void rateLimited(LinkedAccountType type) {
+        rateLimited.labels(type.name()).inc();
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#registerRateLimits(java.util.function.Supplier)
+     */
+    @Override
+    public void registerRateLimits(Supplier<Map<LinkedAccountType, Long>> remaining) {
+        rateLimits.remaining = remaining;
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#healthProbe(java.lang.String, long)
+     */
+    @Override
+    public void healthProbe(String probe, long durationNanos) {
+        healthProbes.labels(probe).observe(durationNanos / Collector.NANOSECONDS_PER_SECOND);
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorCall(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public void connectorCall(LinkedAccountType type, String operation, String result, long durationNanos) {
+        connectorCalls.labels(type.name(), operation, result).observe(durationNanos / Collector.NANOSECONDS_PER_SECOND);
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorResponseSize(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String, long)
+     */
+    @Override
+    public void connectorResponseSize(LinkedAccountType type, String operation, long responseBytes) {
+        connectorResponseSizes.labels(type.name(), operation).observe(responseBytes);
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorRetry(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String)
+     */
+    @Override
+    public void connectorRetry(LinkedAccountType type, String operation) {
+        connectorRetries.labels(type.name(), operation).inc();
+    }
+
+    /**
+     * Collects the current state of all registered connection pools each time the
+     * metrics are scraped (rather than tracking every lease/release).
+     * @author eric.wittmann@gmail.com
+     */
+    static class ConnectionPoolCollector extends Collector {
+
+        private final Map<String, Supplier<ConnectionPoolStats>> pools = new ConcurrentHashMap<>();
+
+        /**
+         * @see io.prometheus.client.Collector#collect()
+         */
+        @Override
+        public List<MetricFamilySamples> collect() {
+            GaugeMetricFamily connections = new GaugeMetricFamily("apicurio_http_pool_connections",
+                    "Number of connections in the outbound HTTP connection pool, by state.", Arrays.asList("pool", "state"));
+            GaugeMetricFamily max = new GaugeMetricFamily("apicurio_http_pool_max",
+                    "Maximum number of connections in the outbound HTTP connection pool.", Collections.singletonList("pool"));
+            for (Entry<String, Supplier<ConnectionPoolStats>> entry : pools.entrySet()) {
+                String pool = entry.getKey();
+                ConnectionPoolStats stats = entry.getValue().get();
+                connections.addMetric(Arrays.asList(pool, "leased"), stats.getLeased());
+                connections.addMetric(Arrays.asList(pool, "available"), stats.getAvailable());
+                connections.addMetric(Arrays.asList(pool, "pending"), stats.getPending());
+                max.addMetric(Collections.singletonList(pool), stats.getMax());
+            }
+            List<MetricFamilySamples> rval = new ArrayList<>();
+            rval.add(connections);
+            rval.add(max);
+            return rval;
+        }
+
+    }
+
+    /**
+     * Collects the remaining rate limit quota of each source control provider each time
+     * the metrics are scraped.
+     * @author eric.wittmann@gmail.com
+     */
+    static class RateLimitCollector extends Collector {
+
+        private volatile Supplier<Map<LinkedAccountType, Long>> remaining;
+
+        /**
+         * @see io.prometheus.client.Collector#collect()
+         */
+        @Override
+        public List<MetricFamilySamples> collect() {
+            GaugeMetricFamily quota = new GaugeMetricFamily("apicurio_connector_rate_limit_remaining",
+                    "Lowest remaining rate limit quota of the credentials currently used to call each source control provider.",
+                    Collections.singletonList("provider"));
+            Supplier<Map<LinkedAccountType, Long>> supplier = remaining;
+            if (supplier != null) {
+                for (Entry<LinkedAccountType, Long> entry : supplier.get().entrySet()) {
+                    quota.addMetric(Collections.singletonList(entry.getKey().name()), entry.getValue());
+                }
+            }
+            return Collections.singletonList(quota);
+        }
+
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Path;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Records metrics for every REST API request: latency (by matched route template,
+ * method and status class), request and response body sizes, and the number of
+ * requests in flight.  Requests are labelled with the route template (for example
+ * "/designs/{designId}") rather than the actual path, which keeps the number of
+ * distinct label values bounded.
+ * 
+ * The latency is measured up to the point where the response is about to be written,
+ * which for asynchronous endpoints is when the {@link javax.ws.rs.container.AsyncResponse}
+ * is resumed.  Response body sizes are counted while the entity is being written.
+ * 
+ * Requests that fail without a response being produced (so the response filter is never
+ * called) are completed by the {@link RestMetricsServletFilter} instead, which must be
+ * mapped in front of the JAX-RS application for the in-flight gauge to stay accurate.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@Provider
+@ApplicationScoped
+public class RestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final Map<Method, String> templates = new ConcurrentHashMap<>();
+
+    @Inject
+    private IMetrics metrics;
+    @Context
+    private ResourceInfo resourceInfo;
+
+    /**
+     * @see javax.ws.rs.container.ContainerRequestFilter#filter(javax.ws.rs.container.ContainerRequestContext)
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+        String endpoint = templates.computeIfAbsent(method, m -> toTemplate(resourceInfo.getResourceClass(), m));
+        metrics.restRequestStarted(endpoint, requestContext.getMethod(), requestContext.getLength());
+        requestContext.setProperty(InFlightRestRequest.PROPERTY, new InFlightRestRequest(metrics, endpoint, requestContext.getMethod()));
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerResponseFilter#filter(javax.ws.rs.container.ContainerRequestContext, javax.ws.rs.container.ContainerResponseContext)
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        InFlightRestRequest request = (InFlightRestRequest) requestContext.getProperty(InFlightRestRequest.PROPERTY);
+        if (request == null) {
+            // Not matched to a resource method (e.g. a 404) - nothing to record.
+            return;
+        }
+        // Only record each request once, even if the response filters are re-run for an error response.
+        if (request.complete(responseContext.getStatus()) && !responseContext.hasEntity()) {
+            metrics.restResponseSize(request.getEndpoint(), request.getMethod(), 0);
+        }
+    }
+
+    /**
+     * @see javax.ws.rs.ext.WriterInterceptor#aroundWriteTo(javax.ws.rs.ext.WriterInterceptorContext)
+     */
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        InFlightRestRequest request = (InFlightRestRequest) context.getProperty(InFlightRestRequest.PROPERTY);
+        if (request == null) {
+            context.proceed();
+            return;
+        }
+        CountingOutputStream counter = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(counter);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(counter.unwrap());
+            metrics.restResponseSize(request.getEndpoint(), request.getMethod(), counter.getCount());
+        }
+    }
+
+    /**
+     * Builds the route template of the given resource method by combining the {@link Path}
+     * of its resource class with that of the method itself.  The annotations are looked up
+     * on the implementing classes as well as the interfaces they implement.
+     * @param resourceClass
+     * @param method
+     */
+    static String toTemplate(Class<?> resourceClass, Method method) {
+        StringBuilder template = new StringBuilder();
+        appendPath(template, findPath(resourceClass));
+        appendPath(template, findPath(resourceClass, method));
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    /**
+     * Appends a path segment (as found in a {@link Path} annotation) to the template.
+     * @param template
+     * @param path
+     */
+    private static void appendPath(StringBuilder template, Path path) {
+        if (path == null) {
+            return;
+        }
+        String value = path.value();
+        while (value.startsWith("/")) {
+            value = value.substring(1);
+        }
+        while (value.endsWith("/")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (!value.isEmpty()) {
+            template.append('/').append(value);
+        }
+    }
+
+    /**
+     * Finds the {@link Path} annotation of the given resource class.
+     * @param type
+     */
+    private static Path findPath(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (c.isAnnotationPresent(Path.class)) {
+                return c.getAnnotation(Path.class);
+            }
+            for (Class<?> iface : c.getInterfaces()) {
+                if (iface.isAnnotationPresent(Path.class)) {
+                    return iface.getAnnotation(Path.class);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the {@link Path} annotation of the given resource method.
+     * @param type
+     * @param method
+     */
+    private static Path findPath(Class<?> type, Method method) {
+        if (method.isAnnotationPresent(Path.class)) {
+            return method.getAnnotation(Path.class);
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Class<?> iface : c.getInterfaces()) {
+                try {
+                    Method ifaceMethod = iface.getMethod(method.getName(), method.getParameterTypes());
+                    if (ifaceMethod.isAnnotationPresent(Path.class)) {
+                        return ifaceMethod.getAnnotation(Path.class);
+                    }
+                } catch (NoSuchMethodException e) {
+                    // Not declared by this interface.
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An output stream that counts the bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        /**
+         * Constructor.
+         * @param out
+         */
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * @see java.io.FilterOutputStream#write(int)
+         */
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        /**
+         * @see java.io.FilterOutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        /**
+         * @return the number of bytes written so far
+         */
+        long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the wrapped output stream
+         */
+        OutputStream unwrap() {
+            return out;
+        }
+
+    }
+
+}
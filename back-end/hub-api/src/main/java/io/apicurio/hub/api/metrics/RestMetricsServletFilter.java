@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.apicurio.hub.api.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter that completes the REST API request metrics started by the
+ * {@link RestMetricsFilter} once the request has been fully handled - whether or not the
+ * JAX-RS response filter ran.  This is what keeps the in-flight gauge from leaking when a
+ * request fails with an exception that is not mapped to a response.  Failed requests are
+ * recorded with a 500 status (503 for timed out asynchronous requests).
+ * 
+ * For asynchronous requests the metrics are completed when the request completes, errors
+ * or times out.  The listener doing so is registered as soon as the request is put into
+ * asynchronous mode.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class RestMetricsServletFilter implements Filter {
+
+    /**
+     * C'tor
+     */
+    public RestMetricsServletFilter() {
+    }
+
+    /**
+     * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+     */
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+    }
+
+    /**
+     * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        CompletionListener completionListener = new CompletionListener(httpRequest, httpResponse);
+        try {
+            chain.doFilter(new RequestWrapper(httpRequest, completionListener), response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            complete(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            completionListener.register(request.getAsyncContext());
+        } else {
+            complete(request, httpResponse.getStatus());
+        }
+    }
+
+    /**
+     * Completes the metrics of the REST API request (if any, and if not already done).
+     * @param request
+     * @param status
+     */
+    private static void complete(ServletRequest request, int status) {
+        Object inFlightRequest = request.getAttribute(InFlightRestRequest.PROPERTY);
+        if (inFlightRequest instanceof InFlightRestRequest) {
+            ((InFlightRestRequest) inFlightRequest).complete(status);
+        }
+    }
+
+    /**
+     * @see javax.servlet.Filter#destroy()
+     */
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Request wrapper that registers the {@link CompletionListener} as soon as the request
+     * is put into asynchronous mode - before the request can possibly complete.
+     */
+    private static class RequestWrapper extends HttpServletRequestWrapper {
+
+        private final CompletionListener completionListener;
+
+        /**
+         * Constructor.
+         * @param request
+         * @param completionListener
+         */
+        RequestWrapper(HttpServletRequest request, CompletionListener completionListener) {
+            super(request);
+            this.completionListener = completionListener;
+        }
+
+        /**
+         * @see javax.servlet.ServletRequestWrapper#startAsync()
+         */
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            return this.completionListener.register(super.startAsync());
+        }
+
+        /**
+         * @see javax.servlet.ServletRequestWrapper#startAsync(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
+         */
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+                throws IllegalStateException {
+            return this.completionListener.register(super.startAsync(servletRequest, servletResponse));
+        }
+
+    }
+
+    /**
+     * Completes the metrics of an asynchronous request.
+     */
+    private static class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private boolean registered;
+
+        /**
+         * Constructor.
+         * @param request
+         * @param response
+         */
+        CompletionListener(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        /**
+         * Adds this listener to the given async context (only once).
+         * @param asyncContext
+         */
+        synchronized AsyncContext register(AsyncContext asyncContext) {
+            if (!this.registered) {
+                asyncContext.addListener(this);
+                this.registered = true;
+            }
+            return asyncContext;
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onComplete(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            complete(this.request, this.response.getStatus());
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onTimeout(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            complete(this.request, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onError(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onError(AsyncEvent event) throws IOException {
+            complete(this.request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onStartAsync(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) throws IOException {
+            // Re-register for the new async cycle
+            event.getAsyncContext().addListener(this);
+        }
+
+    }
+
+}
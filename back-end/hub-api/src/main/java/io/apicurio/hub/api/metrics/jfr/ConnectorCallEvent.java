@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for each attempt at an HTTP call made by a source connector (GitHub, GitLab, etc).
+ * @author eric.wittmann@gmail.com
+ */
+@Name("io.apicurio.hub.ConnectorCall")
+@Label("Connector Call")
+@Category({ "Apicurio", "Source Connectors" })
+@Description("An HTTP call made by a source connector to its provider's API")
+public class ConnectorCallEvent extends Event {
+
+    @Label("Provider")
+    public String provider;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("HTTP Method")
+    public String method;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Result")
+    @Description("The HTTP status code, or 'timeout' / 'error' if no response was received")
+    public String result;
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted each time a batch of commands is applied to an OAI document in a script engine.
+ * @author eric.wittmann@gmail.com
+ */
+@Name("io.apicurio.hub.ExecuteCommands")
+@Label("Execute Commands")
+@Category({ "Apicurio", "Script Engine" })
+@Description("Application of a batch of commands to an OAI document")
+public class ExecuteCommandsEvent extends Event {
+
+    @Label("Command Count")
+    public int commandCount;
+
+    @Label("Document Size")
+    @Description("Size of the OAI document (in characters) the commands were applied to")
+    @DataAmount(DataAmount.BYTES)
+    public long documentSize;
+
+}
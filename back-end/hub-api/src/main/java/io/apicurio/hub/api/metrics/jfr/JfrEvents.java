@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+
+/**
+ * Decides (once, when the class is loaded) whether the custom Java Flight Recorder
+ * events in this package are emitted.  They are only emitted when enabled in the hub
+ * configuration and the JVM provides the jdk.jfr API.  Callers must check {@link #ENABLED}
+ * before touching any of the event classes, so that a disabled (or unsupported) JFR
+ * costs nothing more than a constant branch.
+ * 
+ * This class must not reference any jdk.jfr types itself.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public final class JfrEvents {
+
+    public static final boolean ENABLED = new HubApiConfiguration().isJfrEventsEnabled() && isSupported();
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Returns true if the running JVM provides the jdk.jfr event API.
+     */
+    private static boolean isSupported() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
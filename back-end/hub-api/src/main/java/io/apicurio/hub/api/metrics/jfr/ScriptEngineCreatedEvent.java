@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted each time the script engine pool creates (and initializes) a new script engine.
+ * @author eric.wittmann@gmail.com
+ */
+@Name("io.apicurio.hub.ScriptEngineCreated")
+@Label("Script Engine Created")
+@Category({ "Apicurio", "Script Engine" })
+@Description("Creation of a script engine, including loading the oai-ts-core library into it")
+public class ScriptEngineCreatedEvent extends Event {
+
+}
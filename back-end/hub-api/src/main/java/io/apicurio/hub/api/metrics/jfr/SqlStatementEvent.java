@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted for each SQL statement executed by the JDBC storage layer.  The statement is
+ * reported once it has been executed, so the execution time is carried in its own field
+ * rather than as the event's duration.
+ * @author eric.wittmann@gmail.com
+ */
+@Name("io.apicurio.hub.SqlStatement")
+@Label("SQL Statement")
+@Category({ "Apicurio", "Storage" })
+@Description("Execution of a SQL statement by the JDBC storage layer")
+public class SqlStatementEvent extends Event {
+
+    @Label("Statement")
+    public String statement;
+
+    @Label("Rows")
+    @Description("Number of rows updated by the statement, or -1 for queries")
+    public long rows;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long executionTime;
+
+}
@@ -26,16 +26,12 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 
-import io.apicurio.hub.api.beans.BitbucketRepository;
-import io.apicurio.hub.api.beans.BitbucketTeam;
 import io.apicurio.hub.api.beans.CompleteLinkedAccount;
 import io.apicurio.hub.api.beans.CreateLinkedAccount;
-import io.apicurio.hub.api.beans.GitHubOrganization;
-import io.apicurio.hub.api.beans.GitHubRepository;
-import io.apicurio.hub.api.beans.GitLabGroup;
-import io.apicurio.hub.api.beans.GitLabProject;
 import io.apicurio.hub.api.beans.InitiatedLinkedAccount;
 import io.apicurio.hub.api.beans.LinkedAccount;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
@@ -45,6 +41,9 @@ import io.apicurio.hub.api.exceptions.ServerError;
 /**
  * The interface that defines how to interact with Linked Accounts in the Hub API.
  * 
+ * The provider specific listing operations (organizations, repositories, etc) are
+ * asynchronous - their results are delivered via the given {@link AsyncResponse}.
+ * 
  * @author eric.wittmann@gmail.com
  */
 @Path("accounts")
@@ -82,13 +81,13 @@ public interface IAccountsResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/organizations")
-    public Collection<GitHubOrganization> getOrganizations(@PathParam("accountType") String accountType) throws ServerError;
+    public void getOrganizations(@PathParam("accountType") String accountType, @Suspended AsyncResponse response) throws ServerError;
     
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/organizations/{org}/repositories")
-    public Collection<GitHubRepository> getRepositories(@PathParam("accountType") String accountType, 
-            @PathParam("org") String org) throws ServerError;
+    public void getRepositories(@PathParam("accountType") String accountType, 
+            @PathParam("org") String org, @Suspended AsyncResponse response) throws ServerError;
 
 
     /*
@@ -98,13 +97,13 @@ public interface IAccountsResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/groups")
-    public Collection<GitLabGroup> getGroups(@PathParam("accountType") String accountType) throws ServerError;
+    public void getGroups(@PathParam("accountType") String accountType, @Suspended AsyncResponse response) throws ServerError;
     
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/groups/{group}/projects")
-    public Collection<GitLabProject> getProjects(@PathParam("accountType") String accountType, 
-            @PathParam("group") String group) throws ServerError;
+    public void getProjects(@PathParam("accountType") String accountType, 
+            @PathParam("group") String group, @Suspended AsyncResponse response) throws ServerError;
 
 
     /*
@@ -114,12 +113,12 @@ public interface IAccountsResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/teams")
-    public Collection<BitbucketTeam> getTeams(@PathParam("accountType") String accountType) throws ServerError;
+    public void getTeams(@PathParam("accountType") String accountType, @Suspended AsyncResponse response) throws ServerError;
     
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{accountType}/teams/{team}/repositories")
-    public Collection<BitbucketRepository> getBitbucketRepositories(@PathParam("accountType") String accountType, 
-            @PathParam("team") String group) throws ServerError;
+    public void getBitbucketRepositories(@PathParam("accountType") String accountType, 
+            @PathParam("team") String group, @Suspended AsyncResponse response) throws ServerError;
 
 }
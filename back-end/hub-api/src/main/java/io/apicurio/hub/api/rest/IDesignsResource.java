@@ -21,17 +21,19 @@ import java.util.Collection;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
 
 import io.apicurio.hub.api.beans.AddApiDesign;
 import io.apicurio.hub.api.beans.ApiDesign;
-import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.NewApiDesign;
 import io.apicurio.hub.api.beans.UpdateApiDesign;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
@@ -41,24 +43,46 @@ import io.apicurio.hub.api.exceptions.ServerError;
 /**
  * The interface that defines how to interact with API Designs in the hub API.
  * 
+ * Operations that call out to the source control provider (GitHub, GitLab, etc) are
+ * asynchronous - their results are delivered via the given {@link AsyncResponse}.
+ * 
  * @author eric.wittmann@gmail.com
  */
 @Path("designs")
 public interface IDesignsResource {
     
+    /**
+     * Lists the API Designs accessible to the current user.  When called without any
+     * parameters all designs are returned.  Otherwise the designs can be filtered by
+     * tag and/or (case insensitive) name prefix, sorted by "name" or "modified_on" (the
+     * default), and paged using either start/limit or - when sorting by modification
+     * date - the opaque "after" cursor returned in the X-Apicurio-Next-Cursor header of
+     * the previous page.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Collection<ApiDesign> listDesigns(@QueryParam("start") Integer start, @QueryParam("limit") Integer limit,
+            @QueryParam("sort") String sort, @QueryParam("tag") String tag, @QueryParam("name") String name,
+            @QueryParam("after") String after) throws ServerError;
+
+    /**
+     * Returns the number of API Designs accessible to the current user that match the
+     * given (optional) filters.
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Collection<ApiDesign> listDesigns() throws ServerError;
+    @Path("count")
+    public int countDesigns(@QueryParam("tag") String tag, @QueryParam("name") String name) throws ServerError;
     
     @PUT
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public ApiDesign addDesign(AddApiDesign info) throws ServerError, AlreadyExistsException, NotFoundException;
+    public void addDesign(AddApiDesign info, @Suspended AsyncResponse response) throws ServerError, AlreadyExistsException, NotFoundException;
     
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public ApiDesign createDesign(NewApiDesign info) throws ServerError, AlreadyExistsException;
+    public void createDesign(NewApiDesign info, @Suspended AsyncResponse response) throws ServerError, AlreadyExistsException;
 
     
     @GET
@@ -79,17 +103,23 @@ public interface IDesignsResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{designId}/collaborators")
-    public Collection<Collaborator> getCollaborators(@PathParam("designId") String designId) throws ServerError, NotFoundException;
+    public void getCollaborators(@PathParam("designId") String designId, @Suspended AsyncResponse response) throws ServerError, NotFoundException;
 
     
+    /**
+     * Gets the content of the API Design.  The SHA of the content is returned in both the
+     * X-Content-SHA and ETag headers.  When the If-None-Match header matches the current 
+     * SHA, a 304 (Not Modified) is returned without the content.
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{designId}/content")
-    public Response getContent(@PathParam("designId") String designId) throws ServerError, NotFoundException;
+    public void getContent(@PathParam("designId") String designId, @HeaderParam("If-None-Match") String ifNoneMatch,
+            @Suspended AsyncResponse response) throws ServerError, NotFoundException;
     
     @PUT
     @Consumes(MediaType.APPLICATION_JSON)
     @Path("{designId}/content")
-    public void updateContent(@PathParam("designId") String designId) throws ServerError, NotFoundException;
+    public void updateContent(@PathParam("designId") String designId, @Suspended AsyncResponse response) throws ServerError, NotFoundException;
     
 }
@@ -22,7 +22,6 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
-import io.apicurio.hub.api.beans.SystemReady;
 import io.apicurio.hub.api.beans.SystemStatus;
 import io.apicurio.hub.api.exceptions.ServerError;
 
@@ -40,7 +39,7 @@ public interface ISystemResource {
     @GET
     @Path("/ready")
     @Produces(MediaType.APPLICATION_JSON)
-    public SystemReady getReady();
+    public Response getReady();
 
     @GET
     @Path("/metrics")
@@ -25,24 +25,20 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Context;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.apicurio.hub.api.beans.BitbucketRepository;
-import io.apicurio.hub.api.beans.BitbucketTeam;
 import io.apicurio.hub.api.beans.CompleteLinkedAccount;
 import io.apicurio.hub.api.beans.CreateLinkedAccount;
-import io.apicurio.hub.api.beans.GitHubOrganization;
-import io.apicurio.hub.api.beans.GitHubRepository;
-import io.apicurio.hub.api.beans.GitLabGroup;
-import io.apicurio.hub.api.beans.GitLabProject;
 import io.apicurio.hub.api.beans.InitiatedLinkedAccount;
 import io.apicurio.hub.api.beans.LinkedAccount;
 import io.apicurio.hub.api.beans.LinkedAccountType;
 import io.apicurio.hub.api.bitbucket.BitbucketException;
 import io.apicurio.hub.api.bitbucket.IBitbucketSourceConnector;
+import io.apicurio.hub.api.connectors.ConnectorExecutor;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
@@ -74,6 +70,8 @@ public class AccountsResource implements IAccountsResource {
     private ILinkedAccountsProvider linkedAccountsProvider;
     @Inject
     private IMetrics metrics;
+    @Inject
+    private ConnectorExecutor executor;
 
     @Inject
     private IGitHubSourceConnector github;
@@ -98,8 +96,6 @@ public class AccountsResource implements IAccountsResource {
      */
     @Override
     public Collection<LinkedAccount> listLinkedAccounts() throws ServerError {
-        metrics.apiCall("/accounts", "GET");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             logger.debug("Listing Linked Accounts for {}", user);
@@ -114,8 +110,6 @@ public class AccountsResource implements IAccountsResource {
      */
     @Override
     public InitiatedLinkedAccount createLinkedAccount(CreateLinkedAccount info) throws ServerError, AlreadyExistsException {
-        metrics.apiCall("/accounts", "POST");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             logger.debug("Creating a linked {} account for user {}", info.getType().name(), user);
@@ -148,8 +142,6 @@ public class AccountsResource implements IAccountsResource {
     @Override
     public LinkedAccount getLinkedAccount(String accountType) throws ServerError, NotFoundException {
         logger.debug("Getting a Linked Account of type {}", accountType);
-        metrics.apiCall("/accounts/{accountType}", "GET");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             return this.storage.getLinkedAccount(user, LinkedAccountType.valueOf(accountType));
@@ -164,8 +156,6 @@ public class AccountsResource implements IAccountsResource {
     @Override
     public void completeLinkedAccount(String accountType, CompleteLinkedAccount update) throws ServerError, NotFoundException {
         logger.debug("Completing account lingage for: {}", accountType);
-        metrics.apiCall("/accounts/{accountType}", "PUT");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             String nonce = update.getNonce();
@@ -195,8 +185,6 @@ public class AccountsResource implements IAccountsResource {
     @Override
     public void deleteLinkedAccount(String accountType) throws ServerError, NotFoundException {
         logger.debug("Deleting a Linked Account of type {}", accountType);
-        metrics.apiCall("/accounts/{accountType}", "DELETE");
-
         try {
             LinkedAccountType type = LinkedAccountType.valueOf(accountType);
             String user = this.security.getCurrentUser().getLogin();
@@ -224,112 +212,111 @@ public class AccountsResource implements IAccountsResource {
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getOrganizations()
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getOrganizations(java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<GitHubOrganization> getOrganizations(String accountType) throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/organizations", "GET");
-
+    public void getOrganizations(String accountType, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.GitHub) {
             throw new ServerError("Invalid account type.  Expected 'GitHub' but got: " + accountType);
         }
-        try {
-            return this.github.getOrganizations();
-        } catch (GitHubException | SourceConnectorException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return this.github.getOrganizations();
+            } catch (GitHubException | SourceConnectorException e) {
+                throw new ServerError(e);
+            }
+        });
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getRepositories(java.lang.String)
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getRepositories(java.lang.String, java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<GitHubRepository> getRepositories(String accountType, String org) throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/organizations/{org}/repositories", "GET");
-
+    public void getRepositories(String accountType, String org, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.GitHub) {
             throw new ServerError("Invalid account type.  Expected 'GitHub' but got: " + accountType);
         }
-        try {
-            return this.github.getRepositories(org);
-        } catch (GitHubException | SourceConnectorException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return this.github.getRepositories(org);
+            } catch (GitHubException | SourceConnectorException e) {
+                throw new ServerError(e);
+            }
+        });
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getGroups(java.lang.String)
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getGroups(java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<GitLabGroup> getGroups(String accountType) throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/groups", "GET");
-
+    public void getGroups(String accountType, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.GitLab) {
             throw new ServerError("Invalid account type.  Expected 'GitLab' but got: " + accountType);
         }
 
-        try {
-            return gitLab.getGroups();
-        } catch (GitLabException | SourceConnectorException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return gitLab.getGroups();
+            } catch (GitLabException | SourceConnectorException e) {
+                throw new ServerError(e);
+            }
+        });
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getProjects(java.lang.String, java.lang.String)
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getProjects(java.lang.String, java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<GitLabProject> getProjects(String accountType, String group) throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/groups/{group}/projects", "GET");
-
+    public void getProjects(String accountType, String group, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.GitLab) {
             throw new ServerError("Invalid account type.  Expected 'GitLab' but got: " + accountType);
         }
-        try {
-            return gitLab.getProjects(group);
-        } catch (GitLabException | SourceConnectorException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return gitLab.getProjects(group);
+            } catch (GitLabException | SourceConnectorException e) {
+                throw new ServerError(e);
+            }
+        });
     }
     
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getTeams(java.lang.String)
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getTeams(java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<BitbucketTeam> getTeams(String accountType) throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/teams", "GET");
-
+    public void getTeams(String accountType, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.Bitbucket) {
             throw new ServerError("Invalid account type.  Expected 'Bitbucket' but got: " + accountType);
         }
-        try {
-            return this.bitbucket.getTeams();
-        } catch (BitbucketException | SourceConnectorException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return this.bitbucket.getTeams();
+            } catch (BitbucketException | SourceConnectorException e) {
+                throw new ServerError(e);
+            }
+        });
     }
     
     /**
-     * @see io.apicurio.hub.api.rest.IAccountsResource#getBitbucketRepositories(java.lang.String, java.lang.String)
+     * @see io.apicurio.hub.api.rest.IAccountsResource#getBitbucketRepositories(java.lang.String, java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<BitbucketRepository> getBitbucketRepositories(String accountType, String group)
-            throws ServerError {
-        metrics.apiCall("/accounts/{accountType}/teams/{team}/repositories", "GET");
-
+    public void getBitbucketRepositories(String accountType, String group, AsyncResponse response) throws ServerError {
         LinkedAccountType at = LinkedAccountType.valueOf(accountType);
         if (at != LinkedAccountType.Bitbucket) {
             throw new ServerError("Invalid account type.  Expected 'Bitbucket' but got: " + accountType);
         }
-        try {
-            return this.bitbucket.getRepositories(group);
-        } catch (SourceConnectorException | BitbucketException e) {
-            throw new ServerError(e);
-        }
+        executor.execute(at, response, () -> {
+            try {
+                return this.bitbucket.getRepositories(group);
+            } catch (SourceConnectorException | BitbucketException e) {
+                throw new ServerError(e);
+            }
+        });
     }
 }
@@ -23,12 +23,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 
@@ -45,7 +49,6 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import io.apicurio.hub.api.beans.AddApiDesign;
 import io.apicurio.hub.api.beans.ApiDesign;
 import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
-import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.NewApiDesign;
 import io.apicurio.hub.api.beans.OpenApi2Document;
 import io.apicurio.hub.api.beans.OpenApi3Document;
@@ -54,6 +57,7 @@ import io.apicurio.hub.api.beans.OpenApiInfo;
 import io.apicurio.hub.api.beans.ResourceContent;
 import io.apicurio.hub.api.beans.Tag;
 import io.apicurio.hub.api.beans.UpdateApiDesign;
+import io.apicurio.hub.api.connectors.ConnectorExecutor;
 import io.apicurio.hub.api.connectors.ISourceConnector;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.connectors.SourceConnectorFactory;
@@ -63,8 +67,11 @@ import io.apicurio.hub.api.exceptions.ServerError;
 import io.apicurio.hub.api.metrics.IMetrics;
 import io.apicurio.hub.api.rest.IDesignsResource;
 import io.apicurio.hub.api.security.ISecurityContext;
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+import io.apicurio.hub.api.storage.ApiDesignQuery.SortBy;
 import io.apicurio.hub.api.storage.IStorage;
 import io.apicurio.hub.api.storage.StorageException;
+import io.apicurio.studio.shared.servlet.GzipFilter;
 
 /**
  * @author eric.wittmann@gmail.com
@@ -73,6 +80,7 @@ import io.apicurio.hub.api.storage.StorageException;
 public class DesignsResource implements IDesignsResource {
 
     private static Logger logger = LoggerFactory.getLogger(DesignsResource.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Apicurio-Next-Cursor";
     private static ObjectMapper mapper = new ObjectMapper();
     static {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -88,6 +96,8 @@ public class DesignsResource implements IDesignsResource {
     private ISecurityContext security;
     @Inject
     private IMetrics metrics;
+    @Inject
+    private ConnectorExecutor executor;
 
     @Context
     private HttpServletRequest request;
@@ -95,16 +105,51 @@ public class DesignsResource implements IDesignsResource {
     private HttpServletResponse response;
 
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#listDesigns()
+     * @see io.apicurio.hub.api.rest.IDesignsResource#listDesigns(java.lang.Integer, java.lang.Integer, java.lang.String, java.lang.String, java.lang.String, java.lang.String)
      */
     @Override
-    public Collection<ApiDesign> listDesigns() throws ServerError {
-        metrics.apiCall("/designs", "GET");
-        
+    public Collection<ApiDesign> listDesigns(Integer start, Integer limit, String sort, String tag, String name,
+            String after) throws ServerError {
         try {
-            logger.debug("Listing API Designs");
             String user = this.security.getCurrentUser().getLogin();
-            Collection<ApiDesign> designs = this.storage.listApiDesigns(user);
+            if (start == null && limit == null && sort == null && tag == null && name == null && after == null) {
+                logger.debug("Listing API Designs");
+                return this.storage.listApiDesigns(user);
+            }
+
+            logger.debug("Listing a page of API Designs");
+            ApiDesignQuery query = createQuery(tag, name);
+            if (start != null) {
+                if (start < 0) {
+                    throw new BadRequestException("Invalid start: " + start);
+                }
+                query.setStart(start);
+            }
+            if (limit != null) {
+                if (limit < 0) {
+                    throw new BadRequestException("Invalid limit: " + limit);
+                }
+                query.setLimit(limit);
+            }
+            if (sort != null) {
+                try {
+                    query.setSortBy(SortBy.valueOf(sort));
+                } catch (IllegalArgumentException e) {
+                    throw new BadRequestException("Invalid sort: " + sort);
+                }
+            }
+            if (after != null) {
+                if (query.getSortBy() != SortBy.modified_on) {
+                    throw new BadRequestException("The 'after' cursor can only be used when sorting by modified_on.");
+                }
+                parseCursor(after, query);
+            }
+
+            List<ApiDesign> designs = this.storage.listApiDesigns(user, query);
+            if (query.getSortBy() == SortBy.modified_on && limit != null && limit > 0 && designs.size() == limit) {
+                ApiDesign last = designs.get(designs.size() - 1);
+                response.setHeader(NEXT_CURSOR_HEADER, last.getModifiedOn().getTime() + "_" + last.getId());
+            }
             return designs;
         } catch (StorageException e) {
             throw new ServerError(e);
@@ -112,19 +157,80 @@ public class DesignsResource implements IDesignsResource {
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#addDesign(io.apicurio.hub.api.beans.AddApiDesign)
+     * @see io.apicurio.hub.api.rest.IDesignsResource#countDesigns(java.lang.String, java.lang.String)
+     */
+    @Override
+    public int countDesigns(String tag, String name) throws ServerError {
+        try {
+            logger.debug("Counting API Designs");
+            String user = this.security.getCurrentUser().getLogin();
+            return this.storage.countApiDesigns(user, createQuery(tag, name));
+        } catch (StorageException e) {
+            throw new ServerError(e);
+        }
+    }
+
+    /**
+     * Creates a design query with the given (optional) filters.  Blank filters are ignored.
+     * @param tag
+     * @param name
+     */
+    private static ApiDesignQuery createQuery(String tag, String name) {
+        ApiDesignQuery query = new ApiDesignQuery();
+        if (tag != null && !tag.trim().isEmpty()) {
+            query.setTag(tag.trim());
+        }
+        if (name != null && !name.trim().isEmpty()) {
+            query.setNamePrefix(name.trim());
+        }
+        return query;
+    }
+
+    /**
+     * Parses a "next page" cursor (as returned in the X-Apicurio-Next-Cursor header) into
+     * the keyset values of the given query.  The cursor is formatted as:
+     * 
+     *   <modifiedOnMillis>_<designId>
+     * 
+     * @param cursor
+     * @param query
+     */
+    private static void parseCursor(String cursor, ApiDesignQuery query) {
+        int idx = cursor.indexOf('_');
+        try {
+            if (idx == -1) {
+                throw new NumberFormatException();
+            }
+            query.setAfterModifiedOn(new Date(Long.parseLong(cursor.substring(0, idx))));
+            query.setAfterId(Long.valueOf(cursor.substring(idx + 1)));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.rest.IDesignsResource#addDesign(io.apicurio.hub.api.beans.AddApiDesign, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public ApiDesign addDesign(AddApiDesign info) throws ServerError, AlreadyExistsException, NotFoundException {
+    public void addDesign(AddApiDesign info, AsyncResponse response) throws ServerError, AlreadyExistsException, NotFoundException {
         logger.debug("Adding an API Design: {}", info.getRepositoryUrl());
-        metrics.apiCall("/designs", "PUT");
+        ISourceConnector connector = this.sourceConnectorFactory.createConnector(info.getRepositoryUrl());
+        String user = this.security.getCurrentUser().getLogin();
+        executor.executeWrite(connector.getType(), response, () -> addDesign(info, connector, user));
+    }
 
+    /**
+     * Validates that the resource exists in the source control provider and then adds 
+     * it (as a new API Design) to storage.
+     * @param info
+     * @param connector
+     * @param user
+     */
+    private ApiDesign addDesign(AddApiDesign info, ISourceConnector connector, String user) throws ServerError, AlreadyExistsException, NotFoundException {
         try {
-            ISourceConnector connector = this.sourceConnectorFactory.createConnector(info.getRepositoryUrl());
 			ApiDesignResourceInfo resourceInfo = connector.validateResourceExists(info.getRepositoryUrl());
 			
 			Date now = new Date();
-			String user = this.security.getCurrentUser().getLogin();
             String description = resourceInfo.getDescription();
             if (description == null) {
                 description = "";
@@ -139,6 +245,7 @@ public class DesignsResource implements IDesignsResource {
 			design.setModifiedBy(user);
 			design.setModifiedOn(now);
 			design.setTags(resourceInfo.getTags());
+			validateTags(design);
 			
 			try {
 			    String id = this.storage.createApiDesign(user, design);
@@ -156,23 +263,35 @@ public class DesignsResource implements IDesignsResource {
     }
 
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#createDesign(io.apicurio.hub.api.beans.NewApiDesign)
+     * @see io.apicurio.hub.api.rest.IDesignsResource#createDesign(io.apicurio.hub.api.beans.NewApiDesign, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public ApiDesign createDesign(NewApiDesign info) throws ServerError, AlreadyExistsException {
+    public void createDesign(NewApiDesign info, AsyncResponse response) throws ServerError, AlreadyExistsException {
         logger.debug("Creating an API Design: {} :: {}", info.getName(), info.getRepositoryUrl());
-        metrics.apiCall("/designs", "POST");
-
         // Null description not allowed
         if (info.getDescription() == null) {
             info.setDescription("");
         }
 
         try {
-            Date now = new Date();
+            ISourceConnector connector = this.sourceConnectorFactory.createConnector(info.getRepositoryUrl());
             String user = this.security.getCurrentUser().getLogin();
+            executor.executeWrite(connector.getType(), response, () -> createDesign(info, connector, user));
+        } catch (NotFoundException e) {
+            throw new ServerError(e);
+        }
+    }
 
-            ISourceConnector connector = this.sourceConnectorFactory.createConnector(info.getRepositoryUrl());
+    /**
+     * Creates the resource (a new, mostly empty, OpenAPI document) in the source control
+     * provider and adds it (as a new API Design) to storage.
+     * @param info
+     * @param connector
+     * @param user
+     */
+    private ApiDesign createDesign(NewApiDesign info, ISourceConnector connector, String user) throws ServerError, AlreadyExistsException {
+        try {
+            Date now = new Date();
 
             try {
                 connector.validateResourceExists(info.getRepositoryUrl());
@@ -210,7 +329,7 @@ public class DesignsResource implements IDesignsResource {
             metrics.apiCreate(info.getSpecVersion());
             
             return design;
-        } catch (JsonProcessingException | StorageException | SourceConnectorException | NotFoundException e) {
+        } catch (JsonProcessingException | StorageException | SourceConnectorException e) {
             throw new ServerError(e);
         }
     }
@@ -221,8 +340,6 @@ public class DesignsResource implements IDesignsResource {
     @Override
     public ApiDesign getDesign(String designId) throws ServerError, NotFoundException {
         logger.debug("Getting an API design with ID {}", designId);
-        metrics.apiCall("/designs/{designId}", "GET");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             ApiDesign design = this.storage.getApiDesign(user, designId);
@@ -237,8 +354,6 @@ public class DesignsResource implements IDesignsResource {
      */
     @Override
     public ApiDesign updateDesign(String designId, UpdateApiDesign update) throws ServerError, NotFoundException {
-        metrics.apiCall("/designs/{designId}", "PUT");
-
         try {
             logger.debug("Updating an API Design with ID {}", designId);
             String user = this.security.getCurrentUser().getLogin();
@@ -264,8 +379,6 @@ public class DesignsResource implements IDesignsResource {
     @Override
     public void deleteDesign(String designId) throws ServerError, NotFoundException {
         logger.debug("Deleting an API Design with ID {}", designId);
-        metrics.apiCall("/designs/{designId}", "DELETE");
-        
         try {
             String user = this.security.getCurrentUser().getLogin();
             this.storage.deleteApiDesign(user, designId);
@@ -275,36 +388,58 @@ public class DesignsResource implements IDesignsResource {
     }
     
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#getCollaborators(java.lang.String)
+     * @see io.apicurio.hub.api.rest.IDesignsResource#getCollaborators(java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Collection<Collaborator> getCollaborators(String designId) throws ServerError, NotFoundException {
+    public void getCollaborators(String designId, AsyncResponse response) throws ServerError, NotFoundException {
         logger.debug("Retrieving collaborators list for design with ID: {}", designId);
-        metrics.apiCall("/designs/{designId}/collaborators", "GET");
-
         try {
             String user = this.security.getCurrentUser().getLogin();
             ApiDesign design = this.storage.getApiDesign(user, designId);
             String repoUrl = design.getRepositoryUrl();
             
             ISourceConnector connector = this.sourceConnectorFactory.createConnector(repoUrl);
-            return connector.getCollaborators(repoUrl);
-        } catch (StorageException | SourceConnectorException e) {
+            executor.execute(connector.getType(), response, () -> {
+                try {
+                    return connector.getCollaborators(repoUrl);
+                } catch (SourceConnectorException e) {
+                    throw new ServerError(e);
+                }
+            });
+        } catch (StorageException e) {
             throw new ServerError(e);
         }
     }
     
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#getContent(java.lang.String)
+     * @see io.apicurio.hub.api.rest.IDesignsResource#getContent(java.lang.String, java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public Response getContent(String designId) throws ServerError, NotFoundException {
+    public void getContent(String designId, String ifNoneMatch, AsyncResponse response) throws ServerError, NotFoundException {
         logger.debug("Getting content for API design with ID: {}", designId);
-        metrics.apiCall("/designs/{designId}/content", "GET");
+        ApiDesign design = this.getDesign(designId);
+        ISourceConnector connector = this.sourceConnectorFactory.createConnector(design.getRepositoryUrl());
+        executor.execute(connector.getType(), response, () -> getContent(design, connector, ifNoneMatch));
+    }
 
+    /**
+     * Fetches the content of the given design from the source control provider.  When the
+     * client already has a version of the content (If-None-Match), only the current SHA is
+     * fetched first - if the client's version is still current, a 304 is returned without
+     * fetching the content itself.
+     * @param design
+     * @param connector
+     * @param ifNoneMatch
+     */
+    private Response getContent(ApiDesign design, ISourceConnector connector, String ifNoneMatch)
+            throws ServerError, NotFoundException {
         try {
-            ApiDesign design = this.getDesign(designId);
-            ISourceConnector connector = this.sourceConnectorFactory.createConnector(design.getRepositoryUrl());
+            if (ifNoneMatch != null) {
+                String sha = connector.getResourceSha(design.getRepositoryUrl());
+                if (sha != null && matchesETag(ifNoneMatch, sha)) {
+                    return Response.notModified(new EntityTag(sha)).header("X-Content-SHA", sha).build();
+                }
+            }
             ResourceContent content = connector.getResourceContent(design.getRepositoryUrl());
             
             byte[] bytes = content.getContent().getBytes("UTF-8");
@@ -315,6 +450,9 @@ public class DesignsResource implements IDesignsResource {
                     .header("X-Content-SHA", content.getSha())
                     .header("Content-Type", ct)
                     .header("Content-Length", cl);
+            if (content.getSha() != null) {
+                builder.tag(new EntityTag(content.getSha()));
+            }
             return builder.build();
         } catch (UnsupportedEncodingException | SourceConnectorException e) {
             throw new ServerError(e);
@@ -322,13 +460,41 @@ public class DesignsResource implements IDesignsResource {
     }
     
     /**
-     * @see io.apicurio.hub.api.rest.IDesignsResource#updateContent(java.lang.String)
+     * Returns true if the given If-None-Match header value matches the given SHA (used
+     * as the content's entity tag).  Weak comparison is used, as required for If-None-Match,
+     * and the suffix added to the ETag of a compressed response is ignored.
+     * @param ifNoneMatch
+     * @param sha
+     */
+    static boolean matchesETag(String ifNoneMatch, String sha) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            if (tag.endsWith(GzipFilter.ETAG_SUFFIX)) {
+                // The ETag of a compressed response
+                tag = tag.substring(0, tag.length() - GzipFilter.ETAG_SUFFIX.length());
+            }
+            if (tag.equals(sha)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.rest.IDesignsResource#updateContent(java.lang.String, javax.ws.rs.container.AsyncResponse)
      */
     @Override
-    public void updateContent(String designId) throws ServerError, NotFoundException {
+    public void updateContent(String designId, AsyncResponse response) throws ServerError, NotFoundException {
         logger.debug("Updating content for API design with ID: {}", designId);
-        metrics.apiCall("/designs/{designId}/content", "PUT");
-
         ApiDesign design = this.getDesign(designId);
 
         ISourceConnector connector = this.sourceConnectorFactory.createConnector(design.getRepositoryUrl());
@@ -353,27 +519,68 @@ public class DesignsResource implements IDesignsResource {
             commitMessage = "Updating API design";
         }
         
-        String content = null;
+        // The request (body) is only available on this thread, so read it now.
+        String content;
         try (Reader data = request.getReader()) {
             content = IOUtils.toString(data);
+        } catch (IOException e) {
+            throw new ServerError(e);
+        }
+
+        ResourceContent rc = new ResourceContent();
+        rc.setContent(content);
+        rc.setSha(sha);
+        String user = this.security.getCurrentUser().getLogin();
+        String message = commitMessage;
+        executor.executeWrite(connector.getType(), response, () -> updateContent(design, connector, user, message, commitComment, rc));
+    }
+
+    /**
+     * Updates the content of the given design in the source control provider, and then
+     * its meta-data in storage.  Returns a response with the new SHA of the content.
+     * @param design
+     * @param connector
+     * @param user
+     * @param commitMessage
+     * @param commitComment
+     * @param rc
+     */
+    private Response updateContent(ApiDesign design, ISourceConnector connector, String user,
+            String commitMessage, String commitComment, ResourceContent rc) throws ServerError, NotFoundException {
+        try {
+            // Extract (and validate) the meta-data before committing anything to the provider
+            this.updateDesignMetaData(design, rc.getContent());
+            validateTags(design);
 
-            ResourceContent rc = new ResourceContent();
-            rc.setContent(content);
-            rc.setSha(sha);
-            
             String newSha = connector.updateResourceContent(design.getRepositoryUrl(), commitMessage, commitComment, rc);
-            this.response.setHeader("X-Content-SHA", newSha);
-            
-            this.updateDesignMetaData(design, content);
-            design.setModifiedBy(this.security.getCurrentUser().getLogin());
+
+            design.setModifiedBy(user);
             design.setModifiedOn(new Date());
 
-        	this.storage.updateApiDesign(this.security.getCurrentUser().getLogin(), design);
-        } catch (StorageException | SourceConnectorException | IOException e) {
+        	this.storage.updateApiDesign(user, design);
+            ResponseBuilder builder = Response.noContent().header("X-Content-SHA", newSha);
+            if (newSha != null) {
+                builder.tag(new EntityTag(newSha));
+            }
+            return builder.build();
+        } catch (StorageException | SourceConnectorException e) {
             throw new ServerError(e);
         }
     }
 
+    /**
+     * Rejects (with a 400) an API Design that has a tag too long to be stored.
+     * @param design
+     */
+    private static void validateTags(ApiDesign design) {
+        for (String tag : design.getTags()) {
+            if (tag != null && tag.length() > ApiDesign.MAX_TAG_LENGTH) {
+                throw new BadRequestException("Tag exceeds the maximum length of " + ApiDesign.MAX_TAG_LENGTH
+                        + " characters: " + tag);
+            }
+        }
+    }
+
     /**
      * Parses the content and extracts the name and description.  Sets them on the
      * given API Design object.
@@ -22,6 +22,7 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,12 +30,13 @@ import org.slf4j.LoggerFactory;
 import io.apicurio.hub.api.Version;
 import io.apicurio.hub.api.beans.SystemReady;
 import io.apicurio.hub.api.beans.SystemStatus;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
 import io.apicurio.hub.api.exceptions.ServerError;
+import io.apicurio.hub.api.js.ScriptEnginePool;
 import io.apicurio.hub.api.metrics.IMetrics;
 import io.apicurio.hub.api.rest.ISystemResource;
 import io.apicurio.hub.api.security.ISecurityContext;
 import io.apicurio.hub.api.storage.IStorage;
-import io.apicurio.hub.api.storage.StorageException;
 import io.prometheus.client.exporter.common.TextFormat;
 
 /**
@@ -53,6 +55,10 @@ public class SystemResource implements ISystemResource {
     private ISecurityContext security;
     @Inject
     private IMetrics metrics;
+    @Inject
+    private ScriptEnginePool scriptEnginePool;
+    @Inject
+    private HttpClientProvider httpClientProvider;
 
     /**
      * @see io.apicurio.hub.api.rest.ISystemResource#getStatus()
@@ -61,25 +67,16 @@ public class SystemResource implements ISystemResource {
     public SystemStatus getStatus() {
         logger.debug("Getting system status.");
         
-        metrics.apiCall("/system/status", "GET");
-        
+        long start = System.nanoTime();
         SystemStatus status = new SystemStatus();
-        String user = null;
-        if (this.security.getCurrentUser() != null) {
-            user = this.security.getCurrentUser().getLogin();
-        }
-        try {
-            status.setBuiltOn(version.getVersionDate());
-            status.setDescription("The API to the Apicurio Studio Hub.");
-            status.setMoreInfo("http://www.apicur.io/");
-            status.setName("Apicurio Studio Hub API");
-            status.setUp(storage != null && storage.listApiDesigns(user).size() >= 0);
-            status.setVersion(version.getVersionString());
-            status.setUser(security.getCurrentUser());
-        } catch (StorageException e) {
-            logger.error("Error getting System Status.", e);
-            status.setUp(false);
-        }
+        status.setBuiltOn(version.getVersionDate());
+        status.setDescription("The API to the Apicurio Studio Hub.");
+        status.setMoreInfo("http://www.apicur.io/");
+        status.setName("Apicurio Studio Hub API");
+        status.setUp(storage != null && storage.isHealthy());
+        status.setVersion(version.getVersionString());
+        status.setUser(security.getCurrentUser());
+        metrics.healthProbe("status", System.nanoTime() - start);
 
         return status;
     }
@@ -88,10 +85,14 @@ public class SystemResource implements ISystemResource {
      * @see io.apicurio.hub.api.rest.ISystemResource#getReady()
      */
     @Override
-    public SystemReady getReady() {
+    public Response getReady() {
+        long start = System.nanoTime();
         SystemReady ready = new SystemReady();
-        ready.setUp(true);
-        return ready;
+        ready.setUp(storage.isReady() && scriptEnginePool.isWarmedUp() && httpClientProvider.isReady());
+        metrics.healthProbe("ready", System.nanoTime() - start);
+        
+        Status status = ready.isUp() ? Status.OK : Status.SERVICE_UNAVAILABLE;
+        return Response.status(status).entity(ready).build();
     }
     
     /**
@@ -17,8 +17,6 @@
 package io.apicurio.hub.api.security;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.inject.Inject;
 import javax.servlet.Filter;
@@ -38,29 +36,49 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.Unirest;
 
+import io.apicurio.hub.api.cache.ExpiringCache;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
 import io.apicurio.studio.shared.beans.User;
 
 /**
  * An authentication filter that requires every request to present a valid GitHub access token.
+ * 
+ * The user authenticated by a token is cached for a while so that GitHub does not have
+ * to be asked about every request.  Tokens that GitHub rejects are cached as well (for
+ * a shorter time), so that repeated requests with a bad token do not reach GitHub
+ * either.
+ * 
  * @author eric.wittmann@gmail.com
  */
 public class GitHubAuthenticationFilter implements Filter {
     
     private static Logger logger = LoggerFactory.getLogger(GitHubAuthenticationFilter.class);
-    private static final Map<String, User> authCache = new HashMap<>();
     private static ObjectMapper mapper = new ObjectMapper();
     static {
         mapper.setSerializationInclusion(Include.NON_NULL);
     }
+    static final String CACHE_NAME = "github-auth";
     
     @Inject
     private ISecurityContext security;
+    @Inject
+    private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
+
+    private ExpiringCache<String, User> authCache;
 
     /**
      * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
      */
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
+        long ttl = config.getAuthCacheTtl();
+        long negativeTtl = config.getAuthCacheNegativeTtl();
+        authCache = new ExpiringCache<>(CACHE_NAME, config.getAuthCacheMaxSize(), user -> {
+            return user != null ? ttl : negativeTtl;
+        }, metrics);
     }
 
     /**
@@ -77,19 +95,23 @@ public class GitHubAuthenticationFilter implements Filter {
             httpResp.setHeader("WWW-Authenticate", "Bearer realm=\"apicurio-studio\"");
             httpResp.sendError(401);
         } else {
-            User user = getCachedUser(token);
-            if (user == null) {
-                user = authenticateUser(token);
-                if (user != null) {
-                    cacheAuthenticatedUser(token, user);
-                }
+            User user;
+            try {
+                user = authCache.get(token, () -> authenticateUser(token));
+            } catch (Exception e) {
+                logger.error("Failed to authenticate with the GitHub API", e);
+                user = null;
             }
             if (user == null) {
                 httpResp.setHeader("WWW-Authenticate", "Bearer realm=\"apicurio-studio\"");
                 httpResp.sendError(401);
             } else {
                 ((SecurityContext) security).setUser(user);
-                chain.doFilter(request, response);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ((SecurityContext) security).clear();
+                }
             }
         }
     }
@@ -108,49 +130,29 @@ public class GitHubAuthenticationFilter implements Filter {
         return token;
     }
 
-    /**
-     * Gets the cached authenticated user object for the given token.  Returns null
-     * if no authenticated user is found in the cache.
-     * @param token
-     */
-    private User getCachedUser(String token) {
-        return authCache.get(token);
-    }
-
     /**
      * Fetches information about the authenticated user.  Uses the github access token
-     * to make an authenticated call to the GitHub API to fetch the user info.
+     * to make an authenticated call to the GitHub API to fetch the user info.  Returns
+     * null if GitHub does not accept the token.
      * @param token
+     * @throws Exception if GitHub could not be asked (the token may or may not be valid)
      */
-    private User authenticateUser(String token) {
-        try {
-            HttpResponse<String> userResp = Unirest.get("https://api.github.com/user")
-                    .header("Accept", "application/json")
-                    .header("Authorization", "Bearer " + token)
-                    .asString();
-            if (userResp.getStatus() != 200) {
-                return null;
-            } else {
-                String json = userResp.getBody();
-                User user = mapper.reader(User.class).readValue(json);
-                return user;
-            }
-        } catch (Exception e) {
-            logger.error("Failed to authenticate with the GitHub API", e);
+    private User authenticateUser(String token) throws Exception {
+        HttpResponse<String> userResp = Unirest.get("https://api.github.com/user")
+                .header("Accept", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .asString();
+        if (userResp.getStatus() == 401) {
             return null;
+        } else if (userResp.getStatus() != 200) {
+            throw new IOException("Unexpected response from the GitHub API: " + userResp.getStatus());
+        } else {
+            String json = userResp.getBody();
+            User user = mapper.reader(User.class).readValue(json);
+            return user;
         }
     }
 
-    /**
-     * Caches the given authenticated user, mapping it to the given token.  Future requests will
-     * be able to look up the authenticated user from the token without accessing GitHub again.
-     * @param token
-     * @param user
-     */
-    private void cacheAuthenticatedUser(String token, User user) {
-        authCache.put(token, user);
-    }
-
     /**
      * @see javax.servlet.Filter#destroy()
      */
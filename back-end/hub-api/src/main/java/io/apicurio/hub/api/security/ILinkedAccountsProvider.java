@@ -51,4 +51,12 @@ public interface ILinkedAccountsProvider {
      */
     public String getLinkedAccountToken(LinkedAccountType type) throws IOException;
 
+    /**
+     * Discards any cached copy of the linked account's access token, so that the next
+     * call to {@link #getLinkedAccountToken(LinkedAccountType)} fetches it again.  Called
+     * when the external system no longer accepts the token.
+     * @param type
+     */
+    public void invalidateLinkedAccountToken(LinkedAccountType type);
+
 }
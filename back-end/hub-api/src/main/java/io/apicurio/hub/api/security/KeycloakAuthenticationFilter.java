@@ -69,7 +69,11 @@ public class KeycloakAuthenticationFilter implements Filter {
                 ((SecurityContext) security).setToken(session.getTokenString());
             }
         }
-        chain.doFilter(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ((SecurityContext) security).clear();
+        }
     }
 
     /**
@@ -21,6 +21,8 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
@@ -46,7 +48,10 @@ import org.slf4j.LoggerFactory;
 
 import io.apicurio.hub.api.beans.InitiatedLinkedAccount;
 import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.cache.ExpiringCache;
 import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.IMetrics;
+import io.apicurio.studio.shared.beans.User;
 
 /**
  * An implementation of {@link ILinkedAccountsProvider} that used Keycloak to manage
@@ -54,25 +59,42 @@ import io.apicurio.hub.api.config.HubApiConfiguration;
  * create and manage the account links.  Keycloak also stores the external token needed
  * to access the external services.
  * 
+ * External tokens are needed for (almost) every call to a source connector, so they
+ * are cached per user and provider rather than fetched from Keycloak every time.  The
+ * cached token expires along with the token itself (when Keycloak reports when that
+ * is) and is discarded early if the external system rejects it.
+ * 
  * @author eric.wittmann@gmail.com
  */
 @ApplicationScoped
 public class KeycloakLinkedAccountsProvider implements ILinkedAccountsProvider {
 
     private static Logger logger = LoggerFactory.getLogger(KeycloakLinkedAccountsProvider.class);
+    static final String TOKEN_CACHE_NAME = "linked-account-tokens";
+    private static final long TOKEN_EXPIRY_MARGIN = 30000;
+    private static final Pattern TOKEN_EXPIRATION_PATTERN = Pattern.compile("\"accessTokenExpiration\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN_EXPIRES_IN_PATTERN = Pattern.compile("(?:^|\\W)expires_in\"?\\s*[=:]\\s*\"?(\\d+)");
 
     @Inject
     private ISecurityContext security;
     @Inject
     private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
 
     @Inject
     private HttpServletRequest request;
 
     private CloseableHttpClient httpClient;
+    private ExpiringCache<String, String> tokenCache;
 
     @PostConstruct
     protected void postConstruct() {
+        long defaultTokenTtl = config.getLinkedAccountTokenTtl();
+        tokenCache = new ExpiringCache<>(TOKEN_CACHE_NAME, config.getLinkedAccountTokenCacheMaxSize(), response -> {
+            return tokenTtl(response, defaultTokenTtl, System.currentTimeMillis());
+        }, metrics);
+
         try {
             if (config.isDisableKeycloakTrustManager()) {
                 SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
@@ -153,6 +175,7 @@ public class KeycloakLinkedAccountsProvider implements ILinkedAccountsProvider {
                         response.getStatusLine().getStatusCode());
                 }
             }            
+            invalidateLinkedAccountToken(type);
         } catch (Exception e) {
             throw new IOException("Error deleting linked account.", e);
         }
@@ -163,6 +186,82 @@ public class KeycloakLinkedAccountsProvider implements ILinkedAccountsProvider {
      */
     @Override
     public String getLinkedAccountToken(LinkedAccountType type) throws IOException {
+        String cacheKey = tokenCacheKey(type);
+        if (cacheKey == null) {
+            return fetchLinkedAccountToken(type);
+        }
+        try {
+            return tokenCache.get(cacheKey, () -> fetchLinkedAccountToken(type));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error getting linked account token.", e);
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.security.ILinkedAccountsProvider#invalidateLinkedAccountToken(io.apicurio.hub.api.beans.LinkedAccountType)
+     */
+    @Override
+    public void invalidateLinkedAccountToken(LinkedAccountType type) {
+        String cacheKey = tokenCacheKey(type);
+        if (cacheKey != null) {
+            tokenCache.invalidate(cacheKey);
+        } else {
+            // Called from a background thread - the current user is unknown.  The cached
+            // token will be discarded when it expires instead.
+            logger.debug("Unable to invalidate the {} token outside of a request.", type.name());
+        }
+    }
+
+    /**
+     * Returns the key of the current user's token for the given provider in the token
+     * cache, or null if there is no current user.
+     * @param type
+     */
+    private String tokenCacheKey(LinkedAccountType type) {
+        User user = this.security.getCurrentUser();
+        if (user == null || user.getLogin() == null) {
+            return null;
+        }
+        return user.getLogin() + "::" + type.name();
+    }
+
+    /**
+     * Works out how long the given external token response from Keycloak may be cached
+     * for.  Keycloak includes the absolute expiration time of the token for some kinds of
+     * identity providers, in which case that is used.  Otherwise the standard OAuth
+     * "expires_in" value is used if present - but since that is relative to when the token
+     * was originally issued (not to now) it can only shorten the default TTL.  A small
+     * margin is subtracted so that a token is never used right as it expires.
+     * @param response
+     * @param defaultTtl
+     * @param now
+     */
+    static long tokenTtl(String response, long defaultTtl, long now) {
+        Matcher matcher = TOKEN_EXPIRATION_PATTERN.matcher(response);
+        if (matcher.find()) {
+            long expiresOn = Long.parseLong(matcher.group(1)) * 1000;
+            if (expiresOn > 0) {
+                return Math.max(0, expiresOn - now - TOKEN_EXPIRY_MARGIN);
+            }
+        }
+        matcher = TOKEN_EXPIRES_IN_PATTERN.matcher(response);
+        if (matcher.find()) {
+            long expiresIn = Long.parseLong(matcher.group(1)) * 1000;
+            if (expiresIn > 0) {
+                return Math.max(0, Math.min(defaultTtl, expiresIn - TOKEN_EXPIRY_MARGIN));
+            }
+        }
+        return defaultTtl;
+    }
+
+    /**
+     * Fetches the linked account's access token from Keycloak.
+     * @param type
+     * @throws IOException
+     */
+    private String fetchLinkedAccountToken(LinkedAccountType type) throws IOException {
         String authServerRootUrl = config.getKeycloakAuthUrl();
         String realm = config.getKeycloakRealm();
         String provider = type.alias();
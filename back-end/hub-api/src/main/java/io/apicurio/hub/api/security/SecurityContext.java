@@ -16,19 +16,24 @@
 
 package io.apicurio.hub.api.security;
 
-import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.ApplicationScoped;
 
 import io.apicurio.studio.shared.beans.User;
 
 /**
  * A security context that uses github access tokens to authenticate the user.
+ * 
+ * The user and token are bound to the current thread (by the authentication filter)
+ * rather than held in a request scoped bean, so that they can be carried over to the
+ * threads that serve asynchronous requests - see {@link #wrap(Runnable)}.
+ * 
  * @author eric.wittmann@gmail.com
  */
-@RequestScoped
+@ApplicationScoped
 public class SecurityContext implements ISecurityContext {
     
-    private User user;
-    private String token;
+    private static final ThreadLocal<User> user = new ThreadLocal<>();
+    private static final ThreadLocal<String> token = new ThreadLocal<>();
     
     /**
      * Constructor.
@@ -40,7 +45,7 @@ public class SecurityContext implements ISecurityContext {
      * @param user
      */
     protected void setUser(User user) {
-        this.user = user;
+        SecurityContext.user.set(user);
     }
     
     /**
@@ -48,21 +53,52 @@ public class SecurityContext implements ISecurityContext {
      */
     @Override
     public User getCurrentUser() {
-        return user;
+        return user.get();
     }
 
     /**
      * @return the token
      */
     public String getToken() {
-        return token;
+        return token.get();
     }
 
     /**
      * @param token the token to set
      */
     public void setToken(String token) {
-        this.token = token;
+        SecurityContext.token.set(token);
+    }
+
+    /**
+     * Removes the user and token from the current thread.
+     */
+    public void clear() {
+        user.remove();
+        token.remove();
+    }
+
+    /**
+     * Wraps the given task so that it runs (on whatever thread) as the user that is 
+     * current on the calling thread.  The worker thread's own state is restored when
+     * the task completes.
+     * @param task
+     */
+    public Runnable wrap(Runnable task) {
+        User currentUser = user.get();
+        String currentToken = token.get();
+        return () -> {
+            User previousUser = user.get();
+            String previousToken = token.get();
+            user.set(currentUser);
+            token.set(currentToken);
+            try {
+                task.run();
+            } finally {
+                user.set(previousUser);
+                token.set(previousToken);
+            }
+        };
     }
 
 }
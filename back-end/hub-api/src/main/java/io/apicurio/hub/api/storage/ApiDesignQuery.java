@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage;
+
+import java.util.Date;
+
+/**
+ * Criteria used to select a (filtered, sorted) page of API Designs from storage.
+ * 
+ * Designs can be paged either by offset (start/limit) or, when sorted by modification
+ * date, by keyset - in which case the page starts immediately after the design identified
+ * by the "after" values (typically the last design of the previous page).  Keyset paging
+ * remains fast (and stable) no matter how deep into the list the caller is.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class ApiDesignQuery {
+
+    /**
+     * The supported sort orders.  Designs sorted by name are returned alphabetically, 
+     * designs sorted by modification date are returned most recent first.
+     */
+    public static enum SortBy {
+        name, modified_on
+    }
+
+    private int start;
+    private Integer limit;
+    private SortBy sortBy = SortBy.modified_on;
+    private String tag;
+    private String namePrefix;
+    private Date afterModifiedOn;
+    private Long afterId;
+
+    /**
+     * Constructor.
+     */
+    public ApiDesignQuery() {
+    }
+
+    /**
+     * @return true if the query should seek past a known design (keyset paging)
+     */
+    public boolean isKeyset() {
+        return sortBy == SortBy.modified_on && afterModifiedOn != null && afterId != null;
+    }
+
+    /**
+     * @return the start
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @param start the start to set
+     */
+    public void setStart(int start) {
+        this.start = start;
+    }
+
+    /**
+     * @return the limit
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit the limit to set
+     */
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return the sortBy
+     */
+    public SortBy getSortBy() {
+        return sortBy;
+    }
+
+    /**
+     * @param sortBy the sortBy to set
+     */
+    public void setSortBy(SortBy sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    /**
+     * @return the tag
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @param tag the tag to set
+     */
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return the namePrefix
+     */
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /**
+     * @param namePrefix the namePrefix to set
+     */
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    /**
+     * @return the afterModifiedOn
+     */
+    public Date getAfterModifiedOn() {
+        return afterModifiedOn;
+    }
+
+    /**
+     * @param afterModifiedOn the afterModifiedOn to set
+     */
+    public void setAfterModifiedOn(Date afterModifiedOn) {
+        this.afterModifiedOn = afterModifiedOn;
+    }
+
+    /**
+     * @return the afterId
+     */
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * @param afterId the afterId to set
+     */
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+}
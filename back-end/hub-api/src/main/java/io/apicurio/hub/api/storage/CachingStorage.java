@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.decorator.Decorator;
+import javax.decorator.Delegate;
+import javax.enterprise.inject.Any;
+import javax.inject.Inject;
+
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.beans.LinkedAccount;
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.cache.ApiDesignCache;
+import io.apicurio.hub.api.exceptions.AlreadyExistsException;
+import io.apicurio.hub.api.exceptions.NotFoundException;
+
+/**
+ * Decorates the storage layer with a cache of API Design meta-data (see
+ * {@link ApiDesignCache}).  Only {@link #getApiDesign(String, String)} and
+ * {@link #listApiDesigns(String)} are cached - everything else goes straight to the
+ * decorated storage, with any writes invalidating the affected cache entries.
+ * 
+ * The decorator is enabled in the beans.xml of this module.
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+@Decorator
+public class CachingStorage implements IStorage {
+
+    @Inject
+    @Delegate
+    @Any
+    private IStorage delegate;
+    @Inject
+    private ApiDesignCache cache;
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#createLinkedAccount(java.lang.String, io.apicurio.hub.api.beans.LinkedAccount)
+     */
+    @Override
+    public void createLinkedAccount(String userId, LinkedAccount account) throws AlreadyExistsException, StorageException {
+        delegate.createLinkedAccount(userId, account);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#listLinkedAccounts(java.lang.String)
+     */
+    @Override
+    public Collection<LinkedAccount> listLinkedAccounts(String userId) throws StorageException {
+        return delegate.listLinkedAccounts(userId);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#deleteLinkedAccount(java.lang.String, io.apicurio.hub.api.beans.LinkedAccountType)
+     */
+    @Override
+    public void deleteLinkedAccount(String userId, LinkedAccountType type) throws StorageException, NotFoundException {
+        delegate.deleteLinkedAccount(userId, type);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#deleteLinkedAccounts(java.lang.String)
+     */
+    @Override
+    public void deleteLinkedAccounts(String userId) throws StorageException {
+        delegate.deleteLinkedAccounts(userId);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#getLinkedAccount(java.lang.String, io.apicurio.hub.api.beans.LinkedAccountType)
+     */
+    @Override
+    public LinkedAccount getLinkedAccount(String userId, LinkedAccountType type) throws StorageException, NotFoundException {
+        return delegate.getLinkedAccount(userId, type);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#updateLinkedAccount(java.lang.String, io.apicurio.hub.api.beans.LinkedAccount)
+     */
+    @Override
+    public void updateLinkedAccount(String userId, LinkedAccount account) throws NotFoundException, StorageException {
+        delegate.updateLinkedAccount(userId, account);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#getApiDesign(java.lang.String, java.lang.String)
+     */
+    @Override
+    public ApiDesign getApiDesign(String userId, String designId) throws NotFoundException, StorageException {
+        if (!cache.isEnabled() || userId == null) {
+            return delegate.getApiDesign(userId, designId);
+        }
+        ApiDesign design = cache.getDesign(userId, designId);
+        if (design == null) {
+            long generation = cache.generation();
+            design = delegate.getApiDesign(userId, designId);
+            cache.putDesign(userId, design, generation);
+        }
+        return design;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#createApiDesign(java.lang.String, io.apicurio.hub.api.beans.ApiDesign)
+     */
+    @Override
+    public String createApiDesign(String userId, ApiDesign design) throws AlreadyExistsException, StorageException {
+        try {
+            return delegate.createApiDesign(userId, design);
+        } finally {
+            cache.invalidateDesigns(userId);
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#deleteApiDesign(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void deleteApiDesign(String userId, String designId) throws NotFoundException, StorageException {
+        try {
+            delegate.deleteApiDesign(userId, designId);
+        } finally {
+            cache.invalidateDesign(designId);
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#updateApiDesign(java.lang.String, io.apicurio.hub.api.beans.ApiDesign)
+     */
+    @Override
+    public void updateApiDesign(String userId, ApiDesign design) throws NotFoundException, StorageException {
+        try {
+            delegate.updateApiDesign(userId, design);
+        } finally {
+            cache.invalidateDesign(design.getId());
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#listApiDesigns(java.lang.String)
+     */
+    @Override
+    public Collection<ApiDesign> listApiDesigns(String userId) throws StorageException {
+        if (!cache.isEnabled() || userId == null) {
+            return delegate.listApiDesigns(userId);
+        }
+        Collection<ApiDesign> designs = cache.getDesigns(userId);
+        if (designs == null) {
+            long generation = cache.generation();
+            designs = delegate.listApiDesigns(userId);
+            cache.putDesigns(userId, designs, generation);
+        }
+        return designs;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#listApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public List<ApiDesign> listApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        return delegate.listApiDesigns(userId, query);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#countApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public int countApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        return delegate.countApiDesigns(userId, query);
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isHealthy()
+     */
+    @Override
+    public boolean isHealthy() {
+        return delegate.isHealthy();
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        return delegate.isReady();
+    }
+
+}
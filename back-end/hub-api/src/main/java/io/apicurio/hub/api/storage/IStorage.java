@@ -17,6 +17,7 @@
 package io.apicurio.hub.api.storage;
 
 import java.util.Collection;
+import java.util.List;
 
 import io.apicurio.hub.api.beans.ApiDesign;
 import io.apicurio.hub.api.beans.LinkedAccount;
@@ -134,4 +135,36 @@ public interface IStorage {
      */
     public Collection<ApiDesign> listApiDesigns(String userId) throws StorageException;
 
+    /**
+     * Returns a single page of the API Designs accessible by the given user, filtered and
+     * sorted according to the given query.
+     * @param userId
+     * @param query
+     * @return a list of API Designs
+     * @throws StorageException
+     */
+    public List<ApiDesign> listApiDesigns(String userId, ApiDesignQuery query) throws StorageException;
+
+    /**
+     * Returns the number of API Designs accessible by the given user that match the
+     * filters of the given query (paging and sorting are ignored).
+     * @param userId
+     * @param query
+     * @throws StorageException
+     */
+    public int countApiDesigns(String userId, ApiDesignQuery query) throws StorageException;
+
+    /**
+     * Returns true if the storage can currently be reached.  This is a cheap, constant-time
+     * check (independent of the amount of data stored) and the result may be cached for a
+     * short period, so it is safe to call frequently.
+     */
+    public boolean isHealthy();
+
+    /**
+     * Returns true if the storage can currently be reached and its schema is up to date.
+     * Like {@link #isHealthy()}, the result may be cached for a short period.
+     */
+    public boolean isReady();
+
 }
@@ -20,6 +20,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+import io.apicurio.hub.api.storage.ApiDesignQuery.SortBy;
 
 /**
  * Shared base class for all sql statements.
@@ -27,6 +32,15 @@ import java.util.List;
  */
 public abstract class CommonSqlStatements implements ISqlStatements {
 
+    /*
+     * The design listing statements are generated from the "shape" of the query (which
+     * clauses are present) rather than its values, so there are only a few dozen possible
+     * statements.  Cache them so that the same SQL string is handed to the driver (and its
+     * prepared statement cache) each time instead of being rebuilt on every request.
+     */
+    private final Map<Integer, String> selectApiDesignsCache = new ConcurrentHashMap<>();
+    private final Map<Integer, String> countApiDesignsCache = new ConcurrentHashMap<>();
+
     /**
      * Returns the database type identifier.
      */
@@ -72,6 +86,14 @@ public abstract class CommonSqlStatements implements ISqlStatements {
         return "SELECT a.prop_value FROM apicurio a WHERE a.prop_name = ?";
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#ping()
+     */
+    @Override
+    public String ping() {
+        return "SELECT 1";
+    }
+
     /**
      * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#insertLinkedAccount()
      */
@@ -125,7 +147,7 @@ public abstract class CommonSqlStatements implements ISqlStatements {
      */
     @Override
     public String insertApiDesign() {
-        return "INSERT INTO api_designs (name, description, repository_url, created_by, created_on, modified_by, modified_on, tags) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        return "INSERT INTO api_designs (name, description, repository_url, created_by, created_on, modified_by, modified_on) VALUES (?, ?, ?, ?, ?, ?, ?)";
     }
     
     /**
@@ -133,7 +155,7 @@ public abstract class CommonSqlStatements implements ISqlStatements {
      */
     @Override
     public String deleteApiDesign() {
-        return "DELETE FROM api_designs WHERE id = ?";
+        return "DELETE FROM api_designs WHERE id = ? AND EXISTS (SELECT 1 FROM acl a WHERE a.design_id = api_designs.id AND a.user_id = ? AND a.role IN ('owner', 'editor'))";
     }
     
     /**
@@ -141,7 +163,120 @@ public abstract class CommonSqlStatements implements ISqlStatements {
      */
     @Override
     public String selectApiDesigns() {
-        return "SELECT d.* FROM api_designs d INNER JOIN acl a ON a.design_id = d.id WHERE a.user_id = ?";
+        return "SELECT d.*, t.tag FROM api_designs d INNER JOIN acl a ON a.design_id = d.id LEFT JOIN design_tags t ON t.design_id = d.id WHERE a.user_id = ?";
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#selectApiDesigns(io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public String selectApiDesigns(ApiDesignQuery query) {
+        return selectApiDesignsCache.computeIfAbsent(shapeOf(query), shape -> buildSelectApiDesigns(query));
+    }
+
+    /**
+     * Generates the SQL used to select a (filtered, sorted) page of designs.
+     * @param query
+     */
+    private String buildSelectApiDesigns(ApiDesignQuery query) {
+        String orderBy;
+        if (query.getSortBy() == SortBy.name) {
+            orderBy = " ORDER BY d.name ASC, d.id ASC";
+        } else {
+            orderBy = " ORDER BY d.modified_on DESC, d.id DESC";
+        }
+
+        // First select the page of designs...
+        StringBuilder page = new StringBuilder();
+        page.append("SELECT d.* FROM api_designs d INNER JOIN acl a ON a.design_id = d.id WHERE a.user_id = :userId");
+        appendFilters(page, query);
+        if (query.isKeyset()) {
+            page.append(" AND (d.modified_on < :afterModifiedOn OR (d.modified_on = :afterModifiedOn AND d.id < :afterId))");
+        }
+        boolean paged = query.getLimit() != null || (!query.isKeyset() && query.getStart() > 0);
+        if (paged) {
+            page.append(orderBy);
+        }
+        if (query.getLimit() != null) {
+            page.append(" LIMIT :limit");
+            if (!query.isKeyset() && query.getStart() > 0) {
+                page.append(" OFFSET :start");
+            }
+        } else if (!query.isKeyset() && query.getStart() > 0) {
+            page.append(" ").append(offsetOnly());
+        }
+
+        // ...then join in the tags of only the designs on that page
+        return "SELECT d.*, t.tag FROM (" + page + ") d LEFT JOIN design_tags t ON t.design_id = d.id" + orderBy;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#countApiDesigns(io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public String countApiDesigns(ApiDesignQuery query) {
+        return countApiDesignsCache.computeIfAbsent(shapeOf(query), shape -> buildCountApiDesigns(query));
+    }
+
+    /**
+     * Generates the SQL used to count the designs matching the query's filters.
+     * @param query
+     */
+    private String buildCountApiDesigns(ApiDesignQuery query) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT COUNT(*) FROM api_designs d INNER JOIN acl a ON a.design_id = d.id WHERE a.user_id = :userId");
+        appendFilters(sql, query);
+        return sql.toString();
+    }
+
+    /**
+     * Returns a key identifying which of the optional clauses the SQL generated for the
+     * given query will contain.  Queries with the same shape produce identical SQL.
+     * @param query
+     */
+    private static int shapeOf(ApiDesignQuery query) {
+        int shape = 0;
+        if (query.getSortBy() == SortBy.name) {
+            shape |= 1;
+        }
+        if (query.getTag() != null) {
+            shape |= 2;
+        }
+        if (query.getNamePrefix() != null) {
+            shape |= 4;
+        }
+        if (query.isKeyset()) {
+            shape |= 8;
+        }
+        if (query.getLimit() != null) {
+            shape |= 16;
+        }
+        if (query.getStart() > 0) {
+            shape |= 32;
+        }
+        return shape;
+    }
+
+    /**
+     * Appends the (optional) tag and name filters of the query to the WHERE clause.  The
+     * name filter is a LIKE pattern that uses '!' as its escape character.
+     * @param sql
+     * @param query
+     */
+    protected void appendFilters(StringBuilder sql, ApiDesignQuery query) {
+        if (query.getTag() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM design_tags ft WHERE ft.design_id = d.id AND ft.tag = :tag)");
+        }
+        if (query.getNamePrefix() != null) {
+            sql.append(" AND LOWER(d.name) LIKE :namePrefix ESCAPE '!'");
+        }
+    }
+
+    /**
+     * Returns a clause that skips the first :start rows without limiting the result.
+     */
+    protected String offsetOnly() {
+        return "OFFSET :start";
     }
 
     /**
@@ -149,7 +284,7 @@ public abstract class CommonSqlStatements implements ISqlStatements {
      */
     @Override
     public String selectApiDesignById() {
-        return "SELECT d.* FROM api_designs d INNER JOIN acl a ON a.design_id = d.id WHERE d.id = ? AND a.user_id = ?";
+        return "SELECT d.*, t.tag FROM api_designs d INNER JOIN acl a ON a.design_id = d.id LEFT JOIN design_tags t ON t.design_id = d.id WHERE d.id = ? AND a.user_id = ?";
     }
     
     /**
@@ -157,30 +292,55 @@ public abstract class CommonSqlStatements implements ISqlStatements {
      */
     @Override
     public String updateApiDesign() {
-        return "UPDATE api_designs SET name = ?, description = ?, modified_by = ?, modified_on = ?, tags = ? WHERE id = ?";
+        return "UPDATE api_designs SET name = ?, description = ?, modified_by = ?, modified_on = ? WHERE id = ? AND EXISTS (SELECT 1 FROM acl a WHERE a.design_id = api_designs.id AND a.user_id = ? AND a.role IN ('owner', 'editor'))";
     }
     
     /**
-     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#insertAcl()
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#insertDesignTag()
      */
     @Override
-    public String insertAcl() {
-        return "INSERT INTO acl (user_id, design_id, role) VALUES (?, ?, ?)";
+    public String insertDesignTag() {
+        return "INSERT INTO design_tags (design_id, tag) VALUES (?, ?)";
     }
-    
+
     /**
-     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#clearAcl()
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#clearDesignTags()
      */
     @Override
-    public String clearAcl() {
-        return "DELETE FROM acl WHERE design_id = ?";
+    public String clearDesignTags() {
+        return "DELETE FROM design_tags WHERE design_id = ?";
     }
-    
+
     /**
-     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#hasWritePermission()
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#selectAllDesignTags()
      */
     @Override
-    public String hasWritePermission() {
-        return "SELECT COUNT(*) FROM acl a WHERE a.design_id = ? AND a.user_id = ? AND (a.role = 'owner' OR a.role = 'editor')";
+    public String selectAllDesignTags() {
+        return "SELECT t.design_id, t.tag FROM design_tags t";
     }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#selectLegacyDesignTags()
+     */
+    @Override
+    public String selectLegacyDesignTags() {
+        return "SELECT d.id, d.tags FROM api_designs d WHERE d.tags IS NOT NULL";
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#dropLegacyDesignTags()
+     */
+    @Override
+    public String dropLegacyDesignTags() {
+        return "ALTER TABLE api_designs DROP COLUMN tags";
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#insertAcl()
+     */
+    @Override
+    public String insertAcl() {
+        return "INSERT INTO acl (user_id, design_id, role) VALUES (?, ?, ?)";
+    }
+
 }
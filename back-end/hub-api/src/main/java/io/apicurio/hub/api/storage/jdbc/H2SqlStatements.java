@@ -39,4 +39,21 @@ public class H2SqlStatements extends CommonSqlStatements {
         return "SELECT COUNT(*) AS count FROM information_schema.tables WHERE table_name = 'API_DESIGNS'";
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#hasLegacyDesignTags()
+     */
+    @Override
+    public String hasLegacyDesignTags() {
+        return "SELECT COUNT(*) AS count FROM information_schema.columns WHERE table_name = 'API_DESIGNS' AND column_name = 'TAGS'";
+    }
+
+    /**
+     * H2 requires a LIMIT before the OFFSET - a negative limit means "no limit".
+     * @see io.apicurio.hub.api.storage.jdbc.CommonSqlStatements#offsetOnly()
+     */
+    @Override
+    protected String offsetOnly() {
+        return "LIMIT -1 OFFSET :start";
+    }
+
 }
@@ -16,6 +16,8 @@
 
 package io.apicurio.hub.api.storage.jdbc;
 
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+
 import java.util.List;
 
 /**
@@ -48,6 +50,11 @@ public interface ISqlStatements {
      */
     public String getDatabaseVersion();
 
+    /**
+     * A constant-time statement used to check that the database is reachable.
+     */
+    public String ping();
+
     /**
      * A statement used to insert a row into the accounts table.
      */
@@ -84,7 +91,9 @@ public interface ISqlStatements {
     public String insertApiDesign();
 
     /**
-     * A statement used to delete a row from the api_designs table.
+     * A statement used to delete a row from the api_designs table, but only if the given
+     * user has permission to write/delete it.  The design's acl and tag rows are deleted
+     * along with it (via cascading foreign keys).
      */
     public String deleteApiDesign();
 
@@ -93,29 +102,68 @@ public interface ISqlStatements {
      */
     public String selectApiDesigns();
 
+    /**
+     * A statement used to select a (filtered, sorted) page of API designs.  The statement
+     * uses named parameters:  :userId always, and :tag, :namePrefix, :afterModifiedOn,
+     * :afterId, :limit and :start depending on the query.
+     * @param query
+     */
+    public String selectApiDesigns(ApiDesignQuery query);
+
+    /**
+     * A statement used to count the API designs matching the filters in the given query.
+     * Paging and sorting are ignored.
+     * @see #selectApiDesigns(ApiDesignQuery)
+     * @param query
+     */
+    public String countApiDesigns(ApiDesignQuery query);
+
     /**
      * A statement used to select a single API design by its unique id.
      */
     public String selectApiDesignById();
 
     /**
-     * A statement used to update a single API design.
+     * A statement used to update a single API design, but only if the given user has
+     * permission to write to it.
      */
     public String updateApiDesign();
 
     /**
-     * A statement used to insert a row into the acl table.
+     * A statement used to insert a row into the design_tags table.
      */
-    public String insertAcl();
+    public String insertDesignTag();
 
     /**
-     * A statement used to delete all acl rows for an api design.
+     * A statement used to delete all tags of an API design.
      */
-    public String clearAcl();
-    
+    public String clearDesignTags();
+
     /**
-     * A statement used to determine if a user has permission to write/delete an API design.
+     * A statement used to select every (design id, tag) pair in the design_tags table.
      */
-    public String hasWritePermission();
+    public String selectAllDesignTags();
+
+    /**
+     * A statement used to determine whether the legacy api_designs.tags column still
+     * exists (i.e. its tags have not yet been migrated into the design_tags table).
+     */
+    public String hasLegacyDesignTags();
+
+    /**
+     * A statement used to select the (comma separated) tags stored in the legacy
+     * api_designs.tags column, prior to migrating them into the design_tags table.
+     */
+    public String selectLegacyDesignTags();
+
+    /**
+     * A statement used to drop the legacy api_designs.tags column.
+     */
+    public String dropLegacyDesignTags();
+
+    /**
+     * A statement used to insert a row into the acl table.
+     */
+    public String insertAcl();
 
 }
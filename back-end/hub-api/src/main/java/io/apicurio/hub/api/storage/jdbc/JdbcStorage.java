@@ -19,19 +19,30 @@ package io.apicurio.hub.api.storage.jdbc;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
 import javax.sql.DataSource;
 
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.result.ResultIterable;
+import org.jdbi.v3.core.result.ResultSetMapper;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.Query;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +53,8 @@ import io.apicurio.hub.api.beans.LinkedAccountType;
 import io.apicurio.hub.api.config.HubApiConfiguration;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import io.apicurio.hub.api.metrics.IMetrics;
+import io.apicurio.hub.api.storage.ApiDesignQuery;
 import io.apicurio.hub.api.storage.IStorage;
 import io.apicurio.hub.api.storage.StorageException;
 
@@ -53,22 +66,52 @@ import io.apicurio.hub.api.storage.StorageException;
 public class JdbcStorage implements IStorage {
     
     private static Logger logger = LoggerFactory.getLogger(JdbcStorage.class);
-    private static int DB_VERSION = 1;
+    private static int DB_VERSION = 4;
     private static Object dbMutex = new Object();
+    private static final String STATEMENT_NAME = StatementTimingCollector.STATEMENT_NAME;
+    private static int MAX_PINS_BEFORE_SWEEP = 1000;
 
     @Inject
     private HubApiConfiguration config;
+    @Inject
+    private IMetrics metrics;
     @Resource(mappedName="java:jboss/datasources/ApicurioDS")
     private DataSource dataSource;
+    private DataSource readDataSource;
     
     private ISqlStatements sqlStatements;
     private Jdbi jdbi;
+    private Jdbi readJdbi;
+    private int fetchSize;
+    private long pinWindow;
+    private final Map<String, Long> primaryPins = new ConcurrentHashMap<>();
+    private long healthCacheTtl;
+    private volatile HealthCheck lastHealthCheck;
+    private final Object healthMutex = new Object();
     
     @PostConstruct
     public void postConstruct() {
         logger.debug("JDBC Storage constructed successfully.");
 
         jdbi = Jdbi.create(dataSource);
+        jdbi.setTimingCollector(new StatementTimingCollector(metrics));
+        fetchSize = config.getJdbcFetchSize();
+        healthCacheTtl = config.getStorageHealthCacheTtl();
+
+        String readDataSourceName = config.getJdbcReadDataSource();
+        if (readDataSource == null && readDataSourceName != null) {
+            try {
+                readDataSource = (DataSource) new InitialContext().lookup(readDataSourceName);
+            } catch (NamingException e) {
+                throw new RuntimeException("Failed to find read-only datasource: " + readDataSourceName, e);
+            }
+        }
+        if (readDataSource != null) {
+            logger.info("Routing read-only queries to a read replica.");
+            readJdbi = Jdbi.create(readDataSource);
+            readJdbi.setTimingCollector(new StatementTimingCollector(metrics));
+            pinWindow = config.getJdbcReadPinWindow();
+        }
 
         switch (config.getJdbcType()) {
             case "h2":
@@ -97,6 +140,7 @@ public class JdbcStorage implements IStorage {
                     logger.debug("Old database version detected, upgrading.");
                     upgradeDatabase();
                 }
+                migrateLegacyDesignTags();
             }
         } else {
             if (!isDatabaseInitialized()) {
@@ -108,16 +152,106 @@ public class JdbcStorage implements IStorage {
                 logger.error("Detected an old version of the database.  Please use the DDL upgrade scripts to bring your database up to date.");
                 throw new RuntimeException("Database not upgraded.");
             }
+            synchronized (dbMutex) {
+                migrateLegacyDesignTags();
+            }
         }
     }
 
+    /**
+     * Like {@link Jdbi#withHandle(HandleCallback)} but marks the handle's connection as
+     * read-only for the duration of the callback, which lets the driver (and database)
+     * skip work it would otherwise need to do for a writable transaction.  The flag is
+     * reset before the connection is returned to the pool.
+     * 
+     * When a read replica is configured the query is sent to it, unless the given user
+     * has recently written something (in which case the replica may not have caught up
+     * yet, so the user's reads stay on the primary until the pin window has passed).
+     * @param userId
+     * @param callback
+     */
+    private <R, X extends Exception> R withReadOnlyHandle(String userId, HandleCallback<R, X> callback) throws X {
+        Jdbi target = this.readJdbi != null && !isPinnedToPrimary(userId) ? this.readJdbi : this.jdbi;
+        return target.withHandle( handle -> {
+            handle.setReadOnly(true);
+            try {
+                return callback.withHandle(handle);
+            } finally {
+                handle.setReadOnly(false);
+            }
+        });
+    }
+
+    /**
+     * Like {@link Jdbi#withHandle(HandleCallback)}, for callbacks that modify the given
+     * user's data.  Pins the user's subsequent reads to the primary database.
+     * @param userId
+     * @param callback
+     */
+    private <R, X extends Exception> R withWriteHandle(String userId, HandleCallback<R, X> callback) throws X {
+        try {
+            return this.jdbi.withHandle(callback);
+        } finally {
+            pinToPrimary(userId);
+        }
+    }
+
+    /**
+     * Like {@link Jdbi#inTransaction(HandleCallback)}, for callbacks that modify the given
+     * user's data.  Pins the user's subsequent reads to the primary database.
+     * @param userId
+     * @param callback
+     */
+    private <R, X extends Exception> R inWriteTransaction(String userId, HandleCallback<R, X> callback) throws X {
+        try {
+            return this.jdbi.inTransaction(callback);
+        } finally {
+            pinToPrimary(userId);
+        }
+    }
+
+    /**
+     * Sends the user's reads to the primary database for the next pin window.  Does
+     * nothing if there is no read replica.
+     * @param userId
+     */
+    private void pinToPrimary(String userId) {
+        if (this.readJdbi == null || userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (primaryPins.size() >= MAX_PINS_BEFORE_SWEEP) {
+            primaryPins.values().removeIf( until -> until <= now );
+        }
+        primaryPins.put(userId, now + pinWindow);
+    }
+
+    /**
+     * @param userId
+     * @return true if the user's reads must currently go to the primary database
+     */
+    private boolean isPinnedToPrimary(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = primaryPins.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until <= System.currentTimeMillis()) {
+            primaryPins.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * @return true if the database has already been initialized
      */
     private boolean isDatabaseInitialized() {
         logger.debug("Checking to see if the DB is initialized.");
         return this.jdbi.withHandle(handle -> {
-            ResultIterable<Integer> result = handle.createQuery(this.sqlStatements.isDatabaseInitialized()).mapTo(Integer.class);
+            ResultIterable<Integer> result = handle.createQuery(this.sqlStatements.isDatabaseInitialized()).define(STATEMENT_NAME, "isDatabaseInitialized").mapTo(Integer.class);
             return result.findOnly().intValue() > 0;
         });
     }
@@ -143,7 +277,7 @@ public class JdbcStorage implements IStorage {
         this.jdbi.withHandle( handle -> {
             statements.forEach( statement -> {
                 logger.debug(statement);
-                handle.createUpdate(statement).execute();
+                handle.createUpdate(statement).define(STATEMENT_NAME, "databaseInitialization").execute();
             });
             return null;
         });
@@ -152,7 +286,8 @@ public class JdbcStorage implements IStorage {
 
     /**
      * Upgrades the database by executing a number of DDL statements found in DB-specific
-     * DDL upgrade scripts.
+     * DDL upgrade scripts.  The statements are run in a single transaction, so on databases
+     * with transactional DDL (PostgreSQL) a failed upgrade leaves the schema untouched.
      */
     private void upgradeDatabase() {
         logger.info("Upgrading the Apicurio Hub API database.");
@@ -166,15 +301,61 @@ public class JdbcStorage implements IStorage {
 
         final List<String> statements = this.sqlStatements.databaseUpgrade(fromVersion, toVersion);
         logger.debug("---");
-        this.jdbi.withHandle( handle -> {
+        this.jdbi.useTransaction( handle -> {
             statements.forEach( statement -> {
                 logger.debug(statement);
-                handle.createUpdate(statement).execute();
+                handle.createUpdate(statement).define(STATEMENT_NAME, "databaseUpgrade").execute();
             });
-            return null;
         });
         logger.debug("---");
     }
+
+    /**
+     * Moves the tags of all existing designs from the (comma separated) api_designs.tags 
+     * column into the design_tags table, and then drops the old column.  Whether this is
+     * needed is based on the column itself rather than the DB version:  on databases that
+     * commit DDL implicitly (H2, MySQL) the version has already been bumped by the time
+     * the migration runs, so a migration that failed part way is simply retried on the
+     * next startup.  Tags that were already copied are skipped, so the retry is safe.
+     */
+    private void migrateLegacyDesignTags() {
+        this.jdbi.useTransaction( handle -> {
+            boolean hasLegacyTags = handle.createQuery(this.sqlStatements.hasLegacyDesignTags())
+                    .define(STATEMENT_NAME, "hasLegacyDesignTags")
+                    .mapTo(Integer.class).findOnly().intValue() > 0;
+            if (!hasLegacyTags) {
+                return;
+            }
+
+            logger.info("Migrating API design tags.");
+            Set<String> migrated = new HashSet<>();
+            handle.createQuery(this.sqlStatements.selectAllDesignTags())
+                .define(STATEMENT_NAME, "selectAllDesignTags")
+                .mapToMap()
+                .forEach( row -> migrated.add(((Number) row.get("design_id")).longValue() + ":" + row.get("tag")) );
+
+            PreparedBatch batch = handle.prepareBatch(this.sqlStatements.insertDesignTag()).define(STATEMENT_NAME, "insertDesignTag");
+            handle.createQuery(this.sqlStatements.selectLegacyDesignTags())
+                .define(STATEMENT_NAME, "selectLegacyDesignTags")
+                .mapToMap()
+                .forEach( row -> {
+                    Long designId = ((Number) row.get("id")).longValue();
+                    for (String tag : ((String) row.get("tags")).split(",")) {
+                        tag = tag.trim();
+                        if (tag.length() > ApiDesign.MAX_TAG_LENGTH) {
+                            logger.warn("\tDropping tag of API design {} (longer than {} characters): {}", designId, 
+                                    ApiDesign.MAX_TAG_LENGTH, tag);
+                        } else if (!tag.isEmpty() && migrated.add(designId + ":" + tag)) {
+                            batch.add(designId, tag);
+                        }
+                    }
+                });
+            if (batch.size() > 0) {
+                batch.execute();
+            }
+            handle.createUpdate(this.sqlStatements.dropLegacyDesignTags()).define(STATEMENT_NAME, "dropLegacyDesignTags").execute();
+        });
+    }
     
     /**
      * Reuturns the current DB version by selecting the value in the 'apicurio' table.
@@ -182,6 +363,7 @@ public class JdbcStorage implements IStorage {
     private int getDatabaseVersion() {
         return this.jdbi.withHandle(handle -> {
             ResultIterable<String> result = handle.createQuery(this.sqlStatements.getDatabaseVersion())
+                    .define(STATEMENT_NAME, "getDatabaseVersion")
                     .bind(0, "db_version")
                     .mapTo(String.class);
             try {
@@ -194,6 +376,55 @@ public class JdbcStorage implements IStorage {
         });
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isHealthy()
+     */
+    @Override
+    public boolean isHealthy() {
+        return checkHealth().healthy;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        HealthCheck check = checkHealth();
+        return check.healthy && check.schemaCurrent;
+    }
+
+    /**
+     * Returns the result of the most recent health check, running a new one (a ping plus
+     * a lookup of the DB version) only when that result is older than the configured TTL.
+     * Concurrent callers share a single check rather than all hitting the database.
+     */
+    private HealthCheck checkHealth() {
+        HealthCheck check = this.lastHealthCheck;
+        if (check != null && System.currentTimeMillis() - check.checkedOn < healthCacheTtl) {
+            return check;
+        }
+        synchronized (healthMutex) {
+            check = this.lastHealthCheck;
+            if (check != null && System.currentTimeMillis() - check.checkedOn < healthCacheTtl) {
+                return check;
+            }
+            boolean healthy = false;
+            boolean schemaCurrent = false;
+            try {
+                healthy = this.jdbi.withHandle(handle -> {
+                    return handle.createQuery(this.sqlStatements.ping()).define(STATEMENT_NAME, "ping")
+                            .mapTo(Integer.class).findOnly().intValue() == 1;
+                });
+                schemaCurrent = healthy && isDatabaseCurrent();
+            } catch (Exception e) {
+                logger.warn("Storage health check failed: {}", e.getMessage());
+            }
+            check = new HealthCheck(healthy, schemaCurrent, System.currentTimeMillis());
+            this.lastHealthCheck = check;
+            return check;
+        }
+    }
+
     /**
      * @see io.apicurio.hub.api.storage.IStorage#createLinkedAccount(java.lang.String, io.apicurio.hub.api.beans.LinkedAccount)
      */
@@ -202,9 +433,10 @@ public class JdbcStorage implements IStorage {
             throws AlreadyExistsException, StorageException {
         logger.debug("Inserting a Linked Account {} for {}", account.getType().name(), userId);
         try {
-            this.jdbi.withHandle( handle -> {
+            withWriteHandle(userId, handle -> {
                 String statement = sqlStatements.insertLinkedAccount();
                 handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "insertLinkedAccount")
                       .bind(0, userId)
                       .bind(1, account.getType().name())
                       .bind(2, account.getLinkedOn())
@@ -230,9 +462,10 @@ public class JdbcStorage implements IStorage {
             throws StorageException, NotFoundException {
         logger.debug("Selecting a single Linked Account: {}::{}", userId, type.name());
         try {
-            return this.jdbi.withHandle( handle -> {
+            return withReadOnlyHandle(userId, handle -> {
                 String statement = sqlStatements.selectLinkedAccountByType();
                 return handle.createQuery(statement)
+                        .define(STATEMENT_NAME, "selectLinkedAccountByType")
                         .bind(0, userId)
                         .bind(1, type.name())
                         .mapToBean(LinkedAccount.class)
@@ -252,9 +485,11 @@ public class JdbcStorage implements IStorage {
     public Collection<LinkedAccount> listLinkedAccounts(String userId) throws StorageException {
         logger.debug("Getting a list of all Linked Accouts for {}.", userId);
         try {
-            return this.jdbi.withHandle( handle -> {
+            return withReadOnlyHandle(userId, handle -> {
                 String statement = sqlStatements.selectLinkedAccounts();
                 return handle.createQuery(statement)
+                        .define(STATEMENT_NAME, "selectLinkedAccounts")
+                        .setFetchSize(fetchSize)
                         .bind(0, userId)
                         .mapToBean(LinkedAccount.class)
                         .list();
@@ -272,9 +507,10 @@ public class JdbcStorage implements IStorage {
             throws StorageException, NotFoundException {
         logger.debug("Deleting a Linked Account: {}::{}", userId, type.name());
         try {
-            this.jdbi.withHandle( handle -> {
+            withWriteHandle(userId, handle -> {
                 String statement = sqlStatements.deleteLinkedAccount();
                 int rowCount = handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "deleteLinkedAccount")
                       .bind(0, userId)
                       .bind(1, type.name())
                       .execute();
@@ -297,9 +533,10 @@ public class JdbcStorage implements IStorage {
     public void deleteLinkedAccounts(String userId) throws StorageException {
         logger.debug("Deleting all Linked Accounts for {}", userId);
         try {
-            this.jdbi.withHandle( handle -> {
+            withWriteHandle(userId, handle -> {
                 String statement = sqlStatements.deleteLinkedAccounts();
                 handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "deleteLinkedAccounts")
                       .bind(0, userId)
                       .execute();
                 return null;
@@ -316,9 +553,10 @@ public class JdbcStorage implements IStorage {
     public void updateLinkedAccount(String userId, LinkedAccount account) throws NotFoundException, StorageException {
         logger.debug("Updating a Linked Account: {}::{}", userId, account.getType().name());
         try {
-            this.jdbi.withHandle( handle -> {
+            withWriteHandle(userId, handle -> {
                 String statement = sqlStatements.updateLinkedAccount();
                 int rowCount = handle.createUpdate(statement)
+                        .define(STATEMENT_NAME, "updateLinkedAccount")
                         .bind(0, account.getUsedOn())
                         .bind(1, account.getLinkedOn())
                         .bind(2, account.getNonce())
@@ -344,16 +582,20 @@ public class JdbcStorage implements IStorage {
     public ApiDesign getApiDesign(String userId, String designId) throws NotFoundException, StorageException {
         logger.debug("Selecting a single API Design: {}", designId);
         try {
-            return this.jdbi.withHandle( handle -> {
+            return withReadOnlyHandle(userId, handle -> {
                 String statement = sqlStatements.selectApiDesignById();
-                return handle.createQuery(statement)
+                List<ApiDesign> designs = handle.createQuery(statement)
+                        .define(STATEMENT_NAME, "selectApiDesignById")
                         .bind(0, Long.valueOf(designId))
                         .bind(1, userId)
-                        .map(ApiDesignRowMapper.instance)
-                        .findOnly();
+                        .mapResultSet(ApiDesignsMapper.instance);
+                if (designs.isEmpty()) {
+                    throw new NotFoundException();
+                }
+                return designs.get(0);
             });
-        } catch (IllegalStateException e) {
-            throw new NotFoundException();
+        } catch (NotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new StorageException("Error getting API design.", e);
         }
@@ -366,9 +608,10 @@ public class JdbcStorage implements IStorage {
     public String createApiDesign(String userId, ApiDesign design) throws AlreadyExistsException, StorageException {
         logger.debug("Inserting an API Design: {}", design.getRepositoryUrl());
         try {
-            return this.jdbi.withHandle( handle -> {
+            return withWriteHandle(userId, handle -> {
                 String statement = sqlStatements.insertApiDesign();
                 String designId = handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "insertApiDesign")
                       .bind(0, design.getName())
                       .bind(1, design.getDescription())
                       .bind(2, design.getRepositoryUrl())
@@ -376,7 +619,6 @@ public class JdbcStorage implements IStorage {
                       .bind(4, design.getCreatedOn())
                       .bind(5, design.getModifiedBy())
                       .bind(6, design.getModifiedOn())
-                      .bind(7, asCsv(design.getTags()))
                       .executeAndReturnGeneratedKeys("id")
                       .mapTo(String.class)
                       .findOnly();
@@ -384,10 +626,13 @@ public class JdbcStorage implements IStorage {
                 // Insert a row in the ACL table with role 'owner' for this API
                 statement = sqlStatements.insertAcl();
                 handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "insertAcl")
                       .bind(0, userId)
                       .bind(1, Long.parseLong(designId))
                       .bind(2, "owner")
                       .execute();
+
+                insertTags(handle, Long.parseLong(designId), design.getTags());
                 
                 return designId;
             });
@@ -401,20 +646,20 @@ public class JdbcStorage implements IStorage {
     }
 
     /**
-     * Converts from a Set of tags to a CSV of those tags.
+     * Inserts the given tags for a design (as a single batch).
+     * @param handle
+     * @param designId
      * @param tags
      */
-    private static String asCsv(Set<String> tags) {
-        StringBuilder builder = new StringBuilder();
+    private void insertTags(Handle handle, long designId, Set<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        PreparedBatch batch = handle.prepareBatch(sqlStatements.insertDesignTag()).define(STATEMENT_NAME, "insertDesignTag");
         tags.forEach( tag -> {
-            builder.append(tag);
-            builder.append(',');
+            batch.add(designId, tag);
         });
-        if (builder.length() > 0) {
-            return builder.substring(0, builder.length() - 1);
-        } else {
-            return null;
-        }
+        batch.execute();
     }
 
     /**
@@ -424,32 +669,18 @@ public class JdbcStorage implements IStorage {
     public void deleteApiDesign(String userId, String designId) throws NotFoundException, StorageException {
         logger.debug("Deleting an API Design: {}", designId);
         try {
-            this.jdbi.withHandle( handle -> {
-                // Check for permissions first
-                String statement = sqlStatements.hasWritePermission();
-                int count = handle.createQuery(statement)
-                    .bind(0, Long.valueOf(designId))
-                    .bind(1, userId)
-                    .mapTo(Integer.class).findOnly();
-                if (count == 0) {
-                    throw new NotFoundException();
-                }
-
-                // If OK then delete ACL entries
-                statement = sqlStatements.clearAcl();
-                handle.createUpdate(statement).bind(0, Long.valueOf(designId)).execute();
-                
-                // Then delete the api design itself
-                statement = sqlStatements.deleteApiDesign();
-                int rowCount = handle.createUpdate(statement)
+            // A single (permission checked) statement - the acl and tag rows cascade
+            int rowCount = withWriteHandle(userId, handle -> {
+                String statement = sqlStatements.deleteApiDesign();
+                return handle.createUpdate(statement)
+                      .define(STATEMENT_NAME, "deleteApiDesign")
                       .bind(0, Long.valueOf(designId))
                       .bind(1, userId)
                       .execute();
-                if (rowCount == 0) {
-                    throw new NotFoundException();
-                }
-                return null;
             });
+            if (rowCount == 0) {
+                throw new NotFoundException();
+            }
         } catch (NotFoundException e) {
             throw e;
         } catch (Exception e) {
@@ -464,30 +695,26 @@ public class JdbcStorage implements IStorage {
     public void updateApiDesign(String userId, ApiDesign design) throws NotFoundException, StorageException {
         logger.debug("Updating an API Design: {}", design.getId());
         try {
-            this.jdbi.withHandle( handle -> {
-                // Check for permissions first
-                String statement = sqlStatements.hasWritePermission();
-                int count = handle.createQuery(statement)
-                    .bind(0, Long.valueOf(design.getId()))
-                    .bind(1, userId)
-                    .mapTo(Integer.class).findOnly();
-                if (count == 0) {
-                    throw new NotFoundException();
-                }
-
-                // Then perform the update
-                statement = sqlStatements.updateApiDesign();
+            inWriteTransaction(userId, handle -> {
+                // Update the design (only if the user has write permission)
+                String statement = sqlStatements.updateApiDesign();
                 int rowCount = handle.createUpdate(statement)
+                        .define(STATEMENT_NAME, "updateApiDesign")
                         .bind(0, design.getName())
                         .bind(1, design.getDescription())
                         .bind(2, design.getModifiedBy())
                         .bind(3, design.getModifiedOn())
-                        .bind(4, asCsv(design.getTags()))
-                        .bind(5, Long.valueOf(design.getId()))
+                        .bind(4, Long.valueOf(design.getId()))
+                        .bind(5, userId)
                         .execute();
                 if (rowCount == 0) {
                     throw new NotFoundException();
                 }
+
+                // Then replace the tags
+                statement = sqlStatements.clearDesignTags();
+                handle.createUpdate(statement).define(STATEMENT_NAME, "clearDesignTags").bind(0, Long.valueOf(design.getId())).execute();
+                insertTags(handle, Long.valueOf(design.getId()), design.getTags());
                 return null;
             });
         } catch (NotFoundException e) {
@@ -504,32 +731,154 @@ public class JdbcStorage implements IStorage {
     public Collection<ApiDesign> listApiDesigns(String userId) throws StorageException {
         logger.debug("Getting a list of all API designs.");
         try {
-            return this.jdbi.withHandle( handle -> {
+            return withReadOnlyHandle(userId, handle -> {
                 String statement = sqlStatements.selectApiDesigns();
                 return handle.createQuery(statement)
+                        .define(STATEMENT_NAME, "selectApiDesigns")
+                        .setFetchSize(fetchSize)
                         .bind(0, userId)
-                        .map(ApiDesignRowMapper.instance)
-                        .list();
+                        .mapResultSet(ApiDesignsMapper.instance);
             });
         } catch (Exception e) {
             throw new StorageException("Error listing API designs.", e);
         }
     }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#listApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public List<ApiDesign> listApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        logger.debug("Getting a page of API designs.");
+        try {
+            return withReadOnlyHandle(userId, handle -> {
+                String statement = sqlStatements.selectApiDesigns(query);
+                Query q = handle.createQuery(statement).define(STATEMENT_NAME, "selectApiDesignsPage").setFetchSize(fetchSize);
+                bindFilters(q, userId, query);
+                if (query.isKeyset()) {
+                    q.bind("afterModifiedOn", query.getAfterModifiedOn());
+                    q.bind("afterId", query.getAfterId());
+                } else if (query.getStart() > 0) {
+                    q.bind("start", query.getStart());
+                }
+                if (query.getLimit() != null) {
+                    q.bind("limit", query.getLimit());
+                }
+                return q.mapResultSet(ApiDesignsMapper.instance);
+            });
+        } catch (Exception e) {
+            throw new StorageException("Error listing API designs.", e);
+        }
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#countApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public int countApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        logger.debug("Counting API designs.");
+        try {
+            return withReadOnlyHandle(userId, handle -> {
+                String statement = sqlStatements.countApiDesigns(query);
+                Query q = handle.createQuery(statement).define(STATEMENT_NAME, "countApiDesigns");
+                bindFilters(q, userId, query);
+                return q.mapTo(Integer.class).findOnly();
+            });
+        } catch (Exception e) {
+            throw new StorageException("Error counting API designs.", e);
+        }
+    }
+
+    /**
+     * Binds the user and the (optional) tag and name filters of the given query.
+     * @param q
+     * @param userId
+     * @param query
+     */
+    private static void bindFilters(Query q, String userId, ApiDesignQuery query) {
+        q.bind("userId", userId);
+        if (query.getTag() != null) {
+            q.bind("tag", query.getTag());
+        }
+        if (query.getNamePrefix() != null) {
+            q.bind("namePrefix", escapeLike(query.getNamePrefix().toLowerCase()) + "%");
+        }
+    }
+
+    /**
+     * Escapes the LIKE wildcards (and the '!' escape character itself) in the given value.
+     * @param value
+     */
+    static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
     
     /**
-     * A row mapper to read an api design from the DB (as a single row in a SELECT)
-     * and return an ApiDesign instance.
+     * The (cached) result of a storage health check.
+     */
+    private static class HealthCheck {
+
+        final boolean healthy;
+        final boolean schemaCurrent;
+        final long checkedOn;
+
+        /**
+         * Constructor.
+         * @param healthy
+         * @param schemaCurrent
+         * @param checkedOn
+         */
+        HealthCheck(boolean healthy, boolean schemaCurrent, long checkedOn) {
+            this.healthy = healthy;
+            this.schemaCurrent = schemaCurrent;
+            this.checkedOn = checkedOn;
+        }
+
+    }
+
+    /**
+     * A result set mapper to read api designs from the DB.  Each design is joined with its
+     * tags, so a design spans as many rows as it has tags (or a single row with a null tag
+     * if it has none).  The rows are folded back into one ApiDesign instance per design,
+     * preserving the order in which the designs were first returned.
      * @author eric.wittmann@gmail.com
      */
-    private static class ApiDesignRowMapper implements RowMapper<ApiDesign> {
+    private static class ApiDesignsMapper implements ResultSetMapper<List<ApiDesign>> {
         
-        public static final ApiDesignRowMapper instance = new ApiDesignRowMapper();
+        public static final ApiDesignsMapper instance = new ApiDesignsMapper();
 
         /**
-         * @see org.jdbi.v3.core.mapper.RowMapper#map(java.sql.ResultSet, org.jdbi.v3.core.statement.StatementContext)
+         * @see org.jdbi.v3.core.result.ResultSetMapper#mapResultSet(java.util.function.Supplier, org.jdbi.v3.core.statement.StatementContext)
          */
         @Override
-        public ApiDesign map(ResultSet rs, StatementContext ctx) throws SQLException {
+        public List<ApiDesign> mapResultSet(Supplier<ResultSet> supplier, StatementContext ctx) throws SQLException {
+            ResultSet rs = supplier.get();
+            Map<String, ApiDesign> designs = new LinkedHashMap<>();
+            ApiDesign design = null;
+            while (rs.next()) {
+                String id = rs.getString("id");
+                // Rows of the same design are (almost always) adjacent
+                if (design == null || !design.getId().equals(id)) {
+                    design = designs.get(id);
+                    if (design == null) {
+                        design = map(rs);
+                        designs.put(id, design);
+                    }
+                }
+                String tag = rs.getString("tag");
+                if (tag != null) {
+                    design.getTags().add(tag);
+                }
+            }
+            return new ArrayList<>(designs.values());
+        }
+
+        /**
+         * Reads a single design (without its tags) from the current row.
+         * @param rs
+         * @throws SQLException
+         */
+        private ApiDesign map(ResultSet rs) throws SQLException {
             ApiDesign design = new ApiDesign();
             design.setId(rs.getString("id"));
             design.setName(rs.getString("name"));
@@ -539,26 +888,9 @@ public class JdbcStorage implements IStorage {
             design.setCreatedOn(rs.getTimestamp("created_on"));
             design.setModifiedBy(rs.getString("modified_by"));
             design.setModifiedOn(rs.getTimestamp("modified_on"));
-            String tags = rs.getString("tags");
-            design.getTags().addAll(toSet(tags));
             return design;
         }
 
-        /**
-         * Read CSV data and convert to a set of strings.
-         * @param tags
-         */
-        private Set<String> toSet(String tags) {
-            Set<String> rval = new HashSet<String>();
-            if (tags != null && tags.length() > 0) {
-                String[] split = tags.split(",");
-                for (String tag : split) {
-                    rval.add(tag.trim());
-                }
-            }
-            return rval;
-        }
-
     }
 
 }
@@ -39,4 +39,31 @@ public class MySQL5SqlStatements extends CommonSqlStatements {
         return "SELECT count(*) AS count FROM information_schema.tables WHERE table_name = 'api_designs' LIMIT 1";
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#hasLegacyDesignTags()
+     */
+    @Override
+    public String hasLegacyDesignTags() {
+        return "SELECT count(*) AS count FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = 'api_designs' AND column_name = 'tags'";
+    }
+
+    /**
+     * MySQL does not support OFFSET without a LIMIT - the documented workaround is to use
+     * the largest possible limit.
+     * @see io.apicurio.hub.api.storage.jdbc.CommonSqlStatements#offsetOnly()
+     */
+    @Override
+    protected String offsetOnly() {
+        return "LIMIT 18446744073709551615 OFFSET :start";
+    }
+
+    /**
+     * MySQL can join the acl table directly into the (multi-table) UPDATE.
+     * @see io.apicurio.hub.api.storage.jdbc.CommonSqlStatements#updateApiDesign()
+     */
+    @Override
+    public String updateApiDesign() {
+        return "UPDATE api_designs d INNER JOIN acl a ON a.design_id = d.id SET d.name = ?, d.description = ?, d.modified_by = ?, d.modified_on = ? WHERE d.id = ? AND a.user_id = ? AND a.role IN ('owner', 'editor')";
+    }
+
 }
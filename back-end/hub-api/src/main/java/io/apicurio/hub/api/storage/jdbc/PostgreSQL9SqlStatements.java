@@ -39,4 +39,28 @@ public class PostgreSQL9SqlStatements extends CommonSqlStatements {
         return "SELECT count(*) AS count FROM information_schema.tables WHERE table_name = 'api_designs' LIMIT 1";
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.ISqlStatements#hasLegacyDesignTags()
+     */
+    @Override
+    public String hasLegacyDesignTags() {
+        return "SELECT count(*) AS count FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = 'api_designs' AND column_name = 'tags'";
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.CommonSqlStatements#updateApiDesign()
+     */
+    @Override
+    public String updateApiDesign() {
+        return "UPDATE api_designs d SET name = ?, description = ?, modified_by = ?, modified_on = ? FROM acl a WHERE a.design_id = d.id AND d.id = ? AND a.user_id = ? AND a.role IN ('owner', 'editor')";
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.jdbc.CommonSqlStatements#deleteApiDesign()
+     */
+    @Override
+    public String deleteApiDesign() {
+        return "DELETE FROM api_designs d USING acl a WHERE a.design_id = d.id AND d.id = ? AND a.user_id = ? AND a.role IN ('owner', 'editor')";
+    }
+
 }
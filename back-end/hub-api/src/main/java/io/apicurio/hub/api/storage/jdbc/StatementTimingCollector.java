@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.TimingCollector;
+
+import io.apicurio.hub.api.metrics.IMetrics;
+import io.apicurio.hub.api.metrics.jfr.JfrEvents;
+import io.apicurio.hub.api.metrics.jfr.SqlStatementEvent;
+
+/**
+ * Reports the execution time of every SQL statement run by the JDBC storage layer
+ * to the metrics subsystem, grouped by the (logical) name of the statement.  The
+ * name is taken from the {@link #STATEMENT_NAME} attribute, which must be defined
+ * on each statement when it is created.  When enabled, a {@link SqlStatementEvent} is
+ * also emitted to the Java Flight Recorder for each statement.
+ * @author eric.wittmann@gmail.com
+ */
+public class StatementTimingCollector implements TimingCollector {
+
+    public static final String STATEMENT_NAME = "statementName";
+    private static final String UNNAMED = "unnamed";
+
+    private final IMetrics metrics;
+
+    /**
+     * Constructor.
+     * @param metrics
+     */
+    public StatementTimingCollector(IMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @see org.jdbi.v3.core.statement.TimingCollector#collect(long, org.jdbi.v3.core.statement.StatementContext)
+     */
+    @Override
+    public void collect(long elapsedTime, StatementContext ctx) {
+        Object name = ctx.getAttribute(STATEMENT_NAME);
+        String statementName = name == null ? UNNAMED : name.toString();
+        metrics.sqlStatement(statementName, elapsedTime);
+        if (JfrEvents.ENABLED) {
+            emitEvent(statementName, elapsedTime, ctx);
+        }
+    }
+
+    /**
+     * Emits a JFR event for the executed statement.
+     * @param statementName
+     * @param elapsedTime
+     * @param ctx
+     */
+    private static void emitEvent(String statementName, long elapsedTime, StatementContext ctx) {
+        SqlStatementEvent event = new SqlStatementEvent();
+        if (event.shouldCommit()) {
+            event.statement = statementName;
+            event.rows = getUpdateCount(ctx.getStatement());
+            event.executionTime = elapsedTime;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the update count of the given (executed) statement, or -1 if it is not
+     * known (e.g. the statement was a query).
+     * @param statement
+     */
+    private static long getUpdateCount(PreparedStatement statement) {
+        if (statement == null) {
+            return -1;
+        }
+        try {
+            return statement.getUpdateCount();
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+}
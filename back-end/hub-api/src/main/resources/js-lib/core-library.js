@@ -1,7 +1,30 @@
+var library = new OAI.OasLibraryUtils();
+
+function createDocument(oaiDoc) {
+    return library.createDocument(oaiDoc);
+}
+
+function executeCommandBatch(document, commandBatch) {
+    if (commandBatch) {
+        var commands = JSON.parse(commandBatch);
+        var numCmds = commands.length;
+        for (var i = 0; i < numCmds; i++) {
+            var cmd = OAI_commands.MarshallUtils.unmarshallCommand(commands[i]);
+            cmd.execute(document);
+        }
+    }
+    return document;
+}
+
+function serializeDocument(document, compact) {
+    if (compact) {
+        return JSON.stringify(library.writeNode(document));
+    }
+    return JSON.stringify(library.writeNode(document), null, 2);
+}
 
 function executeCommands(oaiDoc, commands) {
-    var library = new OAI.OasLibraryUtils();
-    var document = library.createDocument(oaiDoc);
+    var document = createDocument(oaiDoc);
     
     if (commands) {
         var numCmds = commands.length;
@@ -13,5 +36,5 @@ function executeCommands(oaiDoc, commands) {
         }
     }
 
-    return JSON.stringify(library.writeNode(document), null, 2);
+    return serializeDocument(document, false);
 }
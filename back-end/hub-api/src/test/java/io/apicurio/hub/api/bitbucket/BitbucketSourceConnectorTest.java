@@ -45,8 +45,11 @@ import io.apicurio.hub.api.beans.BitbucketTeam;
 import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.ResourceContent;
 import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.connectors.RateLimiter;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.MockSecurityContext;
 import test.io.apicurio.hub.api.TestUtil;
 
@@ -57,6 +60,7 @@ public class BitbucketSourceConnectorTest {
 
     private IBitbucketSourceConnector service;
     private HubApiConfiguration config;
+    private HttpClientProvider httpClientProvider;
     
     private static String basicAuth = null;
     
@@ -102,10 +106,24 @@ public class BitbucketSourceConnectorTest {
 
         TestUtil.setPrivateField(service, "security", new MockSecurityContext());
         TestUtil.setPrivateField(service, "config", config);
+
+        httpClientProvider = new HttpClientProvider();
+        TestUtil.setPrivateField(httpClientProvider, "config", config);
+        TestUtil.setPrivateField(httpClientProvider, "metrics", new MockMetrics());
+        httpClientProvider.postConstruct();
+        TestUtil.setPrivateField(service, "httpClientProvider", httpClientProvider);
+
+        RateLimiter rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", config);
+        TestUtil.setPrivateField(rateLimiter, "metrics", new MockMetrics());
+        rateLimiter.postConstruct();
+        TestUtil.setPrivateField(service, "rateLimiter", rateLimiter);
+        TestUtil.setPrivateField(service, "metrics", new MockMetrics());
     }
 
     @After
     public void tearDown() throws Exception {
+        httpClientProvider.preDestroy();
     }
 
     @Test
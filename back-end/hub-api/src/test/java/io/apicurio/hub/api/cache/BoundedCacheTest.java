@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.io.apicurio.hub.api.MockMetrics;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class BoundedCacheTest {
+
+    private BoundedCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        cache = new BoundedCache<>("test", 10, (key, value) -> value.length(), new MockMetrics());
+    }
+
+    @Test
+    public void testGetPut() {
+        Assert.assertNull(cache.get("one"));
+        cache.put("one", "1111");
+        Assert.assertEquals("1111", cache.get("one"));
+        cache.put("one", "11");
+        Assert.assertEquals("11", cache.get("one"));
+        Assert.assertEquals(2, cache.getCurrentBytes());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        cache.put("one", "1111");
+        cache.put("two", "2222");
+        // Touch "one" so that "two" becomes the least recently used entry
+        cache.get("one");
+        cache.put("three", "3333");
+        Assert.assertEquals("1111", cache.get("one"));
+        Assert.assertNull(cache.get("two"));
+        Assert.assertEquals("3333", cache.get("three"));
+        Assert.assertEquals(8, cache.getCurrentBytes());
+    }
+
+    @Test
+    public void testTooLarge() {
+        cache.put("one", "1111");
+        cache.put("big", "12345678901");
+        Assert.assertNull(cache.get("big"));
+        Assert.assertEquals("1111", cache.get("one"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put("one", "1111");
+        cache.put("two", "2222");
+        cache.invalidate("one");
+        Assert.assertNull(cache.get("one"));
+        cache.invalidateAll(key -> key.startsWith("t"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getCurrentBytes());
+    }
+
+    @Test
+    public void testInvalidateEntries() {
+        cache.put("one", "1111");
+        cache.put("two", "22");
+        cache.invalidateAllEntries((key, value) -> value.length() > 2);
+        Assert.assertNull(cache.get("one"));
+        Assert.assertEquals("22", cache.get("two"));
+        Assert.assertEquals(2, cache.getCurrentBytes());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        BoundedCache<String, String> expiring = new BoundedCache<>("test", 10, 50, (key, value) -> value.length(), new MockMetrics());
+        expiring.put("one", "1111");
+        Assert.assertEquals("1111", expiring.get("one"));
+        Thread.sleep(100);
+        Assert.assertNull(expiring.get("one"));
+        Assert.assertEquals(0, expiring.size());
+        Assert.assertEquals(0, expiring.getCurrentBytes());
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.apicurio.hub.api.beans.ResourceContent;
+import io.apicurio.hub.api.cache.ETagCache.CachedResponse;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class ETagCacheTest {
+
+    private static final String URL = "https://api.github.com/repos/Apicurio/api-samples/contents/pet-store/pet-store.json";
+
+    private ETagCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ETagCache();
+        TestUtil.setPrivateField(cache, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(cache, "metrics", new MockMetrics());
+        cache.postConstruct();
+    }
+
+    @Test
+    public void testPerUser() {
+        ResourceContent content = new ResourceContent();
+        content.setContent("{ \"openapi\": \"3.0.0\" }");
+        content.setSha("12345");
+        cache.put("user1", URL, "\"etag-1\"", content);
+
+        CachedResponse cached = cache.get("user1", URL);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals("\"etag-1\"", cached.getEtag());
+        Assert.assertEquals("12345", cached.getContent().getSha());
+        Assert.assertEquals(content.getContent(), cached.getContent().getContent());
+
+        Assert.assertNull(cache.get("user2", URL));
+    }
+
+    @Test
+    public void testNoETag() {
+        ResourceContent content = new ResourceContent();
+        content.setContent("{ \"openapi\": \"3.0.0\" }");
+        content.setSha("12345");
+        cache.put("user1", URL, null, content);
+        Assert.assertNull(cache.get("user1", URL));
+    }
+
+    @Test
+    public void testInvalidate() {
+        ResourceContent content = new ResourceContent();
+        content.setContent("{ \"openapi\": \"3.0.0\" }");
+        content.setSha("12345");
+        cache.put("user1", URL, "\"etag-1\"", content);
+        cache.invalidate("user1", URL);
+        Assert.assertNull(cache.get("user1", URL));
+    }
+
+}
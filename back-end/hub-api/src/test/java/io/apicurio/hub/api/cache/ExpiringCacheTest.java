@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.io.apicurio.hub.api.MockMetrics;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class ExpiringCacheTest {
+
+    private ExpiringCache<String, String> cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        cache = new ExpiringCache<>("test", 10, value -> value != null ? 60000 : 50, new MockMetrics());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        Assert.assertEquals("1111", cache.get("one", () -> load("1111")));
+        Assert.assertEquals("1111", cache.get("one", () -> load("2222")));
+        Assert.assertEquals("2222", cache.get("two", () -> load("2222")));
+        Assert.assertEquals(2, loads.get());
+
+        cache.invalidate("one");
+        Assert.assertEquals("3333", cache.get("one", () -> load("3333")));
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        Assert.assertNull(cache.get("bad", () -> load(null)));
+        Assert.assertNull(cache.get("bad", () -> load(null)));
+        Assert.assertEquals(1, loads.get());
+
+        // Negative results use their own (shorter) expiry
+        Thread.sleep(100);
+        Assert.assertEquals("good", cache.get("bad", () -> load("good")));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testFailuresNotCached() throws Exception {
+        try {
+            cache.get("one", () -> {
+                throw new IOException("Remote service is down.");
+            });
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("1111", cache.get("one", () -> load("1111")));
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        int threads = 8;
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return cache.get("token", () -> {
+                        release.await();
+                        return load("user");
+                    });
+                }));
+            }
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            // Give the other threads a moment to start waiting on the first one's load
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("user", result.get(10, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            String value = String.valueOf(i);
+            cache.get(value, () -> load(value));
+        }
+        Assert.assertTrue(cache.size() <= 10);
+        // The most recently loaded value is still there
+        Assert.assertEquals("24", cache.get("24", () -> load("reloaded")));
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.apicurio.hub.api.beans.GitLabGroup;
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.gitlab.GitLabSourceConnector;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.MockSecurityContext;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * Tests the metrics recorded for calls made by the source connectors, using a local
+ * http server in place of the provider's API.
+ * @author eric.wittmann@gmail.com
+ */
+public class AbstractSourceConnectorTest {
+
+    private static final String GROUPS = "[{\"id\":1,\"name\":\"Group 1\",\"path\":\"group-1\"}]";
+
+    private HttpServer server;
+    private AtomicInteger rateLimitedResponses = new AtomicInteger();
+    private List<String> calls = new ArrayList<>();
+    private List<String> sizes = new ArrayList<>();
+    private List<String> retries = new ArrayList<>();
+    private GitLabSourceConnector connector;
+    private HttpClientProvider httpClientProvider;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v4/groups", exchange -> {
+            if (rateLimitedResponses.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(429, -1);
+            } else {
+                byte[] body = GROUPS.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        MockMetrics metrics = new MockMetrics() {
+            @Override
+            public void connectorCall(LinkedAccountType type, String operation, String result, long durationNanos) {
+                calls.add(type.name() + ":" + operation + ":" + result);
+            }
+            @Override
+            public void connectorResponseSize(LinkedAccountType type, String operation, long responseBytes) {
+                sizes.add(type.name() + ":" + operation + ":" + responseBytes);
+            }
+            @Override
+            public void connectorRetry(LinkedAccountType type, String operation) {
+                retries.add(type.name() + ":" + operation);
+            }
+        };
+
+        connector = new GitLabSourceConnector() {
+            @Override
+            protected String getBaseApiEndpointUrl() {
+                return baseUrl;
+            }
+            @Override
+            protected String getExternalToken() throws SourceConnectorException {
+                return "token";
+            }
+            @Override
+            protected Object getExternalTokenType() {
+                return GitLabSourceConnector.TOKEN_TYPE_PAT;
+            }
+        };
+        HubApiConfiguration config = new HubApiConfiguration();
+        TestUtil.setPrivateField(connector, "security", new MockSecurityContext());
+        TestUtil.setPrivateField(connector, "config", config);
+        TestUtil.setPrivateField(connector, "metrics", metrics);
+
+        httpClientProvider = new HttpClientProvider();
+        TestUtil.setPrivateField(httpClientProvider, "config", config);
+        TestUtil.setPrivateField(httpClientProvider, "metrics", metrics);
+        httpClientProvider.postConstruct();
+        TestUtil.setPrivateField(connector, "httpClientProvider", httpClientProvider);
+
+        RateLimiter rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", config);
+        TestUtil.setPrivateField(rateLimiter, "metrics", metrics);
+        rateLimiter.postConstruct();
+        TestUtil.setPrivateField(connector, "rateLimiter", rateLimiter);
+    }
+
+    @After
+    public void tearDown() {
+        httpClientProvider.preDestroy();
+        server.stop(0);
+    }
+
+    @Test
+    public void testCallMetrics() throws Exception {
+        Collection<GitLabGroup> groups = connector.getGroups();
+        Assert.assertEquals(1, groups.size());
+
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("GitLab:listOrgs:200", calls.get(0));
+        Assert.assertEquals(1, sizes.size());
+        Assert.assertEquals("GitLab:listOrgs:" + GROUPS.length(), sizes.get(0));
+        Assert.assertTrue(retries.isEmpty());
+    }
+
+    @Test
+    public void testRetryMetrics() throws Exception {
+        rateLimitedResponses.set(1);
+        Collection<GitLabGroup> groups = connector.getGroups();
+        Assert.assertEquals(1, groups.size());
+
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("GitLab:listOrgs:429", calls.get(0));
+        Assert.assertEquals("GitLab:listOrgs:200", calls.get(1));
+        Assert.assertEquals(1, retries.size());
+        Assert.assertEquals("GitLab:listOrgs", retries.get(0));
+    }
+
+}
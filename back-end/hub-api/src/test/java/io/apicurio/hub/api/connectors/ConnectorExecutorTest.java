@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.ServiceUnavailableException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.exceptions.ServerError;
+import io.apicurio.hub.api.security.SecurityContext;
+import test.io.apicurio.hub.api.MockAsyncResponse;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class ConnectorExecutorTest {
+
+    private ConnectorExecutor executor;
+    private SecurityContext security;
+
+    @Before
+    public void setUp() {
+        System.setProperty("apicurio.hub.connector.threads", "1");
+        System.setProperty("apicurio.hub.connector.queue-size", "1");
+        System.setProperty("apicurio.hub.connector.timeout", "5000");
+
+        security = new SecurityContext();
+        executor = new ConnectorExecutor();
+        TestUtil.setPrivateField(executor, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(executor, "security", security);
+        executor.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        executor.preDestroy();
+        security.clear();
+        System.clearProperty("apicurio.hub.connector.threads");
+        System.clearProperty("apicurio.hub.connector.queue-size");
+        System.clearProperty("apicurio.hub.connector.timeout");
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        MockAsyncResponse response = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, response, () -> Thread.currentThread().getName());
+        Assert.assertEquals("apicurio-github-1", response.get());
+        Assert.assertEquals(5000, response.getTimeout());
+
+        response = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, response, () -> {
+            throw new ServerError("Failed!");
+        });
+        try {
+            response.get();
+            Assert.fail("Expected a ServerError");
+        } catch (ServerError e) {
+            Assert.assertEquals("Failed!", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSecurityPropagation() throws Exception {
+        security.setToken("TOKEN-1");
+        MockAsyncResponse response = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitLab, response, () -> security.getToken());
+        Assert.assertEquals("TOKEN-1", response.get());
+
+        // The worker thread does not keep the token once the task is done
+        security.clear();
+        response = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitLab, response, () -> security.getToken());
+        Assert.assertNull(response.get());
+    }
+
+    @Test
+    public void testProviderLimits() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        MockAsyncResponse running = new MockAsyncResponse();
+        MockAsyncResponse queued = new MockAsyncResponse();
+        MockAsyncResponse rejected = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, running, () -> latch.await(10, TimeUnit.SECONDS));
+        executor.execute(LinkedAccountType.GitHub, queued, () -> "queued");
+        executor.execute(LinkedAccountType.GitHub, rejected, () -> "rejected");
+        try {
+            rejected.get();
+            Assert.fail("Expected a ServiceUnavailableException");
+        } catch (ServiceUnavailableException e) {
+            // OK, expected
+        }
+
+        // Other providers are not affected
+        MockAsyncResponse other = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.Bitbucket, other, () -> "other");
+        Assert.assertEquals("other", other.get());
+
+        latch.countDown();
+        Assert.assertEquals(Boolean.TRUE, running.get());
+        Assert.assertEquals("queued", queued.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        MockAsyncResponse response = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, response, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        response.getTimeoutHandler().handleTimeout(response);
+        try {
+            response.get();
+            Assert.fail("Expected a ServiceUnavailableException");
+        } catch (ServiceUnavailableException e) {
+            // OK, expected
+        }
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutDuringWrite() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        MockAsyncResponse response = new MockAsyncResponse();
+        executor.executeWrite(LinkedAccountType.GitHub, response, () -> {
+            started.countDown();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return "committed";
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The write is already under way, so the request keeps waiting for it
+        response.getTimeoutHandler().handleTimeout(response);
+        Assert.assertFalse(response.isDone());
+        Assert.assertEquals(5000, response.getTimeout());
+
+        latch.countDown();
+        Assert.assertEquals("committed", response.get());
+        Assert.assertFalse(interrupted.get());
+    }
+
+    @Test
+    public void testTimeoutBeforeWriteStarts() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean written = new AtomicBoolean();
+        MockAsyncResponse running = new MockAsyncResponse();
+        MockAsyncResponse queued = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, running, () -> latch.await(10, TimeUnit.SECONDS));
+        executor.executeWrite(LinkedAccountType.GitHub, queued, () -> {
+            written.set(true);
+            return "committed";
+        });
+
+        // The write never got a thread, so it is dropped
+        queued.getTimeoutHandler().handleTimeout(queued);
+        try {
+            queued.get();
+            Assert.fail("Expected a ServiceUnavailableException");
+        } catch (ServiceUnavailableException e) {
+            // OK, expected
+        }
+
+        latch.countDown();
+        Assert.assertEquals(Boolean.TRUE, running.get());
+        MockAsyncResponse next = new MockAsyncResponse();
+        executor.execute(LinkedAccountType.GitHub, next, () -> "next");
+        Assert.assertEquals("next", next.get());
+        Assert.assertFalse(written.get());
+    }
+
+}
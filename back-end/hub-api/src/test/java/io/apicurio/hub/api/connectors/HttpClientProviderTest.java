@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.metrics.ConnectionPoolStats;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * Tests the shared (pooled) http client, using a local http server.
+ * @author eric.wittmann@gmail.com
+ */
+public class HttpClientProviderTest {
+
+    private HttpServer server;
+    private String url;
+    private List<InetSocketAddress> clients = Collections.synchronizedList(new ArrayList<>());
+    private List<String> pools = new ArrayList<>();
+    private Supplier<ConnectionPoolStats> poolStats;
+    private HttpClientProvider provider;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            clients.add(exchange.getRemoteAddress());
+            byte[] body = "OK".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        MockMetrics metrics = new MockMetrics() {
+            @Override
+            public void registerConnectionPool(String pool, Supplier<ConnectionPoolStats> stats) {
+                pools.add(pool);
+                poolStats = stats;
+            }
+        };
+        provider = new HttpClientProvider();
+        TestUtil.setPrivateField(provider, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(provider, "metrics", metrics);
+        provider.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        provider.preDestroy();
+        server.stop(0);
+    }
+
+    /**
+     * Sends a GET to the local server and consumes the response.
+     */
+    private void get() throws IOException {
+        try (CloseableHttpResponse response = provider.getClient().execute(new HttpGet(url))) {
+            Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+            Assert.assertEquals("OK", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        get();
+        get();
+        get();
+
+        // All three requests were sent over the same (kept alive) connection
+        Assert.assertEquals(3, clients.size());
+        Assert.assertEquals(1, new HashSet<>(clients).size());
+
+        // ...which is back in the pool, ready for the next request
+        Assert.assertEquals(Collections.singletonList(HttpClientProvider.POOL_NAME), pools);
+        ConnectionPoolStats stats = poolStats.get();
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(1, stats.getAvailable());
+        Assert.assertEquals(0, stats.getPending());
+        Assert.assertEquals(new HubApiConfiguration().getHttpPoolMaxTotal(), stats.getMax());
+    }
+
+    @Test
+    public void testIsReady() throws Exception {
+        Assert.assertTrue(provider.isReady());
+        get();
+        provider.preDestroy();
+        Assert.assertFalse(provider.isReady());
+        Assert.assertEquals(0, provider.getPoolStats().getAvailable());
+        try {
+            get();
+            Assert.fail("Expected the closed client to reject requests.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+}
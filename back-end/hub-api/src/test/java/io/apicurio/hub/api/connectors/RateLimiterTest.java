@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class RateLimiterTest {
+
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        System.setProperty("apicurio.hub.connector.max-wait", "2000");
+        rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(rateLimiter, "metrics", new MockMetrics());
+        rateLimiter.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("apicurio.hub.connector.max-wait");
+    }
+
+    @Test
+    public void testReserve() {
+        RateLimiter.RateLimit rateLimit = new RateLimiter.RateLimit();
+        long now = 1000000;
+
+        // Unknown or plenty of quota left
+        Assert.assertEquals(0, rateLimit.reserve(now, 10));
+        rateLimit.update(100, now + 60000);
+        Assert.assertEquals(0, rateLimit.reserve(now, 10));
+
+        // Low quota - calls are spread over the time left
+        rateLimit.update(4, now + 60000);
+        Assert.assertEquals(0, rateLimit.reserve(now, 10));
+        Assert.assertEquals(15000, rateLimit.reserve(now, 10));
+        Assert.assertEquals(2, rateLimit.getRemaining());
+
+        // No quota - wait for the reset
+        rateLimit.update(0, now + 60000);
+        Assert.assertEquals(60000, rateLimit.reserve(now, 10));
+
+        // Once reset, the quota is unknown again
+        Assert.assertEquals(0, rateLimit.reserve(now + 60000, 10));
+        Assert.assertEquals(-1, rateLimit.getRemaining());
+    }
+
+    @Test
+    public void testRecord() throws IOException {
+        HttpGet request = new HttpGet("https://api.github.com/user");
+        request.addHeader("Authorization", "Bearer TOKEN-1");
+
+        HttpResponse response = response(200);
+        response.addHeader("X-RateLimit-Remaining", "4000");
+        response.addHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.GitHub, request, response, 0));
+        rateLimiter.acquire(LinkedAccountType.GitHub, request);
+
+        // Quota used up and not reset within the maximum wait
+        response = response(403);
+        response.addHeader("X-RateLimit-Remaining", "0");
+        response.addHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.GitHub, request, response, 0));
+        try {
+            rateLimiter.acquire(LinkedAccountType.GitHub, request);
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("GitHub rate limit exceeded."));
+        }
+
+        // Other credentials are not affected
+        HttpGet other = new HttpGet("https://api.github.com/user");
+        other.addHeader("Authorization", "Bearer TOKEN-2");
+        rateLimiter.acquire(LinkedAccountType.GitHub, other);
+    }
+
+    @Test
+    public void testRetry() throws IOException {
+        HttpGet request = new HttpGet("https://api.bitbucket.org/2.0/user");
+        request.addHeader("Authorization", "Bearer TOKEN-1");
+
+        // Exponential backoff
+        Assert.assertEquals(1000, rateLimiter.record(LinkedAccountType.Bitbucket, request, response(429), 0));
+        Assert.assertEquals(2000, rateLimiter.record(LinkedAccountType.Bitbucket, request, response(429), 1));
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.Bitbucket, request, response(429), 2));
+
+        // Retry-After (e.g. GitHub abuse detection)
+        HttpResponse response = response(403);
+        response.addHeader("Retry-After", "1");
+        Assert.assertEquals(1000, rateLimiter.record(LinkedAccountType.GitHub, request, response, 0));
+        response = response(403);
+        response.addHeader("Retry-After", "60");
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.GitHub, request, response, 0));
+
+        // Other errors are not retried
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.GitLab, request, response(403), 0));
+        Assert.assertEquals(-1, rateLimiter.record(LinkedAccountType.GitLab, request, response(500), 0));
+    }
+
+    @Test
+    public void testMaxWaitCapped() throws IOException {
+        System.setProperty("apicurio.hub.connector.timeout", "4000");
+        try {
+            RateLimiter capped = new RateLimiter();
+            TestUtil.setPrivateField(capped, "config", new HubApiConfiguration());
+            TestUtil.setPrivateField(capped, "metrics", new MockMetrics());
+            capped.postConstruct();
+
+            HttpGet request = new HttpGet("https://api.bitbucket.org/2.0/user");
+            request.addHeader("Authorization", "Bearer TOKEN-1");
+
+            // The 2s max wait is capped at 1s (a quarter of the timeout)
+            HttpResponse response = response(429);
+            response.addHeader("Retry-After", "1");
+            Assert.assertEquals(1000, capped.record(LinkedAccountType.Bitbucket, request, response, 0));
+            response = response(429);
+            response.addHeader("Retry-After", "2");
+            Assert.assertEquals(-1, capped.record(LinkedAccountType.Bitbucket, request, response, 0));
+        } finally {
+            System.clearProperty("apicurio.hub.connector.timeout");
+        }
+    }
+
+    @Test
+    public void testRemaining() throws IOException {
+        List<Supplier<Map<LinkedAccountType, Long>>> registered = new ArrayList<>();
+        RateLimiter limiter = new RateLimiter();
+        TestUtil.setPrivateField(limiter, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(limiter, "metrics", new MockMetrics() {
+            @Override
+            public void registerRateLimits(Supplier<Map<LinkedAccountType, Long>> remaining) {
+                registered.add(remaining);
+            }
+        });
+        limiter.postConstruct();
+        Assert.assertEquals(1, registered.size());
+        Supplier<Map<LinkedAccountType, Long>> remaining = registered.get(0);
+        Assert.assertEquals(Collections.emptyMap(), remaining.get());
+
+        long resetAt = System.currentTimeMillis() / 1000 + 3600;
+        limiter.record(LinkedAccountType.GitHub, request("TOKEN-1"), response(200, 4000, resetAt), 0);
+        limiter.record(LinkedAccountType.GitHub, request("TOKEN-2"), response(200, 1500, resetAt), 0);
+        limiter.record(LinkedAccountType.GitLab, request("TOKEN-3"), response(200, 300, resetAt), 0);
+        // Already reset, so no longer known
+        limiter.record(LinkedAccountType.GitLab, request("TOKEN-4"), response(200, 10, resetAt - 7200), 0);
+
+        // The lowest remaining quota of each provider, computed when asked for
+        Map<LinkedAccountType, Long> expected = new EnumMap<>(LinkedAccountType.class);
+        expected.put(LinkedAccountType.GitHub, 1500L);
+        expected.put(LinkedAccountType.GitLab, 300L);
+        Assert.assertEquals(expected, remaining.get());
+
+        limiter.record(LinkedAccountType.GitHub, request("TOKEN-2"), response(200, 5000, resetAt), 0);
+        expected.put(LinkedAccountType.GitHub, 4000L);
+        Assert.assertEquals(expected, remaining.get());
+    }
+
+    private static HttpGet request(String token) {
+        HttpGet request = new HttpGet("https://api.example.com/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static HttpResponse response(int status, long remaining, long reset) {
+        HttpResponse response = response(status);
+        response.addHeader("X-RateLimit-Remaining", String.valueOf(remaining));
+        response.addHeader("X-RateLimit-Reset", String.valueOf(reset));
+        return response;
+    }
+
+    private static HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.connectors;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class ResourceInfoParserTest {
+
+    private static final String DOCUMENT = "{\"openapi\":\"3.0.0\",\"paths\":{\"/foo\":{\"get\":{\"tags\":[\"ignored\"],"
+            + "\"description\":\"Not the API description.\"}}},\"info\":{\"version\":\"1.0\",\"title\":\"My API\","
+            + "\"contact\":{\"name\":\"Not a title\"},\"description\":\"The description.\"},"
+            + "\"tags\":[{\"name\":\"tag1\",\"externalDocs\":{\"url\":\"http://example.com\"}},\"bogus\",{\"name\":\"tag2\"}]}";
+
+    @Test
+    public void testParse() throws IOException {
+        ApiDesignResourceInfo info = new ApiDesignResourceInfo();
+        info.setName("default.json");
+        info.setDescription("");
+        ResourceInfoParser.parse(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)), info);
+        Assert.assertEquals("My API", info.getName());
+        Assert.assertEquals("The description.", info.getDescription());
+        Assert.assertEquals(2, info.getTags().size());
+        Assert.assertTrue(info.getTags().contains("tag1"));
+        Assert.assertTrue(info.getTags().contains("tag2"));
+    }
+
+    @Test
+    public void testParseDefaults() throws IOException {
+        ApiDesignResourceInfo info = new ApiDesignResourceInfo();
+        info.setName("default.json");
+        info.setDescription("");
+        ResourceInfoParser.parse("{\"openapi\":\"3.0.0\",\"info\":{\"version\":\"1.0\"}}", info);
+        Assert.assertEquals("default.json", info.getName());
+        Assert.assertEquals("", info.getDescription());
+        Assert.assertTrue(info.getTags().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseNotAnObject() throws IOException {
+        ResourceInfoParser.parse("[]", new ApiDesignResourceInfo());
+    }
+
+    @Test
+    public void testDecodeBase64Field() throws IOException {
+        // GitHub wraps its base64 encoded content with (JSON escaped) newlines every 60 chars
+        String encoded = Base64.encodeBase64String(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        StringBuilder wrapped = new StringBuilder();
+        for (int idx = 0; idx < encoded.length(); idx += 60) {
+            wrapped.append(encoded, idx, Math.min(idx + 60, encoded.length())).append("\\n");
+        }
+        String response = "{\"name\":\"api.json\",\"sha\":\"abc123\",\"links\":{\"self\":\"http://example.com\"},"
+                + "\"content\":\"" + wrapped + "\",\"encoding\":\"base64\"}";
+
+        InputStream decoded = ResourceInfoParser.decodeBase64Field(
+                new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)), "content", response.length());
+        Assert.assertNotNull(decoded);
+        Assert.assertEquals(DOCUMENT, IOUtils.toString(decoded, StandardCharsets.UTF_8));
+
+        Assert.assertNull(ResourceInfoParser.decodeBase64Field(
+                new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)), "missing", -1));
+    }
+
+}
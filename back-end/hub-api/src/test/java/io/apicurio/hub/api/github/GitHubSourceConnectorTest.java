@@ -19,10 +19,25 @@ package io.apicurio.hub.api.github;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.binary.Base64;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -31,14 +46,23 @@ import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 import io.apicurio.hub.api.beans.ApiDesignResourceInfo;
 import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.GitHubOrganization;
 import io.apicurio.hub.api.beans.GitHubRepository;
 import io.apicurio.hub.api.beans.ResourceContent;
+import io.apicurio.hub.api.cache.ETagCache;
 import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.connectors.RateLimiter;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.MockSecurityContext;
 import test.io.apicurio.hub.api.TestUtil;
 
@@ -49,8 +73,30 @@ public class GitHubSourceConnectorTest {
     
     private static String githubToken = null;
 
+    private static final String REPOSITORY_URL = "https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json";
+    private static final String CONTENT_PATH = "/repos/Apicurio/api-samples/contents/pet-store/pet-store.json";
+
     private IGitHubSourceConnector service;
     private HubApiConfiguration config;
+    private HttpClientProvider httpClientProvider;
+    private RateLimiter rateLimiter;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private MockMetrics localMetrics;
+    private GitHubSourceConnector local;
+    private List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private List<String> revalidations = Collections.synchronizedList(new ArrayList<>());
+    private String content = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Pet Store\"}}";
+    private int version = 1;
+    private AtomicInteger userRequests = new AtomicInteger();
+    private List<Integer> pageRequests = Collections.synchronizedList(new ArrayList<>());
+    private AtomicInteger pagesInFlight = new AtomicInteger();
+    private AtomicInteger maxPagesInFlight = new AtomicInteger();
+    private int failingPage = -1;
+    private int blockingPage = -1;
+    private CountDownLatch unblock = new CountDownLatch(1);
 
     @BeforeClass
     public static void globalSetUp() {
@@ -85,10 +131,248 @@ public class GitHubSourceConnectorTest {
         
         TestUtil.setPrivateField(service, "security", new MockSecurityContext());
         TestUtil.setPrivateField(service, "config", config);
+
+        httpClientProvider = new HttpClientProvider();
+        TestUtil.setPrivateField(httpClientProvider, "config", config);
+        TestUtil.setPrivateField(httpClientProvider, "metrics", new MockMetrics());
+        httpClientProvider.postConstruct();
+        TestUtil.setPrivateField(service, "httpClientProvider", httpClientProvider);
+
+        rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", config);
+        TestUtil.setPrivateField(rateLimiter, "metrics", new MockMetrics());
+        rateLimiter.postConstruct();
+        TestUtil.setPrivateField(service, "rateLimiter", rateLimiter);
+
+        ETagCache etagCache = new ETagCache();
+        TestUtil.setPrivateField(etagCache, "config", config);
+        TestUtil.setPrivateField(etagCache, "metrics", new MockMetrics());
+        etagCache.postConstruct();
+        TestUtil.setPrivateField(service, "etagCache", etagCache);
+
+        TestUtil.setPrivateField(service, "metrics", new MockMetrics());
+        ((GitHubSourceConnector) service).postConstruct();
+    }
+
+    /**
+     * Starts a local http server that stands in for the GitHub API, and creates a
+     * connector that uses it.
+     */
+    @Before
+    public void setUpLocal() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(CONTENT_PATH, exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            requests.add(exchange.getRequestMethod() + " " + (ifNoneMatch == null ? "" : ifNoneMatch));
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                try (InputStream body = exchange.getRequestBody()) {
+                    JsonNode update = new ObjectMapper().readTree(body);
+                    content = new String(Base64.decodeBase64(update.get("content").asText()), StandardCharsets.UTF_8);
+                }
+                version++;
+                sendJson(exchange, 200, "{\"content\":{\"sha\":\"sha-" + version + "\"},\"commit\":{\"sha\":\"commit-" + version + "\"}}");
+            } else if (("\"etag-" + version + "\"").equals(ifNoneMatch)) {
+                exchange.getResponseHeaders().add("ETag", "\"etag-" + version + "\"");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                String b64Content = Base64.encodeBase64String(content.getBytes(StandardCharsets.UTF_8));
+                exchange.getResponseHeaders().add("ETag", "\"etag-" + version + "\"");
+                sendJson(exchange, 200, "{\"sha\":\"sha-" + version + "\",\"content\":\"" + b64Content + "\"}");
+            }
+        });
+        server.createContext("/user", exchange -> {
+            userRequests.incrementAndGet();
+            sendJson(exchange, 200, "{\"login\":\"user\"}");
+        });
+        server.createContext("/user/orgs", exchange -> {
+            int page = GitHubSourceConnector.getPageNumber(exchange.getRequestURI().toString());
+            page = page == -1 ? 1 : page;
+            pageRequests.add(page);
+            maxPagesInFlight.accumulateAndGet(pagesInFlight.incrementAndGet(), Math::max);
+            try {
+                if (page == blockingPage) {
+                    unblock.await(10, TimeUnit.SECONDS);
+                } else if (page > 1) {
+                    // Later pages respond sooner, so the pages complete out of order
+                    Thread.sleep(50 * (6 - page));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pagesInFlight.decrementAndGet();
+            }
+            if (page == failingPage) {
+                sendJson(exchange, 500, "{\"message\":\"Server Error\"}");
+                return;
+            }
+            String orgsUrl = baseUrl + "/user/orgs?per_page=100&page=";
+            exchange.getResponseHeaders().add("Link", "<" + orgsUrl + (page + 1) + ">; rel=\"next\", <" + orgsUrl + "5>; rel=\"last\"");
+            sendJson(exchange, 200, "[{\"login\":\"org-" + page + "\"}]");
+        });
+        server.createContext("/users/user/repos", exchange -> {
+            sendJson(exchange, 200, "[{\"name\":\"repo\",\"private\":true}]");
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        localMetrics = new MockMetrics() {
+            @Override
+            public void cacheRevalidation(String cache, boolean notModified) {
+                revalidations.add(cache + ":" + notModified);
+            }
+        };
+        local = createLocalConnector(config);
+    }
+
+    /**
+     * Creates a connector that uses the local http server in place of the GitHub API.
+     * @param config
+     */
+    private GitHubSourceConnector createLocalConnector(HubApiConfiguration config) {
+        String baseUrl = this.baseUrl;
+        GitHubSourceConnector connector = new GitHubSourceConnector() {
+            @Override
+            protected String getBaseApiEndpointUrl() {
+                return baseUrl;
+            }
+            @Override
+            protected String getExternalToken() throws SourceConnectorException {
+                return "token";
+            }
+        };
+        TestUtil.setPrivateField(connector, "security", new MockSecurityContext());
+        TestUtil.setPrivateField(connector, "config", config);
+        TestUtil.setPrivateField(connector, "metrics", localMetrics);
+        TestUtil.setPrivateField(connector, "httpClientProvider", httpClientProvider);
+        TestUtil.setPrivateField(connector, "rateLimiter", rateLimiter);
+
+        ETagCache etagCache = new ETagCache();
+        TestUtil.setPrivateField(etagCache, "config", config);
+        TestUtil.setPrivateField(etagCache, "metrics", localMetrics);
+        etagCache.postConstruct();
+        TestUtil.setPrivateField(connector, "etagCache", etagCache);
+        connector.postConstruct();
+        return connector;
+    }
+
+    /**
+     * Sends the given JSON body as the response to the given exchange.
+     * @param exchange
+     * @param status
+     * @param json
+     */
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        exchange.close();
     }
     
     @After
     public void tearDown() throws Exception {
+        unblock.countDown();
+        local.preDestroy();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        ((GitHubSourceConnector) service).preDestroy();
+        httpClientProvider.preDestroy();
+    }
+
+    @Test
+    public void testGetResourceContentNotModified() throws Exception {
+        ResourceContent content = local.getResourceContent(REPOSITORY_URL);
+        Assert.assertEquals(this.content, content.getContent());
+        Assert.assertEquals("sha-1", content.getSha());
+        Assert.assertTrue(revalidations.isEmpty());
+
+        // The second request is conditional, and the 304 is answered from the cache
+        content = local.getResourceContent(REPOSITORY_URL);
+        Assert.assertEquals(this.content, content.getContent());
+        Assert.assertEquals("sha-1", content.getSha());
+        Assert.assertEquals("sha-1", local.getResourceSha(REPOSITORY_URL));
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals("GET ", requests.get(0));
+        Assert.assertEquals("GET \"etag-1\"", requests.get(1));
+        Assert.assertEquals("GET \"etag-1\"", requests.get(2));
+        Assert.assertEquals(2, revalidations.size());
+        Assert.assertEquals("etag-responses:true", revalidations.get(0));
+        Assert.assertEquals("etag-responses:true", revalidations.get(1));
+    }
+
+    @Test
+    public void testGetResourceContentModified() throws Exception {
+        local.getResourceContent(REPOSITORY_URL);
+
+        // Changed by someone else - the conditional request gets the new content
+        content = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Changed\"}}";
+        version++;
+        ResourceContent content = local.getResourceContent(REPOSITORY_URL);
+        Assert.assertEquals(this.content, content.getContent());
+        Assert.assertEquals("sha-2", content.getSha());
+
+        // ...and is cached with its new ETag
+        local.getResourceContent(REPOSITORY_URL);
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals("GET \"etag-1\"", requests.get(1));
+        Assert.assertEquals("GET \"etag-2\"", requests.get(2));
+        Assert.assertEquals(2, revalidations.size());
+        Assert.assertEquals("etag-responses:false", revalidations.get(0));
+        Assert.assertEquals("etag-responses:true", revalidations.get(1));
+    }
+
+    @Test
+    public void testValidateResourceExistsNotModified() throws Exception {
+        local.getResourceContent(REPOSITORY_URL);
+        ApiDesignResourceInfo info = local.validateResourceExists(REPOSITORY_URL);
+        Assert.assertEquals("Pet Store", info.getName());
+        Assert.assertEquals("GET \"etag-1\"", requests.get(1));
+        Assert.assertEquals(1, revalidations.size());
+        Assert.assertEquals("etag-responses:true", revalidations.get(0));
+    }
+
+    @Test
+    public void testUpdateResourceContentInvalidatesCache() throws Exception {
+        ResourceContent content = local.getResourceContent(REPOSITORY_URL);
+
+        ResourceContent update = new ResourceContent();
+        update.setSha(content.getSha());
+        update.setContent("{\"swagger\":\"2.0\",\"info\":{\"title\":\"Updated\"}}");
+        String newSha = local.updateResourceContent(REPOSITORY_URL, "Update", null, update);
+        Assert.assertEquals("sha-2", newSha);
+
+        // The cached response was dropped, so the next request is unconditional
+        content = local.getResourceContent(REPOSITORY_URL);
+        Assert.assertEquals(update.getContent(), content.getContent());
+        Assert.assertEquals("sha-2", content.getSha());
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals("PUT ", requests.get(1));
+        Assert.assertEquals("GET ", requests.get(2));
+        Assert.assertTrue(revalidations.isEmpty());
+    }
+
+    @Test(expected = SourceConnectorException.class)
+    public void testGetOrganizationsWithoutToken() throws Exception {
+        GitHubSourceConnector unlinked = new GitHubSourceConnector() {
+            @Override
+            protected String getExternalToken() throws SourceConnectorException {
+                return null;
+            }
+        };
+        TestUtil.setPrivateField(unlinked, "config", config);
+        TestUtil.setPrivateField(unlinked, "metrics", new MockMetrics());
+        unlinked.postConstruct();
+        try {
+            unlinked.getOrganizations();
+        } finally {
+            unlinked.preDestroy();
+        }
     }
 
     @Test
@@ -197,6 +481,62 @@ public class GitHubSourceConnectorTest {
         Assert.assertTrue(repositories.size() > 0);
     }
 
+    @Test
+    public void testGetAllPagesInOrder() throws Exception {
+        List<JsonNode> pages = local.getAllPages("listOrgs", baseUrl + "/user/orgs?per_page=100", "token");
+        Assert.assertEquals(5, pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            Assert.assertEquals("org-" + (i + 1), pages.get(i).get(0).get("login").asText());
+        }
+        // The first page is fetched alone, the rest concurrently
+        Assert.assertEquals(Integer.valueOf(1), pageRequests.get(0));
+        Assert.assertEquals(5, new HashSet<>(pageRequests).size());
+        Assert.assertTrue(maxPagesInFlight.get() > 1);
+    }
+
+    @Test
+    public void testGetAllPagesFailure() throws Exception {
+        // A single pagination thread:  page 3 blocks it, so pages 4 and 5 stay queued
+        HubApiConfiguration config = new HubApiConfiguration() {
+            @Override
+            public int getGitHubPaginationThreads() {
+                return 1;
+            }
+        };
+        GitHubSourceConnector connector = createLocalConnector(config);
+        try {
+            failingPage = 2;
+            blockingPage = 3;
+            try {
+                connector.getAllPages("listOrgs", baseUrl + "/user/orgs?per_page=100", "token");
+                Assert.fail("Expected a GitHubException");
+            } catch (GitHubException e) {
+                Assert.assertTrue(e.getMessage().contains("500"));
+            }
+
+            // The remaining pages were cancelled, so are never fetched
+            unblock.countDown();
+            Thread.sleep(200);
+            Assert.assertFalse(pageRequests.contains(4));
+            Assert.assertFalse(pageRequests.contains(5));
+        } finally {
+            connector.preDestroy();
+        }
+    }
+
+    @Test
+    public void testUserLoginCache() throws Exception {
+        Collection<GitHubOrganization> orgs = local.getOrganizations();
+        Assert.assertEquals(6, orgs.size());
+        Assert.assertEquals(1, userRequests.get());
+
+        orgs = local.getOrganizations();
+        Assert.assertEquals(6, orgs.size());
+        Collection<GitHubRepository> repos = local.getRepositories("user");
+        Assert.assertEquals(1, repos.size());
+        Assert.assertEquals(1, userRequests.get());
+    }
+
     /**
      * Test method for {@link io.apicurio.hub.api.github.GitHubSourceConnector#getRepositories(String)}.
      */
@@ -208,5 +548,12 @@ public class GitHubSourceConnectorTest {
         Assert.assertEquals("https://api.github.com/user/1890703/repos?page=2", map.get("next"));
         Assert.assertEquals("https://api.github.com/user/1890703/repos?page=3", map.get("last"));
     }
+
+    @Test
+    public void testGetPageNumber() {
+        Assert.assertEquals(3, GitHubSourceConnector.getPageNumber("https://api.github.com/user/1890703/repos?page=3"));
+        Assert.assertEquals(15, GitHubSourceConnector.getPageNumber("https://api.github.com/user/1890703/repos?per_page=100&page=15"));
+        Assert.assertEquals(-1, GitHubSourceConnector.getPageNumber("https://api.github.com/user/1890703/repos?per_page=100"));
+    }
     
 }
@@ -40,8 +40,11 @@ import io.apicurio.hub.api.beans.GitLabGroup;
 import io.apicurio.hub.api.beans.GitLabProject;
 import io.apicurio.hub.api.beans.ResourceContent;
 import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.connectors.RateLimiter;
 import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.MockSecurityContext;
 import test.io.apicurio.hub.api.TestUtil;
 
@@ -54,6 +57,7 @@ public class GitLabSourceConnectorTest {
     
     private IGitLabSourceConnector service;
     private HubApiConfiguration config;
+    private HttpClientProvider httpClientProvider;
     
 
     @Before
@@ -87,10 +91,24 @@ public class GitLabSourceConnectorTest {
         
         TestUtil.setPrivateField(service, "security", new MockSecurityContext());
         TestUtil.setPrivateField(service, "config", config);
+
+        httpClientProvider = new HttpClientProvider();
+        TestUtil.setPrivateField(httpClientProvider, "config", config);
+        TestUtil.setPrivateField(httpClientProvider, "metrics", new MockMetrics());
+        httpClientProvider.postConstruct();
+        TestUtil.setPrivateField(service, "httpClientProvider", httpClientProvider);
+
+        RateLimiter rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", config);
+        TestUtil.setPrivateField(rateLimiter, "metrics", new MockMetrics());
+        rateLimiter.postConstruct();
+        TestUtil.setPrivateField(service, "rateLimiter", rateLimiter);
+        TestUtil.setPrivateField(service, "metrics", new MockMetrics());
     }
     
     @After
     public void tearDown() throws Exception {
+        httpClientProvider.preDestroy();
     }
 
     @Test
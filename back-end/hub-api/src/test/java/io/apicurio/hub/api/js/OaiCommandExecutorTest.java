@@ -16,25 +16,66 @@
 
 package io.apicurio.hub.api.js;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
+import javax.script.ScriptEngineManager;
+
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import test.io.apicurio.hub.api.TestUtil;
 
 /**
+ * Runs the same command fixtures against each supported script engine.  Engines that
+ * are not on the classpath (e.g. GraalJS) are skipped.
  * @author eric.wittmann@gmail.com
  */
+@RunWith(Parameterized.class)
 public class OaiCommandExecutorTest {
 
+    @Parameters(name = "{0}")
+    public static List<Object[]> engines() {
+        return Arrays.asList(new Object[] { "nashorn" }, new Object[] { "graal.js" });
+    }
+
+    @Parameter
+    public String engineName;
+
     private static final String OAI_DOC = "{" + 
             "  \"openapi\": \"3.0.0\"" + 
             "}";
 
+    private OaiCommandExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeNotNull(new ScriptEngineManager().getEngineByName(engineName));
+
+        ScriptEnginePool enginePool = new ScriptEnginePool();
+        TestUtil.setPrivateField(enginePool, "config", new HubApiConfiguration() {
+            @Override
+            public String getScriptEngine() {
+                return engineName;
+            }
+        });
+        enginePool.postConstruct();
+
+        executor = new OaiCommandExecutor();
+        TestUtil.setPrivateField(executor, "enginePool", enginePool);
+    }
+
     @Test
     public void testExecuteCommands() throws Exception {
-        OaiCommandExecutor executor = new OaiCommandExecutor();
         
         String document = OAI_DOC;
         // Load the commands
@@ -57,6 +98,29 @@ public class OaiCommandExecutorTest {
         Assert.assertEquals(expectedNormalized, actualNormalized);
     }
     
+    @Test
+    public void testDocumentHandle() throws Exception {
+        List<String> batch1 = new LinkedList<String>();
+        batch1.add(IOUtils.toString(OaiCommandExecutorTest.class.getResource("change-title.command.json")));
+        batch1.add(IOUtils.toString(OaiCommandExecutorTest.class.getResource("change-version.command.json")));
+        List<String> batch2 = new LinkedList<String>();
+        batch2.add(IOUtils.toString(OaiCommandExecutorTest.class.getResource("change-license.command.json")));
+        batch2.add(IOUtils.toString(OaiCommandExecutorTest.class.getResource("add-schema-definition.command.json")));
+
+        String expected = IOUtils.toString(OaiCommandExecutorTest.class.getResource("__expected.json"));
+        try (OaiDocumentHandle handle = executor.openDocument(OAI_DOC)) {
+            handle.executeCommands(batch1);
+            handle.executeCommands(new LinkedList<String>());
+            handle.executeCommands(batch2);
+
+            Assert.assertEquals(normalizeString(expected), normalizeString(handle.serialize(false)));
+
+            String compact = handle.serialize(true);
+            Assert.assertFalse(compact.contains("\n"));
+            Assert.assertEquals(expected.replaceAll("\\s", ""), compact.replaceAll("\\s", ""));
+        }
+    }
+
     protected static String normalizeString(String input) {
         return input.replaceAll("\\r\\n?", "\n");
     }
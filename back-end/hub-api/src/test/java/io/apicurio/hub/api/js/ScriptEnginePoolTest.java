@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.js;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleScriptContext;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
+
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class ScriptEnginePoolTest {
+
+    private ScriptEnginePool pool;
+
+    @Before
+    public void setUp() {
+        System.setProperty("apicurio.hub.script-engine.pool.size", "2");
+        System.setProperty("apicurio.hub.script-engine.pool.checkout-timeout", "100");
+        pool = new ScriptEnginePool();
+        TestUtil.setPrivateField(pool, "config", new HubApiConfiguration());
+        pool.postConstruct();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("apicurio.hub.script-engine.pool.size");
+        System.clearProperty("apicurio.hub.script-engine.pool.checkout-timeout");
+    }
+
+    @Test
+    public void testWarmup() throws Exception {
+        Assert.assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testCheckoutReusesEngine() throws Exception {
+        PooledScriptEngine engine = pool.checkout();
+        Assert.assertEquals(0, pool.getIdleCount());
+        pool.checkin(engine);
+        Assert.assertEquals(1, pool.getIdleCount());
+        Assert.assertSame(engine, pool.checkout());
+    }
+
+    @Test
+    public void testEnginesAreIsolated() throws Exception {
+        PooledScriptEngine engine1 = pool.checkout();
+        PooledScriptEngine engine2 = pool.checkout();
+        Assert.assertNotSame(engine1, engine2);
+        String doc1 = engine1.invokeFunction("executeCommands", "{ \"openapi\": \"3.0.0\" }", new String[0]).toString();
+        String doc2 = engine2.invokeFunction("executeCommands", "{ \"openapi\": \"3.0.0\" }", new String[0]).toString();
+        Assert.assertEquals(doc1, doc2);
+    }
+
+    @Test(expected = OaiCommandException.class)
+    public void testCheckoutTimeout() throws Exception {
+        pool.checkout();
+        pool.checkout();
+        pool.checkout();
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testMissingFunction() throws Exception {
+        pool.checkout().invokeFunction("noSuchFunction");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownEngine() throws Exception {
+        System.setProperty("apicurio.hub.script.engine", "no-such-engine");
+        try {
+            ScriptEnginePool unknown = new ScriptEnginePool();
+            TestUtil.setPrivateField(unknown, "config", new HubApiConfiguration());
+            unknown.postConstruct();
+        } finally {
+            System.clearProperty("apicurio.hub.script.engine");
+        }
+    }
+
+    @Test
+    public void testGraalJsSharedEngine() throws Exception {
+        Assume.assumeNotNull(new ScriptEngineManager().getEngineByName("graal.js"));
+        System.setProperty("apicurio.hub.script.engine", "graal.js");
+        ScriptEnginePool graalPool = new ScriptEnginePool();
+        try {
+            TestUtil.setPrivateField(graalPool, "config", new HubApiConfiguration());
+            graalPool.postConstruct();
+        } finally {
+            System.clearProperty("apicurio.hub.script.engine");
+        }
+
+        // Each pooled engine is its own polyglot context...
+        GraalJSScriptEngine graalEngine = (GraalJSScriptEngine) graalPool.getEngine();
+        Context context1 = polyglotContext(graalEngine, graalPool.checkout().getBindings());
+        Context context2 = polyglotContext(graalEngine, graalPool.checkout().getBindings());
+        Assert.assertNotSame(context1, context2);
+
+        // ...but they all share the one polyglot engine (and its parsed sources)
+        Engine engine = graalEngine.getPolyglotEngine();
+        Assert.assertSame(engine, context1.getEngine());
+        Assert.assertSame(engine, context2.getEngine());
+    }
+
+    private static Context polyglotContext(GraalJSScriptEngine engine, Bindings bindings) {
+        ScriptContext scriptContext = new SimpleScriptContext();
+        scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        return engine.getPolyglotContext(scriptContext);
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.apicurio.hub.api.rest.impl.DesignsResource;
+import io.apicurio.hub.api.rest.impl.SystemResource;
+import io.prometheus.client.CollectorRegistry;
+import test.io.apicurio.hub.api.MockContainerRequestContext;
+import test.io.apicurio.hub.api.MockContainerResponseContext;
+import test.io.apicurio.hub.api.MockWriterInterceptorContext;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class RestMetricsFilterTest {
+
+    static final String ENDPOINT = "/system/status";
+
+    private RestMetricsFilter filter;
+    private Map<String, Object> properties;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = createFilter();
+        properties = new HashMap<>();
+    }
+
+    @Test
+    public void testToTemplate() throws Exception {
+        Assert.assertEquals("/designs", RestMetricsFilter.toTemplate(DesignsResource.class,
+                DesignsResource.class.getMethod("listDesigns", Integer.class, Integer.class, String.class, String.class, String.class, String.class)));
+        Assert.assertEquals("/designs/{designId}", RestMetricsFilter.toTemplate(DesignsResource.class,
+                DesignsResource.class.getMethod("getDesign", String.class)));
+        Assert.assertEquals("/designs/{designId}/content", RestMetricsFilter.toTemplate(DesignsResource.class,
+                DesignsResource.class.getMethod("getContent", String.class, String.class, AsyncResponse.class)));
+        Assert.assertEquals("/system/status", RestMetricsFilter.toTemplate(SystemResource.class,
+                SystemResource.class.getMethod("getStatus")));
+    }
+
+    @Test
+    public void testInFlight() throws Exception {
+        double inFlight = inFlight("GET");
+        MockContainerRequestContext request = new MockContainerRequestContext("GET", -1, properties);
+
+        filter.filter(request);
+        Assert.assertEquals(inFlight + 1, inFlight("GET"), 0);
+        Assert.assertNotNull(properties.get(InFlightRestRequest.PROPERTY));
+
+        filter.filter(request, new MockContainerResponseContext(200, "OK"));
+        Assert.assertEquals(inFlight, inFlight("GET"), 0);
+    }
+
+    @Test
+    public void testStatusClass() throws Exception {
+        double ok = requestCount("PUT", "2xx");
+        double notFound = requestCount("PUT", "4xx");
+        double error = requestCount("PUT", "5xx");
+
+        for (int status : new int[] { 200, 204, 404, 500, 503 }) {
+            MockContainerRequestContext request = new MockContainerRequestContext("PUT", -1, new HashMap<>());
+            filter.filter(request);
+            filter.filter(request, new MockContainerResponseContext(status, null));
+        }
+
+        Assert.assertEquals(ok + 2, requestCount("PUT", "2xx"), 0);
+        Assert.assertEquals(notFound + 1, requestCount("PUT", "4xx"), 0);
+        Assert.assertEquals(error + 2, requestCount("PUT", "5xx"), 0);
+    }
+
+    @Test
+    public void testRecordedOnce() throws Exception {
+        double inFlight = inFlight("DELETE");
+        double count = requestCount("DELETE", "2xx");
+        double errorCount = requestCount("DELETE", "5xx");
+        MockContainerRequestContext request = new MockContainerRequestContext("DELETE", -1, properties);
+
+        filter.filter(request);
+        filter.filter(request, new MockContainerResponseContext(204, null));
+        // e.g. the response filters being re-run for an error response
+        filter.filter(request, new MockContainerResponseContext(500, null));
+
+        Assert.assertEquals(inFlight, inFlight("DELETE"), 0);
+        Assert.assertEquals(count + 1, requestCount("DELETE", "2xx"), 0);
+        Assert.assertEquals(errorCount, requestCount("DELETE", "5xx"), 0);
+    }
+
+    @Test
+    public void testResponseSize() throws Exception {
+        double count = responseSize("POST", "_count");
+        double sum = responseSize("POST", "_sum");
+        MockContainerRequestContext request = new MockContainerRequestContext("POST", 10, properties);
+        filter.filter(request);
+        filter.filter(request, new MockContainerResponseContext(200, "entity"));
+
+        byte[] entity = new byte[1500];
+        MockWriterInterceptorContext writerContext = new MockWriterInterceptorContext(entity, properties);
+        filter.aroundWriteTo(writerContext);
+
+        Assert.assertEquals(1500, writerContext.getWritten().length);
+        Assert.assertEquals(count + 1, responseSize("POST", "_count"), 0);
+        Assert.assertEquals(sum + 1500, responseSize("POST", "_sum"), 0);
+
+        // No entity - recorded as an empty body by the response filter
+        request = new MockContainerRequestContext("POST", 10, new HashMap<>());
+        filter.filter(request);
+        filter.filter(request, new MockContainerResponseContext(204, null));
+        Assert.assertEquals(count + 2, responseSize("POST", "_count"), 0);
+        Assert.assertEquals(sum + 1500, responseSize("POST", "_sum"), 0);
+    }
+
+    @Test
+    public void testNotMatched() throws Exception {
+        byte[] entity = new byte[100];
+        MockWriterInterceptorContext writerContext = new MockWriterInterceptorContext(entity, properties);
+        filter.aroundWriteTo(writerContext);
+        filter.filter(new MockContainerRequestContext("GET", -1, properties), new MockContainerResponseContext(404, null));
+
+        Assert.assertEquals(100, writerContext.getWritten().length);
+        Assert.assertNull(properties.get(InFlightRestRequest.PROPERTY));
+    }
+
+    /**
+     * Creates a filter (backed by the real Prometheus metrics) for requests matched to
+     * {@link SystemResource#getStatus()}.
+     * @throws Exception
+     */
+    static RestMetricsFilter createFilter() throws Exception {
+        Method method = SystemResource.class.getMethod("getStatus");
+        RestMetricsFilter filter = new RestMetricsFilter();
+        TestUtil.setPrivateField(filter, "metrics", new PrometheusMetrics());
+        TestUtil.setPrivateField(filter, "resourceInfo", new ResourceInfo() {
+            @Override
+            public Method getResourceMethod() {
+                return method;
+            }
+            @Override
+            public Class<?> getResourceClass() {
+                return SystemResource.class;
+            }
+        });
+        return filter;
+    }
+
+    static double inFlight(String method) {
+        return PrometheusMetrics.restRequestsInFlight.labels(ENDPOINT, method).get();
+    }
+
+    static double requestCount(String method, String statusClass) {
+        return sample("apicurio_rest_request_duration_seconds_count", new String[] { "endpoint", "method", "status" },
+                new String[] { ENDPOINT, method, statusClass });
+    }
+
+    private static double responseSize(String method, String suffix) {
+        return sample("apicurio_rest_response_size_bytes" + suffix, new String[] { "endpoint", "method" },
+                new String[] { ENDPOINT, method });
+    }
+
+    private static double sample(String name, String[] labelNames, String[] labelValues) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, labelNames, labelValues);
+        return value == null ? 0 : value;
+    }
+
+}
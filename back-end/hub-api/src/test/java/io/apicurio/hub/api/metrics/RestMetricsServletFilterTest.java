@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.apicurio.hub.api.metrics;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.ws.rs.ProcessingException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.io.apicurio.hub.api.MockContainerRequestContext;
+import test.io.apicurio.hub.api.MockContainerResponseContext;
+import test.io.apicurio.studio.shared.servlet.MockAsyncContext;
+import test.io.apicurio.studio.shared.servlet.MockHttpServletRequest;
+import test.io.apicurio.studio.shared.servlet.MockHttpServletResponse;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class RestMetricsServletFilterTest {
+
+    private RestMetricsFilter jaxrsFilter;
+    private RestMetricsServletFilter servletFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() throws Exception {
+        jaxrsFilter = RestMetricsFilterTest.createFilter();
+        servletFilter = new RestMetricsServletFilter();
+        request = new MockHttpServletRequest(new HashMap<>(), "");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testCompletedByResponseFilter() throws Exception {
+        double inFlight = RestMetricsFilterTest.inFlight("GET");
+        double count = RestMetricsFilterTest.requestCount("GET", "2xx");
+
+        servletFilter.doFilter(request, response, (req, resp) -> {
+            MockContainerRequestContext requestContext = jaxRsRequest("GET");
+            jaxrsFilter.filter(requestContext);
+            Assert.assertEquals(inFlight + 1, RestMetricsFilterTest.inFlight("GET"), 0);
+            jaxrsFilter.filter(requestContext, new MockContainerResponseContext(200, "OK"));
+            response.setStatus(200);
+        });
+
+        Assert.assertEquals(inFlight, RestMetricsFilterTest.inFlight("GET"), 0);
+        Assert.assertEquals(count + 1, RestMetricsFilterTest.requestCount("GET", "2xx"), 0);
+    }
+
+    @Test
+    public void testUnmappedException() throws Exception {
+        double inFlight = RestMetricsFilterTest.inFlight("PATCH");
+        double count = RestMetricsFilterTest.requestCount("PATCH", "5xx");
+
+        try {
+            servletFilter.doFilter(request, response, (req, resp) -> {
+                jaxrsFilter.filter(jaxRsRequest("PATCH"));
+                // The response filter never runs
+                throw new ServletException(new ProcessingException("Unmapped"));
+            });
+            Assert.fail("Expected a ServletException.");
+        } catch (ServletException e) {
+            // expected
+        }
+
+        Assert.assertEquals(inFlight, RestMetricsFilterTest.inFlight("PATCH"), 0);
+        Assert.assertEquals(count + 1, RestMetricsFilterTest.requestCount("PATCH", "5xx"), 0);
+    }
+
+    @Test
+    public void testNotMatched() throws Exception {
+        FilterChain chain = (req, resp) -> response.setStatus(404);
+        servletFilter.doFilter(request, response, chain);
+        Assert.assertFalse(request.isAsyncStarted());
+    }
+
+    @Test
+    public void testAsyncCompleted() throws Exception {
+        double inFlight = RestMetricsFilterTest.inFlight("OPTIONS");
+        double count = RestMetricsFilterTest.requestCount("OPTIONS", "2xx");
+
+        servletFilter.doFilter(request, response, (req, resp) -> {
+            jaxrsFilter.filter(jaxRsRequest("OPTIONS"));
+            req.startAsync();
+        });
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        Assert.assertEquals(1, asyncContext.getListeners().size());
+        Assert.assertEquals(inFlight + 1, RestMetricsFilterTest.inFlight("OPTIONS"), 0);
+
+        // The resumed response fails in the entity provider, so the response filter never ran
+        response.setStatus(200);
+        asyncContext.complete();
+        Assert.assertEquals(inFlight, RestMetricsFilterTest.inFlight("OPTIONS"), 0);
+        Assert.assertEquals(count + 1, RestMetricsFilterTest.requestCount("OPTIONS", "2xx"), 0);
+    }
+
+    @Test
+    public void testAsyncCompletedDuringChain() throws Exception {
+        double inFlight = RestMetricsFilterTest.inFlight("HEAD");
+        double count = RestMetricsFilterTest.requestCount("HEAD", "2xx");
+
+        servletFilter.doFilter(request, response, (req, resp) -> {
+            jaxrsFilter.filter(jaxRsRequest("HEAD"));
+            response.setStatus(200);
+            req.startAsync().complete();
+        });
+
+        Assert.assertEquals(1, ((MockAsyncContext) request.getAsyncContext()).getListeners().size());
+        Assert.assertEquals(inFlight, RestMetricsFilterTest.inFlight("HEAD"), 0);
+        Assert.assertEquals(count + 1, RestMetricsFilterTest.requestCount("HEAD", "2xx"), 0);
+    }
+
+    @Test
+    public void testAsyncErrorAndTimeout() throws Exception {
+        double inFlight = RestMetricsFilterTest.inFlight("TRACE");
+        double count = RestMetricsFilterTest.requestCount("TRACE", "5xx");
+
+        servletFilter.doFilter(request, response, (req, resp) -> {
+            jaxrsFilter.filter(jaxRsRequest("TRACE"));
+            req.startAsync();
+        });
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.timeout();
+        asyncContext.error(new IOException("broken"));
+        asyncContext.complete();
+
+        Assert.assertEquals(inFlight, RestMetricsFilterTest.inFlight("TRACE"), 0);
+        Assert.assertEquals(count + 1, RestMetricsFilterTest.requestCount("TRACE", "5xx"), 0);
+    }
+
+    /**
+     * Creates the JAX-RS view of the servlet request - in a servlet container the request
+     * properties are the servlet request attributes.
+     * @param method
+     */
+    private MockContainerRequestContext jaxRsRequest(String method) {
+        return new MockContainerRequestContext(method, -1, request.getAttributes());
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.apicurio.hub.api.metrics.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Driver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.connectors.RateLimiter;
+import io.apicurio.hub.api.connectors.SourceConnectorException;
+import io.apicurio.hub.api.gitlab.GitLabSourceConnector;
+import io.apicurio.hub.api.js.OaiCommandExecutor;
+import io.apicurio.hub.api.js.OaiCommandExecutorTest;
+import io.apicurio.hub.api.js.ScriptEnginePool;
+import io.apicurio.hub.api.storage.jdbc.JdbcStorage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.MockSecurityContext;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * Checks the events emitted by the real code paths (SQL statements, source connector calls
+ * and the script engine) while JFR events are enabled.  Because {@link JfrEvents#ENABLED}
+ * is decided when the class is loaded, this test runs in its own surefire execution with
+ * "apicurio.hub.jfr.events.enabled" set (see the pom).
+ * @author eric.wittmann@gmail.com
+ */
+public class JfrEventsEnabledTest {
+
+    private static final String GROUPS = "[{\"id\":1,\"name\":\"Group 1\",\"path\":\"group-1\"}]";
+
+    private Recording recording;
+    private File dump;
+
+    @Before
+    public void setUp() throws Exception {
+        Assert.assertTrue("JFR events should be enabled for this test.", JfrEvents.ENABLED);
+        dump = File.createTempFile("apicurio-", ".jfr");
+        recording = new Recording();
+        recording.enable(SqlStatementEvent.class).withoutThreshold();
+        recording.enable(ConnectorCallEvent.class).withoutThreshold();
+        recording.enable(ScriptEngineCreatedEvent.class).withoutThreshold();
+        recording.enable(ExecuteCommandsEvent.class).withoutThreshold();
+        recording.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        recording.close();
+        dump.delete();
+    }
+
+    @Test
+    public void testSqlStatement() throws Exception {
+        BasicDataSource ds = new BasicDataSource();
+        ds.setDriverClassName(Driver.class.getName());
+        ds.setUsername("sa");
+        ds.setPassword("");
+        ds.setUrl("jdbc:h2:mem:jfr;DB_CLOSE_DELAY=-1");
+        try {
+            JdbcStorage storage = new JdbcStorage();
+            TestUtil.setPrivateField(storage, "config", new HubApiConfiguration());
+            TestUtil.setPrivateField(storage, "dataSource", ds);
+            TestUtil.setPrivateField(storage, "metrics", new MockMetrics());
+            storage.postConstruct();
+
+            ApiDesign design = new ApiDesign();
+            Date now = new Date();
+            design.setCreatedBy("user");
+            design.setCreatedOn(now);
+            design.setDescription("Recorded.");
+            design.setModifiedBy("user");
+            design.setModifiedOn(now);
+            design.setName("API JFR");
+            design.setRepositoryUrl("urn://JfrEventsEnabledTest.testSqlStatement");
+            storage.createApiDesign("user", design);
+        } finally {
+            ds.close();
+        }
+
+        List<RecordedEvent> events = stop("io.apicurio.hub.SqlStatement");
+        RecordedEvent event = find(events, "statement", "insertApiDesign");
+        Assert.assertEquals(1, event.getLong("rows"));
+        Assert.assertTrue(event.getLong("executionTime") >= 0);
+    }
+
+    @Test
+    public void testConnectorCall() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v4/groups", exchange -> {
+            byte[] body = GROUPS.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        HubApiConfiguration config = new HubApiConfiguration();
+        MockMetrics metrics = new MockMetrics();
+        HttpClientProvider httpClientProvider = new HttpClientProvider();
+        try {
+            GitLabSourceConnector connector = new GitLabSourceConnector() {
+                @Override
+                protected String getBaseApiEndpointUrl() {
+                    return baseUrl;
+                }
+                @Override
+                protected String getExternalToken() throws SourceConnectorException {
+                    return "token";
+                }
+                @Override
+                protected Object getExternalTokenType() {
+                    return GitLabSourceConnector.TOKEN_TYPE_PAT;
+                }
+            };
+            TestUtil.setPrivateField(connector, "security", new MockSecurityContext());
+            TestUtil.setPrivateField(connector, "config", config);
+            TestUtil.setPrivateField(connector, "metrics", metrics);
+
+            TestUtil.setPrivateField(httpClientProvider, "config", config);
+            TestUtil.setPrivateField(httpClientProvider, "metrics", metrics);
+            httpClientProvider.postConstruct();
+            TestUtil.setPrivateField(connector, "httpClientProvider", httpClientProvider);
+
+            RateLimiter rateLimiter = new RateLimiter();
+            TestUtil.setPrivateField(rateLimiter, "config", config);
+            TestUtil.setPrivateField(rateLimiter, "metrics", metrics);
+            rateLimiter.postConstruct();
+            TestUtil.setPrivateField(connector, "rateLimiter", rateLimiter);
+
+            Assert.assertEquals(1, connector.getGroups().size());
+        } finally {
+            httpClientProvider.preDestroy();
+            server.stop(0);
+        }
+
+        List<RecordedEvent> events = stop("io.apicurio.hub.ConnectorCall");
+        Assert.assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        Assert.assertEquals("GitLab", event.getString("provider"));
+        Assert.assertEquals("listOrgs", event.getString("operation"));
+        Assert.assertEquals("GET", event.getString("method"));
+        Assert.assertEquals(0, event.getInt("attempt"));
+        Assert.assertEquals("200", event.getString("result"));
+    }
+
+    @Test
+    public void testScriptEngine() throws Exception {
+        ScriptEnginePool enginePool = new ScriptEnginePool();
+        TestUtil.setPrivateField(enginePool, "config", new HubApiConfiguration());
+        enginePool.postConstruct();
+        OaiCommandExecutor executor = new OaiCommandExecutor();
+        TestUtil.setPrivateField(executor, "enginePool", enginePool);
+
+        String document = "{\"openapi\": \"3.0.0\"}";
+        String command = IOUtils.toString(OaiCommandExecutorTest.class.getResource("change-title.command.json"));
+        executor.executeCommands(document, Collections.singletonList(command));
+
+        List<RecordedEvent> events = stop("io.apicurio.hub.ScriptEngineCreated");
+        Assert.assertFalse(events.isEmpty());
+
+        events = read("io.apicurio.hub.ExecuteCommands");
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(1, events.get(0).getInt("commandCount"));
+        Assert.assertEquals(document.length(), events.get(0).getLong("documentSize"));
+    }
+
+    /**
+     * Stops the recording and returns the recorded events of the given type.
+     * @param eventName
+     * @throws IOException
+     */
+    private List<RecordedEvent> stop(String eventName) throws IOException {
+        recording.stop();
+        recording.dump(dump.toPath());
+        return read(eventName);
+    }
+
+    /**
+     * Returns the events of the given type from the (stopped) recording.
+     * @param eventName
+     * @throws IOException
+     */
+    private List<RecordedEvent> read(String eventName) throws IOException {
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump.toPath())) {
+            if (event.getEventType().getName().equals(eventName)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String field, String value) {
+        for (RecordedEvent event : events) {
+            if (value.equals(event.getString(field))) {
+                return event;
+            }
+        }
+        Assert.fail("No event with " + field + "=" + value + " in " + events);
+        return null;
+    }
+
+}
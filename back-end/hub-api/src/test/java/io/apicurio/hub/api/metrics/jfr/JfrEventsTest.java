@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.metrics.jfr;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class JfrEventsTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        Assert.assertFalse(JfrEvents.ENABLED);
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        File dump = File.createTempFile("apicurio-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SqlStatementEvent.class);
+            recording.enable(ConnectorCallEvent.class);
+            recording.enable(ExecuteCommandsEvent.class);
+            recording.start();
+
+            SqlStatementEvent sqlEvent = new SqlStatementEvent();
+            sqlEvent.statement = "insertApiDesign";
+            sqlEvent.rows = 1;
+            sqlEvent.executionTime = 1000;
+            sqlEvent.commit();
+
+            ConnectorCallEvent callEvent = new ConnectorCallEvent();
+            callEvent.begin();
+            callEvent.provider = "GitHub";
+            callEvent.operation = "getContent";
+            callEvent.method = "GET";
+            callEvent.attempt = 0;
+            callEvent.result = "200";
+            callEvent.commit();
+
+            ExecuteCommandsEvent commandsEvent = new ExecuteCommandsEvent();
+            commandsEvent.begin();
+            commandsEvent.commandCount = 3;
+            commandsEvent.documentSize = 2048;
+            commandsEvent.commit();
+
+            recording.stop();
+            recording.dump(dump.toPath());
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump.toPath());
+            Assert.assertEquals(3, events.size());
+            RecordedEvent event = find(events, "io.apicurio.hub.SqlStatement");
+            Assert.assertEquals("insertApiDesign", event.getString("statement"));
+            Assert.assertEquals(1, event.getLong("rows"));
+            event = find(events, "io.apicurio.hub.ConnectorCall");
+            Assert.assertEquals("GitHub", event.getString("provider"));
+            Assert.assertEquals("getContent", event.getString("operation"));
+            Assert.assertEquals("200", event.getString("result"));
+            event = find(events, "io.apicurio.hub.ExecuteCommands");
+            Assert.assertEquals(3, event.getInt("commandCount"));
+            Assert.assertEquals(2048, event.getLong("documentSize"));
+        } finally {
+            dump.delete();
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                return event;
+            }
+        }
+        Assert.fail("Event not recorded: " + name);
+        return null;
+    }
+
+}
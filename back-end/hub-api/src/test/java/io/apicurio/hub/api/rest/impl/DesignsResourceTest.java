@@ -16,38 +16,56 @@
 
 package io.apicurio.hub.api.rest.impl;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
 
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.codec.binary.Base64;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpServer;
+
 import io.apicurio.hub.api.beans.AddApiDesign;
 import io.apicurio.hub.api.beans.ApiDesign;
 import io.apicurio.hub.api.beans.Collaborator;
 import io.apicurio.hub.api.beans.NewApiDesign;
 import io.apicurio.hub.api.beans.UpdateApiDesign;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.connectors.ConnectorExecutor;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.connectors.RateLimiter;
+import io.apicurio.hub.api.connectors.SourceConnectorException;
 import io.apicurio.hub.api.connectors.SourceConnectorFactory;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
 import io.apicurio.hub.api.exceptions.ServerError;
+import io.apicurio.hub.api.gitlab.GitLabSourceConnector;
 import io.apicurio.hub.api.rest.IDesignsResource;
+import test.io.apicurio.hub.api.MockAsyncResponse;
 import test.io.apicurio.hub.api.MockGitHubService;
-import test.io.apicurio.hub.api.MockHttpServletRequest;
-import test.io.apicurio.hub.api.MockHttpServletResponse;
 import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.MockSecurityContext;
 import test.io.apicurio.hub.api.MockStorage;
 import test.io.apicurio.hub.api.TestUtil;
+import test.io.apicurio.studio.shared.servlet.MockHttpServletRequest;
 
 /**
  * @author eric.wittmann@gmail.com
@@ -61,6 +79,7 @@ public class DesignsResourceTest {
     private MockGitHubService github;
     private SourceConnectorFactory sourceConnectorFactory;
     private MockMetrics metrics;
+    private ConnectorExecutor executor;
 
     @Before
     public void setUp() {
@@ -74,32 +93,59 @@ public class DesignsResourceTest {
         github = new MockGitHubService();
         TestUtil.setPrivateField(sourceConnectorFactory, "gitHub", github);
 
+        executor = new ConnectorExecutor();
+        TestUtil.setPrivateField(executor, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(executor, "security", security);
+        executor.postConstruct();
+
         TestUtil.setPrivateField(resource, "storage", storage);
         TestUtil.setPrivateField(resource, "sourceConnectorFactory", sourceConnectorFactory);
         TestUtil.setPrivateField(resource, "security", security);
         TestUtil.setPrivateField(resource, "metrics", metrics);
+        TestUtil.setPrivateField(resource, "executor", executor);
     }
     
     @After
     public void tearDown() throws Exception {
+        executor.preDestroy();
+    }
+
+    /**
+     * Adds a design and waits for the (asynchronous) result.
+     * @param info
+     */
+    private ApiDesign addDesign(AddApiDesign info) throws Exception {
+        MockAsyncResponse response = new MockAsyncResponse();
+        resource.addDesign(info, response);
+        return (ApiDesign) response.get();
+    }
+
+    /**
+     * Creates a design and waits for the (asynchronous) result.
+     * @param info
+     */
+    private ApiDesign createDesign(NewApiDesign info) throws Exception {
+        MockAsyncResponse response = new MockAsyncResponse();
+        resource.createDesign(info, response);
+        return (ApiDesign) response.get();
     }
 
     @Test
     public void testListDesignsEmpty() throws ServerError {
-        Collection<ApiDesign> apis = resource.listDesigns();
+        Collection<ApiDesign> apis = resource.listDesigns(null, null, null, null, null, null);
         Assert.assertNotNull(apis);
     }
 
     @Test
-    public void testListDesigns() throws ServerError, AlreadyExistsException, NotFoundException {
+    public void testListDesigns() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        resource.addDesign(info);
+        addDesign(info);
         info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/apiman-rls/apiman-rls.json");
-        resource.addDesign(info);
+        addDesign(info);
         
-        Collection<ApiDesign> apis = resource.listDesigns();
+        Collection<ApiDesign> apis = resource.listDesigns(null, null, null, null, null, null);
         Assert.assertNotNull(apis);
         Assert.assertEquals(2, apis.size());
         
@@ -132,10 +178,36 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testAddDesign() throws ServerError, AlreadyExistsException, NotFoundException {
+    public void testListDesignsPaged() throws Exception {
+        AddApiDesign info = new AddApiDesign();
+        info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
+        addDesign(info);
+        info = new AddApiDesign();
+        info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/apiman-rls/apiman-rls.json");
+        addDesign(info);
+        
+        Collection<ApiDesign> apis = resource.listDesigns(0, 1, "name", null, null, null);
+        Assert.assertEquals(1, apis.size());
+        Assert.assertEquals("apiman-rls.json", apis.iterator().next().getName());
+        
+        apis = resource.listDesigns(1, 1, "name", null, null, null);
+        Assert.assertEquals(1, apis.size());
+        Assert.assertEquals("pet-store.json", apis.iterator().next().getName());
+        
+        apis = resource.listDesigns(null, null, "name", null, "PET", null);
+        Assert.assertEquals(1, apis.size());
+        Assert.assertEquals("pet-store.json", apis.iterator().next().getName());
+        
+        Assert.assertEquals(2, resource.countDesigns(null, null));
+        Assert.assertEquals(1, resource.countDesigns(null, "apiman"));
+        Assert.assertEquals(0, resource.countDesigns(null, "nothing"));
+    }
+
+    @Test
+    public void testAddDesign() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        ApiDesign design = resource.addDesign(info);
+        ApiDesign design = addDesign(info);
         Assert.assertNotNull(design);
         Assert.assertEquals(info.getRepositoryUrl(), design.getRepositoryUrl());
         Assert.assertEquals("1", design.getId());
@@ -144,7 +216,7 @@ public class DesignsResourceTest {
         Assert.assertEquals(design.getCreatedOn(), design.getModifiedOn());
         
         try {
-            resource.addDesign(info);
+            addDesign(info);
             Assert.fail("Expected an error: AlreadyExistsException");
         } catch (AlreadyExistsException e) {
             // OK, expected
@@ -161,13 +233,13 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testCreateDesign() throws ServerError, AlreadyExistsException {
+    public void testCreateDesign() throws Exception {
         NewApiDesign info = new NewApiDesign();
         info.setSpecVersion("2.0");
         info.setName("My API");
         info.setDescription("Description of my API.");
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/my-api/new-api.json");
-        ApiDesign design = resource.createDesign(info);
+        ApiDesign design = createDesign(info);
         Assert.assertNotNull(design);
         Assert.assertEquals(info.getRepositoryUrl(), design.getRepositoryUrl());
         Assert.assertEquals(info.getName(), design.getName());
@@ -178,7 +250,7 @@ public class DesignsResourceTest {
         Assert.assertEquals(design.getCreatedOn(), design.getModifiedOn());
         
         try {
-            resource.createDesign(info);
+            createDesign(info);
             Assert.fail("Expected an error: AlreadyExistsException");
         } catch (AlreadyExistsException e) {
             // OK, expected
@@ -197,10 +269,10 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testDeleteDesign() throws ServerError, AlreadyExistsException, NotFoundException {
+    public void testDeleteDesign() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        ApiDesign design = resource.addDesign(info);
+        ApiDesign design = addDesign(info);
         String designId = design.getId();
         Assert.assertEquals("1", designId);
 
@@ -223,10 +295,10 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testUpdateDesign() throws ServerError, AlreadyExistsException, NotFoundException, InterruptedException {
+    public void testUpdateDesign() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        ApiDesign design = resource.addDesign(info);
+        ApiDesign design = addDesign(info);
         Assert.assertEquals(info.getRepositoryUrl(), design.getRepositoryUrl());
         Assert.assertEquals("1", design.getId());
         Assert.assertEquals("user", design.getCreatedBy());
@@ -269,12 +341,15 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testGetCollaborators() throws ServerError, AlreadyExistsException, NotFoundException, InterruptedException {
+    public void testGetCollaborators() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        resource.addDesign(info);
+        addDesign(info);
 
-        Collection<Collaborator> collaborators = resource.getCollaborators("1");
+        MockAsyncResponse collaboratorsResponse = new MockAsyncResponse();
+        resource.getCollaborators("1", collaboratorsResponse);
+        @SuppressWarnings("unchecked")
+        Collection<Collaborator> collaborators = (Collection<Collaborator>) collaboratorsResponse.get();
         Assert.assertNotNull(collaborators);
         Assert.assertFalse(collaborators.isEmpty());
         Assert.assertEquals(2, collaborators.size());
@@ -294,12 +369,14 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testGetContent() throws ServerError, AlreadyExistsException, NotFoundException, InterruptedException {
+    public void testGetContent() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        ApiDesign design = resource.addDesign(info);
+        ApiDesign design = addDesign(info);
         
-        Response content = resource.getContent(design.getId());
+        MockAsyncResponse contentResponse = new MockAsyncResponse();
+        resource.getContent(design.getId(), null, contentResponse);
+        Response content = (Response) contentResponse.get();
         Assert.assertNotNull(content);
         Assert.assertEquals(new MediaType("application", "json", "utf-8"), content.getMediaType());
         Assert.assertEquals(703, content.getLength());
@@ -316,10 +393,142 @@ public class DesignsResourceTest {
     }
 
     @Test
-    public void testUpdateContent() throws ServerError, AlreadyExistsException, NotFoundException, InterruptedException {
+    public void testGetContentNotModified() throws Exception {
+        AddApiDesign info = new AddApiDesign();
+        info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
+        ApiDesign design = addDesign(info);
+        
+        MockAsyncResponse contentResponse = new MockAsyncResponse();
+        resource.getContent(design.getId(), null, contentResponse);
+        Response content = (Response) contentResponse.get();
+        String sha = content.getHeaderString("X-Content-SHA");
+        Assert.assertEquals(new EntityTag(sha), content.getEntityTag());
+
+        // Current version - not modified
+        contentResponse = new MockAsyncResponse();
+        resource.getContent(design.getId(), "\"" + sha + "\"", contentResponse);
+        content = (Response) contentResponse.get();
+        Assert.assertEquals(304, content.getStatus());
+        Assert.assertNull(content.getEntity());
+        Assert.assertEquals(new EntityTag(sha), content.getEntityTag());
+
+        // Old version - the current content is fetched
+        contentResponse = new MockAsyncResponse();
+        resource.getContent(design.getId(), "\"0123456789\"", contentResponse);
+        content = (Response) contentResponse.get();
+        Assert.assertEquals(200, content.getStatus());
+        Assert.assertEquals(MockGitHubService.STATIC_CONTENT, content.getEntity());
+
+        String ghLog = github.auditLog();
+        Assert.assertEquals(
+                "---\n" + 
+                "validateResourceExists::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "getResourceContent::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "getResourceSha::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "getResourceSha::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "getResourceContent::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "---", 
+                ghLog);
+    }
+
+    @Test
+    public void testGetContentNotModifiedGitLab() throws Exception {
+        String commitId = "7d3e6a1f90c2b4d8e5f6a7b8c9d0e1f2a3b4c5d6";
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v4/projects/", exchange -> {
+            calls.add(exchange.getRequestMethod());
+            exchange.getResponseHeaders().add("X-Gitlab-Commit-Id", commitId);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                String b64Content = Base64.encodeBase64String(MockGitHubService.STATIC_CONTENT.getBytes(StandardCharsets.UTF_8));
+                byte[] body = ("{\"file_path\":\"pet-store/pet-store.json\",\"content\":\"" + b64Content + 
+                        "\",\"commit_id\":\"" + commitId + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        HubApiConfiguration config = new HubApiConfiguration();
+        HttpClientProvider httpClientProvider = new HttpClientProvider();
+        TestUtil.setPrivateField(httpClientProvider, "config", config);
+        TestUtil.setPrivateField(httpClientProvider, "metrics", metrics);
+        httpClientProvider.postConstruct();
+        RateLimiter rateLimiter = new RateLimiter();
+        TestUtil.setPrivateField(rateLimiter, "config", config);
+        TestUtil.setPrivateField(rateLimiter, "metrics", metrics);
+        rateLimiter.postConstruct();
+        GitLabSourceConnector gitlab = new GitLabSourceConnector() {
+            @Override
+            protected Endpoint endpoint(String path) {
+                // Only the API calls go to the local server
+                return path.startsWith("/api/") ? new Endpoint(baseUrl + path) : super.endpoint(path);
+            }
+            @Override
+            protected String getExternalToken() throws SourceConnectorException {
+                return "TOKEN";
+            }
+        };
+        TestUtil.setPrivateField(gitlab, "config", config);
+        TestUtil.setPrivateField(gitlab, "security", security);
+        TestUtil.setPrivateField(gitlab, "httpClientProvider", httpClientProvider);
+        TestUtil.setPrivateField(gitlab, "rateLimiter", rateLimiter);
+        TestUtil.setPrivateField(gitlab, "metrics", metrics);
+        TestUtil.setPrivateField(sourceConnectorFactory, "gitLab", gitlab);
+
+        try {
+            AddApiDesign info = new AddApiDesign();
+            info.setRepositoryUrl("https://gitlab.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
+            ApiDesign design = addDesign(info);
+
+            MockAsyncResponse contentResponse = new MockAsyncResponse();
+            resource.getContent(design.getId(), null, contentResponse);
+            Response content = (Response) contentResponse.get();
+            Assert.assertEquals(200, content.getStatus());
+            Assert.assertEquals(MockGitHubService.STATIC_CONTENT, content.getEntity());
+            Assert.assertEquals(commitId, content.getHeaderString("X-Content-SHA"));
+            EntityTag etag = content.getEntityTag();
+            Assert.assertEquals(new EntityTag(commitId), etag);
+
+            // The ETag sent back is matched against the SHA from the (HEAD) meta-data
+            contentResponse = new MockAsyncResponse();
+            resource.getContent(design.getId(), etag.toString(), contentResponse);
+            content = (Response) contentResponse.get();
+            Assert.assertEquals(304, content.getStatus());
+            Assert.assertNull(content.getEntity());
+            Assert.assertEquals(etag, content.getEntityTag());
+
+            Assert.assertEquals(Arrays.asList("GET", "GET", "HEAD"), calls);
+        } finally {
+            httpClientProvider.preDestroy();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testMatchesETag() {
+        Assert.assertTrue(DesignsResource.matchesETag("\"abc\"", "abc"));
+        Assert.assertTrue(DesignsResource.matchesETag("W/\"abc\"", "abc"));
+        Assert.assertTrue(DesignsResource.matchesETag("\"xyz\", \"abc\"", "abc"));
+        Assert.assertTrue(DesignsResource.matchesETag("*", "abc"));
+        Assert.assertTrue(DesignsResource.matchesETag("\"abc-gzip\"", "abc"));
+        Assert.assertTrue(DesignsResource.matchesETag("W/\"abc-gzip\"", "abc"));
+        Assert.assertFalse(DesignsResource.matchesETag("\"abcd\"", "abc"));
+        Assert.assertFalse(DesignsResource.matchesETag("", "abc"));
+    }
+
+    @Test
+    public void testUpdateContent() throws Exception {
         AddApiDesign info = new AddApiDesign();
         info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
-        ApiDesign design = resource.addDesign(info);
+        ApiDesign design = addDesign(info);
         
         String content = MockGitHubService.STATIC_CONTENT;
         Map<String, String> headers = new HashMap<>();
@@ -329,9 +538,9 @@ public class DesignsResourceTest {
         headers.put("X-Apicurio-CommitComment", "Just a comment.");
         MockHttpServletRequest request = new MockHttpServletRequest(headers, content);
         TestUtil.setPrivateField(resource, "request", request);
-        MockHttpServletResponse response = new MockHttpServletResponse();
-        TestUtil.setPrivateField(resource, "response", response);
-        resource.updateContent(design.getId());
+        MockAsyncResponse updateResponse = new MockAsyncResponse();
+        resource.updateContent(design.getId(), updateResponse);
+        Response response = (Response) updateResponse.get();
         
         String ghLog = github.auditLog();
         Assert.assertNotNull(ghLog);
@@ -341,7 +550,36 @@ public class DesignsResourceTest {
                 "updateResourceContent::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json::UpdateApiNow!::Just a comment.::0123456789::-1073691667\n" + 
                 "---", 
                 ghLog);
-        Assert.assertNotNull(response.getHeader("X-Content-SHA"));
+        Assert.assertNotNull(response.getHeaderString("X-Content-SHA"));
+    }
+
+    @Test
+    public void testUpdateContentWithLongTag() throws Exception {
+        AddApiDesign info = new AddApiDesign();
+        info.setRepositoryUrl("https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json");
+        ApiDesign design = addDesign(info);
+
+        String content = "{\"openapi\":\"3.0.0\",\"tags\":[{\"name\":\"" + new String(new char[ApiDesign.MAX_TAG_LENGTH + 1]).replace('\0', 'x') + "\"}]}";
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("X-Content-SHA", "0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest(headers, content);
+        TestUtil.setPrivateField(resource, "request", request);
+        MockAsyncResponse updateResponse = new MockAsyncResponse();
+        resource.updateContent(design.getId(), updateResponse);
+        try {
+            updateResponse.get();
+            Assert.fail("Expected a BadRequestException.");
+        } catch (BadRequestException e) {
+            // expected
+        }
+
+        // Nothing was committed to the provider
+        Assert.assertEquals(
+                "---\n" + 
+                "validateResourceExists::https://github.com/Apicurio/api-samples/blob/master/pet-store/pet-store.json\n" + 
+                "---", 
+                github.auditLog());
     }
 
 }
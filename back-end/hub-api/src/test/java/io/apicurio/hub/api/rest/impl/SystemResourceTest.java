@@ -16,6 +16,8 @@
 
 package io.apicurio.hub.api.rest.impl;
 
+import javax.ws.rs.core.Response;
+
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -24,6 +26,8 @@ import org.junit.Test;
 import io.apicurio.hub.api.Version;
 import io.apicurio.hub.api.beans.SystemReady;
 import io.apicurio.hub.api.beans.SystemStatus;
+import io.apicurio.hub.api.connectors.HttpClientProvider;
+import io.apicurio.hub.api.js.ScriptEnginePool;
 import io.apicurio.hub.api.rest.ISystemResource;
 import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.MockSecurityContext;
@@ -52,6 +56,18 @@ public class SystemResourceTest {
         TestUtil.setPrivateField(resource, "version", version);
         TestUtil.setPrivateField(resource, "security", new MockSecurityContext());
         TestUtil.setPrivateField(resource, "metrics", metrics);
+        TestUtil.setPrivateField(resource, "scriptEnginePool", new ScriptEnginePool() {
+            @Override
+            public boolean isWarmedUp() {
+                return true;
+            }
+        });
+        TestUtil.setPrivateField(resource, "httpClientProvider", new HttpClientProvider() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+        });
     }
     
     @After
@@ -68,9 +84,24 @@ public class SystemResourceTest {
 
     @Test
     public void testReady() {
-        SystemReady ready = resource.getReady();
+        Response response = resource.getReady();
+        Assert.assertEquals(200, response.getStatus());
+        SystemReady ready = (SystemReady) response.getEntity();
         Assert.assertNotNull(ready);
         Assert.assertEquals(true, ready.isUp());
     }
 
+    @Test
+    public void testNotReady() {
+        TestUtil.setPrivateField(resource, "storage", new MockStorage() {
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+        });
+        Response response = resource.getReady();
+        Assert.assertEquals(503, response.getStatus());
+        Assert.assertEquals(false, ((SystemReady) response.getEntity()).isUp());
+    }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class KeycloakLinkedAccountsProviderTest {
+
+    private static final long DEFAULT_TTL = 600000;
+    private static final long NOW = 1500000000000L;
+
+    @Test
+    public void testTokenTtlUnknownExpiry() {
+        // GitHub style (form encoded) response - the token never expires
+        String response = "access_token=298cc1f917075a955a7bbbff23f67a72e5d6cba7&scope=repo%2Cuser%3Aemail&token_type=bearer";
+        Assert.assertEquals(DEFAULT_TTL, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+    }
+
+    @Test
+    public void testTokenTtlExpiration() {
+        // OIDC style response - Keycloak reports the absolute expiration time (in seconds)
+        String response = "{\"access_token\":\"abc\",\"expires_in\":3600,\"refresh_expires_in\":0,\"accessTokenExpiration\":" 
+                + (NOW / 1000 + 120) + "}";
+        Assert.assertEquals(90000, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+
+        // Already expired
+        response = "{\"access_token\":\"abc\",\"accessTokenExpiration\":" + (NOW / 1000 - 10) + "}";
+        Assert.assertEquals(0, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+    }
+
+    @Test
+    public void testTokenTtlExpiresIn() {
+        // expires_in can only shorten the default TTL
+        String response = "{\"access_token\":\"abc\",\"refresh_expires_in\":1800,\"expires_in\":300}";
+        Assert.assertEquals(270000, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+        response = "access_token=abc&expires_in=7200&token_type=bearer";
+        Assert.assertEquals(DEFAULT_TTL, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+        // refresh_expires_in alone is not the token's expiry
+        response = "{\"access_token\":\"abc\",\"refresh_expires_in\":60}";
+        Assert.assertEquals(DEFAULT_TTL, KeycloakLinkedAccountsProvider.tokenTtl(response, DEFAULT_TTL, NOW));
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.hub.api.storage;
+
+import java.util.Collection;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.apicurio.hub.api.beans.ApiDesign;
+import io.apicurio.hub.api.cache.ApiDesignCache;
+import io.apicurio.hub.api.config.HubApiConfiguration;
+import io.apicurio.hub.api.exceptions.NotFoundException;
+import test.io.apicurio.hub.api.MockMetrics;
+import test.io.apicurio.hub.api.MockStorage;
+import test.io.apicurio.hub.api.TestUtil;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class CachingStorageTest {
+
+    private CountingStorage delegate;
+    private CachingStorage storage;
+
+    @Before
+    public void setUp() {
+        delegate = new CountingStorage();
+        storage = createStorage(delegate);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("apicurio.hub.storage.cache.ttl");
+        System.clearProperty("apicurio.hub.storage.jdbc.read-datasource");
+        System.clearProperty("apicurio.hub.storage.jdbc.read-pin-window");
+    }
+
+    @Test
+    public void testGetApiDesign() throws Exception {
+        String designId = storage.createApiDesign("user", createDesign("testGetApiDesign"));
+
+        ApiDesign design = storage.getApiDesign("user", designId);
+        Assert.assertEquals("API testGetApiDesign", design.getName());
+        design.setName("Changed by the caller");
+        design.getTags().add("changed");
+
+        design = storage.getApiDesign("user", designId);
+        Assert.assertEquals("API testGetApiDesign", design.getName());
+        Assert.assertTrue(design.getTags().isEmpty());
+        Assert.assertEquals(1, delegate.gets);
+
+        // Each user has their own entry (they may not have the same access)
+        storage.getApiDesign("other", designId);
+        Assert.assertEquals(2, delegate.gets);
+    }
+
+    @Test
+    public void testGetApiDesignNotFound() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                storage.getApiDesign("user", "12345");
+                Assert.fail("Expected a NotFoundException");
+            } catch (NotFoundException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(2, delegate.gets);
+    }
+
+    @Test
+    public void testUpdateApiDesign() throws Exception {
+        String designId = storage.createApiDesign("user", createDesign("testUpdateApiDesign"));
+        storage.getApiDesign("user", designId);
+        storage.getApiDesign("other", designId);
+        Assert.assertEquals(2, storage.listApiDesigns("other").size() + storage.listApiDesigns("user").size());
+
+        ApiDesign design = storage.getApiDesign("user", designId);
+        design.setName("Updated");
+        storage.updateApiDesign("user", design);
+        int gets = delegate.gets;
+
+        // All entries for the design are gone, for all users
+        Assert.assertEquals("Updated", storage.getApiDesign("user", designId).getName());
+        Assert.assertEquals("Updated", storage.getApiDesign("other", designId).getName());
+        Assert.assertEquals(gets + 2, delegate.gets);
+        Assert.assertEquals("Updated", storage.listApiDesigns("other").iterator().next().getName());
+        Assert.assertEquals(3, delegate.lists);
+    }
+
+    @Test
+    public void testListApiDesigns() throws Exception {
+        Assert.assertTrue(storage.listApiDesigns("user").isEmpty());
+        Assert.assertTrue(storage.listApiDesigns("user").isEmpty());
+        Assert.assertEquals(1, delegate.lists);
+
+        // Creating a design invalidates the creator's list
+        String designId = storage.createApiDesign("user", createDesign("testListApiDesigns"));
+        Assert.assertEquals(1, storage.listApiDesigns("user").size());
+        Collection<ApiDesign> designs = storage.listApiDesigns("user");
+        Assert.assertEquals(1, designs.size());
+        designs.clear();
+        Assert.assertEquals(1, storage.listApiDesigns("user").size());
+        Assert.assertEquals(2, delegate.lists);
+
+        // Deleting a design invalidates every list that contains it
+        storage.listApiDesigns("other");
+        storage.deleteApiDesign("user", designId);
+        Assert.assertTrue(storage.listApiDesigns("user").isEmpty());
+        Assert.assertTrue(storage.listApiDesigns("other").isEmpty());
+        Assert.assertEquals(5, delegate.lists);
+    }
+
+    @Test
+    public void testReadReplica() throws Exception {
+        System.setProperty("apicurio.hub.storage.jdbc.read-datasource", "java:jboss/datasources/ApicurioReplicaDS");
+        System.setProperty("apicurio.hub.storage.jdbc.read-pin-window", "200");
+        storage = createStorage(delegate);
+
+        String designId = storage.createApiDesign("user", createDesign("testReadReplica"));
+        ApiDesign design = storage.getApiDesign("other", designId);
+        storage.getApiDesign("other", designId);
+        Assert.assertEquals(1, delegate.gets);
+
+        // Right after a write the replica may lag behind, so what it returns is not cached
+        design.setName("Updated");
+        storage.updateApiDesign("user", design);
+        int gets = delegate.gets;
+        storage.getApiDesign("other", designId);
+        storage.getApiDesign("other", designId);
+        Assert.assertEquals(gets + 2, delegate.gets);
+        storage.listApiDesigns("user");
+        storage.listApiDesigns("user");
+        Assert.assertEquals(2, delegate.lists);
+
+        // ...but it is once the replica has had time to catch up
+        Thread.sleep(250);
+        storage.getApiDesign("other", designId);
+        storage.getApiDesign("other", designId);
+        Assert.assertEquals(gets + 3, delegate.gets);
+        storage.listApiDesigns("user");
+        storage.listApiDesigns("user");
+        Assert.assertEquals(3, delegate.lists);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        System.setProperty("apicurio.hub.storage.cache.ttl", "0");
+        storage = createStorage(delegate);
+
+        String designId = storage.createApiDesign("user", createDesign("testDisabled"));
+        storage.getApiDesign("user", designId);
+        storage.getApiDesign("user", designId);
+        storage.listApiDesigns("user");
+        storage.listApiDesigns("user");
+        Assert.assertEquals(2, delegate.gets);
+        Assert.assertEquals(2, delegate.lists);
+    }
+
+    private static CachingStorage createStorage(IStorage delegate) {
+        ApiDesignCache cache = new ApiDesignCache();
+        TestUtil.setPrivateField(cache, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(cache, "metrics", new MockMetrics());
+        cache.postConstruct();
+
+        CachingStorage storage = new CachingStorage();
+        TestUtil.setPrivateField(storage, "delegate", delegate);
+        TestUtil.setPrivateField(storage, "cache", cache);
+        return storage;
+    }
+
+    private static ApiDesign createDesign(String name) {
+        ApiDesign design = new ApiDesign();
+        Date now = new Date();
+        design.setName("API " + name);
+        design.setDescription("A design.");
+        design.setRepositoryUrl("urn://CachingStorageTest." + name);
+        design.setCreatedBy("user");
+        design.setCreatedOn(now);
+        design.setModifiedBy("user");
+        design.setModifiedOn(now);
+        return design;
+    }
+
+    /**
+     * Counts the number of times the (cached) read methods are called.
+     */
+    private static class CountingStorage extends MockStorage {
+
+        private int gets;
+        private int lists;
+
+        /**
+         * @see test.io.apicurio.hub.api.MockStorage#getApiDesign(java.lang.String, java.lang.String)
+         */
+        @Override
+        public ApiDesign getApiDesign(String userId, String designId) throws NotFoundException, StorageException {
+            gets++;
+            return super.getApiDesign(userId, designId);
+        }
+
+        /**
+         * @see test.io.apicurio.hub.api.MockStorage#listApiDesigns(java.lang.String)
+         */
+        @Override
+        public Collection<ApiDesign> listApiDesigns(String userId) throws StorageException {
+            lists++;
+            return super.listApiDesigns(userId);
+        }
+
+    }
+
+}
@@ -16,12 +16,18 @@
 
 package io.apicurio.hub.api.storage.jdbc;
 
+import java.sql.Connection;
 import java.sql.Driver;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.After;
@@ -35,6 +41,9 @@ import io.apicurio.hub.api.beans.LinkedAccountType;
 import io.apicurio.hub.api.config.HubApiConfiguration;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+import io.apicurio.hub.api.storage.ApiDesignQuery.SortBy;
+import test.io.apicurio.hub.api.MockMetrics;
 import test.io.apicurio.hub.api.TestUtil;
 
 /**
@@ -56,6 +65,7 @@ public class JdbcStorageTest {
         ds = createInMemoryDatasource();
         TestUtil.setPrivateField(storage, "config", new HubApiConfiguration());
         TestUtil.setPrivateField(storage, "dataSource", ds);
+        TestUtil.setPrivateField(storage, "metrics", new MockMetrics());
         storage.postConstruct();
     }
     
@@ -70,6 +80,146 @@ public class JdbcStorageTest {
         // Should not have thrown an error because the DB is already initialized!
     }
 
+    @Test
+    public void testHealth() throws Exception {
+        Assert.assertTrue(storage.isHealthy());
+        Assert.assertTrue(storage.isReady());
+
+        // The result is cached, so losing the database is not noticed right away...
+        ds.close();
+        Assert.assertTrue(storage.isHealthy());
+
+        // ...but is once the cached result has expired.
+        TestUtil.setPrivateField(storage, "healthCacheTtl", 0L);
+        Assert.assertFalse(storage.isHealthy());
+        Assert.assertFalse(storage.isReady());
+    }
+
+    @Test
+    public void testUpgradeDesignTags() throws Exception {
+        // Create a version 2 database (tags stored as CSV) with a couple of designs
+        BasicDataSource oldDs = createInMemoryDatasource();
+        try (Connection connection = oldDs.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE apicurio (prop_name VARCHAR(255) NOT NULL, prop_value VARCHAR(255))");
+            statement.execute("INSERT INTO apicurio (prop_name, prop_value) VALUES ('db_version', 2)");
+            statement.execute("CREATE TABLE accounts (user_id VARCHAR(255) NOT NULL, type VARCHAR(32) NOT NULL, linked_on TIMESTAMP, used_on TIMESTAMP, nonce VARCHAR(255))");
+            statement.execute("CREATE TABLE api_designs (id BIGINT AUTO_INCREMENT NOT NULL PRIMARY KEY, name VARCHAR(255) NOT NULL, description VARCHAR(255) NOT NULL, repository_url VARCHAR(1024) NOT NULL, created_by VARCHAR(255) NOT NULL, created_on TIMESTAMP NOT NULL, modified_by VARCHAR(255) NOT NULL, modified_on TIMESTAMP NOT NULL, tags VARCHAR(2048))");
+            statement.execute("CREATE TABLE acl (user_id VARCHAR(255) NOT NULL, design_id BIGINT NOT NULL, role VARCHAR(255) NOT NULL)");
+            statement.execute("ALTER TABLE acl ADD CONSTRAINT FK_acl_1 FOREIGN KEY (design_id) REFERENCES api_designs (id)");
+            statement.execute("INSERT INTO api_designs (name, description, repository_url, created_by, created_on, modified_by, modified_on, tags) VALUES ('API 1', '', 'urn://api1', 'user', NOW(), 'user', NOW(), 'one, two,two')");
+            statement.execute("INSERT INTO api_designs (name, description, repository_url, created_by, created_on, modified_by, modified_on, tags) VALUES ('API 2', '', 'urn://api2', 'user', NOW(), 'user', NOW(), NULL)");
+            statement.execute("INSERT INTO acl (user_id, design_id, role) VALUES ('user', 1, 'owner')");
+            statement.execute("INSERT INTO acl (user_id, design_id, role) VALUES ('user', 2, 'owner')");
+        }
+
+        try {
+            JdbcStorage upgraded = new JdbcStorage();
+            TestUtil.setPrivateField(upgraded, "config", new HubApiConfiguration());
+            TestUtil.setPrivateField(upgraded, "dataSource", oldDs);
+            TestUtil.setPrivateField(upgraded, "metrics", new MockMetrics());
+            upgraded.postConstruct();
+
+            Assert.assertEquals(new HashSet<String>(Arrays.asList("one", "two")), upgraded.getApiDesign("user", "1").getTags());
+            Assert.assertTrue(upgraded.getApiDesign("user", "2").getTags().isEmpty());
+
+            ApiDesignQuery query = new ApiDesignQuery();
+            query.setTag("two");
+            Assert.assertEquals(Arrays.asList("API 1"), names(upgraded.listApiDesigns("user", query)));
+        } finally {
+            oldDs.close();
+        }
+    }
+
+    @Test
+    public void testResumeDesignTagsMigration() throws Exception {
+        // A current database whose tag migration failed part way:  the version has been
+        // bumped and one of the tags copied, but the legacy column is still there
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE api_designs ADD COLUMN tags VARCHAR(2048)");
+            statement.execute("INSERT INTO api_designs (name, description, repository_url, created_by, created_on, modified_by, modified_on, tags) VALUES ('API 1', '', 'urn://api1', 'user', NOW(), 'user', NOW(), 'one,two')");
+            statement.execute("INSERT INTO acl (user_id, design_id, role) VALUES ('user', 1, 'owner')");
+            statement.execute("INSERT INTO design_tags (design_id, tag) VALUES (1, 'one')");
+        }
+
+        storage.postConstruct();
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("one", "two")), storage.getApiDesign("user", "1").getTags());
+        try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'API_DESIGNS' AND column_name = 'TAGS'")) {
+                rs.next();
+                Assert.assertEquals(0, rs.getInt(1));
+            }
+        }
+
+        // Nothing left to migrate
+        storage.postConstruct();
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("one", "two")), storage.getApiDesign("user", "1").getTags());
+    }
+
+    @Test
+    public void testStatementTiming() throws Exception {
+        List<String> statements = new ArrayList<>();
+        TestUtil.setPrivateField(storage, "metrics", new MockMetrics() {
+            @Override
+            public void sqlStatement(String statement, long durationNanos) {
+                Assert.assertTrue(durationNanos >= 0);
+                statements.add(statement);
+            }
+        });
+        storage.postConstruct();
+        statements.clear();
+
+        storage.listApiDesigns("user");
+        storage.listLinkedAccounts("user");
+        Assert.assertEquals(Arrays.asList("selectApiDesigns", "selectLinkedAccounts"), statements);
+    }
+
+    @Test
+    public void testReadReplica() throws Exception {
+        // An (initialized, but empty) database standing in for a replica that has not caught up yet
+        BasicDataSource replicaDs = createInMemoryDatasource();
+        JdbcStorage replica = new JdbcStorage();
+        TestUtil.setPrivateField(replica, "config", new HubApiConfiguration());
+        TestUtil.setPrivateField(replica, "dataSource", replicaDs);
+        TestUtil.setPrivateField(replica, "metrics", new MockMetrics());
+        replica.postConstruct();
+
+        try {
+            JdbcStorage routed = new JdbcStorage();
+            TestUtil.setPrivateField(routed, "config", new HubApiConfiguration());
+            TestUtil.setPrivateField(routed, "dataSource", ds);
+            TestUtil.setPrivateField(routed, "readDataSource", replicaDs);
+            TestUtil.setPrivateField(routed, "metrics", new MockMetrics());
+            routed.postConstruct();
+
+            ApiDesign design = new ApiDesign();
+            Date now = new Date();
+            design.setCreatedBy("user");
+            design.setCreatedOn(now);
+            design.setDescription("Written to the primary.");
+            design.setModifiedBy("user");
+            design.setModifiedOn(now);
+            design.setName("API Replica");
+            design.setRepositoryUrl("urn://JdbcStorageTest.testReadReplica.1");
+            routed.createApiDesign("user", design);
+            design.setRepositoryUrl("urn://JdbcStorageTest.testReadReplica.2");
+            routed.createApiDesign("other", design);
+
+            // The writer's own reads are pinned to the primary (read-your-writes)...
+            Assert.assertEquals(1, routed.listApiDesigns("user").size());
+            // ...but everyone else reads from the replica
+            Assert.assertEquals(0, routed.listApiDesigns("someone-else").size());
+
+            // Once the pin window has passed, the writer's reads go to the replica too
+            TestUtil.setPrivateField(routed, "pinWindow", 0L);
+            design.setRepositoryUrl("urn://JdbcStorageTest.testReadReplica.3");
+            routed.createApiDesign("user", design);
+            Assert.assertEquals(0, routed.listApiDesigns("user").size());
+            Assert.assertEquals(2, storage.listApiDesigns("user").size());
+        } finally {
+            replicaDs.close();
+        }
+    }
+
     @Test
     public void testListApiDesigns() throws Exception {
         Collection<ApiDesign> designs = storage.listApiDesigns("user");
@@ -122,6 +272,92 @@ public class JdbcStorageTest {
         Assert.assertEquals(2, designs.size());
     }
     
+    @Test
+    public void testListApiDesignsQuery() throws Exception {
+        String baseUrl = "urn://JdbcStorageTest.testListApiDesignsQuery";
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 7; i++) {
+            ApiDesign design = new ApiDesign();
+            design.setCreatedBy("user");
+            design.setCreatedOn(new Date(now));
+            design.setDescription("Design " + i);
+            design.setModifiedBy("user");
+            // Designs 3 and 4 share the same modification date
+            design.setModifiedOn(new Date(now + (i == 4 ? 3000 : i * 1000)));
+            design.setName((i % 2 == 0 ? "Pet " : "Store_") + i);
+            design.setRepositoryUrl(baseUrl + "#api" + i);
+            design.getTags().add(i % 2 == 0 ? "pets" : "stores");
+            if (i == 7) {
+                design.getTags().add("pets2");
+            }
+            storage.createApiDesign("user", design);
+        }
+        ApiDesign other = new ApiDesign();
+        other.setCreatedBy("user2");
+        other.setCreatedOn(new Date(now));
+        other.setDescription("Not visible");
+        other.setModifiedBy("user2");
+        other.setModifiedOn(new Date(now));
+        other.setName("Pet 8");
+        other.setRepositoryUrl(baseUrl + "#api8");
+        other.getTags().add("pets");
+        storage.createApiDesign("user2", other);
+
+        // Offset paging, sorted by name
+        ApiDesignQuery query = new ApiDesignQuery();
+        query.setSortBy(SortBy.name);
+        query.setStart(1);
+        query.setLimit(2);
+        Assert.assertEquals(Arrays.asList("Pet 4", "Pet 6"), names(storage.listApiDesigns("user", query)));
+
+        // Offset only (no limit)
+        query.setStart(5);
+        query.setLimit(null);
+        Assert.assertEquals(Arrays.asList("Store_5", "Store_7"), names(storage.listApiDesigns("user", query)));
+
+        // Keyset paging, most recently modified first
+        query = new ApiDesignQuery();
+        query.setLimit(3);
+        List<ApiDesign> page = storage.listApiDesigns("user", query);
+        Assert.assertEquals(Arrays.asList("Store_7", "Pet 6", "Store_5"), names(page));
+        ApiDesign last = page.get(page.size() - 1);
+        query.setAfterModifiedOn(last.getModifiedOn());
+        query.setAfterId(Long.valueOf(last.getId()));
+        page = storage.listApiDesigns("user", query);
+        Assert.assertEquals(Arrays.asList("Pet 4", "Store_3", "Pet 2"), names(page));
+        last = page.get(page.size() - 1);
+        query.setAfterModifiedOn(last.getModifiedOn());
+        query.setAfterId(Long.valueOf(last.getId()));
+        Assert.assertEquals(Arrays.asList("Store_1"), names(storage.listApiDesigns("user", query)));
+
+        // Filter by tag (whole tags only)
+        query = new ApiDesignQuery();
+        query.setTag("pets");
+        Assert.assertEquals(Arrays.asList("Pet 6", "Pet 4", "Pet 2"), names(storage.listApiDesigns("user", query)));
+        Assert.assertEquals(3, storage.countApiDesigns("user", query));
+
+        // Filter by name prefix (case insensitive, wildcards are literal)
+        query = new ApiDesignQuery();
+        query.setNamePrefix("store_");
+        Assert.assertEquals(4, storage.countApiDesigns("user", query));
+        query.setNamePrefix("Store%");
+        Assert.assertEquals(0, storage.countApiDesigns("user", query));
+        query.setNamePrefix("PET");
+        query.setTag("pets");
+        query.setLimit(1);
+        Assert.assertEquals(Arrays.asList("Pet 6"), names(storage.listApiDesigns("user", query)));
+        Assert.assertEquals(3, storage.countApiDesigns("user", query));
+        Assert.assertEquals(1, storage.countApiDesigns("user2", query));
+    }
+
+    /**
+     * Returns the names of the given designs.
+     * @param designs
+     */
+    private static List<String> names(List<ApiDesign> designs) {
+        return designs.stream().map(ApiDesign::getName).collect(Collectors.toList());
+    }
+
     @Test
     public void testCreateApiDesign() throws Exception {
         ApiDesign design = new ApiDesign();
@@ -157,6 +393,7 @@ public class JdbcStorageTest {
         design.setModifiedOn(now);
         design.setName("API Name");
         design.setRepositoryUrl("urn://JdbcStorageTest.testCreateApiDesign");
+        design.getTags().add("tag1");
         
         String designId = storage.createApiDesign("user", design);
         
@@ -182,6 +419,20 @@ public class JdbcStorageTest {
         } catch (NotFoundException e) {
             // OK!
         }
+        
+        // Deleting it again should also fail
+        try {
+            storage.deleteApiDesign("user", designId);
+            Assert.fail("Expected NotFoundException");
+        } catch (NotFoundException e) {
+            // OK!
+        }
+        
+        // The design's tags and acl rows were deleted along with it
+        ApiDesignQuery query = new ApiDesignQuery();
+        query.setTag("tag1");
+        Assert.assertEquals(0, storage.countApiDesigns("user", query));
+        Assert.assertEquals(0, storage.listApiDesigns("user").size());
     }
 
     @Test
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.hub.api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+
+/**
+ * An async response that a test can wait on.  Timeouts are recorded but never fired.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockAsyncResponse implements AsyncResponse {
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Object entity;
+    private volatile Throwable error;
+    private volatile long timeout;
+    private volatile TimeoutHandler timeoutHandler;
+
+    /**
+     * Waits for the response to be resumed and returns its entity, or throws the
+     * exception it was resumed with.
+     * @throws Exception
+     */
+    public Object get() throws Exception {
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Response was never resumed.");
+        }
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error != null) {
+            throw (Error) error;
+        }
+        return entity;
+    }
+
+    /**
+     * @return the timeout (in millis)
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the timeout handler
+     */
+    public TimeoutHandler getTimeoutHandler() {
+        return timeoutHandler;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#resume(java.lang.Object)
+     */
+    @Override
+    public synchronized boolean resume(Object response) {
+        if (isDone()) {
+            return false;
+        }
+        this.entity = response;
+        latch.countDown();
+        return true;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#resume(java.lang.Throwable)
+     */
+    @Override
+    public synchronized boolean resume(Throwable response) {
+        if (isDone()) {
+            return false;
+        }
+        this.error = response;
+        latch.countDown();
+        return true;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#cancel()
+     */
+    @Override
+    public boolean cancel() {
+        return false;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#cancel(int)
+     */
+    @Override
+    public boolean cancel(int retryAfter) {
+        return false;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#cancel(java.util.Date)
+     */
+    @Override
+    public boolean cancel(Date retryAfter) {
+        return false;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#isSuspended()
+     */
+    @Override
+    public boolean isSuspended() {
+        return !isDone();
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#isCancelled()
+     */
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#isDone()
+     */
+    @Override
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#setTimeout(long, java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public boolean setTimeout(long time, TimeUnit unit) {
+        this.timeout = unit.toMillis(time);
+        return !isDone();
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#setTimeoutHandler(javax.ws.rs.container.TimeoutHandler)
+     */
+    @Override
+    public void setTimeoutHandler(TimeoutHandler handler) {
+        this.timeoutHandler = handler;
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#register(java.lang.Class)
+     */
+    @Override
+    public Collection<Class<?>> register(Class<?> callback) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#register(java.lang.Class, java.lang.Class[])
+     */
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#register(java.lang.Object)
+     */
+    @Override
+    public Collection<Class<?>> register(Object callback) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @see javax.ws.rs.container.AsyncResponse#register(java.lang.Object, java.lang.Object[])
+     */
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+        return Collections.emptyMap();
+    }
+
+}
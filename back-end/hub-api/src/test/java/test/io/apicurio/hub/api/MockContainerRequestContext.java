@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.hub.api;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * Only implements the methods used by the tests - the others throw an
+ * {@link UnsupportedOperationException}.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockContainerRequestContext implements ContainerRequestContext {
+
+    private final Map<String, Object> properties;
+    private String method;
+    private int length;
+
+    /**
+     * Constructor.  In a servlet container the request properties are the servlet request
+     * attributes, so tests can pass the attributes of a {@link test.io.apicurio.studio.shared.servlet.MockHttpServletRequest}.
+     * @param method
+     * @param length
+     * @param properties
+     */
+    public MockContainerRequestContext(String method, int length, Map<String, Object> properties) {
+        this.method = method;
+        this.length = length;
+        this.properties = properties;
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerRequestContext#getProperty(java.lang.String)
+     */
+    @Override
+    public Object getProperty(String name) {
+        return this.properties.get(name);
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerRequestContext#setProperty(java.lang.String, java.lang.Object)
+     */
+    @Override
+    public void setProperty(String name, Object object) {
+        this.properties.put(name, object);
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public UriInfo getUriInfo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRequestUri(URI requestUri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRequestUri(URI baseUri, URI requestUri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Request getRequest() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerRequestContext#getMethod()
+     */
+    @Override
+    public String getMethod() {
+        return this.method;
+    }
+
+    @Override
+    public void setMethod(String method) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getHeaders() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Date getDate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Locale getLanguage() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerRequestContext#getLength()
+     */
+    @Override
+    public int getLength() {
+        return this.length;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<MediaType> getAcceptableMediaTypes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Locale> getAcceptableLanguages() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasEntity() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntityStream(InputStream input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SecurityContext getSecurityContext() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setSecurityContext(SecurityContext context) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void abortWith(Response response) {
+        throw new UnsupportedOperationException();
+    }
+
+}
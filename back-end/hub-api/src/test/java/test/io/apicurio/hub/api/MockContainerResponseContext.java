@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.hub.api;
+
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Link.Builder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response.StatusType;
+
+/**
+ * Only implements the methods used by the tests - the others throw an
+ * {@link UnsupportedOperationException}.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockContainerResponseContext implements ContainerResponseContext {
+
+    private int status;
+    private Object entity;
+
+    /**
+     * Constructor.
+     * @param status
+     * @param entity
+     */
+    public MockContainerResponseContext(int status, Object entity) {
+        this.status = status;
+        this.entity = entity;
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerResponseContext#getStatus()
+     */
+    @Override
+    public int getStatus() {
+        return this.status;
+    }
+
+    @Override
+    public void setStatus(int code) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public StatusType getStatusInfo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setStatusInfo(StatusType statusInfo) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getHeaders() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<String> getAllowedMethods() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Date getDate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Locale getLanguage() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getLength() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, NewCookie> getCookies() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public EntityTag getEntityTag() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Date getLastModified() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI getLocation() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Link> getLinks() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasLink(String relation) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Link getLink(String relation) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Builder getLinkBuilder(String relation) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.container.ContainerResponseContext#hasEntity()
+     */
+    @Override
+    public boolean hasEntity() {
+        return this.entity != null;
+    }
+
+    @Override
+    public Object getEntity() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Class<?> getEntityClass() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Type getEntityType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntity(Object entity) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntity(Object entity, Annotation[] annotations, MediaType mediaType) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Annotation[] getEntityAnnotations() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public OutputStream getEntityStream() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntityStream(OutputStream outputStream) {
+        throw new UnsupportedOperationException();
+    }
+
+}
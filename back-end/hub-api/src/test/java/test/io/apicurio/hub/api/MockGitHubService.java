@@ -133,6 +133,15 @@ public class MockGitHubService implements IGitHubSourceConnector {
         rval.setSha(String.valueOf(STATIC_CONTENT.hashCode()));
         return rval;
     }
+
+    /**
+     * @see io.apicurio.hub.api.connectors.ISourceConnector#getResourceSha(java.lang.String)
+     */
+    @Override
+    public String getResourceSha(String repositoryUrl) throws NotFoundException {
+        getAudit().add("getResourceSha::" + repositoryUrl);
+        return String.valueOf(STATIC_CONTENT.hashCode());
+    }
     
     /**
      * @see io.apicurio.hub.api.github.IGitHubSourceConnector#updateResourceContent(java.lang.String, java.lang.String, java.lang.String, io.apicurio.hub.api.beans.ResourceContent)
@@ -1,605 +0,0 @@
-/*
- * Copyright 2017 JBoss Inc
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package test.io.apicurio.hub.api;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
-import java.security.Principal;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.Locale;
-import java.util.Map;
-
-import javax.servlet.AsyncContext;
-import javax.servlet.DispatcherType;
-import javax.servlet.RequestDispatcher;
-import javax.servlet.ServletContext;
-import javax.servlet.ServletException;
-import javax.servlet.ServletInputStream;
-import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
-import javax.servlet.http.Cookie;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
-import javax.servlet.http.Part;
-
-/**
- * @author eric.wittmann@gmail.com
- */
-public class MockHttpServletRequest implements HttpServletRequest {
-    
-    private final Map<String, String> headers;
-    private final String content;
-    
-    /**
-     * Constructor.
-     * @param headers
-     * @param content
-     */
-    public MockHttpServletRequest(Map<String, String> headers, String content) {
-        this.headers = headers;
-        this.content = content;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getAttribute(java.lang.String)
-     */
-    @Override
-    public Object getAttribute(String name) {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getAttributeNames()
-     */
-    @Override
-    public Enumeration<String> getAttributeNames() {
-        return Collections.emptyEnumeration();
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getCharacterEncoding()
-     */
-    @Override
-    public String getCharacterEncoding() {
-        return "utf-8";
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#setCharacterEncoding(java.lang.String)
-     */
-    @Override
-    public void setCharacterEncoding(String env) throws UnsupportedEncodingException {
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getContentLength()
-     */
-    @Override
-    public int getContentLength() {
-        try {
-            return this.content.getBytes("utf-8").length;
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getContentType()
-     */
-    @Override
-    public String getContentType() {
-        return this.headers.get("Content-Type");
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getInputStream()
-     */
-    @Override
-    public ServletInputStream getInputStream() throws IOException {
-        throw new RuntimeException("Not supported, use getReader() instead.");
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getParameter(java.lang.String)
-     */
-    @Override
-    public String getParameter(String name) {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getParameterNames()
-     */
-    @Override
-    public Enumeration<String> getParameterNames() {
-        return Collections.emptyEnumeration();
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getParameterValues(java.lang.String)
-     */
-    @Override
-    public String[] getParameterValues(String name) {
-        return new String[0];
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getParameterMap()
-     */
-    @SuppressWarnings("unchecked")
-    @Override
-    public Map<String, String[]> getParameterMap() {
-        return Collections.EMPTY_MAP;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getProtocol()
-     */
-    @Override
-    public String getProtocol() {
-        return "HTTP/1.1";
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getScheme()
-     */
-    @Override
-    public String getScheme() {
-        return "http";
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getServerName()
-     */
-    @Override
-    public String getServerName() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getServerPort()
-     */
-    @Override
-    public int getServerPort() {
-        return 8080;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getReader()
-     */
-    @Override
-    public BufferedReader getReader() throws IOException {
-        return new BufferedReader(new StringReader(content));
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getRemoteAddr()
-     */
-    @Override
-    public String getRemoteAddr() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getRemoteHost()
-     */
-    @Override
-    public String getRemoteHost() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#setAttribute(java.lang.String, java.lang.Object)
-     */
-    @Override
-    public void setAttribute(String name, Object o) {
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#removeAttribute(java.lang.String)
-     */
-    @Override
-    public void removeAttribute(String name) {
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getLocale()
-     */
-    @Override
-    public Locale getLocale() {
-        return Locale.getDefault();
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getLocales()
-     */
-    @Override
-    public Enumeration<Locale> getLocales() {
-        return Collections.enumeration(Collections.singleton(Locale.getDefault()));
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#isSecure()
-     */
-    @Override
-    public boolean isSecure() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getRequestDispatcher(java.lang.String)
-     */
-    @Override
-    public RequestDispatcher getRequestDispatcher(String path) {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getRealPath(java.lang.String)
-     */
-    @Override
-    public String getRealPath(String path) {
-        return path;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getRemotePort()
-     */
-    @Override
-    public int getRemotePort() {
-        return 8080;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getLocalName()
-     */
-    @Override
-    public String getLocalName() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getLocalAddr()
-     */
-    @Override
-    public String getLocalAddr() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getLocalPort()
-     */
-    @Override
-    public int getLocalPort() {
-        return 0;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getServletContext()
-     */
-    @Override
-    public ServletContext getServletContext() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#startAsync()
-     */
-    @Override
-    public AsyncContext startAsync() throws IllegalStateException {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#startAsync(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
-     */
-    @Override
-    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
-            throws IllegalStateException {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#isAsyncStarted()
-     */
-    @Override
-    public boolean isAsyncStarted() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#isAsyncSupported()
-     */
-    @Override
-    public boolean isAsyncSupported() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getAsyncContext()
-     */
-    @Override
-    public AsyncContext getAsyncContext() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.ServletRequest#getDispatcherType()
-     */
-    @Override
-    public DispatcherType getDispatcherType() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getAuthType()
-     */
-    @Override
-    public String getAuthType() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getCookies()
-     */
-    @Override
-    public Cookie[] getCookies() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getDateHeader(java.lang.String)
-     */
-    @Override
-    public long getDateHeader(String name) {
-        return 0;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getHeader(java.lang.String)
-     */
-    @Override
-    public String getHeader(String name) {
-        return this.headers.get(name);
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getHeaders(java.lang.String)
-     */
-    @Override
-    public Enumeration<String> getHeaders(String name) {
-        return Collections.enumeration(Collections.singleton(getHeader(name)));
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getHeaderNames()
-     */
-    @Override
-    public Enumeration<String> getHeaderNames() {
-        return Collections.enumeration(this.headers.keySet());
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getIntHeader(java.lang.String)
-     */
-    @Override
-    public int getIntHeader(String name) {
-        return new Integer(getHeader(name));
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getMethod()
-     */
-    @Override
-    public String getMethod() {
-        return "GET";
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getPathInfo()
-     */
-    @Override
-    public String getPathInfo() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getPathTranslated()
-     */
-    @Override
-    public String getPathTranslated() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getContextPath()
-     */
-    @Override
-    public String getContextPath() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getQueryString()
-     */
-    @Override
-    public String getQueryString() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getRemoteUser()
-     */
-    @Override
-    public String getRemoteUser() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#isUserInRole(java.lang.String)
-     */
-    @Override
-    public boolean isUserInRole(String role) {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getUserPrincipal()
-     */
-    @Override
-    public Principal getUserPrincipal() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getRequestedSessionId()
-     */
-    @Override
-    public String getRequestedSessionId() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getRequestURI()
-     */
-    @Override
-    public String getRequestURI() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getRequestURL()
-     */
-    @Override
-    public StringBuffer getRequestURL() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getServletPath()
-     */
-    @Override
-    public String getServletPath() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getSession(boolean)
-     */
-    @Override
-    public HttpSession getSession(boolean create) {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getSession()
-     */
-    @Override
-    public HttpSession getSession() {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#isRequestedSessionIdValid()
-     */
-    @Override
-    public boolean isRequestedSessionIdValid() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#isRequestedSessionIdFromCookie()
-     */
-    @Override
-    public boolean isRequestedSessionIdFromCookie() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#isRequestedSessionIdFromURL()
-     */
-    @Override
-    public boolean isRequestedSessionIdFromURL() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#isRequestedSessionIdFromUrl()
-     */
-    @Override
-    public boolean isRequestedSessionIdFromUrl() {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#authenticate(javax.servlet.http.HttpServletResponse)
-     */
-    @Override
-    public boolean authenticate(HttpServletResponse response) throws IOException, ServletException {
-        return false;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#login(java.lang.String, java.lang.String)
-     */
-    @Override
-    public void login(String username, String password) throws ServletException {
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#logout()
-     */
-    @Override
-    public void logout() throws ServletException {
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getParts()
-     */
-    @Override
-    public Collection<Part> getParts() throws IOException, ServletException {
-        return null;
-    }
-
-    /**
-     * @see javax.servlet.http.HttpServletRequest#getPart(java.lang.String)
-     */
-    @Override
-    public Part getPart(String name) throws IOException, ServletException {
-        return null;
-    }
-
-    /**
-     * @return the headers
-     */
-    public Map<String, String> getHeaders() {
-        return headers;
-    }
-
-    /**
-     * @return the content
-     */
-    public String getContent() {
-        return content;
-    }
-
-}
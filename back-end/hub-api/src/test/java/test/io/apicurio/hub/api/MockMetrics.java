@@ -17,8 +17,11 @@
 package test.io.apicurio.hub.api;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import io.apicurio.hub.api.beans.LinkedAccountType;
+import io.apicurio.hub.api.metrics.ConnectionPoolStats;
 import io.apicurio.hub.api.metrics.IMetrics;
 
 /**
@@ -35,12 +38,26 @@ public class MockMetrics implements IMetrics {
     }
 
     /**
-     * @see io.apicurio.hub.api.metrics.IMetrics#apiCall(java.lang.String, java.lang.String)
+     * @see io.apicurio.hub.api.metrics.IMetrics#restRequestStarted(java.lang.String, java.lang.String, long)
      */
     @Override
-    public void apiCall(String endpoint, String method) {
+    public void restRequestStarted(String endpoint, String method, long requestBytes) {
     }
-    
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#restRequestCompleted(java.lang.String, java.lang.String, int, long)
+     */
+    @Override
+    public void restRequestCompleted(String endpoint, String method, int status, long durationNanos) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#restResponseSize(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public void restResponseSize(String endpoint, String method, long responseBytes) {
+    }
+
     /**
      * @see io.apicurio.hub.api.metrics.IMetrics#accountLinkCompleted(io.apicurio.hub.api.beans.LinkedAccountType)
      */
@@ -68,5 +85,89 @@ public class MockMetrics implements IMetrics {
     @Override
     public void apiImport(LinkedAccountType from) {
     }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheHit(java.lang.String)
+     */
+    @Override
+    public void cacheHit(String cache) {
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheMiss(java.lang.String)
+     */
+    @Override
+    public void cacheMiss(String cache) {
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheEviction(java.lang.String)
+     */
+    @Override
+    public void cacheEviction(String cache) {
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#cacheRevalidation(java.lang.String, boolean)
+     */
+    @Override
+    public void cacheRevalidation(String cache, boolean notModified) {
+    }
+    
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#registerConnectionPool(java.lang.String, java.util.function.Supplier)
+     */
+    @Override
+    public void registerConnectionPool(String pool, Supplier<ConnectionPoolStats> stats) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#registerRateLimits(java.util.function.Supplier)
+     */
+    @Override
+    public void registerRateLimits(Supplier<Map<LinkedAccountType, Long>> remaining) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#sqlStatement(java.lang.String, long)
+     */
+    @Override
+    public void sqlStatement(String statement, long durationNanos) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#rateLimited(io.apicurio.hub.api.beans.LinkedAccountType)
+     */
+    @Override
+    public void rateLimited(LinkedAccountType type) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#healthProbe(java.lang.String, long)
+     */
+    @Override
+    public void healthProbe(String probe, long durationNanos) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorCall(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public void connectorCall(LinkedAccountType type, String operation, String result, long durationNanos) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorResponseSize(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String, long)
+     */
+    @Override
+    public void connectorResponseSize(LinkedAccountType type, String operation, long responseBytes) {
+    }
+
+    /**
+     * @see io.apicurio.hub.api.metrics.IMetrics#connectorRetry(io.apicurio.hub.api.beans.LinkedAccountType, java.lang.String)
+     */
+    @Override
+    public void connectorRetry(LinkedAccountType type, String operation) {
+    }
 
 }
@@ -16,16 +16,22 @@
 
 package test.io.apicurio.hub.api;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import io.apicurio.hub.api.beans.ApiDesign;
 import io.apicurio.hub.api.beans.LinkedAccount;
 import io.apicurio.hub.api.beans.LinkedAccountType;
 import io.apicurio.hub.api.exceptions.AlreadyExistsException;
 import io.apicurio.hub.api.exceptions.NotFoundException;
+import io.apicurio.hub.api.storage.ApiDesignQuery;
+import io.apicurio.hub.api.storage.ApiDesignQuery.SortBy;
 import io.apicurio.hub.api.storage.IStorage;
 import io.apicurio.hub.api.storage.StorageException;
 
@@ -169,4 +175,55 @@ public class MockStorage implements IStorage {
         return this.designs.values();
     }
 
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#listApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public List<ApiDesign> listApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        List<ApiDesign> rval = filter(query);
+        if (query.getSortBy() == SortBy.name) {
+            rval.sort(Comparator.comparing(ApiDesign::getName));
+        } else {
+            rval.sort(Comparator.comparing(ApiDesign::getModifiedOn).reversed());
+        }
+        int from = Math.min(query.getStart(), rval.size());
+        int to = query.getLimit() == null ? rval.size() : Math.min(from + query.getLimit(), rval.size());
+        return new ArrayList<>(rval.subList(from, to));
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#countApiDesigns(java.lang.String, io.apicurio.hub.api.storage.ApiDesignQuery)
+     */
+    @Override
+    public int countApiDesigns(String userId, ApiDesignQuery query) throws StorageException {
+        return filter(query).size();
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isHealthy()
+     */
+    @Override
+    public boolean isHealthy() {
+        return true;
+    }
+
+    /**
+     * @see io.apicurio.hub.api.storage.IStorage#isReady()
+     */
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Returns the designs matching the tag and name filters of the given query.
+     * @param query
+     */
+    private List<ApiDesign> filter(ApiDesignQuery query) {
+        return this.designs.values().stream()
+                .filter(design -> query.getTag() == null || design.getTags().contains(query.getTag()))
+                .filter(design -> query.getNamePrefix() == null || design.getName().toLowerCase().startsWith(query.getNamePrefix().toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.hub.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Only implements the methods used by the tests - the others throw an
+ * {@link UnsupportedOperationException}.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockWriterInterceptorContext implements WriterInterceptorContext {
+
+    private final Map<String, Object> properties;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private OutputStream outputStream = output;
+    private byte[] entity;
+
+    /**
+     * Constructor.  Proceeding writes the (byte array) entity to the output stream.
+     * @param entity
+     * @param properties
+     */
+    public MockWriterInterceptorContext(byte[] entity, Map<String, Object> properties) {
+        this.entity = entity;
+        this.properties = properties;
+    }
+
+    /**
+     * @see javax.ws.rs.ext.WriterInterceptorContext#proceed()
+     */
+    @Override
+    public void proceed() throws IOException, WebApplicationException {
+        this.outputStream.write(this.entity);
+    }
+
+    @Override
+    public Object getEntity() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntity(Object entity) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.ext.WriterInterceptorContext#getOutputStream()
+     */
+    @Override
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    /**
+     * @see javax.ws.rs.ext.WriterInterceptorContext#setOutputStream(java.io.OutputStream)
+     */
+    @Override
+    public void setOutputStream(OutputStream os) {
+        this.outputStream = os;
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getHeaders() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @see javax.ws.rs.ext.InterceptorContext#getProperty(java.lang.String)
+     */
+    @Override
+    public Object getProperty(String name) {
+        return this.properties.get(name);
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setProperty(String name, Object object) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Annotation[] getAnnotations() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAnnotations(Annotation[] annotations) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Class<?> getType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setType(Class<?> type) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Type getGenericType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setGenericType(Type genericType) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setMediaType(MediaType mediaType) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the bytes written to the original output stream
+     */
+    public byte[] getWritten() {
+        return this.output.toByteArray();
+    }
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.studio.shared.servlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * {@link Filter} that gzip compresses responses for clients that advertise support for it
+ * via the Accept-Encoding request header.  Only responses with an allowed content type and
+ * a body of at least "min-size" bytes are compressed - everything else is passed through
+ * untouched.  The response body is compressed as it is written, so it is never held in
+ * memory as a whole.
+ * 
+ * When "precompressed" is enabled, requests for static resources are answered with the
+ * ".gz" variant of the resource (created at build time) if one exists, avoiding the cost
+ * of compressing the same file over and over again.  The Content-Length and Last-Modified
+ * headers of such responses are taken from the ".gz" file, and If-Modified-Since is honoured.
+ * 
+ * A compressed body is a different representation than the uncompressed one, so the
+ * ETag of a compressed response (if any) is given the {@link #ETAG_SUFFIX} suffix.  An
+ * application that compares If-None-Match against its own entity tags must remove the
+ * suffix first.
+ * 
+ * For asynchronous requests the compressed body is completed when the request completes.
+ * If the request errors or times out instead, a body that is already being streamed is
+ * completed, and one that is still buffered is discarded (so that an error response can
+ * be written in its place).
+ * 
+ * Supported init parameters:
+ * <ul>
+ *   <li>min-size - the minimum response size (in bytes) to compress, defaults to 1024</li>
+ *   <li>mime-types - comma separated list of content types to compress</li>
+ *   <li>precompressed - whether to serve pre-compressed static resources, defaults to false</li>
+ * </ul>
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+public class GzipFilter implements Filter {
+
+    static final String GZIP = "gzip"; //$NON-NLS-1$
+
+    /**
+     * Appended (inside the quotes) to the ETag of a compressed response.
+     */
+    public static final String ETAG_SUFFIX = "-gzip"; //$NON-NLS-1$
+
+    private static final int DEFAULT_MIN_SIZE = 1024;
+    private static final String[] DEFAULT_MIME_TYPES = {
+            "text/html", "text/css", "text/plain", "text/javascript", "application/javascript", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+            "application/json", "application/x-yaml", "application/xml", "image/svg+xml" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    };
+    private static final int BUFFER_SIZE = 8192;
+
+    private ServletContext servletContext;
+    private int minSize = DEFAULT_MIN_SIZE;
+    private Set<String> mimeTypes = new HashSet<>(Arrays.asList(DEFAULT_MIME_TYPES));
+    private boolean precompressed = false;
+
+    /**
+     * C'tor
+     */
+    public GzipFilter() {
+    }
+
+    /**
+     * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+     */
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+        this.servletContext = config.getServletContext();
+        String minSizeParam = config.getInitParameter("min-size"); //$NON-NLS-1$
+        if (minSizeParam != null) {
+            this.minSize = Integer.parseInt(minSizeParam.trim());
+        }
+        String mimeTypesParam = config.getInitParameter("mime-types"); //$NON-NLS-1$
+        if (mimeTypesParam != null) {
+            this.mimeTypes = new HashSet<>();
+            for (String mimeType : mimeTypesParam.split(",")) { //$NON-NLS-1$
+                if (!mimeType.trim().isEmpty()) {
+                    this.mimeTypes.add(mimeType.trim().toLowerCase(Locale.ENGLISH));
+                }
+            }
+        }
+        this.precompressed = "true".equalsIgnoreCase(config.getInitParameter("precompressed")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        // The representation varies with Accept-Encoding whether or not this particular response is compressed.
+        httpResponse.addHeader("Vary", "Accept-Encoding"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        if ("HEAD".equals(httpRequest.getMethod()) || !acceptsGzip(httpRequest.getHeaders("Accept-Encoding"))) { //$NON-NLS-1$ //$NON-NLS-2$
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (this.precompressed && "GET".equals(httpRequest.getMethod()) && servePrecompressed(httpRequest, httpResponse)) { //$NON-NLS-1$
+            return;
+        }
+
+        final GzipResponseWrapper wrappedResponse = new GzipResponseWrapper(httpResponse, this.minSize, this.mimeTypes);
+        final GzipAsyncListener asyncListener = new GzipAsyncListener(wrappedResponse);
+        try {
+            chain.doFilter(new GzipRequestWrapper(httpRequest, asyncListener), wrappedResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrappedResponse.abort();
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            // The response body is written (and the request completed) on another thread.
+            asyncListener.register(request.getAsyncContext());
+        } else {
+            wrappedResponse.finish();
+        }
+    }
+
+    /**
+     * Serves the pre-compressed (.gz) variant of the requested static resource, if one exists.
+     * Returns false if there is no such variant, in which case the request should be handled
+     * normally.  HTML pages are never served this way because they may be rewritten by other
+     * filters.
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    private boolean servePrecompressed(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.contains(".") || path.endsWith("/") || path.endsWith(".html")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            return false;
+        }
+        String mimeType = getMimeType(path);
+        if (mimeType == null || !isCompressible(mimeType, this.mimeTypes)) {
+            return false;
+        }
+        URL resource = getResource(path + ".gz"); //$NON-NLS-1$
+        if (resource == null) {
+            return false;
+        }
+
+        URLConnection connection = resource.openConnection();
+        long lastModified = connection.getLastModified();
+        long contentLength = connection.getContentLengthLong();
+        if (lastModified > 0) {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since"); //$NON-NLS-1$
+            // HTTP dates only have a resolution of one second
+            if (ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+            response.setDateHeader("Last-Modified", lastModified); //$NON-NLS-1$
+        }
+
+        response.setContentType(mimeType);
+        response.setHeader("Content-Encoding", GZIP); //$NON-NLS-1$
+        if (contentLength >= 0) {
+            response.setHeader("Content-Length", String.valueOf(contentLength)); //$NON-NLS-1$
+        }
+        try (InputStream input = connection.getInputStream()) {
+            OutputStream output = response.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the mime type of the given static resource (or null if unknown).
+     * @param path
+     */
+    protected String getMimeType(String path) {
+        return this.servletContext.getMimeType(path);
+    }
+
+    /**
+     * Returns the URL of the given static resource (or null if there is no such resource).
+     * @param path
+     * @throws IOException
+     */
+    protected URL getResource(String path) throws IOException {
+        return this.servletContext.getResource(path);
+    }
+
+    /**
+     * Returns true if any of the given Accept-Encoding header values allows a gzip encoded
+     * response (either explicitly or via "*"), taking quality values into account.
+     * @param acceptEncodingHeaders
+     */
+    static boolean acceptsGzip(Enumeration<String> acceptEncodingHeaders) {
+        if (acceptEncodingHeaders == null) {
+            return false;
+        }
+        for (String header : Collections.list(acceptEncodingHeaders)) {
+            for (String coding : header.split(",")) { //$NON-NLS-1$
+                String[] parts = coding.split(";"); //$NON-NLS-1$
+                String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+                if (!GZIP.equals(name) && !"x-gzip".equals(name) && !"*".equals(name)) { //$NON-NLS-1$ //$NON-NLS-2$
+                    continue;
+                }
+                if (quality(parts) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the quality value ("q" parameter) of a single content coding, or 1 if there is none.
+     * @param parts the coding name followed by its parameters
+     */
+    private static float quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) { //$NON-NLS-1$ //$NON-NLS-2$
+                try {
+                    return Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Returns true if the given content type (possibly including parameters such as the
+     * charset) is in the set of compressible mime types.
+     * @param contentType
+     * @param mimeTypes
+     */
+    static boolean isCompressible(String contentType, Set<String> mimeTypes) {
+        if (contentType == null) {
+            return false;
+        }
+        int idx = contentType.indexOf(';');
+        String mimeType = idx == -1 ? contentType : contentType.substring(0, idx);
+        return mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * @see javax.servlet.Filter#destroy()
+     */
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Request wrapper that registers the {@link GzipAsyncListener} as soon as the request
+     * is put into asynchronous mode - before the request can possibly complete.
+     */
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final GzipAsyncListener asyncListener;
+
+        /**
+         * Constructor.
+         * @param request
+         * @param asyncListener
+         */
+        GzipRequestWrapper(HttpServletRequest request, GzipAsyncListener asyncListener) {
+            super(request);
+            this.asyncListener = asyncListener;
+        }
+
+        /**
+         * @see javax.servlet.ServletRequestWrapper#startAsync()
+         */
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            return this.asyncListener.register(super.startAsync());
+        }
+
+        /**
+         * @see javax.servlet.ServletRequestWrapper#startAsync(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
+         */
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+                throws IllegalStateException {
+            return this.asyncListener.register(super.startAsync(servletRequest, servletResponse));
+        }
+
+    }
+
+    /**
+     * Completes (or discards) the compressed body of an asynchronous request when the
+     * request completes, errors or times out.
+     */
+    private static class GzipAsyncListener implements AsyncListener {
+
+        private final GzipResponseWrapper response;
+        private boolean registered;
+
+        /**
+         * Constructor.
+         * @param response
+         */
+        GzipAsyncListener(GzipResponseWrapper response) {
+            this.response = response;
+        }
+
+        /**
+         * Adds this listener to the given async context (only once).
+         * @param asyncContext
+         */
+        synchronized AsyncContext register(AsyncContext asyncContext) {
+            if (!this.registered) {
+                asyncContext.addListener(this);
+                this.registered = true;
+            }
+            return asyncContext;
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onComplete(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            this.response.finish();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onTimeout(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            this.response.abort();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onError(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onError(AsyncEvent event) throws IOException {
+            this.response.abort();
+        }
+
+        /**
+         * @see javax.servlet.AsyncListener#onStartAsync(javax.servlet.AsyncEvent)
+         */
+        @Override
+        public void onStartAsync(AsyncEvent event) throws IOException {
+            // Re-register for the new async cycle
+            event.getAsyncContext().addListener(this);
+        }
+
+    }
+
+}
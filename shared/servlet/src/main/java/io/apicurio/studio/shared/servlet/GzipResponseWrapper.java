@@ -0,0 +1,367 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.studio.shared.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper used by the {@link GzipFilter}.  The first "min-size" bytes of the body
+ * are buffered - once that threshold is reached (or the response is flushed) the wrapper
+ * decides whether to compress, based on the content type, status and declared content
+ * length of the response.  From then on everything is streamed straight through to the
+ * client.  Bodies that never reach the threshold are sent uncompressed.  The ETag of a
+ * compressed body is suffixed (see {@link GzipFilter#ETAG_SUFFIX}).
+ * 
+ * @author eric.wittmann@gmail.com
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int minSize;
+    private final Set<String> mimeTypes;
+
+    private long contentLength = -1;
+    private GzipServletOutputStream outputStream;
+    private PrintWriter writer;
+    private boolean finished;
+
+    /**
+     * Constructor.
+     * @param response
+     * @param minSize
+     * @param mimeTypes
+     */
+    GzipResponseWrapper(HttpServletResponse response, int minSize, Set<String> mimeTypes) {
+        super(response);
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getOutputStream()
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (this.writer != null) {
+            throw new IllegalStateException("getWriter() has already been called."); //$NON-NLS-1$
+        }
+        return getGzipOutputStream();
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getWriter()
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (this.writer == null) {
+            if (this.outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called."); //$NON-NLS-1$
+            }
+            this.writer = new PrintWriter(new OutputStreamWriter(getGzipOutputStream(), getCharacterEncoding()));
+        }
+        return this.writer;
+    }
+
+    /**
+     * Lazily creates the compressing output stream.
+     */
+    private GzipServletOutputStream getGzipOutputStream() {
+        if (this.outputStream == null) {
+            this.outputStream = new GzipServletOutputStream();
+        }
+        return this.outputStream;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentLength(int)
+     */
+    @Override
+    public void setContentLength(int len) {
+        // Held back until we know whether the body will be compressed.
+        this.contentLength = len;
+    }
+
+    /**
+     * Servlet 3.1 - not part of the (3.0) API this module is compiled against, so it is
+     * declared without @Override, but it overrides the container's wrapper method at runtime.
+     * @param len
+     */
+    public void setContentLengthLong(long len) {
+        // Held back until we know whether the body will be compressed.
+        this.contentLength = len;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) { //$NON-NLS-1$
+            this.contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) { //$NON-NLS-1$
+            this.contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) { //$NON-NLS-1$
+            this.contentLength = value;
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void addIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) { //$NON-NLS-1$
+            this.contentLength = value;
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#flushBuffer()
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+        } else if (this.outputStream != null) {
+            this.outputStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#reset()
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        resetContent();
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#resetBuffer()
+     */
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        resetContent();
+    }
+
+    /**
+     * Discards anything written so far (only possible while the response is not committed).
+     */
+    private void resetContent() {
+        this.contentLength = -1;
+        this.writer = null;
+        this.outputStream = null;
+    }
+
+    /**
+     * Completes the response body - must be called once the request has been handled.
+     * Calling it more than once has no effect.
+     * @throws IOException
+     */
+    synchronized void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        this.finished = true;
+        if (this.writer != null) {
+            this.writer.close();
+        } else if (this.outputStream != null) {
+            this.outputStream.close();
+        } else if (this.contentLength >= 0) {
+            super.setHeader("Content-Length", String.valueOf(this.contentLength)); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Called when the request fails (or times out) rather than completing normally.  A body
+     * that is already being streamed is completed, so the client at least receives a valid
+     * gzip stream.  A body that is still being buffered is discarded, leaving the response
+     * free to be reset and an error written in its place.
+     * @throws IOException
+     */
+    synchronized void abort() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        if (this.outputStream != null && this.outputStream.isCommitted()) {
+            finish();
+        } else {
+            resetContent();
+        }
+    }
+
+    /**
+     * Returns true if the response should be compressed.  The body size is either the
+     * declared content length or, when known, the final size of the (buffered) body.
+     * @param bodySize the size of the body or -1 if not (yet) known
+     */
+    private boolean shouldCompress(long bodySize) {
+        int status = getStatus();
+        if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED
+                || status == HttpServletResponse.SC_PARTIAL_CONTENT) {
+            return false;
+        }
+        if (getHeader("Content-Encoding") != null) { //$NON-NLS-1$
+            return false;
+        }
+        if (!GzipFilter.isCompressible(getContentType(), this.mimeTypes)) {
+            return false;
+        }
+        return bodySize < 0 || bodySize >= this.minSize;
+    }
+
+    /**
+     * The output stream handed out to the application.  Buffers the start of the body until
+     * it knows whether to compress, then writes through to either a gzip stream or the
+     * original response stream.
+     */
+    private class GzipServletOutputStream extends ServletOutputStream {
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(minSize, 32));
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+        private boolean closed;
+
+        /**
+         * @return true once the wrapper has decided whether to compress and started writing the body
+         */
+        boolean isCommitted() {
+            return this.target != null;
+        }
+
+        /**
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        /**
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (this.closed) {
+                throw new IOException("Stream closed."); //$NON-NLS-1$
+            }
+            if (this.target != null) {
+                this.target.write(b, off, len);
+                return;
+            }
+            this.buffer.write(b, off, len);
+            if (this.buffer.size() >= minSize) {
+                commit(contentLength);
+            }
+        }
+
+        /**
+         * @see java.io.OutputStream#flush()
+         */
+        @Override
+        public void flush() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            if (this.target == null) {
+                commit(contentLength);
+            }
+            this.target.flush();
+        }
+
+        /**
+         * @see java.io.OutputStream#close()
+         */
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            if (this.target == null) {
+                commit(this.buffer.size());
+            }
+            if (this.gzip != null) {
+                this.gzip.finish();
+            }
+            this.target.flush();
+            this.closed = true;
+        }
+
+        /**
+         * Decides whether to compress and writes out whatever has been buffered so far.
+         * @param bodySize
+         * @throws IOException
+         */
+        private void commit(long bodySize) throws IOException {
+            ServletOutputStream original = getResponse().getOutputStream();
+            if (shouldCompress(bodySize)) {
+                GzipResponseWrapper.super.setHeader("Content-Encoding", GzipFilter.GZIP); //$NON-NLS-1$
+                String etag = getHeader("ETag"); //$NON-NLS-1$
+                if (etag != null && etag.length() >= 2 && etag.endsWith("\"")) { //$NON-NLS-1$
+                    GzipResponseWrapper.super.setHeader("ETag", //$NON-NLS-1$
+                            etag.substring(0, etag.length() - 1) + GzipFilter.ETAG_SUFFIX + "\""); //$NON-NLS-1$
+                }
+                this.gzip = new GZIPOutputStream(original, Math.max(minSize, 512), true);
+                this.target = this.gzip;
+            } else {
+                if (bodySize >= 0) {
+                    GzipResponseWrapper.super.setHeader("Content-Length", String.valueOf(bodySize)); //$NON-NLS-1$
+                }
+                this.target = original;
+            }
+            this.buffer.writeTo(this.target);
+            this.buffer = null;
+        }
+
+    }
+
+}
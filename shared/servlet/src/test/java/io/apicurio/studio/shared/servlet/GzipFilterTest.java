@@ -0,0 +1,594 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.apicurio.studio.shared.servlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.io.apicurio.studio.shared.servlet.MockAsyncContext;
+import test.io.apicurio.studio.shared.servlet.MockHttpServletRequest;
+import test.io.apicurio.studio.shared.servlet.MockHttpServletResponse;
+
+/**
+ * @author eric.wittmann@gmail.com
+ */
+public class GzipFilterTest {
+
+    private GzipFilter filter;
+    private MockHttpServletResponse response;
+    private ServletResponse filteredResponse;
+    private File resourceDir;
+
+    @Before
+    public void setUp() throws Exception {
+        this.resourceDir = Files.createTempDirectory("gzip-filter-test").toFile();
+        this.filter = new GzipFilter() {
+            @Override
+            protected String getMimeType(String path) {
+                return path.endsWith(".js") ? "application/javascript" : path.endsWith(".png") ? "image/png" : null;
+            }
+            @Override
+            protected URL getResource(String path) throws IOException {
+                File file = new File(resourceDir, path);
+                return file.isFile() ? file.toURI().toURL() : null;
+            }
+        };
+        this.response = new MockHttpServletResponse();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = this.resourceDir.listFiles();
+        for (File file : files) {
+            file.delete();
+        }
+        this.resourceDir.delete();
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("gzip")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("GZIP")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("x-gzip")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("deflate, gzip, br")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("gzip;q=0.5")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("gzip; Q=1.0")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("*")));
+        Assert.assertTrue(GzipFilter.acceptsGzip(headers("br", "gzip")));
+
+        Assert.assertFalse(GzipFilter.acceptsGzip(null));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers()));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("identity")));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("deflate, br")));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("gzip;q=0")));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("gzip; q=0.0, deflate")));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("*;q=0")));
+        Assert.assertFalse(GzipFilter.acceptsGzip(headers("gzip;q=bogus")));
+    }
+
+    @Test
+    public void testIsCompressible() {
+        HashSet<String> mimeTypes = new HashSet<>(Arrays.asList("text/plain", "application/json"));
+        Assert.assertTrue(GzipFilter.isCompressible("text/plain", mimeTypes));
+        Assert.assertTrue(GzipFilter.isCompressible("Application/JSON; charset=UTF-8", mimeTypes));
+        Assert.assertFalse(GzipFilter.isCompressible("image/png", mimeTypes));
+        Assert.assertFalse(GzipFilter.isCompressible(null, mimeTypes));
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        Assert.assertNull(response.getHeader("Content-Length"));
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testCompressedWriter() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.getWriter().print(new String(body, "UTF-8"));
+        });
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testContentLengthHeaderRemoved() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) resp;
+            httpResponse.setContentType("application/json");
+            httpResponse.setHeader("Content-Length", String.valueOf(body.length));
+            httpResponse.addIntHeader("content-length", body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertNull(response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testContentLengthLongRemoved() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            // Servlet 3.1
+            ((GzipResponseWrapper) resp).setContentLengthLong(body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertNull(response.getHeader("Content-Length"));
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testCompressedETag() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            ((HttpServletResponse) resp).setHeader("ETag", "\"abc\"");
+            resp.getOutputStream().write(body);
+        });
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertEquals("\"abc-gzip\"", response.getHeader("ETag"));
+
+        response = new MockHttpServletResponse();
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            ((HttpServletResponse) resp).setHeader("ETag", "W/\"abc\"");
+            resp.getOutputStream().write(body);
+        });
+        Assert.assertEquals("W/\"abc-gzip\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    public void testUncompressedETag() throws Exception {
+        byte[] body = body(100);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            ((HttpServletResponse) resp).setHeader("ETag", "\"abc\"");
+            ((GzipResponseWrapper) resp).setContentLengthLong(body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("\"abc\"", response.getHeader("ETag"));
+        Assert.assertEquals("100", response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testBelowMinSize() throws Exception {
+        byte[] body = body(100);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("100", response.getHeader("Content-Length"));
+        Assert.assertArrayEquals(body, response.getContent());
+    }
+
+    @Test
+    public void testBelowMinSizeNoBody() throws Exception {
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.setContentLength(0);
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("0", response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testNotCompressibleType() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("image/png");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("5000", response.getHeader("Content-Length"));
+        Assert.assertArrayEquals(body, response.getContent());
+    }
+
+    @Test
+    public void testNotCompressibleStatus() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            ((HttpServletResponse) resp).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, response.getContent());
+    }
+
+    @Test
+    public void testAlreadyEncoded() throws Exception {
+        byte[] body = body(5000);
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            ((HttpServletResponse) resp).setHeader("Content-Encoding", "br");
+            resp.getOutputStream().write(body);
+        });
+
+        Assert.assertEquals("br", response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, response.getContent());
+    }
+
+    @Test
+    public void testNotAccepted() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        request.getHeaders().put("Accept-Encoding", "gzip;q=0, deflate");
+        doFilter(request, (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body(5000));
+        });
+
+        Assert.assertSame(response, filteredResponse);
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+    }
+
+    @Test
+    public void testHeadRequest() throws Exception {
+        doFilter(request("HEAD", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.setContentLength(5000);
+        });
+
+        Assert.assertSame(response, filteredResponse);
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("5000", response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testBuffering() throws Exception {
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body(1023));
+            // Still buffering - nothing has been decided or sent yet
+            Assert.assertFalse(response.isCommitted());
+            Assert.assertNull(response.getHeader("Content-Encoding"));
+            Assert.assertEquals(0, response.getContent().length);
+
+            resp.getOutputStream().write('x');
+            Assert.assertTrue(response.isCommitted());
+            Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        });
+
+        Assert.assertEquals(1024, gunzip(response.getContent()).length);
+    }
+
+    @Test
+    public void testFlushCommits() throws Exception {
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body(10));
+            resp.flushBuffer();
+            // The final size is unknown once flushed, so the response is compressed
+            Assert.assertTrue(response.isCommitted());
+            Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+            resp.getOutputStream().write(body(10));
+        });
+
+        Assert.assertEquals(20, gunzip(response.getContent()).length);
+    }
+
+    @Test
+    public void testResetBufferDiscardsContent() throws Exception {
+        doFilter(request("GET", "/api"), (req, resp) -> {
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body(10));
+            resp.resetBuffer();
+            resp.getWriter().print("reset");
+        });
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("reset", new String(response.getContent(), "UTF-8"));
+    }
+
+    @Test
+    public void testExceptionDiscardsBufferedContent() throws Exception {
+        try {
+            doFilter(request("GET", "/api"), (req, resp) -> {
+                resp.setContentType("text/plain");
+                resp.getOutputStream().write(body(10));
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail("Expected an exception.");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+
+        Assert.assertFalse(response.isCommitted());
+        Assert.assertEquals(0, response.getContent().length);
+    }
+
+    @Test
+    public void testAsyncCompletedDuringChain() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        byte[] body = body(5000);
+        doFilter(request, (req, resp) -> {
+            AsyncContext asyncContext = req.startAsync();
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body);
+            // Completes before the filter chain returns
+            asyncContext.complete();
+        });
+
+        Assert.assertEquals(1, ((MockAsyncContext) request.getAsyncContext()).getListeners().size());
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testAsyncCompleted() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        byte[] body = body(5000);
+        doFilter(request, (req, resp) -> {
+            req.startAsync();
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body);
+        });
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        Assert.assertEquals(1, asyncContext.getListeners().size());
+        asyncContext.complete();
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testAsyncStartedOnOriginalRequest() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        byte[] body = body(5000);
+        doFilter(request, (req, resp) -> {
+            // Bypasses the filter's request wrapper
+            request.startAsync(req, resp);
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body);
+        });
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        Assert.assertEquals(1, asyncContext.getListeners().size());
+        asyncContext.complete();
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testAsyncTimeoutDiscardsBufferedContent() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        doFilter(request, (req, resp) -> {
+            req.startAsync();
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body(10));
+        });
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.timeout();
+        Assert.assertEquals(0, response.getContent().length);
+
+        // The timeout handler writes an error response instead
+        ((HttpServletResponse) filteredResponse).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        filteredResponse.getWriter().print("timeout");
+        asyncContext.complete();
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals("timeout", new String(response.getContent(), "UTF-8"));
+    }
+
+    @Test
+    public void testAsyncErrorFinishesStreamedContent() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api");
+        byte[] body = body(5000);
+        doFilter(request, (req, resp) -> {
+            req.startAsync();
+            resp.setContentType("text/plain");
+            resp.getOutputStream().write(body);
+        });
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.error(new IOException("broken"));
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+
+        // Completing afterwards has no further effect
+        asyncContext.complete();
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testPrecompressed() throws Exception {
+        initFilter(true);
+        byte[] body = body(5000);
+        File gzFile = writeGz("app.js", body);
+
+        doFilter(request("GET", "/app.js"), (req, resp) -> Assert.fail("Should have been served precompressed."));
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertEquals("application/javascript", response.getContentType());
+        Assert.assertEquals(String.valueOf(gzFile.length()), response.getHeader("Content-Length"));
+        Assert.assertEquals(String.valueOf(gzFile.lastModified()), response.getHeader("Last-Modified"));
+        Assert.assertArrayEquals(body, gunzip(response.getContent()));
+    }
+
+    @Test
+    public void testPrecompressedNotModified() throws Exception {
+        initFilter(true);
+        File gzFile = writeGz("app.js", body(5000));
+
+        MockHttpServletRequest request = request("GET", "/app.js");
+        request.getHeaders().put("If-Modified-Since", httpDate(gzFile.lastModified()));
+        doFilter(request, (req, resp) -> Assert.fail("Should have been served precompressed."));
+
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        Assert.assertEquals(0, response.getContent().length);
+
+        // Modified since
+        this.response = new MockHttpServletResponse();
+        request.getHeaders().put("If-Modified-Since", httpDate(gzFile.lastModified() - 60000));
+        doFilter(request, (req, resp) -> Assert.fail("Should have been served precompressed."));
+
+        Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assert.assertEquals(String.valueOf(gzFile.length()), response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testPrecompressedNotServed() throws Exception {
+        initFilter(true);
+        writeGz("image.png.gz", body(10));
+        writeGz("index.html", body(10));
+
+        // No .gz variant
+        assertNotPrecompressed("/other.js");
+        // Not a compressible type
+        assertNotPrecompressed("/image.png");
+        // HTML pages are never served precompressed
+        assertNotPrecompressed("/index.html");
+        // Not enabled
+        initFilter(false);
+        writeGz("app.js", body(10));
+        assertNotPrecompressed("/app.js");
+    }
+
+    private void assertNotPrecompressed(String path) throws Exception {
+        this.response = new MockHttpServletResponse();
+        boolean[] called = new boolean[1];
+        doFilter(request("GET", path), (req, resp) -> called[0] = true);
+        Assert.assertTrue("Expected " + path + " to be handled by the filter chain.", called[0]);
+    }
+
+    private void doFilter(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        this.filter.doFilter(request, this.response, (req, resp) -> {
+            this.filteredResponse = resp;
+            chain.doFilter(req, resp);
+        });
+    }
+
+    private void initFilter(boolean precompressed) throws Exception {
+        Map<String, String> params = new HashMap<>();
+        params.put("precompressed", String.valueOf(precompressed));
+        this.filter.init(new FilterConfig() {
+            @Override
+            public String getFilterName() {
+                return "gzip";
+            }
+            @Override
+            public ServletContext getServletContext() {
+                return null;
+            }
+            @Override
+            public String getInitParameter(String name) {
+                return params.get(name);
+            }
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.enumeration(params.keySet());
+            }
+        });
+    }
+
+    private File writeGz(String name, byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        }
+        File file = new File(this.resourceDir, name + ".gz");
+        Files.write(file.toPath(), compressed.toByteArray());
+        return file;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Encoding", "gzip, deflate");
+        return new MockHttpServletRequest(method, uri, headers);
+    }
+
+    private static Enumeration<String> headers(String... values) {
+        return Collections.enumeration(Arrays.asList(values));
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        for (int i = 0; i < size; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+
+    private static String httpDate(long time) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+        }
+        return output.toByteArray();
+    }
+
+}
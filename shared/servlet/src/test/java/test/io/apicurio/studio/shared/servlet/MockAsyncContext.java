@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.studio.shared.servlet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+/**
+ * An async context that is completed, timed out or failed by the test itself, notifying
+ * the registered listeners.  Dispatching is not supported.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockAsyncContext implements AsyncContext {
+
+    private final ServletRequest request;
+    private final ServletResponse response;
+    private final List<AsyncListener> listeners = new ArrayList<>();
+    private long timeout = 30000;
+
+    /**
+     * Constructor.
+     * @param request
+     * @param response
+     */
+    public MockAsyncContext(ServletRequest request, ServletResponse response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#getRequest()
+     */
+    @Override
+    public ServletRequest getRequest() {
+        return this.request;
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#getResponse()
+     */
+    @Override
+    public ServletResponse getResponse() {
+        return this.response;
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#complete()
+     */
+    @Override
+    public void complete() {
+        try {
+            for (AsyncListener listener : new ArrayList<>(this.listeners)) {
+                listener.onComplete(new AsyncEvent(this));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the request has timed out.
+     * @throws IOException
+     */
+    public void timeout() throws IOException {
+        for (AsyncListener listener : new ArrayList<>(this.listeners)) {
+            listener.onTimeout(new AsyncEvent(this));
+        }
+    }
+
+    /**
+     * Notifies the listeners that the request has failed.
+     * @param error
+     * @throws IOException
+     */
+    public void error(Throwable error) throws IOException {
+        for (AsyncListener listener : new ArrayList<>(this.listeners)) {
+            listener.onError(new AsyncEvent(this, error));
+        }
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#start(java.lang.Runnable)
+     */
+    @Override
+    public void start(Runnable run) {
+        run.run();
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#addListener(javax.servlet.AsyncListener)
+     */
+    @Override
+    public void addListener(AsyncListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#addListener(javax.servlet.AsyncListener, javax.servlet.ServletRequest, javax.servlet.ServletResponse)
+     */
+    @Override
+    public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#setTimeout(long)
+     */
+    @Override
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @see javax.servlet.AsyncContext#getTimeout()
+     */
+    @Override
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * @return the registered listeners
+     */
+    public List<AsyncListener> getListeners() {
+        return this.listeners;
+    }
+
+    @Override
+    public boolean hasOriginalRequestAndResponse() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispatch() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispatch(String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispatch(ServletContext context, String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException {
+        throw new UnsupportedOperationException();
+    }
+
+}
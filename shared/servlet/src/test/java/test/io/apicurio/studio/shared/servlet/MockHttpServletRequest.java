@@ -0,0 +1,278 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.studio.shared.servlet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * A request with the given method, URI, headers and (text) content.  Supports request
+ * attributes and starting async processing (see {@link MockAsyncContext}).  Any other
+ * method throws an {@link UnsupportedOperationException}.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockHttpServletRequest extends HttpServletRequestWrapper {
+    
+    private final String method;
+    private final String requestURI;
+    private final Map<String, String> headers;
+    private final String content;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private MockAsyncContext asyncContext;
+    
+    /**
+     * Constructor.
+     * @param method
+     * @param requestURI
+     * @param headers
+     */
+    public MockHttpServletRequest(String method, String requestURI, Map<String, String> headers) {
+        this(method, requestURI, headers, "");
+    }
+
+    /**
+     * Constructor (for a GET request with content).
+     * @param headers
+     * @param content
+     */
+    public MockHttpServletRequest(Map<String, String> headers, String content) {
+        this("GET", "/", headers, content);
+    }
+
+    /**
+     * Constructor.
+     * @param method
+     * @param requestURI
+     * @param headers
+     * @param content
+     */
+    public MockHttpServletRequest(String method, String requestURI, Map<String, String> headers, String content) {
+        super(Unsupported.instance(HttpServletRequest.class));
+        this.method = method;
+        this.requestURI = requestURI;
+        this.headers = headers;
+        this.content = content;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getAttribute(java.lang.String)
+     */
+    @Override
+    public Object getAttribute(String name) {
+        return this.attributes.get(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#setAttribute(java.lang.String, java.lang.Object)
+     */
+    @Override
+    public void setAttribute(String name, Object o) {
+        this.attributes.put(name, o);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#removeAttribute(java.lang.String)
+     */
+    @Override
+    public void removeAttribute(String name) {
+        this.attributes.remove(name);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getCharacterEncoding()
+     */
+    @Override
+    public String getCharacterEncoding() {
+        return "utf-8";
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#setCharacterEncoding(java.lang.String)
+     */
+    @Override
+    public void setCharacterEncoding(String env) throws UnsupportedEncodingException {
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getContentLength()
+     */
+    @Override
+    public int getContentLength() {
+        return this.content.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getContentType()
+     */
+    @Override
+    public String getContentType() {
+        return this.headers.get("Content-Type");
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getReader()
+     */
+    @Override
+    public BufferedReader getReader() throws IOException {
+        return new BufferedReader(new StringReader(this.content));
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#startAsync()
+     */
+    @Override
+    public AsyncContext startAsync() throws IllegalStateException {
+        return startAsync(this, null);
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#startAsync(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
+     */
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+            throws IllegalStateException {
+        this.asyncContext = new MockAsyncContext(servletRequest, servletResponse);
+        return this.asyncContext;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#isAsyncStarted()
+     */
+    @Override
+    public boolean isAsyncStarted() {
+        return this.asyncContext != null;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#isAsyncSupported()
+     */
+    @Override
+    public boolean isAsyncSupported() {
+        return true;
+    }
+
+    /**
+     * @see javax.servlet.ServletRequestWrapper#getAsyncContext()
+     */
+    @Override
+    public AsyncContext getAsyncContext() {
+        if (this.asyncContext == null) {
+            throw new IllegalStateException("Async not started.");
+        }
+        return this.asyncContext;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getDateHeader(java.lang.String)
+     */
+    @Override
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            return format.parse(value).getTime();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeader(java.lang.String)
+     */
+    @Override
+    public String getHeader(String name) {
+        return this.headers.get(name);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeaders(java.lang.String)
+     */
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = getHeader(name);
+        if (value == null) {
+            return Collections.emptyEnumeration();
+        }
+        return Collections.enumeration(Collections.singleton(value));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getHeaderNames()
+     */
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(this.headers.keySet());
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getMethod()
+     */
+    @Override
+    public String getMethod() {
+        return this.method;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getContextPath()
+     */
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletRequestWrapper#getRequestURI()
+     */
+    @Override
+    public String getRequestURI() {
+        return this.requestURI;
+    }
+
+    /**
+     * @return the request headers
+     */
+    public Map<String, String> getHeaders() {
+        return this.headers;
+    }
+
+    /**
+     * @return the request attributes
+     */
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+}
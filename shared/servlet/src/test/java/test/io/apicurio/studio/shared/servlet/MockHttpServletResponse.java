@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.studio.shared.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * A response that records its status, headers and body.  Any method the tests do not
+ * use throws an {@link UnsupportedOperationException}.
+ * @author eric.wittmann@gmail.com
+ */
+public class MockHttpServletResponse extends HttpServletResponseWrapper {
+    
+    private Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private int status = SC_OK;
+    private String contentType;
+    private ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private boolean committed;
+
+    /**
+     * Constructor.
+     */
+    public MockHttpServletResponse() {
+        super(Unsupported.instance(HttpServletResponse.class));
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getCharacterEncoding()
+     */
+    @Override
+    public String getCharacterEncoding() {
+        return "UTF-8";
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getContentType()
+     */
+    @Override
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentType(java.lang.String)
+     */
+    @Override
+    public void setContentType(String type) {
+        this.contentType = type;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#setContentLength(int)
+     */
+    @Override
+    public void setContentLength(int len) {
+        this.setIntHeader("Content-Length", len);
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getOutputStream()
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                committed = true;
+                content.write(b);
+            }
+            @Override
+            public void flush() throws IOException {
+                committed = true;
+            }
+        };
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getWriter()
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        return new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#flushBuffer()
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        this.committed = true;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#resetBuffer()
+     */
+    @Override
+    public void resetBuffer() {
+        if (this.committed) {
+            throw new IllegalStateException("Response already committed.");
+        }
+        this.content.reset();
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#isCommitted()
+     */
+    @Override
+    public boolean isCommitted() {
+        return this.committed;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#reset()
+     */
+    @Override
+    public void reset() {
+        resetBuffer();
+        this.headers.clear();
+        this.status = SC_OK;
+        this.contentType = null;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setDateHeader(java.lang.String, long)
+     */
+    @Override
+    public void setDateHeader(String name, long date) {
+        this.setHeader(name, String.valueOf(date));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void setHeader(String name, String value) {
+        this.headers.put(name, value);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void addHeader(String name, String value) {
+        String current = this.headers.get(name);
+        this.headers.put(name, current == null ? value : current + ", " + value);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void setIntHeader(String name, int value) {
+        this.setHeader(name, String.valueOf(value));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#addIntHeader(java.lang.String, int)
+     */
+    @Override
+    public void addIntHeader(String name, int value) {
+        this.addHeader(name, String.valueOf(value));
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#setStatus(int)
+     */
+    @Override
+    public void setStatus(int sc) {
+        this.status = sc;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getStatus()
+     */
+    @Override
+    public int getStatus() {
+        return this.status;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#getHeader(java.lang.String)
+     */
+    @Override
+    public String getHeader(String name) {
+        return this.headers.get(name);
+    }
+
+    /**
+     * @return the bytes written to the response body
+     */
+    public byte[] getContent() {
+        return this.content.toByteArray();
+    }
+
+}
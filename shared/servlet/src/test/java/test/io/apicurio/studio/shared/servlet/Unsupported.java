@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.io.apicurio.studio.shared.servlet;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Creates stand-ins for the parts of an API that the tests never use.
+ * @author eric.wittmann@gmail.com
+ */
+final class Unsupported {
+
+    private Unsupported() {
+    }
+
+    /**
+     * Returns an implementation of the given interface whose every method throws an
+     * {@link UnsupportedOperationException}.  The mocks wrap one of these, and only
+     * implement the methods that are actually called.
+     * @param type
+     */
+    static <T> T instance(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(Unsupported.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                }));
+    }
+
+}